@@ -1,20 +1,67 @@
-public class AdaptiveMultiStrategyTSP {
+public class AdaptiveMultiStrategyTSP implements TSPSolver {
+    private SolverContext context;
     private double[][] distances;
     private int n;
+
+    // operator counters for the current run (null unless -Dtsp.counters=true)
+    private SolverEvents.OperatorCounter twoOptCounter;
+    private SolverEvents.OperatorCounter kickCounter;
+
+    private int[] initialTour; // warm start, e.g. from a checkpoint
+    private long seed;         // fixed by default, so a run is reproducible
+    private TourListener checkpoint;
     
     public AdaptiveMultiStrategyTSP(double[][] distances) {
-        this.distances = distances;
-        this.n = distances.length;
+        this(new SolverContext(distances));
     }
-    
-    // Main solving method
-    public TSPResult solve() {
+
+    public AdaptiveMultiStrategyTSP(SolverContext context) {
+        this.context = context;
+        this.distances = context.getDistances();
+        this.n = context.size();
+    }
+
+    public String getName() {
+        return "Adaptive Multi-Strategy";
+    }
+
+    // Skip the MST / greedy initialization and improve this tour instead
+    public AdaptiveMultiStrategyTSP setInitialTour(int[] initialTour) {
+        this.initialTour = initialTour;
+        return this;
+    }
+
+    // Seed of the double-bridge kicks; each round derives its own from it
+    public AdaptiveMultiStrategyTSP setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public AdaptiveMultiStrategyTSP setCheckpoint(TourListener checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    // Main solving method; stops when the token fires and returns the best tour found so far
+    public TSPResult solve(CancellationToken token) {
+        if (initialTour != null) {
+            if (SolverLog.isInfoEnabled()) {
+                SolverLog.info("Resuming from given tour (cost: " + context.tourCost(initialTour) + ")");
+            }
+            int[] improvedTour = adaptiveLocalSearch(initialTour, token);
+            return new TSPResult(improvedTour, context.tourCost(improvedTour));
+        }
+
         // Phase 1: Dual initialization strategy
-        int[] mstTour = getMSTApproximation();
-        double mstCost = calculateTourCost(mstTour);
+        int[] mstTour = context.getMSTTour();
+        double mstCost = context.tourCost(mstTour);
+        if (token.isCancelled()) {
+            SolverLog.info("Stopped after MST initialization (cost: " + mstCost + ")");
+            return new TSPResult(mstTour, mstCost);
+        }
         
-        int[] greedyTour = nearestNeighborHeuristic();
-        double greedyCost = calculateTourCost(greedyTour);
+        int[] greedyTour = context.getNearestNeighborTour();
+        double greedyCost = context.tourCost(greedyTour);
         
         // Select better initialization
         int[] bestTour;
@@ -22,120 +69,90 @@ public class AdaptiveMultiStrategyTSP {
         if (mstCost < greedyCost) {
             bestTour = mstTour.clone();
             bestCost = mstCost;
-            System.out.println("Selected MST initialization (cost: " + mstCost + ")");
+            SolverLog.info("Selected MST initialization (cost: " + mstCost + ")");
         } else {
             bestTour = greedyTour.clone();
             bestCost = greedyCost;
-            System.out.println("Selected Greedy initialization (cost: " + greedyCost + ")");
+            SolverLog.info("Selected Greedy initialization (cost: " + greedyCost + ")");
         }
         
         // Phase 2: Adaptive local search
-        int[] improvedTour = adaptiveLocalSearch(bestTour);
-        double finalCost = calculateTourCost(improvedTour);
+        int[] improvedTour = adaptiveLocalSearch(bestTour, token);
+        double finalCost = context.tourCost(improvedTour);
         
-        System.out.println("Final cost after adaptive local search: " + finalCost);
+        SolverLog.info("Final cost after adaptive local search: " + finalCost);
         
         return new TSPResult(improvedTour, finalCost);
     }
     
 
-    // MST-based 2-approximation using your existing TSP_MST class
-    private int[] getMSTApproximation() {
-        TSP_MST mstSolver = new TSP_MST(distances);
-        int[] parent = mstSolver.buildMST();
-        int[] oddVertices = mstSolver.findOddDegreeVertices(parent);
-        int[][] matching = mstSolver.findMinimumMatching(oddVertices);
-        int[] tour = mstSolver.createTSPTour(parent, matching);
-        return tour;
-    }
-
-
-    // Calculate tour cost
-    private double calculateTourCost(int[] tour) {
-        double cost = 0.0;
-        for (int i = 0; i < n - 1; i++) {
-            cost += distances[tour[i]][tour[i + 1]];
-        }
-        cost += distances[tour[n - 1]][tour[0]]; // return to start
-        return cost;
-    }
-
-
-        // Nearest Neighbor greedy heuristic
-    private int[] nearestNeighborHeuristic() {
-        int[] tour = new int[n];
-        boolean[] visited = new boolean[n];
-        
-        // Start from city 0
-        tour[0] = 0;
-        visited[0] = true;
-        
-        // Build tour by always going to nearest unvisited city
-        for (int i = 1; i < n; i++) {
-            int currentCity = tour[i - 1];
-            double minDistance = Double.MAX_VALUE;
-            int nearestCity = -1;
-            
-            // Find nearest unvisited city
-            for (int j = 0; j < n; j++) {
-                if (!visited[j] && distances[currentCity][j] < minDistance) {
-                    minDistance = distances[currentCity][j];
-                    nearestCity = j;
-                }
-            }
-            
-            tour[i] = nearestCity;
-            visited[nearestCity] = true;
-        }
-        
-        return tour;
-    }
-
-
     // Adaptive local search with multiple improvement strategies
-    private int[] adaptiveLocalSearch(int[] tour) {
+    private int[] adaptiveLocalSearch(int[] tour, CancellationToken token) {
         int[] current = tour.clone();
         boolean improved = true;
         int iteration = 0;
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase(getName(), "improve", n);
+        twoOptCounter = SolverEvents.counter(getName(), "2-opt");
+        kickCounter = SolverEvents.counter(getName(), "iterated local search");
         
-        int maxIterations = (n > 5000) ? 5 : 100;
-        while (improved && iteration < maxIterations) { // Limit iterations to prevent infinite loops
+        int maxIterations = StrategyPlanner.fullScanAffordable(n) ? 100 : 5;
+        if (checkpoint != null) checkpoint.offer(current, context.tourCost(current));
+        while (improved && iteration < maxIterations && !token.isCancelled()) { // Limit iterations to prevent infinite loops
             improved = false;
-            double currentCost = calculateTourCost(current);
+            double currentCost = context.tourCost(current);
             
             // Strategy 1: Try 2-opt improvements
-            int[] twoOptResult = apply2Opt(current);
-            double twoOptCost = calculateTourCost(twoOptResult);
+            int[] twoOptResult = apply2Opt(current, token);
+            double twoOptCost = context.tourCost(twoOptResult);
             
             if (twoOptCost < currentCost) {
                 current = twoOptResult;
                 improved = true;
-                System.out.println("2-opt improvement: " + currentCost + " -> " + twoOptCost);
+                if (checkpoint != null) checkpoint.offer(current, twoOptCost);
+                if (SolverLog.isDebugEnabled()) {
+                    SolverLog.debug("2-opt improvement: " + currentCost + " -> " + twoOptCost);
+                }
             }
             
-            // Strategy 2: Try random swaps if 2-opt didn't improve
+            // Strategy 2: Localized double-bridge kicks if 2-opt didn't improve
             if (!improved) {
-                int[] swapResult = applyRandomSwaps(current);
-                double swapCost = calculateTourCost(swapResult);
+                int[] kickResult = applyKicks(current, iteration, token);
+                double kickCost = context.tourCost(kickResult);
+                if (SolverEvents.COUNTERS_ENABLED) kickCounter.evaluated();
                 
-                if (swapCost < currentCost) {
-                    current = swapResult;
+                if (kickCost < currentCost) {
+                    current = kickResult;
                     improved = true;
-                    System.out.println("Swap improvement: " + currentCost + " -> " + swapCost);
+                    if (checkpoint != null) checkpoint.offer(current, kickCost);
+                    if (SolverEvents.COUNTERS_ENABLED) kickCounter.applied(currentCost - kickCost);
+                    if (SolverLog.isDebugEnabled()) {
+                        SolverLog.debug("Kick improvement: " + currentCost + " -> " + kickCost);
+                    }
                 }
             }
             
             iteration++;
         }
         
-        System.out.println("Local search completed after " + iteration + " iterations");
+        SolverLog.info("Local search completed after " + iteration + " iterations");
+        if (checkpoint != null) checkpoint.flush();
+        if (SolverEvents.COUNTERS_ENABLED) {
+            twoOptCounter.report();
+            kickCounter.report();
+        }
+        SolverEvents.endPhase(phase);
         return current;
     }
 
+    // One 2-opt pass over the tour, without the outer improvement loop
+    public int[] improvementPass(int[] tour) {
+        return apply2Opt(tour, CancellationToken.none());
+    }
+
     // Simple 2-opt implementation
-    private int[] apply2Opt(int[] tour) {
+    private int[] apply2Opt(int[] tour, CancellationToken token) {
         int[] bestTour = tour.clone();
-        double bestCost = calculateTourCost(bestTour);
+        double bestCost = context.tourCost(bestTour);
         
         // AGGRESSIVE LIMITS FOR VERY LARGE INSTANCES
         int maxChecks = Math.min(n * 10, 50000); // Cap total checks at 50k
@@ -143,11 +160,14 @@ public class AdaptiveMultiStrategyTSP {
         
         int checks = 0;
         for (int i = 1; i < n - 1 && checks < maxChecks; i += stepSize) {
+            if (token.isCancelled()) break; // keep the best tour found so far
             for (int j = i + stepSize; j < n && checks < maxChecks; j += stepSize) {
                 int[] newTour = twoOptSwap(bestTour, i, j);
-                double newCost = calculateTourCost(newTour);
+                double newCost = context.tourCost(newTour);
+                if (SolverEvents.COUNTERS_ENABLED && twoOptCounter != null) twoOptCounter.evaluated();
                 
                 if (newCost < bestCost) {
+                    if (SolverEvents.COUNTERS_ENABLED && twoOptCounter != null) twoOptCounter.applied(bestCost - newCost);
                     bestTour = newTour;
                     bestCost = newCost;
                 }
@@ -180,39 +200,12 @@ public class AdaptiveMultiStrategyTSP {
         return newTour;
     }
 
-    // Random swap improvements
-    private int[] applyRandomSwaps(int[] tour) {
-        int[] newTour = tour.clone();
-        
-        // Try 3 random swaps
-        for (int attempt = 0; attempt < 3; attempt++) {
-            int i = 1 + (int)(Math.random() * (n - 2)); // Random index (not 0)
-            int j = 1 + (int)(Math.random() * (n - 2)); // Random index (not 0)
-            
-            if (i != j) {
-                // Swap cities i and j
-                int temp = newTour[i];
-                newTour[i] = newTour[j];
-                newTour[j] = temp;
-            }
-        }
-        
-        return newTour;
-    }
-
-    
-    // Result class
-    public static class TSPResult {
-        public int[] tour;
-        public double cost;
-        
-        public TSPResult(int[] tour, double cost) {
-            this.tour = tour;
-            this.cost = cost;
-        }
+    // One round of iterated local search: n localized double-bridge kicks, each repaired around the
+    // kick and undone unless the tour stays as short; never returns a longer tour
+    private int[] applyKicks(int[] tour, int round, CancellationToken token) {
+        return new IteratedLocalSearch(context).setMaxKicks(n).setSeed(seed + round).improve(tour, token);
     }
 
-
     // Testing
     public static void main(String[] args) {
         double[][] testDistances = {
@@ -0,0 +1,370 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// MAX-MIN Ant System (Stuetzle & Hoos) with 2-opt/Or-opt on every ant.
+//
+// Pheromone lives only on candidate edges: tau[city * k + slot] for (city, neighbors[city][slot]), so
+// kz9976 needs about a megabyte instead of an n x n matrix. Ants are built in parallel on a
+// ForkJoinPool, one worker per thread with its own SplittableRandom, local search and deposit buffer.
+// Each worker deposits its best ant into its own buffer; the buffers are then merged into tau in
+// parallel over disjoint slot ranges, so pheromone updates never take a lock.
+public class AntColonyTSP implements TSPSolver {
+    private SolverContext context;
+    private double[][] distances;
+    private int n;
+    private int[][] neighbors;
+    private int k;
+
+    private int ants = 16;
+    private double beta = 2.0;          // weight of the distance heuristic
+    private double rho = 0.2;           // evaporation rate
+    private int globalBestInterval = 5; // every this many iterations the best-so-far tour deposits too
+    private int restartAfter = 100;     // iterations without a new best before pheromone is reset
+    private int maxIterations = Integer.MAX_VALUE;
+    private long timeLimitMillis = 10_000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = System.nanoTime();
+    private int[] initialTour; // warm start, e.g. a cached tour; replaces the nearest neighbor tour
+
+    private double[] tau;
+    private double[] eta;    // (1 / d)^beta per candidate slot
+    private double[] choice; // tau * eta, what the ants sample from
+    private double tauMax;
+    private double tauMin;
+
+    private int[] best;
+    private double bestCost;
+
+    private SolverEvents.OperatorCounter twoOptCounter;
+    private SolverEvents.OperatorCounter orOptCounter;
+
+    public AntColonyTSP(double[][] distances) {
+        this(new SolverContext(distances));
+    }
+
+    public AntColonyTSP(SolverContext context) {
+        this.context = context;
+        this.distances = context.getDistances();
+        this.n = context.size();
+        this.neighbors = context.getNeighborLists(10);
+        this.k = (n > 1) ? neighbors[0].length : 0;
+    }
+
+    public String getName() {
+        return "MAX-MIN Ant System";
+    }
+
+    public AntColonyTSP setAnts(int ants) {
+        this.ants = Math.max(1, ants);
+        return this;
+    }
+
+    public AntColonyTSP setBeta(double beta) {
+        this.beta = beta;
+        return this;
+    }
+
+    public AntColonyTSP setEvaporation(double rho) {
+        this.rho = rho;
+        return this;
+    }
+
+    public AntColonyTSP setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    public AntColonyTSP setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+        return this;
+    }
+
+    public AntColonyTSP setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    public AntColonyTSP setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    // Start from this tour as the best-so-far, so its edges get the global-best deposits
+    public AntColonyTSP setInitialTour(int[] initialTour) {
+        this.initialTour = initialTour.clone();
+        return this;
+    }
+
+    // Anytime: the token is polled between iterations and inside each ant's local search
+    public TSPResult solve(CancellationToken token) {
+        long deadline = System.currentTimeMillis() + timeLimitMillis;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        FastLocalSearch quench = new FastLocalSearch(distances, neighbors);
+        best = quench.improve((initialTour != null) ? initialTour.clone() : context.getNearestNeighborTour(), token);
+        bestCost = context.tourCost(best);
+        if (n < 8) {
+            return new TSPResult(best, bestCost);
+        }
+
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase(getName(), "improve", n);
+        twoOptCounter = SolverEvents.counter(getName(), "2-opt");
+        orOptCounter = SolverEvents.counter(getName(), "Or-opt");
+
+        initializePheromone();
+        int workerCount = Math.min(threads, ants);
+        Worker[] workers = new Worker[workerCount];
+        for (int w = 0; w < workerCount; w++) {
+            workers[w] = new Worker();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(workerCount);
+        int iteration = 0;
+        try {
+            int stagnant = 0;
+            for (; iteration < maxIterations; iteration++) {
+                if (System.currentTimeMillis() >= deadline || token.isCancelled()) break;
+
+                // build and improve this iteration's ants, ant i on worker i % workerCount
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (int w = 0; w < workerCount; w++) {
+                    Worker worker = workers[w];
+                    int first = w;
+                    worker.random = random.split();
+                    tasks.add(pool.submit(() -> worker.runAnts(first, workerCount, token)));
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
+                }
+
+                boolean improved = false;
+                for (Worker worker : workers) {
+                    if (worker.iterationCost < bestCost - 1e-9) {
+                        best = worker.iterationBest.clone();
+                        bestCost = worker.iterationCost;
+                        improved = true;
+                    }
+                }
+                if (improved) {
+                    stagnant = 0;
+                    updateBounds();
+                    if (SolverLog.isDebugEnabled()) {
+                        SolverLog.debug("MMAS iteration " + iteration + " best: " + bestCost);
+                    }
+                }
+
+                if (iteration % globalBestInterval == 0) {
+                    workers[0].deposit(best, bestCost);
+                }
+                mergeDeposits(pool, workers);
+
+                if (++stagnant >= restartAfter) {
+                    // the colony has converged: forget the trails and explore again
+                    java.util.Arrays.fill(tau, tauMax);
+                    updateChoice(0, tau.length);
+                    stagnant = 0;
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            if (SolverEvents.COUNTERS_ENABLED) {
+                twoOptCounter.report();
+                orOptCounter.report();
+            }
+            SolverEvents.endPhase(phase);
+        }
+
+        SolverLog.info("MMAS: " + iteration + " iterations of " + ants + " ants, best cost " + bestCost);
+        return new TSPResult(best.clone(), bestCost);
+    }
+
+    private void initializePheromone() {
+        tau = new double[n * k];
+        eta = new double[n * k];
+        choice = new double[n * k];
+        for (int i = 0; i < n; i++) {
+            for (int t = 0; t < k; t++) {
+                double d = Math.max(distances[i][neighbors[i][t]], 1e-9); // duplicate cities are at distance 0
+                eta[i * k + t] = Math.pow(1.0 / d, beta);
+            }
+        }
+        updateBounds();
+        java.util.Arrays.fill(tau, tauMax);
+        updateChoice(0, tau.length);
+    }
+
+    // tau_max = 1 / (rho * best cost); tau_min from the MMAS rule with k/2 choices on average
+    private void updateBounds() {
+        tauMax = 1.0 / (rho * bestCost);
+        double pDec = Math.pow(0.05, 1.0 / n);
+        double average = Math.max(2.0, k / 2.0);
+        tauMin = Math.min(tauMax, tauMax * (1 - pDec) / ((average - 1) * pDec));
+    }
+
+    private void updateChoice(int from, int to) {
+        for (int s = from; s < to; s++) {
+            choice[s] = tau[s] * eta[s];
+        }
+    }
+
+    // Evaporate, add every worker's buffer and clamp, each task owning a disjoint range of slots
+    private void mergeDeposits(ForkJoinPool pool, Worker[] workers) {
+        int slots = tau.length;
+        int chunks = workers.length;
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) slots * c / chunks);
+            int to = (int) ((long) slots * (c + 1) / chunks);
+            tasks.add(pool.submit(() -> {
+                double keep = 1 - rho;
+                for (int s = from; s < to; s++) {
+                    double value = keep * tau[s];
+                    for (Worker worker : workers) {
+                        value += worker.buffer[s];
+                        worker.buffer[s] = 0;
+                    }
+                    tau[s] = Math.max(tauMin, Math.min(tauMax, value));
+                }
+                updateChoice(from, to);
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private int slot(int from, int to) {
+        int[] list = neighbors[from];
+        for (int t = 0; t < k; t++) {
+            if (list[t] == to) return from * k + t;
+        }
+        return -1;
+    }
+
+
+    // One thread's share of the colony; everything it writes during an iteration is its own
+    private class Worker {
+        SplittableRandom random;
+        final FastLocalSearch localSearch = new FastLocalSearch(distances, neighbors)
+                .setCounters(twoOptCounter, orOptCounter);
+        final double[] buffer = new double[n * k];
+
+        int[] iterationBest;
+        double iterationCost;
+
+        private final int[] tour = new int[n];
+        private final int[] visited = new int[n]; // stamp of the ant that visited the city
+        private int stamp;
+        private final int[] remaining = new int[n];
+        private final int[] remainingPos = new int[n];
+        private int remainingSize;
+        private final double[] weights = new double[k];
+        private final int[] candidates = new int[k];
+
+        void runAnts(int first, int stride, CancellationToken token) {
+            iterationBest = null;
+            iterationCost = Double.POSITIVE_INFINITY;
+            for (int ant = first; ant < ants; ant += stride) {
+                if (token.isCancelled()) break;
+                construct();
+                int[] improved = localSearch.improve(tour, token);
+                double cost = context.tourCost(improved);
+                if (cost < iterationCost) {
+                    iterationBest = improved;
+                    iterationCost = cost;
+                }
+            }
+            if (iterationBest != null) {
+                deposit(iterationBest, iterationCost);
+            }
+        }
+
+        // Random proportional rule over the unvisited candidates; nearest unvisited city when none is left
+        private void construct() {
+            stamp++;
+            for (int i = 0; i < n; i++) {
+                remaining[i] = i;
+                remainingPos[i] = i;
+            }
+            remainingSize = n;
+
+            int current = random.nextInt(n);
+            visit(current);
+            tour[0] = current;
+
+            for (int step = 1; step < n; step++) {
+                int[] list = neighbors[current];
+                int base = current * k;
+                int count = 0;
+                double sum = 0;
+                for (int t = 0; t < k; t++) {
+                    int c = list[t];
+                    if (visited[c] == stamp) continue;
+                    double w = choice[base + t];
+                    weights[count] = w;
+                    candidates[count] = c;
+                    count++;
+                    sum += w;
+                }
+
+                int next;
+                if (count > 0) {
+                    double r = random.nextDouble() * sum;
+                    int i = 0;
+                    while (i < count - 1 && (r -= weights[i]) > 0) {
+                        i++;
+                    }
+                    next = candidates[i];
+                } else {
+                    double[] row = distances[current];
+                    next = remaining[0];
+                    for (int i = 1; i < remainingSize; i++) {
+                        if (row[remaining[i]] < row[next]) next = remaining[i];
+                    }
+                }
+
+                visit(next);
+                tour[step] = next;
+                current = next;
+            }
+        }
+
+        private void visit(int city) {
+            visited[city] = stamp;
+            int at = remainingPos[city];
+            int last = remaining[--remainingSize];
+            remaining[at] = last;
+            remainingPos[last] = at;
+        }
+
+        // 1 / cost on both directions of every tour edge that is a candidate edge
+        void deposit(int[] tour, double cost) {
+            double amount = 1.0 / cost;
+            for (int i = 0; i < n; i++) {
+                int a = tour[i];
+                int b = tour[i + 1 < n ? i + 1 : 0];
+                int s = slot(a, b);
+                if (s >= 0) buffer[s] += amount;
+                s = slot(b, a);
+                if (s >= 0) buffer[s] += amount;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        double[][] distances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        AntColonyTSP colony = new AntColonyTSP(distances).setTimeLimitMillis(100).setSeed(1);
+        TSPResult result = colony.solve();
+        System.out.println("MAX-MIN Ant System cost: " + result.cost);
+        System.out.println("Tour: " + java.util.Arrays.toString(result.tour));
+    }
+}
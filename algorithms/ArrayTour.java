@@ -0,0 +1,154 @@
+// Tour stored as a position array plus its inverse, shared by the fast improvement operators
+public class ArrayTour {
+    private int[] tour; // tour[position] = city
+    private int[] pos;  // pos[city] = position
+    private int n;
+
+    // (start position, length) of every reversal since beginJournal, so they can be undone
+    private int[] journal;
+    private int journalSize;
+    private boolean journaling;
+
+    public ArrayTour(int n) {
+        this.n = n;
+        this.pos = new int[n];
+    }
+
+    // Wrap an existing tour array; moves modify it in place
+    public ArrayTour(int[] tour) {
+        this(tour.length);
+        load(tour);
+    }
+
+    public void load(int[] currentTour) {
+        tour = currentTour;
+        for (int i = 0; i < n; i++) {
+            pos[tour[i]] = i;
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public int[] array() {
+        return tour;
+    }
+
+    public int cityAt(int position) {
+        return tour[position];
+    }
+
+    public int position(int city) {
+        return pos[city];
+    }
+
+    public int next(int city) {
+        int p = pos[city] + 1;
+        return tour[p == n ? 0 : p];
+    }
+
+    public int prev(int city) {
+        int p = pos[city] - 1;
+        return tour[p < 0 ? n - 1 : p];
+    }
+
+    public int walk(int city, int steps) {
+        int p = (pos[city] + steps) % n;
+        if (p < 0) p += n;
+        return tour[p];
+    }
+
+    // true if city lies on the path of 'length' cities starting at s1
+    public boolean inSegment(int city, int s1, int length) {
+        int offset = pos[city] - pos[s1];
+        if (offset < 0) offset += n;
+        return offset < length;
+    }
+
+    // removes edges (a,b) and (c,d), adds (a,c) and (b,d); b follows a and d follows c in the same direction
+    public void move2Opt(int a, int b, int c, int d) {
+        if (next(a) == b) {
+            reverse(b, c);
+        } else {
+            reverse(c, b);
+        }
+    }
+
+    // Or-opt: move path s1..s2 between c and d, where d follows c and both lie outside the path.
+    // reversed=true adds (c,s2),(s1,d); otherwise adds (c,s1),(s2,d)
+    public void moveSegment(int s1, int s2, int c, int d, boolean reversed) {
+        int p = prev(s1);
+        int nx = next(s2);
+        move2Opt(p, s1, c, d);
+        if (c != nx) {
+            move2Opt(p, c, nx, s2);
+        }
+        if (!reversed) {
+            move2Opt(c, s2, s1, d);
+        }
+    }
+
+    // Record the moves from here on, for rollback(); costs nothing while not journaling
+    public void beginJournal() {
+        if (journal == null) journal = new int[64];
+        journalSize = 0;
+        journaling = true;
+    }
+
+    // Keep the moves made since beginJournal and stop recording
+    public void endJournal() {
+        journaling = false;
+    }
+
+    // Undo every move since beginJournal, newest first (a reversal is its own inverse), in the
+    // time the moves took
+    public void rollback() {
+        journaling = false;
+        while (journalSize > 0) {
+            int length = journal[--journalSize];
+            int i = journal[--journalSize];
+            int j = i + length - 1;
+            if (j >= n) j -= n;
+            swap(i, j, length);
+        }
+    }
+
+    // reverse the tour path from city 'from' to city 'to' (in tour order), or its complement if shorter
+    public void reverse(int from, int to) {
+        int i = pos[from];
+        int j = pos[to];
+        int length = j - i;
+        if (length < 0) length += n;
+        length++;
+
+        if (length * 2 > n) {
+            i = pos[to] + 1;
+            j = pos[from] - 1;
+            if (i >= n) i = 0;
+            if (j < 0) j = n - 1;
+            length = n - length;
+        }
+
+        if (journaling) {
+            if (journalSize + 2 > journal.length) journal = java.util.Arrays.copyOf(journal, 2 * journal.length);
+            journal[journalSize++] = i;
+            journal[journalSize++] = length;
+        }
+        swap(i, j, length);
+    }
+
+    // reverse the 'length' positions from i forward (wrapping) to j
+    private void swap(int i, int j, int length) {
+        for (int swaps = length / 2; swaps > 0; swaps--) {
+            int ci = tour[i];
+            int cj = tour[j];
+            tour[i] = cj;
+            pos[cj] = i;
+            tour[j] = ci;
+            pos[ci] = j;
+            if (++i == n) i = 0;
+            if (--j < 0) j = n - 1;
+        }
+    }
+}
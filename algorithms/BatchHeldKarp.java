@@ -0,0 +1,261 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Exact Held-Karp for many small instances (n <= MAX_CITIES), solved in parallel.
+//
+// Differences from HeldKarp, all aimed at throughput on tiny instances:
+// - city 0 is fixed as the start, so subsets range over the other m = n - 1 cities
+//   (half the table of HeldKarp), and only members of a subset are ever read or written
+// - pull formulation: dp[S][j] = min over i in S - j of dp[S - j][i] + d(i, j)
+// - instances of the same size are solved in lock step, one per lane: every table entry holds
+//   LANES consecutive doubles, so the inner update is an element-wise min-plus over contiguous
+//   lanes, which C2 vectorizes (the loop over predecessors alone is too short, at most 15)
+// - no parent table: each tour is recovered by walking back through dp and re-checking which
+//   predecessor attains each value
+// - DP buffers are thread-local and reused across solves
+public class BatchHeldKarp {
+    public static final int MAX_CITIES = 16;
+
+    // upper bound on lanes per group, and on doubles per thread-local DP table (8 MB)
+    private static final int MAX_LANES = 32;
+    private static final int MAX_TABLE = 1 << 20;
+
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    // Solve every instance exactly; results[i] belongs to instances[i] and its tour starts at city 0
+    public static TSPResult[] solveAll(double[][][] instances) {
+        TSPResult[] results = new TSPResult[instances.length];
+
+        // bucket by size, then cut each bucket into lane groups
+        List<List<Integer>> bySize = new ArrayList<>();
+        for (int n = 0; n <= MAX_CITIES; n++) bySize.add(new ArrayList<>());
+        for (int i = 0; i < instances.length; i++) {
+            int n = instances[i].length;
+            checkSize(n);
+            if (n <= 3) {
+                results[i] = trivial(instances[i]);
+            } else {
+                bySize.get(n).add(i);
+            }
+        }
+
+        List<int[]> groups = new ArrayList<>();
+        for (int n = 4; n <= MAX_CITIES; n++) {
+            List<Integer> bucket = bySize.get(n);
+            int lanes = lanesFor(n);
+            for (int from = 0; from < bucket.size(); from += lanes) {
+                int to = Math.min(from + lanes, bucket.size());
+                int[] group = new int[to - from];
+                for (int k = from; k < to; k++) group[k - from] = bucket.get(k);
+                groups.add(group);
+            }
+        }
+
+        IntStream.range(0, groups.size()).parallel().forEach(g -> {
+            int[] group = groups.get(g);
+            double[][][] members = new double[group.length][][];
+            for (int k = 0; k < group.length; k++) members[k] = instances[group[k]];
+            TSPResult[] solved = WORKSPACE.get().solve(members);
+            for (int k = 0; k < group.length; k++) results[group[k]] = solved[k];
+        });
+        return results;
+    }
+
+    // Single exact solve on the calling thread's buffers; the tour starts at city 0
+    public static TSPResult solve(double[][] distances) {
+        checkSize(distances.length);
+        if (distances.length <= 3) return trivial(distances);
+        return WORKSPACE.get().solve(new double[][][]{distances})[0];
+    }
+
+    private static void checkSize(int n) {
+        if (n > MAX_CITIES) {
+            throw new IllegalArgumentException("BatchHeldKarp handles at most " + MAX_CITIES + " cities, got " + n);
+        }
+    }
+
+    // every tour of at most 3 cities is optimal
+    private static TSPResult trivial(double[][] distances) {
+        int[] tour = new int[distances.length];
+        for (int i = 0; i < tour.length; i++) tour[i] = i;
+        return new TSPResult(tour, MatrixDistance.tourCost(distances, tour));
+    }
+
+    // as many lanes as fit the table budget, so n = 16 still runs (2 lanes) without a 250 MB table
+    private static int lanesFor(int n) {
+        int m = n - 1;
+        return Math.max(1, Math.min(MAX_LANES, MAX_TABLE / ((1 << m) * m)));
+    }
+
+
+    // Per-thread buffers sized for the largest group seen so far
+    private static class Workspace {
+        private double[] dp = new double[0];
+        private double[] column = new double[0];
+        private double[] acc = new double[0];
+
+        // All instances have the same size n >= 4 and there are at most lanesFor(n) of them
+        TSPResult[] solve(double[][][] instances) {
+            int count = instances.length;
+            int n = instances[0].length;
+            int m = n - 1;
+            int lanes = count;
+            int subsets = 1 << m;
+            if (dp.length < subsets * m * lanes) dp = new double[subsets * m * lanes];
+            if (column.length < (m + 1) * m * lanes) column = new double[(m + 1) * m * lanes];
+            if (acc.length < lanes) acc = new double[lanes];
+            double[] dp = this.dp;
+            double[] column = this.column;
+            double[] acc = this.acc;
+
+            // column[(j * m + i) * lanes + b] = d_b(i + 1, j + 1); the extra block j = m holds d_b(0, i + 1)
+            for (int b = 0; b < lanes; b++) {
+                double[][] d = instances[b];
+                for (int j = 0; j < m; j++) {
+                    for (int i = 0; i < m; i++) {
+                        column[(j * m + i) * lanes + b] = d[i + 1][j + 1];
+                    }
+                }
+                for (int i = 0; i < m; i++) {
+                    column[(m * m + i) * lanes + b] = d[0][i + 1];
+                }
+            }
+
+            for (int set = 1; set < subsets; set++) {
+                for (int rest = set; rest != 0; rest &= rest - 1) {
+                    int j = Integer.numberOfTrailingZeros(rest);
+                    int out = (set * m + j) * lanes;
+                    int prevSet = set ^ (1 << j);
+
+                    if (prevSet == 0) {
+                        System.arraycopy(column, (m * m + j) * lanes, dp, out, lanes);
+                        continue;
+                    }
+
+                    int first = Integer.numberOfTrailingZeros(prevSet);
+                    plus(acc, dp, (prevSet * m + first) * lanes, column, (j * m + first) * lanes, lanes);
+                    for (int others = prevSet & (prevSet - 1); others != 0; others &= others - 1) {
+                        int i = Integer.numberOfTrailingZeros(others);
+                        minPlus(acc, dp, (prevSet * m + i) * lanes, column, (j * m + i) * lanes, lanes);
+                    }
+                    System.arraycopy(acc, 0, dp, out, lanes);
+                }
+            }
+
+            TSPResult[] results = new TSPResult[count];
+            for (int b = 0; b < count; b++) {
+                results[b] = reconstruct(instances[b], b, lanes, m);
+            }
+            return results;
+        }
+
+        // Close lane b's cycle back to city 0 and walk its DP backwards
+        private TSPResult reconstruct(double[][] d, int b, int lanes, int m) {
+            int full = (1 << m) - 1;
+            double cost = Double.POSITIVE_INFINITY;
+            int last = -1;
+            for (int j = 0; j < m; j++) {
+                double c = dp[(full * m + j) * lanes + b] + d[j + 1][0];
+                if (c < cost) {
+                    cost = c;
+                    last = j;
+                }
+            }
+
+            int[] tour = new int[m + 1];
+            int set = full;
+            int j = last;
+            for (int index = m; index >= 1; index--) {
+                tour[index] = j + 1;
+                int prevSet = set ^ (1 << j);
+                if (prevSet == 0) break;
+
+                // the same additions as the forward pass, so the minimum is matched exactly
+                double target = dp[(set * m + j) * lanes + b];
+                int prev = -1;
+                for (int others = prevSet; others != 0; others &= others - 1) {
+                    int i = Integer.numberOfTrailingZeros(others);
+                    if (dp[(prevSet * m + i) * lanes + b] + column[(j * m + i) * lanes + b] == target) {
+                        prev = i;
+                        break;
+                    }
+                }
+                set = prevSet;
+                j = prev;
+            }
+            tour[0] = 0;
+            return new TSPResult(tour, cost);
+        }
+
+        private static void plus(double[] acc, double[] dp, int p, double[] column, int c, int lanes) {
+            for (int b = 0; b < lanes; b++) {
+                acc[b] = dp[p + b] + column[c + b];
+            }
+        }
+
+        private static void minPlus(double[] acc, double[] dp, int p, double[] column, int c, int lanes) {
+            for (int b = 0; b < lanes; b++) {
+                acc[b] = Math.min(acc[b], dp[p + b] + column[c + b]);
+            }
+        }
+    }
+
+
+    // Testing
+    public static void main(String[] args) {
+        double[][] testDistances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        TSPResult result = solve(testDistances);
+        System.out.print("Batch Held-Karp tour: ");
+        for (int i = 0; i < result.tour.length; i++) {
+            System.out.print(result.tour[i] + " ");
+        }
+        System.out.println();
+        System.out.println("Optimal cost: " + result.cost + " (Held-Karp: " + new HeldKarp(testDistances).solveTSP().cost + ")");
+
+        // throughput on random Euclidean instances, checked against HeldKarp on a sample
+        java.util.Random random = new java.util.Random(42);
+        for (int n : new int[]{6, 8, 10, 12, 14, 16}) {
+            int count = n <= 8 ? 200_000 : (n <= 12 ? 20_000 : 500);
+            double[][][] batch = new double[count][][];
+            for (int k = 0; k < count; k++) {
+                batch[k] = randomInstance(n, random);
+            }
+
+            solveAll(batch); // warm-up
+            long start = System.nanoTime();
+            TSPResult[] results = solveAll(batch);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            double maxError = 0;
+            for (int k = 0; k < Math.min(count, 20); k++) {
+                TSPResult exact = new HeldKarp(batch[k]).solveTSP();
+                maxError = Math.max(maxError, Math.abs(exact.cost - results[k].cost));
+                maxError = Math.max(maxError, Math.abs(MatrixDistance.tourCost(batch[k], results[k].tour) - results[k].cost));
+            }
+            System.out.printf("n=%2d: %,d instances in %.3f s (%,.0f solves/s), max deviation from Held-Karp %.2e%n",
+                    n, count, seconds, count / seconds, maxError);
+        }
+    }
+
+    private static double[][] randomInstance(int n, java.util.Random random) {
+        double[][] points = new double[n][2];
+        for (double[] p : points) {
+            p[0] = random.nextDouble() * 1000;
+            p[1] = random.nextDouble() * 1000;
+        }
+        double[][] d = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                d[i][j] = Math.hypot(points[i][0] - points[j][0], points[i][1] - points[j][1]);
+            }
+        }
+        return d;
+    }
+}
@@ -0,0 +1,43 @@
+// Cooperative stop signal for solvers: a deadline, an explicit cancel, or thread interruption
+public class CancellationToken {
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    private CancellationToken(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    // Token that only stops on cancel() or interruption
+    public static CancellationToken none() {
+        return new CancellationToken(NO_DEADLINE);
+    }
+
+    public static CancellationToken withTimeout(long millis) {
+        return new CancellationToken(System.nanoTime() + millis * 1_000_000L);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Cheap enough to poll every few hundred iterations of a hot loop
+    public boolean isCancelled() {
+        if (cancelled) return true;
+        if (deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0) {
+            cancelled = true;
+            return true;
+        }
+        if (Thread.currentThread().isInterrupted()) {
+            cancelled = true;
+            return true;
+        }
+        return false;
+    }
+
+    public long remainingMillis() {
+        if (deadlineNanos == NO_DEADLINE) return Long.MAX_VALUE;
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+}
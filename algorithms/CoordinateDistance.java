@@ -0,0 +1,160 @@
+// Distance provider computing Euclidean distances from coordinates on demand (no n x n matrix),
+// stored as separate x and y arrays for the distance kernels
+public class CoordinateDistance implements DistanceProvider {
+    private final double[] xs;
+    private final double[] ys;
+
+    public CoordinateDistance(double[] xs, double[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    public CoordinateDistance(java.util.List<double[]> coordinates) {
+        int n = coordinates.size();
+        this.xs = new double[n];
+        this.ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = coordinates.get(i)[0];
+            ys[i] = coordinates.get(i)[1];
+        }
+    }
+
+    public double[] xs() {
+        return xs;
+    }
+
+    public double[] ys() {
+        return ys;
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public double distance(int i, int j) {
+        double dx = xs[i] - xs[j];
+        double dy = ys[i] - ys[j];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // Distances from city i to every city, written into out
+    public void distancesFrom(int i, double[] out) {
+        DistanceKernels.get().distancesFrom(xs[i], ys[i], xs, ys, out, 0, xs.length);
+    }
+
+    public double tourCost(int[] tour) {
+        return DistanceKernels.get().tourLength(xs, ys, tour);
+    }
+
+    // k nearest neighbors of every city, sorted by increasing distance. Uses a uniform grid with
+    // about two cities per cell and searches outward ring by ring, so it is near-linear in n.
+    public int[][] neighborLists(int k) {
+        int n = xs.length;
+        k = Math.min(k, n - 1);
+        if (k <= 0) return new int[n][0];
+
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minX = Math.min(minX, xs[i]);
+            maxX = Math.max(maxX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        double width = maxX - minX;
+        double height = maxY - minY;
+        double cell = Math.sqrt(2 * width * height / n);
+        if (!(cell > 0)) cell = Math.max(width, height) * 2 / n; // all cities on a line
+        if (!(cell > 0)) cell = 1;                               // all cities on one point
+
+        int columns = (int) Math.min(n, width / cell + 1);
+        int rows = (int) Math.min(n, height / cell + 1);
+        Grid grid = new Grid(minX, minY, cell, columns, rows);
+
+        // bucket the cities by cell (counting sort)
+        int[] cellOf = new int[n];
+        int[] start = new int[columns * rows + 1];
+        for (int i = 0; i < n; i++) {
+            cellOf[i] = grid.column(xs[i]) + grid.row(ys[i]) * columns;
+            start[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            start[c + 1] += start[c];
+        }
+        int[] items = new int[n];
+        int[] fill = java.util.Arrays.copyOf(start, columns * rows);
+        for (int i = 0; i < n; i++) {
+            items[fill[cellOf[i]]++] = i;
+        }
+
+        int[][] lists = new int[n][];
+        int size = k;
+        java.util.stream.IntStream.range(0, n).parallel()
+                .forEach(i -> lists[i] = grid.nearest(xs, ys, i, size, start, items));
+        return lists;
+    }
+
+    private static class Grid {
+        final double minX, minY, cell;
+        final int columns, rows;
+
+        Grid(double minX, double minY, double cell, int columns, int rows) {
+            this.minX = minX;
+            this.minY = minY;
+            this.cell = cell;
+            this.columns = columns;
+            this.rows = rows;
+        }
+
+        int column(double x) {
+            return Math.min(columns - 1, (int) ((x - minX) / cell));
+        }
+
+        int row(double y) {
+            return Math.min(rows - 1, (int) ((y - minY) / cell));
+        }
+
+        // Cities in ring r are at least (r - 1) cells away, so stop once the k-th best is closer than that
+        int[] nearest(double[] xs, double[] ys, int city, int k, int[] start, int[] items) {
+            int[] list = new int[k];
+            double[] best = new double[k];
+            int size = 0;
+            int cx = column(xs[city]);
+            int cy = row(ys[city]);
+            int maxRing = Math.max(columns, rows);
+
+            for (int r = 0; r <= maxRing; r++) {
+                for (int dy = -r; dy <= r; dy++) {
+                    int y = cy + dy;
+                    if (y < 0 || y >= rows) continue;
+                    int step = (dy == -r || dy == r) ? 1 : 2 * r;
+                    for (int dx = -r; dx <= r; dx += Math.max(step, 1)) {
+                        int x = cx + dx;
+                        if (x < 0 || x >= columns) continue;
+                        int c = x + y * columns;
+                        for (int p = start[c]; p < start[c + 1]; p++) {
+                            int j = items[p];
+                            if (j == city) continue;
+                            double ddx = xs[j] - xs[city];
+                            double ddy = ys[j] - ys[city];
+                            double d = Math.sqrt(ddx * ddx + ddy * ddy);
+                            if (size == k && d >= best[k - 1]) continue;
+
+                            // insertion into the sorted bounded list
+                            int slot = (size < k) ? size++ : k - 1;
+                            while (slot > 0 && best[slot - 1] > d) {
+                                best[slot] = best[slot - 1];
+                                list[slot] = list[slot - 1];
+                                slot--;
+                            }
+                            best[slot] = d;
+                            list[slot] = j;
+                        }
+                    }
+                }
+                if (size == k && best[k - 1] <= r * cell) break;
+            }
+            return list;
+        }
+    }
+}
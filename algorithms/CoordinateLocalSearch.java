@@ -0,0 +1,193 @@
+// FastLocalSearch on coordinates: the same 2-opt / Or-opt neighborhoods, neighbor lists and
+// don't-look-bit queue, with distances computed on demand, for instances too large for a matrix
+public class CoordinateLocalSearch {
+    private static final double EPS = 1e-7;
+
+    private double[] xs;
+    private double[] ys;
+    private int n;
+    private int[][] neighbors;
+
+    private ArrayTour tour;
+
+    // don't-look bits kept as a FIFO queue of active cities
+    private int[] queue;
+    private boolean[] inQueue;
+    private int queueHead;
+    private int queueSize;
+
+    private CancellationToken token = CancellationToken.none();
+
+    // operator counters (null unless -Dtsp.counters=true)
+    private SolverEvents.OperatorCounter twoOptCounter;
+    private SolverEvents.OperatorCounter orOptCounter;
+
+    public CoordinateLocalSearch(double[] xs, double[] ys, int[][] neighbors) {
+        this.xs = xs;
+        this.ys = ys;
+        this.n = xs.length;
+        this.neighbors = neighbors;
+        this.tour = new ArrayTour(n);
+        this.queue = new int[n];
+        this.inQueue = new boolean[n];
+    }
+
+    public CoordinateLocalSearch(CoordinateDistance coordinates, int k) {
+        this(coordinates.xs(), coordinates.ys(), coordinates.neighborLists(k));
+    }
+
+    public int[][] getNeighbors() {
+        return neighbors;
+    }
+
+    // Improve a tour with 2-opt and Or-opt until no improving move remains
+    public int[] improve(int[] initialTour) {
+        return improve(initialTour, CancellationToken.none());
+    }
+
+    // Anytime variant: stops at a local optimum or when the token fires, whichever comes first
+    public int[] improve(int[] initialTour, CancellationToken token) {
+        int[] result = initialTour.clone();
+        improveAround(result, null, n, token);
+        return result;
+    }
+
+    // Re-optimize only around the given cities (all cities when null); the tour is modified in place
+    public void improveAround(int[] currentTour, int[] cities, int count, CancellationToken token) {
+        this.token = token;
+        if (n < 5) return;
+
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase("Coordinate Local Search", "improve", n);
+        twoOptCounter = SolverEvents.counter("Coordinate Local Search", "2-opt");
+        orOptCounter = SolverEvents.counter("Coordinate Local Search", "Or-opt");
+
+        tour.load(currentTour);
+        queueHead = 0;
+        queueSize = 0;
+        java.util.Arrays.fill(inQueue, false);
+        for (int i = 0; i < count; i++) {
+            push(cities == null ? i : cities[i]);
+        }
+
+        int polls = 0;
+        while (queueSize > 0) {
+            if ((++polls & 0xFF) == 0 && token.isCancelled()) break;
+            int city = pop();
+            while (tryTwoOpt(city) || tryOrOpt(city)) {
+                // keep working on the same city while it yields improvements
+            }
+        }
+
+        if (SolverEvents.COUNTERS_ENABLED) {
+            twoOptCounter.report();
+            orOptCounter.report();
+        }
+        SolverEvents.endPhase(phase);
+    }
+
+    private double distance(int a, int b) {
+        double dx = xs[a] - xs[b];
+        double dy = ys[a] - ys[b];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // 2-opt: remove (a, succ a) and (c, succ c), or the pred variants, add (a, c)
+    private boolean tryTwoOpt(int a) {
+        for (int dir = 0; dir < 2; dir++) {
+            int b = (dir == 0) ? tour.next(a) : tour.prev(a);
+            double dab = distance(a, b);
+
+            for (int c : neighbors[a]) {
+                double g1 = dab - distance(a, c);
+                if (g1 <= EPS) break;
+
+                int d = (dir == 0) ? tour.next(c) : tour.prev(c);
+                if (c == b || d == a) continue;
+                if (SolverEvents.COUNTERS_ENABLED) twoOptCounter.evaluated();
+
+                double gain = g1 + distance(c, d) - distance(b, d);
+                if (gain > EPS) {
+                    if (SolverEvents.COUNTERS_ENABLED) twoOptCounter.applied(gain);
+                    tour.move2Opt(a, b, c, d);
+                    push(a);
+                    push(b);
+                    push(c);
+                    push(d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Or-opt: move a segment of 1-3 cities next to one of its neighbors, possibly reversed
+    private boolean tryOrOpt(int a) {
+        for (int length = 1; length <= 3 && length < n - 3; length++) {
+            for (int side = 0; side < 2; side++) {
+                int s1 = (side == 0) ? a : tour.walk(a, -(length - 1));
+                int s2 = (side == 0) ? tour.walk(a, length - 1) : a;
+                int p = tour.prev(s1);
+                int nx = tour.next(s2);
+
+                double removeGain = distance(p, s1) + distance(s2, nx) - distance(p, nx);
+                if (removeGain <= EPS) continue;
+
+                for (int end = 0; end < 2; end++) {
+                    int s = (end == 0) ? s1 : s2;
+
+                    for (int c : neighbors[s]) {
+                        if (distance(s, c) >= removeGain) break;
+                        if (tour.inSegment(c, s1, length)) continue;
+
+                        for (int cdir = 0; cdir < 2; cdir++) {
+                            int d = (cdir == 0) ? tour.next(c) : tour.prev(c);
+                            if (tour.inSegment(d, s1, length)) continue;
+
+                            // orient the insertion edge so that c2 -> d2 in tour order
+                            int c2 = (cdir == 0) ? c : d;
+                            int d2 = (cdir == 0) ? d : c;
+                            if (c2 == nx || d2 == p) continue;
+                            if (SolverEvents.COUNTERS_ENABLED) orOptCounter.evaluated();
+
+                            double dcd = distance(c2, d2);
+                            double reversedCost = distance(c2, s2) + distance(s1, d2) - dcd;
+                            double forwardCost = distance(c2, s1) + distance(s2, d2) - dcd;
+                            double insertCost = Math.min(reversedCost, forwardCost);
+
+                            if (removeGain - insertCost > EPS) {
+                                if (SolverEvents.COUNTERS_ENABLED) orOptCounter.applied(removeGain - insertCost);
+                                tour.moveSegment(s1, s2, c2, d2, reversedCost <= forwardCost);
+                                push(p);
+                                push(nx);
+                                push(s1);
+                                push(s2);
+                                push(c2);
+                                push(d2);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void push(int city) {
+        if (inQueue[city]) return;
+        inQueue[city] = true;
+        int tail = queueHead + queueSize;
+        if (tail >= n) tail -= n;
+        queue[tail] = city;
+        queueSize++;
+    }
+
+    private int pop() {
+        int city = queue[queueHead];
+        if (++queueHead == n) queueHead = 0;
+        queueSize--;
+        inQueue[city] = false;
+        return city;
+    }
+
+}
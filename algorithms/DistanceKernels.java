@@ -0,0 +1,101 @@
+// Hot arithmetic loops shared by the parser, Prim's MST, nearest neighbor and tour costing.
+//
+// Two implementations: vector/VectorKernels (jdk.incubator.vector) and the scalar loops below. The
+// vector one is used when it was compiled in and the module is present at run time, e.g.
+//   javac --add-modules jdk.incubator.vector ... vector/*.java   and   java --add-modules jdk.incubator.vector ...
+// otherwise (or with -Dtsp.simd=false) the scalar fallback is used. Both give the same results
+// except tourLength, whose vector sum adds in a different order.
+public class DistanceKernels {
+    private static final Kernels SCALAR = new ScalarKernels();
+    private static final Kernels VECTOR = loadVectorKernels();
+    private static final Kernels DEFAULT =
+            (VECTOR != null && !"false".equals(System.getProperty("tsp.simd"))) ? VECTOR : SCALAR;
+
+    public static Kernels get() {
+        return DEFAULT;
+    }
+
+    public static Kernels scalar() {
+        return SCALAR;
+    }
+
+    // null when jdk.incubator.vector is not available
+    public static Kernels vector() {
+        return VECTOR;
+    }
+
+    private static Kernels loadVectorKernels() {
+        try {
+            return (Kernels) Class.forName("VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+
+    public interface Kernels {
+        String getName();
+
+        // out[j] = Euclidean distance from (px, py) to (xs[j], ys[j]) for j in [from, to)
+        void distancesFrom(double px, double py, double[] xs, double[] ys, double[] out, int from, int to);
+
+        // Index j < n minimizing a[j] + b[j], first one on ties; b is 0 for candidates and
+        // +infinity for excluded entries (visited cities, vertices already in the tree)
+        int argMinSum(double[] a, double[] b, int n);
+
+        // Prim relaxation from u: where row[v] < key[v] and v is not excluded, key[v] = row[v], parent[v] = u
+        void relax(double[] row, double[] key, double[] excluded, int[] parent, int u, int n);
+
+        // Closed tour length over coordinates in structure-of-arrays layout
+        double tourLength(double[] xs, double[] ys, int[] tour);
+    }
+
+    static class ScalarKernels implements Kernels {
+        public String getName() {
+            return "scalar";
+        }
+
+        public void distancesFrom(double px, double py, double[] xs, double[] ys, double[] out, int from, int to) {
+            for (int j = from; j < to; j++) {
+                double dx = xs[j] - px;
+                double dy = ys[j] - py;
+                out[j] = Math.sqrt(dx * dx + dy * dy);
+            }
+        }
+
+        public int argMinSum(double[] a, double[] b, int n) {
+            int best = -1;
+            double min = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < n; j++) {
+                double v = a[j] + b[j];
+                if (v < min) {
+                    min = v;
+                    best = j;
+                }
+            }
+            return best;
+        }
+
+        public void relax(double[] row, double[] key, double[] excluded, int[] parent, int u, int n) {
+            for (int v = 0; v < n; v++) {
+                if (row[v] < key[v] && excluded[v] == 0) {
+                    key[v] = row[v];
+                    parent[v] = u;
+                }
+            }
+        }
+
+        public double tourLength(double[] xs, double[] ys, int[] tour) {
+            int n = tour.length;
+            double length = 0;
+            for (int i = 0; i < n; i++) {
+                int a = tour[i];
+                int b = tour[i + 1 < n ? i + 1 : 0];
+                double dx = xs[a] - xs[b];
+                double dy = ys[a] - ys[b];
+                length += Math.sqrt(dx * dx + dy * dy);
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+// Source of pairwise distances, independent of how they are stored
+public interface DistanceProvider {
+    int size();
+
+    double distance(int i, int j);
+
+    // total length of the closed tour
+    default double tourCost(int[] tour) {
+        int n = tour.length;
+        double cost = 0.0;
+        for (int i = 0; i < n - 1; i++) {
+            cost += distance(tour[i], tour[i + 1]);
+        }
+        cost += distance(tour[n - 1], tour[0]); // return to start
+        return cost;
+    }
+}
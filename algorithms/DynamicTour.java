@@ -0,0 +1,514 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// A solved tour that supports edits: add a city (cheapest insertion), remove a city (bypass) and
+// move a city, each followed by a 2-opt / Or-opt repair seeded only with the cities around the edit.
+//
+// Works from coordinates with distances computed on demand, and finds candidate neighbors through a
+// uniform spatial grid, so no n x n matrix, MST or full local search is ever needed. Cities are
+// addressed by stable ids; internally they are renumbered densely so ArrayTour can be used.
+public class DynamicTour {
+    private static final int NEIGHBORS = 8;
+    private static final double EPS = 1e-7;
+    // upper bound on queue pops per repair, so a single edit stays local
+    private static final int REPAIR_LIMIT = 5000;
+
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private int n;
+
+    // internal index <-> external id
+    private int[] idOf = new int[16];
+    private int[] indexOf = new int[16]; // -1 once removed
+    private int nextId;
+
+    private int[] order = new int[0];
+    private ArrayTour tour = new ArrayTour(order);
+    private SpatialGrid grid;
+
+    private int[] queue = new int[0];
+    private boolean[] inQueue = new boolean[0];
+    private int queueHead;
+    private int queueSize;
+    private int[] candidates = new int[NEIGHBORS];
+
+    public DynamicTour() {
+        this.grid = new SpatialGrid(this, 1.0);
+    }
+
+    // Start from a solved tour over cities 0..n-1 (their ids)
+    public DynamicTour(double[] xs, double[] ys, int[] initialTour) {
+        int count = xs.length;
+        ensureCapacity(count);
+        System.arraycopy(xs, 0, this.xs, 0, count);
+        System.arraycopy(ys, 0, this.ys, 0, count);
+        for (int i = 0; i < count; i++) {
+            idOf[i] = i;
+            indexOf[i] = i;
+        }
+        this.n = count;
+        this.nextId = count;
+        this.order = initialTour.clone();
+        this.tour = new ArrayTour(order);
+        resizeQueue();
+        rebuildGrid();
+    }
+
+    public int size() {
+        return n;
+    }
+
+    // City ids in tour order
+    public int[] tour() {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = idOf[order[i]];
+        }
+        return ids;
+    }
+
+    public double cost() {
+        if (n < 2) return 0;
+        return DistanceKernels.get().tourLength(xs, ys, order);
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && id < nextId && indexOf[id] >= 0;
+    }
+
+    public double x(int id) {
+        return xs[index(id)];
+    }
+
+    public double y(int id) {
+        return ys[index(id)];
+    }
+
+    // Insert a new city at its cheapest position and repair around it; returns its id
+    public int addCity(double x, double y) {
+        int id = nextId++;
+        ensureCapacity(Math.max(n + 1, nextId));
+        insert(id, x, y);
+        return id;
+    }
+
+    // Bypass the city and repair around the gap
+    public void removeCity(int id) {
+        int c = index(id);
+        if (n <= 3) {
+            detach(c);
+            return;
+        }
+        int p = tour.prev(c);
+        int q = tour.next(c);
+        int pId = idOf[p];
+        int qId = idOf[q];
+        detach(c);
+        repair(indexOf[pId], indexOf[qId]);
+    }
+
+    // Re-insert the city at its new location, keeping its id
+    public void moveCity(int id, double x, double y) {
+        int c = index(id);
+        if (n <= 3) {
+            xs[c] = x;
+            ys[c] = y;
+            rebuildGrid();
+            return;
+        }
+        int p = tour.prev(c);
+        int q = tour.next(c);
+        int pId = idOf[p];
+        int qId = idOf[q];
+        detach(c);
+        insert(id, x, y);
+        repair(indexOf[pId], indexOf[qId]);
+    }
+
+    private int index(int id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("No city with id " + id);
+        }
+        return indexOf[id];
+    }
+
+    private void insert(int id, double x, double y) {
+        int c = n++;
+        xs[c] = x;
+        ys[c] = y;
+        idOf[c] = id;
+        indexOf[id] = c;
+
+        int[] updated = new int[n];
+        if (n <= 3) {
+            System.arraycopy(order, 0, updated, 0, n - 1);
+            updated[n - 1] = c;
+            setOrder(updated);
+            rebuildGrid();
+            return;
+        }
+        if (grid.needsRebuild(n)) {
+            rebuildGrid();
+        } else {
+            grid.add(c);
+        }
+
+        // cheapest insertion next to one of the nearest cities
+        int found = grid.nearest(c, NEIGHBORS, candidates);
+        if (found == 0) {
+            // nothing within the searched rings: fall back to a scan for the nearest city
+            candidates[0] = (c == 0) ? 1 : 0;
+            for (int i = 0; i < n; i++) {
+                if (i != c && distance(c, i) < distance(c, candidates[0])) candidates[0] = i;
+            }
+            found = 1;
+        }
+        int bestA = -1;
+        int bestB = -1;
+        double bestDelta = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < found; k++) {
+            int a = candidates[k];
+            for (int side = 0; side < 2; side++) {
+                int b = (side == 0) ? tour.next(a) : tour.prev(a);
+                double delta = distance(a, c) + distance(c, b) - distance(a, b);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestA = a;
+                    bestB = b;
+                }
+            }
+        }
+
+        // c goes right after whichever of a, b comes first in tour order
+        int after = (tour.next(bestA) == bestB) ? bestA : bestB;
+        int at = tour.position(after) + 1;
+        System.arraycopy(order, 0, updated, 0, at);
+        updated[at] = c;
+        System.arraycopy(order, at, updated, at + 1, n - 1 - at);
+        setOrder(updated);
+
+        repair(c, bestA, bestB);
+    }
+
+    // Take internal city c out of the tour and renumber the last index into its slot
+    private void detach(int c) {
+        int id = idOf[c];
+        int last = n - 1;
+        grid.remove(c);
+
+        int[] updated = new int[n - 1];
+        int at = tour.position(c);
+        System.arraycopy(order, 0, updated, 0, at);
+        System.arraycopy(order, at + 1, updated, at, n - 1 - at);
+
+        if (c != last) {
+            grid.remove(last);
+            xs[c] = xs[last];
+            ys[c] = ys[last];
+            idOf[c] = idOf[last];
+            indexOf[idOf[c]] = c;
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == last) {
+                    updated[i] = c;
+                    break;
+                }
+            }
+        }
+        indexOf[id] = -1;
+        n--;
+        if (c != last) grid.add(c);
+        setOrder(updated);
+    }
+
+    private void setOrder(int[] updated) {
+        order = updated;
+        tour = new ArrayTour(order);
+        resizeQueue();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > xs.length) {
+            int size = Math.max(capacity, xs.length * 2);
+            xs = Arrays.copyOf(xs, size);
+            ys = Arrays.copyOf(ys, size);
+            idOf = Arrays.copyOf(idOf, size);
+        }
+        if (capacity > indexOf.length) {
+            indexOf = Arrays.copyOf(indexOf, Math.max(capacity, indexOf.length * 2));
+        }
+    }
+
+    private void resizeQueue() {
+        if (queue.length < n) {
+            queue = new int[Math.max(n, queue.length * 2)];
+            inQueue = new boolean[queue.length];
+        }
+    }
+
+    private void rebuildGrid() {
+        grid = SpatialGrid.build(this);
+    }
+
+    double distance(int i, int j) {
+        double dx = xs[i] - xs[j];
+        double dy = ys[i] - ys[j];
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+
+    // Local repair: 2-opt and Or-opt with don't-look bits, seeded with the edited cities
+    private void repair(int... seeds) {
+        if (n < 5) return;
+        queueHead = 0;
+        queueSize = 0;
+        Arrays.fill(inQueue, 0, n, false);
+        for (int city : seeds) {
+            push(city);
+        }
+
+        int pops = 0;
+        int[] neighbors = new int[NEIGHBORS];
+        while (queueSize > 0 && pops++ < REPAIR_LIMIT) {
+            int city = pop();
+            while (tryTwoOpt(city, neighbors) || tryOrOpt(city, neighbors)) {
+                // keep working on the same city while it yields improvements
+            }
+        }
+    }
+
+    private boolean tryTwoOpt(int a, int[] neighbors) {
+        int found = grid.nearest(a, NEIGHBORS, neighbors);
+        for (int dir = 0; dir < 2; dir++) {
+            int b = (dir == 0) ? tour.next(a) : tour.prev(a);
+            double dab = distance(a, b);
+
+            for (int k = 0; k < found; k++) {
+                int c = neighbors[k];
+                double g1 = dab - distance(a, c);
+                if (g1 <= EPS) break;
+
+                int d = (dir == 0) ? tour.next(c) : tour.prev(c);
+                if (c == b || d == a) continue;
+
+                if (g1 + distance(c, d) - distance(b, d) > EPS) {
+                    tour.move2Opt(a, b, c, d);
+                    push(a);
+                    push(b);
+                    push(c);
+                    push(d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean tryOrOpt(int a, int[] neighbors) {
+        for (int length = 1; length <= 3 && length < n - 3; length++) {
+            for (int side = 0; side < 2; side++) {
+                int s1 = (side == 0) ? a : tour.walk(a, -(length - 1));
+                int s2 = (side == 0) ? tour.walk(a, length - 1) : a;
+                int p = tour.prev(s1);
+                int nx = tour.next(s2);
+
+                double removeGain = distance(p, s1) + distance(s2, nx) - distance(p, nx);
+                if (removeGain <= EPS) continue;
+
+                for (int end = 0; end < 2; end++) {
+                    int s = (end == 0) ? s1 : s2;
+                    int found = grid.nearest(s, NEIGHBORS, neighbors);
+
+                    for (int k = 0; k < found; k++) {
+                        int c = neighbors[k];
+                        if (distance(s, c) >= removeGain) break;
+                        if (tour.inSegment(c, s1, length)) continue;
+
+                        for (int cdir = 0; cdir < 2; cdir++) {
+                            int d = (cdir == 0) ? tour.next(c) : tour.prev(c);
+                            if (tour.inSegment(d, s1, length)) continue;
+
+                            int c2 = (cdir == 0) ? c : d;
+                            int d2 = (cdir == 0) ? d : c;
+                            if (c2 == nx || d2 == p) continue;
+
+                            double dcd = distance(c2, d2);
+                            double reversedCost = distance(c2, s2) + distance(s1, d2) - dcd;
+                            double forwardCost = distance(c2, s1) + distance(s2, d2) - dcd;
+
+                            if (removeGain - reversedCost > EPS || removeGain - forwardCost > EPS) {
+                                tour.moveSegment(s1, s2, c2, d2, reversedCost <= forwardCost);
+                                push(p);
+                                push(nx);
+                                push(s1);
+                                push(s2);
+                                push(c2);
+                                push(d2);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void push(int city) {
+        if (inQueue[city]) return;
+        inQueue[city] = true;
+        int tail = queueHead + queueSize;
+        if (tail >= n) tail -= n;
+        queue[tail] = city;
+        queueSize++;
+    }
+
+    private int pop() {
+        int city = queue[queueHead];
+        if (++queueHead == n) queueHead = 0;
+        queueSize--;
+        inQueue[city] = false;
+        return city;
+    }
+
+
+    // Uniform grid over the plane, about two cities per cell; cells are hashed so cities may
+    // move anywhere without resizing. Rebuilt when the city count drifts far from its design size
+    static class SpatialGrid {
+        // rings searched before giving up on finding k neighbors (very sparse regions)
+        private static final int MAX_RINGS = 64;
+
+        private final DynamicTour owner;
+        private final double cellSize;
+        private final int designSize;
+        private final Map<Long, int[]> cells = new HashMap<>(); // [size, city, city, ...]
+        private double[] best = new double[NEIGHBORS];
+
+        SpatialGrid(DynamicTour owner, double cellSize) {
+            this.owner = owner;
+            this.cellSize = cellSize;
+            this.designSize = Math.max(owner.n, 1);
+        }
+
+        static SpatialGrid build(DynamicTour owner) {
+            double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < owner.n; i++) {
+                minX = Math.min(minX, owner.xs[i]);
+                maxX = Math.max(maxX, owner.xs[i]);
+                minY = Math.min(minY, owner.ys[i]);
+                maxY = Math.max(maxY, owner.ys[i]);
+            }
+            double area = (owner.n > 1) ? Math.max((maxX - minX) * (maxY - minY), 1e-9) : 1.0;
+            double cellSize = Math.max(Math.sqrt(2.0 * area / Math.max(owner.n, 1)), 1e-9);
+
+            SpatialGrid grid = new SpatialGrid(owner, cellSize);
+            for (int i = 0; i < owner.n; i++) {
+                grid.add(i);
+            }
+            return grid;
+        }
+
+        boolean needsRebuild(int size) {
+            return size > 4 * designSize || size * 4 < designSize;
+        }
+
+        private long key(int cx, int cy) {
+            return ((long) cx << 32) ^ (cy & 0xFFFFFFFFL);
+        }
+
+        private int cellX(int city) {
+            return (int) Math.floor(owner.xs[city] / cellSize);
+        }
+
+        private int cellY(int city) {
+            return (int) Math.floor(owner.ys[city] / cellSize);
+        }
+
+        void add(int city) {
+            long key = key(cellX(city), cellY(city));
+            int[] cell = cells.get(key);
+            if (cell == null) {
+                cell = new int[4];
+            } else if (cell[0] + 1 == cell.length) {
+                cell = Arrays.copyOf(cell, cell.length * 2);
+            }
+            cell[++cell[0]] = city;
+            cells.put(key, cell);
+        }
+
+        void remove(int city) {
+            long key = key(cellX(city), cellY(city));
+            int[] cell = cells.get(key);
+            if (cell == null) return;
+            for (int i = 1; i <= cell[0]; i++) {
+                if (cell[i] == city) {
+                    cell[i] = cell[cell[0]--];
+                    break;
+                }
+            }
+            if (cell[0] == 0) cells.remove(key);
+        }
+
+        // Up to k nearest other cities of city, sorted by distance; returns how many were found
+        int nearest(int city, int k, int[] out) {
+            if (best.length < k) best = new double[k];
+            int size = 0;
+            int cx = cellX(city);
+            int cy = cellY(city);
+
+            for (int ring = 0; ring <= MAX_RINGS; ring++) {
+                // every city in a ring >= ring + 1 is at least ring * cellSize away
+                if (size == k && best[k - 1] <= (ring - 1) * cellSize) break;
+
+                for (int dx = -ring; dx <= ring; dx++) {
+                    for (int dy = -ring; dy <= ring; dy++) {
+                        if (Math.max(Math.abs(dx), Math.abs(dy)) != ring) continue;
+                        int[] cell = cells.get(key(cx + dx, cy + dy));
+                        if (cell == null) continue;
+
+                        for (int i = 1; i <= cell[0]; i++) {
+                            int other = cell[i];
+                            if (other == city) continue;
+                            double d = owner.distance(city, other);
+                            if (size == k && d >= best[k - 1]) continue;
+
+                            int slot = (size < k) ? size++ : k - 1;
+                            while (slot > 0 && best[slot - 1] > d) {
+                                best[slot] = best[slot - 1];
+                                out[slot] = out[slot - 1];
+                                slot--;
+                            }
+                            best[slot] = d;
+                            out[slot] = other;
+                        }
+                    }
+                }
+            }
+            return size;
+        }
+    }
+
+
+    // Testing
+    public static void main(String[] args) {
+        // corners of a 3 x 2 rectangle, then edits
+        DynamicTour dynamic = new DynamicTour();
+        int a = dynamic.addCity(0, 0);
+        int b = dynamic.addCity(3, 0);
+        int c = dynamic.addCity(3, 2);
+        int d = dynamic.addCity(0, 2);
+        System.out.println("Rectangle tour: " + Arrays.toString(dynamic.tour()) + " cost " + dynamic.cost());
+
+        int mid = dynamic.addCity(1.5, 0);
+        System.out.println("After adding (1.5, 0): " + Arrays.toString(dynamic.tour()) + " cost " + dynamic.cost());
+
+        dynamic.moveCity(mid, 1.5, 2);
+        System.out.println("After moving it to (1.5, 2): " + Arrays.toString(dynamic.tour()) + " cost " + dynamic.cost());
+
+        dynamic.removeCity(b);
+        System.out.println("After removing city " + b + ": " + Arrays.toString(dynamic.tour()) + " cost " + dynamic.cost());
+        System.out.println("Cities " + a + ", " + c + ", " + d + " still present: "
+                + (dynamic.contains(a) && dynamic.contains(c) && dynamic.contains(d)));
+    }
+}
@@ -0,0 +1,287 @@
+public class FastLocalSearch {
+    private static final double EPS = 1e-7;
+
+    private double[][] distances;
+    private int n;
+    private int[][] neighbors;
+
+    private ArrayTour tour;
+
+    // don't-look bits kept as a FIFO queue of active cities
+    private int[] queue;
+    private boolean[] inQueue;
+    private int queueHead;
+    private int queueSize;
+
+    private CancellationToken token = CancellationToken.none();
+
+    // operator counters (null unless -Dtsp.counters=true); shared ones are reported by their owner
+    private SolverEvents.OperatorCounter twoOptCounter;
+    private SolverEvents.OperatorCounter orOptCounter;
+    private boolean sharedCounters;
+
+    private TourListener checkpoint;
+
+    public FastLocalSearch(double[][] distances, int[][] neighbors) {
+        this.distances = distances;
+        this.n = distances.length;
+        this.neighbors = neighbors;
+        this.tour = new ArrayTour(n);
+        this.queue = new int[n];
+        this.inQueue = new boolean[n];
+    }
+
+    public FastLocalSearch(double[][] distances, int k) {
+        this(distances, buildNeighborLists(distances, k));
+    }
+
+    // k nearest neighbors of every city, sorted by increasing distance
+    public static int[][] buildNeighborLists(double[][] distances, int k) {
+        int n = distances.length;
+        k = Math.min(k, n - 1);
+        int[][] lists = new int[n][k];
+        double[] best = new double[k];
+
+        for (int i = 0; i < n; i++) {
+            int[] list = lists[i];
+            int size = 0;
+            double[] row = distances[i];
+
+            for (int j = 0; j < n; j++) {
+                if (j == i) continue;
+                double d = row[j];
+                if (size == k && d >= best[k - 1]) continue;
+
+                // insertion into the sorted bounded list
+                int slot = (size < k) ? size++ : k - 1;
+                while (slot > 0 && best[slot - 1] > d) {
+                    best[slot] = best[slot - 1];
+                    list[slot] = list[slot - 1];
+                    slot--;
+                }
+                best[slot] = d;
+                list[slot] = j;
+            }
+        }
+
+        return lists;
+    }
+
+    public int[][] getNeighbors() {
+        return neighbors;
+    }
+
+    // Count moves into counters owned by the caller (e.g. one pair for all GA offspring)
+    public FastLocalSearch setCounters(SolverEvents.OperatorCounter twoOpt, SolverEvents.OperatorCounter orOpt) {
+        this.twoOptCounter = twoOpt;
+        this.orOptCounter = orOpt;
+        this.sharedCounters = true;
+        return this;
+    }
+
+    // Improve a tour with 2-opt and Or-opt until no improving move remains
+    public int[] improve(int[] initialTour) {
+        return improve(initialTour, CancellationToken.none());
+    }
+
+    // Anytime variant: stops at a local optimum or when the token fires, whichever comes first
+    public int[] improve(int[] initialTour, CancellationToken token) {
+        this.token = token;
+        int[] result = initialTour.clone();
+        if (n < 5) return result;
+
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase("Fast Local Search", "improve", n);
+        if (SolverEvents.COUNTERS_ENABLED && !sharedCounters) {
+            twoOptCounter = SolverEvents.counter("Fast Local Search", "2-opt");
+            orOptCounter = SolverEvents.counter("Fast Local Search", "Or-opt");
+        }
+
+        load(result);
+        for (int city = 0; city < n; city++) {
+            push(city);
+        }
+        run();
+        if (checkpoint != null) {
+            checkpoint.offer(result, tourCost());
+            checkpoint.flush();
+        }
+
+        if (SolverEvents.COUNTERS_ENABLED && !sharedCounters) {
+            reportCounters();
+        }
+        SolverEvents.endPhase(phase);
+        return result;
+    }
+
+    // Re-optimize only around the given cities; the tour is modified in place
+    public void improveAround(int[] currentTour, int[] cities, int count) {
+        improveAround(currentTour, cities, count, CancellationToken.none());
+    }
+
+    public void improveAround(int[] currentTour, int[] cities, int count, CancellationToken token) {
+        this.token = token;
+        if (n < 5) return;
+        if (SolverEvents.COUNTERS_ENABLED && twoOptCounter == null) {
+            // repeated local repairs accumulate into one pair of counters, reported via reportCounters()
+            twoOptCounter = SolverEvents.counter("Fast Local Search", "2-opt");
+            orOptCounter = SolverEvents.counter("Fast Local Search", "Or-opt");
+        }
+
+        load(currentTour);
+        for (int i = 0; i < count; i++) {
+            push(cities[i]);
+        }
+        run();
+    }
+
+    // Save the current tour every checkpoint interval while the search runs
+    public FastLocalSearch setCheckpoint(TourListener checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    // Publish counters accumulated by improveAround calls
+    public void reportCounters() {
+        if (SolverEvents.COUNTERS_ENABLED && twoOptCounter != null && !sharedCounters) {
+            twoOptCounter.report();
+            orOptCounter.report();
+            twoOptCounter = null;
+            orOptCounter = null;
+        }
+    }
+
+    private void load(int[] currentTour) {
+        tour.load(currentTour);
+        queueHead = 0;
+        queueSize = 0;
+        java.util.Arrays.fill(inQueue, false);
+    }
+
+    private void run() {
+        int polls = 0;
+        while (queueSize > 0) {
+            if ((++polls & 0xFF) == 0) {
+                if (token.isCancelled()) break;
+                if (checkpoint != null && checkpoint.isDue()) checkpoint.offer(tour.array(), tourCost());
+            }
+            int city = pop();
+            while (improveCity(city)) {
+                // keep working on the same city while it yields improvements
+            }
+        }
+    }
+
+    private double tourCost() {
+        int[] order = tour.array();
+        double cost = distances[order[n - 1]][order[0]];
+        for (int i = 0; i < n - 1; i++) {
+            cost += distances[order[i]][order[i + 1]];
+        }
+        return cost;
+    }
+
+    private boolean improveCity(int a) {
+        return tryTwoOpt(a) || tryOrOpt(a);
+    }
+
+    // 2-opt: remove (a, succ a) and (c, succ c), or the pred variants, add (a, c)
+    private boolean tryTwoOpt(int a) {
+        for (int dir = 0; dir < 2; dir++) {
+            int b = (dir == 0) ? tour.next(a) : tour.prev(a);
+            double dab = distances[a][b];
+
+            for (int c : neighbors[a]) {
+                double g1 = dab - distances[a][c];
+                if (g1 <= EPS) break;
+
+                int d = (dir == 0) ? tour.next(c) : tour.prev(c);
+                if (c == b || d == a) continue;
+                if (SolverEvents.COUNTERS_ENABLED) twoOptCounter.evaluated();
+
+                double gain = g1 + distances[c][d] - distances[b][d];
+                if (gain > EPS) {
+                    if (SolverEvents.COUNTERS_ENABLED) twoOptCounter.applied(gain);
+                    tour.move2Opt(a, b, c, d);
+                    push(a);
+                    push(b);
+                    push(c);
+                    push(d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Or-opt: move a segment of 1-3 cities next to one of its neighbors, possibly reversed
+    private boolean tryOrOpt(int a) {
+        for (int length = 1; length <= 3 && length < n - 3; length++) {
+            for (int side = 0; side < 2; side++) {
+                int s1 = (side == 0) ? a : tour.walk(a, -(length - 1));
+                int s2 = (side == 0) ? tour.walk(a, length - 1) : a;
+                int p = tour.prev(s1);
+                int nx = tour.next(s2);
+
+                double removeGain = distances[p][s1] + distances[s2][nx] - distances[p][nx];
+                if (removeGain <= EPS) continue;
+
+                for (int end = 0; end < 2; end++) {
+                    int s = (end == 0) ? s1 : s2;
+
+                    for (int c : neighbors[s]) {
+                        if (distances[s][c] >= removeGain) break;
+                        if (tour.inSegment(c, s1, length)) continue;
+
+                        for (int cdir = 0; cdir < 2; cdir++) {
+                            int d = (cdir == 0) ? tour.next(c) : tour.prev(c);
+                            if (tour.inSegment(d, s1, length)) continue;
+
+                            // orient the insertion edge so that c2 -> d2 in tour order
+                            int c2 = (cdir == 0) ? c : d;
+                            int d2 = (cdir == 0) ? d : c;
+                            if (c2 == nx || d2 == p) continue;
+                            if (SolverEvents.COUNTERS_ENABLED) orOptCounter.evaluated();
+
+                            double dcd = distances[c2][d2];
+                            double reversedCost = distances[c2][s2] + distances[s1][d2] - dcd;
+                            double forwardCost = distances[c2][s1] + distances[s2][d2] - dcd;
+
+                            if (removeGain - reversedCost > EPS || removeGain - forwardCost > EPS) {
+                                if (SolverEvents.COUNTERS_ENABLED) {
+                                    orOptCounter.applied(removeGain - Math.min(reversedCost, forwardCost));
+                                }
+                                tour.moveSegment(s1, s2, c2, d2, reversedCost <= forwardCost);
+                                push(p);
+                                push(nx);
+                                push(s1);
+                                push(s2);
+                                push(c2);
+                                push(d2);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void push(int city) {
+        if (inQueue[city]) return;
+        inQueue[city] = true;
+        int tail = queueHead + queueSize;
+        if (tail >= n) tail -= n;
+        queue[tail] = city;
+        queueSize++;
+    }
+
+    private int pop() {
+        int city = queue[queueHead];
+        if (++queueHead == n) queueHead = 0;
+        queueSize--;
+        inQueue[city] = false;
+        return city;
+    }
+
+}
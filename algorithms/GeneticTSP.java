@@ -0,0 +1,473 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class GeneticTSP implements TSPSolver {
+    private SolverContext context;
+    private double[][] distances;
+    private int n;
+    private int[][] neighbors;
+
+    private int populationSize = 30;
+    private int maxGenerations = Integer.MAX_VALUE;
+    private long timeLimitMillis = 60_000;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = System.nanoTime();
+    private int[] initialTour; // warm start, e.g. a cached tour; replaces the MST tour as the seed
+
+    // population kept as plain tour arrays plus their costs
+    private int[][] population;
+    private double[] costs;
+
+    // local search counters shared by all offspring of one run (null unless -Dtsp.counters=true)
+    private SolverEvents.OperatorCounter twoOptCounter;
+    private SolverEvents.OperatorCounter orOptCounter;
+
+    public GeneticTSP(double[][] distances) {
+        this(new SolverContext(distances));
+    }
+
+    public GeneticTSP(SolverContext context) {
+        this.context = context;
+        this.distances = context.getDistances();
+        this.n = context.size();
+        this.neighbors = context.getNeighborLists(10);
+    }
+
+    public String getName() {
+        return "Genetic Algorithm";
+    }
+
+    public GeneticTSP setPopulationSize(int populationSize) {
+        this.populationSize = Math.max(2, populationSize);
+        return this;
+    }
+
+    public GeneticTSP setMaxGenerations(int maxGenerations) {
+        this.maxGenerations = maxGenerations;
+        return this;
+    }
+
+    public GeneticTSP setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+        return this;
+    }
+
+    public GeneticTSP setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    public GeneticTSP setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    // Seed the population with this tour and double-bridge kicks of it
+    public GeneticTSP setInitialTour(int[] initialTour) {
+        this.initialTour = initialTour.clone();
+        return this;
+    }
+
+    // Steady-state GA: each generation breeds one batch of offspring in parallel.
+    // Anytime: the token is polled between generations and inside local search
+    public TSPResult solve(CancellationToken token) {
+        long deadline = System.currentTimeMillis() + timeLimitMillis;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        if (n < 5) {
+            FastLocalSearch ls = new FastLocalSearch(distances, neighbors);
+            int[] tour = ls.improve(context.getNearestNeighborTour());
+            return new TSPResult(tour, context.tourCost(tour));
+        }
+
+        twoOptCounter = SolverEvents.counter(getName(), "2-opt");
+        orOptCounter = SolverEvents.counter(getName(), "Or-opt");
+        SolverEvents.PhaseEvent phase = null;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            phase = SolverEvents.beginPhase(getName(), "construct", n);
+            initializePopulation(random, executor, token);
+            SolverEvents.endPhase(phase);
+            int best = bestIndex();
+            SolverLog.info("GA initial population best: " + costs[best]);
+            phase = SolverEvents.beginPhase(getName(), "improve", n);
+
+            int batchSize = Math.max(2, threads * 2);
+            int stagnant = 0;
+
+            for (int generation = 0; generation < maxGenerations; generation++) {
+                if (System.currentTimeMillis() >= deadline || token.isCancelled()) break;
+
+                // breed a batch of offspring in parallel from the current population
+                List<Future<int[]>> batch = new ArrayList<>();
+                for (int k = 0; k < batchSize; k++) {
+                    int p1 = tournament(random);
+                    int p2 = tournament(random);
+                    while (p2 == p1) {
+                        p2 = random.nextInt(populationSize);
+                    }
+                    int[] parentA = population[p1];
+                    int[] parentB = population[p2];
+                    long childSeed = random.nextLong();
+                    batch.add(executor.submit(() -> breed(parentA, parentB, childSeed, token)));
+                }
+
+                boolean improvedBest = false;
+                double bestCost = costs[best];
+                for (Future<int[]> future : batch) {
+                    int[] child = future.get();
+                    double childCost = context.tourCost(child);
+                    if (insert(child, childCost) && childCost < bestCost - 1e-9) {
+                        improvedBest = true;
+                        bestCost = childCost;
+                    }
+                }
+
+                best = bestIndex();
+                if (improvedBest) {
+                    stagnant = 0;
+                    if (SolverLog.isDebugEnabled()) {
+                        SolverLog.debug("GA generation " + generation + " best: " + costs[best]);
+                    }
+                } else if (++stagnant >= 50) {
+                    // population has converged: refill the worse half with kicked copies of the elite
+                    diversify(random, executor, best, token);
+                    stagnant = 0;
+                }
+            }
+
+            return new TSPResult(population[best].clone(), costs[best]);
+        } catch (InterruptedException e) {
+            // interrupted while waiting on offspring: hand back the best individual that exists
+            Thread.currentThread().interrupt();
+            int best = -1;
+            for (int i = 0; i < populationSize; i++) {
+                if (population[i] != null && (best < 0 || costs[i] < costs[best])) best = i;
+            }
+            if (best < 0) {
+                int[] tour = context.getNearestNeighborTour();
+                return new TSPResult(tour, context.tourCost(tour));
+            }
+            return new TSPResult(population[best].clone(), costs[best]);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            SolverEvents.endPhase(phase);
+            if (SolverEvents.COUNTERS_ENABLED) {
+                twoOptCounter.report();
+                orOptCounter.report();
+            }
+        }
+    }
+
+    // Seed population from MST and nearest neighbor tours, diversified and improved by 2-opt
+    private void initializePopulation(SplittableRandom random, ExecutorService executor, CancellationToken token)
+            throws InterruptedException, ExecutionException {
+        population = new int[populationSize][];
+        costs = new double[populationSize];
+
+        int[] seedTour = (initialTour != null) ? initialTour : context.getMSTTour();
+
+        List<Future<int[]>> seeds = new ArrayList<>();
+        for (int i = 0; i < populationSize; i++) {
+            int index = i;
+            long individualSeed = random.nextLong();
+            seeds.add(executor.submit(() -> {
+                SplittableRandom rnd = new SplittableRandom(individualSeed);
+                int[] start;
+                if (index == 0) {
+                    start = seedTour.clone();
+                } else if (index % 2 == 1) {
+                    start = SolverContext.nearestNeighborTour(distances, rnd.nextInt(n));
+                } else {
+                    start = seedTour.clone();
+                    doubleBridge(start, rnd);
+                }
+                return localSearch().improve(start, token);
+            }));
+        }
+
+        for (int i = 0; i < populationSize; i++) {
+            int[] tour = seeds.get(i).get();
+            costs[i] = context.tourCost(tour);
+            population[i] = tour;
+        }
+    }
+
+    private void diversify(SplittableRandom random, ExecutorService executor, int best, CancellationToken token)
+            throws InterruptedException, ExecutionException {
+        Integer[] order = new Integer[populationSize];
+        for (int i = 0; i < populationSize; i++) order[i] = i;
+        java.util.Arrays.sort(order, (x, y) -> Double.compare(costs[x], costs[y]));
+
+        List<Future<int[]>> fresh = new ArrayList<>();
+        int[] elite = population[best];
+        for (int i = populationSize / 2; i < populationSize; i++) {
+            long kickSeed = random.nextLong();
+            fresh.add(executor.submit(() -> {
+                int[] tour = elite.clone();
+                SplittableRandom rnd = new SplittableRandom(kickSeed);
+                for (int kicks = 0; kicks < 4; kicks++) {
+                    doubleBridge(tour, rnd);
+                }
+                return localSearch().improve(tour, token);
+            }));
+        }
+
+        for (int i = populationSize / 2; i < populationSize; i++) {
+            int slot = order[i];
+            population[slot] = fresh.get(i - populationSize / 2).get();
+            costs[slot] = context.tourCost(population[slot]);
+        }
+    }
+
+    private int[] breed(int[] parentA, int[] parentB, long childSeed, CancellationToken token) {
+        SplittableRandom rnd = new SplittableRandom(childSeed);
+        int[] child = new PartitionCrossover(distances).cross(parentA, parentB);
+
+        // identical parents give no new material, so kick the child instead
+        if (child == null || java.util.Arrays.equals(child, parentA) || java.util.Arrays.equals(child, parentB)) {
+            child = parentA.clone();
+            doubleBridge(child, rnd);
+        }
+
+        return localSearch().improve(child, token);
+    }
+
+    private FastLocalSearch localSearch() {
+        FastLocalSearch ls = new FastLocalSearch(distances, neighbors);
+        if (SolverEvents.COUNTERS_ENABLED) ls.setCounters(twoOptCounter, orOptCounter);
+        return ls;
+    }
+
+    // Replace the worst individual if the child is better and not a duplicate
+    private boolean insert(int[] child, double childCost) {
+        int worst = 0;
+        for (int i = 0; i < populationSize; i++) {
+            if (Math.abs(costs[i] - childCost) < 1e-9) return false;
+            if (costs[i] > costs[worst]) worst = i;
+        }
+
+        if (childCost >= costs[worst]) return false;
+
+        population[worst] = child;
+        costs[worst] = childCost;
+        return true;
+    }
+
+    private int tournament(SplittableRandom random) {
+        int a = random.nextInt(populationSize);
+        int b = random.nextInt(populationSize);
+        return costs[a] <= costs[b] ? a : b;
+    }
+
+    private int bestIndex() {
+        int best = 0;
+        for (int i = 1; i < populationSize; i++) {
+            if (costs[i] < costs[best]) best = i;
+        }
+        return best;
+    }
+
+    // Segment-local double-bridge kick: A B C D -> A C B D with short B and C
+    private void doubleBridge(int[] tour, SplittableRandom rnd) {
+        if (n < 8) return;
+
+        int span = Math.max(1, Math.min(50, n / 4));
+        int p1 = 1 + rnd.nextInt(n - 2 * span - 1);
+        int p2 = p1 + 1 + rnd.nextInt(span);
+        int p3 = p2 + 1 + rnd.nextInt(span);
+
+        int[] copy = java.util.Arrays.copyOfRange(tour, p1, p3);
+        int index = p1;
+        for (int i = p2; i < p3; i++) tour[index++] = copy[i - p1];
+        for (int i = p1; i < p2; i++) tour[index++] = copy[i - p1];
+    }
+
+
+    // GPX-style partition crossover over compact adjacency arrays
+    static class PartitionCrossover {
+        private double[][] distances;
+        private int n;
+
+        // adjacency stored as two int slots per city
+        private int[] adjA;
+        private int[] adjB;
+        private int[] child;
+        private int[] component;
+        private int[] label;
+        private int[] unionParent;
+
+        PartitionCrossover(double[][] distances) {
+            this.distances = distances;
+            this.n = distances.length;
+            this.adjA = new int[2 * n];
+            this.adjB = new int[2 * n];
+            this.child = new int[2 * n];
+            this.component = new int[n];
+            this.label = new int[n];
+            this.unionParent = new int[n];
+        }
+
+        // Returns the child tour, or null when the parents share every edge
+        int[] cross(int[] tourA, int[] tourB) {
+            fillAdjacency(tourA, adjA);
+            fillAdjacency(tourB, adjB);
+
+            // union the endpoints of every edge that is not shared by both parents
+            for (int v = 0; v < n; v++) unionParent[v] = v;
+            for (int v = 0; v < n; v++) {
+                for (int s = 0; s < 2; s++) {
+                    int u = adjA[2 * v + s];
+                    if (!hasEdge(adjB, v, u)) union(v, u);
+                    u = adjB[2 * v + s];
+                    if (!hasEdge(adjA, v, u)) union(v, u);
+                }
+            }
+
+            // number the partition components; cities whose edges are all shared get -1
+            int count = 0;
+            java.util.Arrays.fill(label, -1);
+            for (int v = 0; v < n; v++) {
+                if (hasEdge(adjB, v, adjA[2 * v]) && hasEdge(adjB, v, adjA[2 * v + 1])) {
+                    component[v] = -1;
+                    continue;
+                }
+                int root = find(v);
+                if (label[root] < 0) label[root] = count++;
+                component[v] = label[root];
+            }
+            if (count == 0) return null;
+
+            // cost of each parent's private edges inside each component
+            double[] costA = new double[count];
+            double[] costB = new double[count];
+            for (int v = 0; v < n; v++) {
+                if (component[v] < 0) continue;
+                for (int s = 0; s < 2; s++) {
+                    int u = adjA[2 * v + s];
+                    if (u > v && !hasEdge(adjB, v, u)) costA[component[v]] += distances[v][u];
+                    u = adjB[2 * v + s];
+                    if (u > v && !hasEdge(adjA, v, u)) costB[component[v]] += distances[v][u];
+                }
+            }
+
+            // best case: every component takes its cheaper side and the result is one cycle
+            boolean[] useB = new boolean[count];
+            for (int c = 0; c < count; c++) useB[c] = costB[c] < costA[c];
+            if (buildChild(useB)) return toTour();
+
+            // otherwise start from the better parent and switch components greedily
+            double totalA = 0, totalB = 0;
+            for (int c = 0; c < count; c++) {
+                totalA += costA[c];
+                totalB += costB[c];
+            }
+            boolean baseB = totalB < totalA;
+            java.util.Arrays.fill(useB, baseB);
+
+            Integer[] order = new Integer[count];
+            for (int c = 0; c < count; c++) order[c] = c;
+            java.util.Arrays.sort(order, (x, y) -> Double.compare(
+                    Math.abs(costA[y] - costB[y]), Math.abs(costA[x] - costB[x])));
+
+            for (int c : order) {
+                boolean cheaperB = costB[c] < costA[c];
+                if (cheaperB == baseB) continue;
+                useB[c] = cheaperB;
+                if (!buildChild(useB)) useB[c] = baseB;
+            }
+
+            buildChild(useB);
+            return toTour();
+        }
+
+        // assemble child adjacency; true if it forms a single Hamiltonian cycle
+        private boolean buildChild(boolean[] useB) {
+            for (int v = 0; v < n; v++) {
+                int[] source = (component[v] >= 0 && useB[component[v]]) ? adjB : adjA;
+                child[2 * v] = source[2 * v];
+                child[2 * v + 1] = source[2 * v + 1];
+            }
+
+            int previous = -1;
+            int current = 0;
+            for (int steps = 0; steps < n; steps++) {
+                int next = (child[2 * current] != previous) ? child[2 * current] : child[2 * current + 1];
+                previous = current;
+                current = next;
+                if (current == 0) return steps == n - 1;
+            }
+            return false;
+        }
+
+        private int[] toTour() {
+            int[] tour = new int[n];
+            int previous = -1;
+            int current = 0;
+            for (int i = 0; i < n; i++) {
+                tour[i] = current;
+                int next = (child[2 * current] != previous) ? child[2 * current] : child[2 * current + 1];
+                previous = current;
+                current = next;
+            }
+            return tour;
+        }
+
+        private void fillAdjacency(int[] tour, int[] adj) {
+            for (int i = 0; i < n; i++) {
+                int city = tour[i];
+                adj[2 * city] = tour[(i + n - 1) % n];
+                adj[2 * city + 1] = tour[(i + 1) % n];
+            }
+        }
+
+        private boolean hasEdge(int[] adj, int v, int u) {
+            return adj[2 * v] == u || adj[2 * v + 1] == u;
+        }
+
+        private int find(int v) {
+            while (unionParent[v] != v) {
+                unionParent[v] = unionParent[unionParent[v]];
+                v = unionParent[v];
+            }
+            return v;
+        }
+
+        private void union(int a, int b) {
+            int ra = find(a);
+            int rb = find(b);
+            if (ra != rb) unionParent[ra] = rb;
+        }
+    }
+
+
+    // Testing
+    public static void main(String[] args) {
+        double[][] testDistances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        GeneticTSP solver = new GeneticTSP(testDistances);
+        TSPResult result = solver.solve();
+
+        System.out.println("\nGenetic Algorithm Result:");
+        System.out.print("Final tour: ");
+        for (int i = 0; i < result.tour.length; i++) {
+            System.out.print(result.tour[i] + " ");
+        }
+        System.out.println();
+        System.out.println("Final cost: " + result.cost);
+        System.out.println("Held-Karp optimal: 20.0");
+    }
+}
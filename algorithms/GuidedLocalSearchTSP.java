@@ -0,0 +1,362 @@
+// Guided Local Search (Voudouris & Tsang) over the 2-opt / Or-opt neighborhoods of FastLocalSearch.
+//
+// At each local optimum the tour edge with the highest utility d(i, j) / (1 + p(i, j)) is penalized,
+// and the search continues on the augmented cost d(i, j) + lambda * p(i, j), starting only from the
+// endpoints of the penalized edge. Only edges that were ever penalized are stored, in an
+// open-addressing table sized up front, so the search loop does not allocate.
+public class GuidedLocalSearchTSP implements TSPSolver {
+    private static final double EPS = 1e-7;
+
+    private SolverContext context;
+    private double[][] distances;
+    private int n;
+    private int[][] neighbors;
+
+    private double alpha = 0.3; // lambda = alpha * (local optimum cost / n)
+    private long timeLimitMillis = 10_000;
+
+    private double lambda;
+    private PenaltyTable penalties;
+    private boolean[] hasPenalty;  // quick filter: city has at least one penalized edge
+    private ArrayTour tour;
+    private double currentCost;    // real cost, kept up to date move by move
+
+    // don't-look bits kept as a FIFO queue of active cities
+    private int[] queue;
+    private boolean[] inQueue;
+    private int queueHead;
+    private int queueSize;
+
+    private SolverEvents.OperatorCounter twoOptCounter;
+    private SolverEvents.OperatorCounter orOptCounter;
+
+    public GuidedLocalSearchTSP(double[][] distances) {
+        this(new SolverContext(distances));
+    }
+
+    public GuidedLocalSearchTSP(SolverContext context) {
+        this.context = context;
+        this.distances = context.getDistances();
+        this.n = context.size();
+        this.neighbors = context.getNeighborLists(10);
+    }
+
+    public String getName() {
+        return "Guided Local Search";
+    }
+
+    public GuidedLocalSearchTSP setAlpha(double alpha) {
+        this.alpha = alpha;
+        return this;
+    }
+
+    public GuidedLocalSearchTSP setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+        return this;
+    }
+
+    // Guide the search from the MST tour
+    public TSPResult solve(CancellationToken token) {
+        return solve(context.getMSTTour(), token);
+    }
+
+    public TSPResult solve(int[] initialTour) {
+        return solve(initialTour, CancellationToken.none());
+    }
+
+    // Runs until the time limit or the token, and returns the best real-cost tour seen, quenched by 2-opt/Or-opt
+    public TSPResult solve(int[] initialTour, CancellationToken token) {
+        int[] current = initialTour.clone();
+        if (n < 5) {
+            return new TSPResult(current, context.tourCost(current));
+        }
+
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase(getName(), "improve", n);
+        twoOptCounter = SolverEvents.counter(getName(), "2-opt");
+        orOptCounter = SolverEvents.counter(getName(), "Or-opt");
+
+        penalties = new PenaltyTable(4 * n);
+        hasPenalty = new boolean[n];
+        queue = new int[n];
+        inQueue = new boolean[n];
+        tour = new ArrayTour(current);
+        currentCost = context.tourCost(current);
+        lambda = 0; // plain local search to the first local optimum
+
+        long deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+        for (int city = 0; city < n; city++) {
+            push(city);
+        }
+        search(token, deadline);
+
+        int[] best = current.clone();
+        double bestCost = currentCost;
+        lambda = alpha * currentCost / n;
+
+        int rounds = 0;
+        while (!stopped(token, deadline)) {
+            penalizeMaxUtility();
+            search(token, deadline);
+            rounds++;
+
+            if (currentCost < bestCost - 1e-9) {
+                System.arraycopy(current, 0, best, 0, n);
+                bestCost = currentCost;
+            }
+        }
+
+        if (SolverEvents.COUNTERS_ENABLED) {
+            twoOptCounter.report();
+            orOptCounter.report();
+        }
+        SolverEvents.endPhase(phase);
+
+        // the best tour was a local optimum of the augmented cost, not necessarily of the real one
+        best = new FastLocalSearch(distances, neighbors).improve(best);
+        bestCost = context.tourCost(best);
+        if (SolverLog.isInfoEnabled()) {
+            SolverLog.info("Guided local search: " + rounds + " penalty rounds, best cost " + bestCost);
+        }
+        return new TSPResult(best, bestCost);
+    }
+
+    private static boolean stopped(CancellationToken token, long deadline) {
+        return System.nanoTime() - deadline >= 0 || token.isCancelled();
+    }
+
+    // Local search on the augmented cost until the queue is empty
+    private void search(CancellationToken token, long deadline) {
+        int polls = 0;
+        while (queueSize > 0) {
+            if ((++polls & 0xFF) == 0 && stopped(token, deadline)) break;
+            int city = pop();
+            while (tryTwoOpt(city) || tryOrOpt(city)) {
+                // keep working on the same city while it yields improvements
+            }
+        }
+    }
+
+    // Penalize the tour edge of maximal utility and wake up its endpoints
+    private void penalizeMaxUtility() {
+        int[] order = tour.array();
+        double maxUtility = -1;
+        int maxA = -1;
+        int maxB = -1;
+        for (int i = 0; i < n; i++) {
+            int a = order[i];
+            int b = order[i + 1 < n ? i + 1 : 0];
+            double utility = distances[a][b] / (1 + penalty(a, b));
+            if (utility > maxUtility) {
+                maxUtility = utility;
+                maxA = a;
+                maxB = b;
+            }
+        }
+
+        penalties.increment(edgeKey(maxA, maxB));
+        hasPenalty[maxA] = true;
+        hasPenalty[maxB] = true;
+        push(maxA);
+        push(maxB);
+    }
+
+    private long edgeKey(int a, int b) {
+        return (a < b) ? (long) a * n + b : (long) b * n + a;
+    }
+
+    private int penalty(int a, int b) {
+        if (!hasPenalty[a] || !hasPenalty[b]) return 0;
+        return penalties.get(edgeKey(a, b));
+    }
+
+    // Augmented cost d(a, b) + lambda * p(a, b)
+    private double cost(int a, int b) {
+        return distances[a][b] + lambda * penalty(a, b);
+    }
+
+    // 2-opt: remove (a, succ a) and (c, succ c), or the pred variants, add (a, c)
+    private boolean tryTwoOpt(int a) {
+        double[] da = distances[a];
+        for (int dir = 0; dir < 2; dir++) {
+            int b = (dir == 0) ? tour.next(a) : tour.prev(a);
+            double gab = cost(a, b);
+
+            for (int c : neighbors[a]) {
+                // penalties only add, so the plain distance bounds the augmented gain
+                if (gab - da[c] <= EPS) break;
+                double g1 = gab - cost(a, c);
+                if (g1 <= EPS) continue;
+
+                int d = (dir == 0) ? tour.next(c) : tour.prev(c);
+                if (c == b || d == a) continue;
+                if (SolverEvents.COUNTERS_ENABLED) twoOptCounter.evaluated();
+
+                double gain = g1 + cost(c, d) - cost(b, d);
+                if (gain > EPS) {
+                    double delta = da[c] + distances[b][d] - da[b] - distances[c][d];
+                    if (SolverEvents.COUNTERS_ENABLED) twoOptCounter.applied(-delta);
+                    tour.move2Opt(a, b, c, d);
+                    currentCost += delta;
+                    push(a);
+                    push(b);
+                    push(c);
+                    push(d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Or-opt: move a segment of 1-3 cities next to one of its neighbors, possibly reversed
+    private boolean tryOrOpt(int a) {
+        for (int length = 1; length <= 3 && length < n - 3; length++) {
+            for (int side = 0; side < 2; side++) {
+                int s1 = (side == 0) ? a : tour.walk(a, -(length - 1));
+                int s2 = (side == 0) ? tour.walk(a, length - 1) : a;
+                int p = tour.prev(s1);
+                int nx = tour.next(s2);
+
+                double removeGain = cost(p, s1) + cost(s2, nx) - cost(p, nx);
+                if (removeGain <= EPS) continue;
+
+                for (int end = 0; end < 2; end++) {
+                    int s = (end == 0) ? s1 : s2;
+
+                    for (int c : neighbors[s]) {
+                        if (distances[s][c] >= removeGain) break;
+                        if (tour.inSegment(c, s1, length)) continue;
+
+                        for (int cdir = 0; cdir < 2; cdir++) {
+                            int d = (cdir == 0) ? tour.next(c) : tour.prev(c);
+                            if (tour.inSegment(d, s1, length)) continue;
+
+                            // orient the insertion edge so that c2 -> d2 in tour order
+                            int c2 = (cdir == 0) ? c : d;
+                            int d2 = (cdir == 0) ? d : c;
+                            if (c2 == nx || d2 == p) continue;
+                            if (SolverEvents.COUNTERS_ENABLED) orOptCounter.evaluated();
+
+                            double gcd = cost(c2, d2);
+                            double reversedCost = cost(c2, s2) + cost(s1, d2) - gcd;
+                            double forwardCost = cost(c2, s1) + cost(s2, d2) - gcd;
+                            boolean reversed = reversedCost <= forwardCost;
+
+                            if (removeGain - (reversed ? reversedCost : forwardCost) > EPS) {
+                                double delta = distances[p][nx] - distances[p][s1] - distances[s2][nx]
+                                        + (reversed
+                                        ? distances[c2][s2] + distances[s1][d2]
+                                        : distances[c2][s1] + distances[s2][d2])
+                                        - distances[c2][d2];
+                                if (SolverEvents.COUNTERS_ENABLED) orOptCounter.applied(-delta);
+                                tour.moveSegment(s1, s2, c2, d2, reversed);
+                                currentCost += delta;
+                                push(p);
+                                push(nx);
+                                push(s1);
+                                push(s2);
+                                push(c2);
+                                push(d2);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void push(int city) {
+        if (inQueue[city]) return;
+        inQueue[city] = true;
+        int tail = queueHead + queueSize;
+        if (tail >= n) tail -= n;
+        queue[tail] = city;
+        queueSize++;
+    }
+
+    private int pop() {
+        int city = queue[queueHead];
+        if (++queueHead == n) queueHead = 0;
+        queueSize--;
+        inQueue[city] = false;
+        return city;
+    }
+
+
+    // Edge -> penalty count, linear probing; doubles when half full, which is rare after warm-up
+    static class PenaltyTable {
+        private static final long EMPTY = -1;
+        private long[] keys;
+        private int[] counts;
+        private int size;
+
+        PenaltyTable(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected) * 2 - 1) << 1;
+            keys = new long[capacity];
+            counts = new int[capacity];
+            java.util.Arrays.fill(keys, EMPTY);
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == key) return counts[i];
+                if (keys[i] == EMPTY) return 0;
+            }
+        }
+
+        void increment(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != key && keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                if (++size * 2 > keys.length) {
+                    counts[i] = 1;
+                    grow();
+                    return;
+                }
+            }
+            counts[i]++;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            java.util.Arrays.fill(keys, EMPTY);
+            int mask = keys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == EMPTY) continue;
+                int i = hash(oldKeys[j]) & mask;
+                while (keys[i] != EMPTY) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                counts[i] = oldCounts[j];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    public static void main(String[] args) {
+        double[][] distances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        GuidedLocalSearchTSP gls = new GuidedLocalSearchTSP(distances).setTimeLimitMillis(100);
+        TSPResult result = gls.solve();
+        System.out.println("Guided Local Search cost: " + result.cost);
+        System.out.println("Tour: " + java.util.Arrays.toString(result.tour));
+    }
+}
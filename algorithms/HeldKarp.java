@@ -1,44 +1,93 @@
-public class HeldKarp {
+public class HeldKarp implements TSPSolver {
     private double[][] distances;
+    private int[][] weights; // integer mode when set
     private int n;
+    private java.util.function.DoubleSupplier upperBound; // cost of a known tour, polled once per mask
     
     public HeldKarp(double[][] distances) {
         this.distances = distances;
         this.n = distances.length;
     }
+
+    // Integer mode: TSPLIB weights, exact long DP
+    public HeldKarp(int[][] weights) {
+        this.weights = weights;
+        this.n = weights.length;
+    }
+
+    public HeldKarp(SolverContext context) {
+        this(context.getDistances());
+    }
+
+    public String getName() {
+        return "Held-Karp";
+    }
+
+    // Prune partial paths that cannot close into a tour cheaper than a known one (e.g. a portfolio
+    // incumbent; the supplier may keep improving while the DP runs). The rest of the tour has to
+    // enter every unvisited city and city 0 once, so it costs at least the sum of their cheapest
+    // incoming edges. If nothing beats the bound the result is the nearest neighbor tour.
+    public HeldKarp setUpperBound(java.util.function.DoubleSupplier upperBound) {
+        this.upperBound = upperBound;
+        return this;
+    }
+
+    public TSPResult solve(CancellationToken token) {
+        return solveTSP(token);
+    }
     
     // Held-Karp DP algorithm
     public TSPResult solveTSP() {
-        // dp[mask][i] = minimum cost to visit all cities in mask, ending at city i
-        double[][] dp = new double[1 << n][n];
-        int[][] parent = new int[1 << n][n];
+        return solveTSP(CancellationToken.none());
+    }
+
+    // Cancellable variant: if the token fires before the DP finishes, the nearest
+    // neighbor tour is returned instead of the optimum
+    public TSPResult solveTSP(CancellationToken token) {
+        if (weights != null) {
+            return solveInteger(token);
+        }
+
+        // dp[mask * n + i] = minimum cost to visit all cities in mask, ending at city i
+        // (flat tables: one allocation instead of 2^n row arrays)
+        int size = tableSize(n);
+        double[] dp = new double[size];
+        int[] parent = new int[size];
         
         // Initialize DP table
         for (int mask = 0; mask < (1 << n); mask++) {
+            if ((mask & 0x3FF) == 0 && token.isCancelled()) {
+                return nearestNeighborFallback();
+            }
             for (int i = 0; i < n; i++) {
-                dp[mask][i] = Double.MAX_VALUE;
-                parent[mask][i] = -1;
+                dp[mask * n + i] = Double.MAX_VALUE;
+                parent[mask * n + i] = -1;
             }
         }
         
         // Base case: start at city 0
-        dp[1][0] = 0; // mask=1 means only city 0 is visited
+        dp[1 * n + 0] = 0; // mask=1 means only city 0 is visited
+        double[] rest = (upperBound == null) ? null : remainingLowerBounds();
         
         // Fill DP table
         for (int mask = 1; mask < (1 << n); mask++) {
+            if ((mask & 0x3FF) == 0 && token.isCancelled()) {
+                return nearestNeighborFallback();
+            }
+            double bound = (rest == null) ? Double.MAX_VALUE : upperBound.getAsDouble() - rest[mask];
             for (int u = 0; u < n; u++) {
                 if ((mask & (1 << u)) == 0) continue; // u not in current set
-                if (dp[mask][u] == Double.MAX_VALUE) continue;
+                if (dp[mask * n + u] == Double.MAX_VALUE || dp[mask * n + u] > bound) continue; // unreachable or pruned
                 
                 for (int v = 0; v < n; v++) {
                     if ((mask & (1 << v)) != 0) continue; // v already visited - FIXED
                     
                     int newMask = mask | (1 << v);
-                    double newCost = dp[mask][u] + distances[u][v];
+                    double newCost = dp[mask * n + u] + distances[u][v];
                     
-                    if (newCost < dp[newMask][v]) {
-                        dp[newMask][v] = newCost;
-                        parent[newMask][v] = u;
+                    if (newCost < dp[newMask * n + v]) {
+                        dp[newMask * n + v] = newCost;
+                        parent[newMask * n + v] = u;
                     }
                 }
             }
@@ -50,21 +99,230 @@ public class HeldKarp {
         int finalMask = (1 << n) - 1; // all cities visited
         
         for (int i = 1; i < n; i++) {
-            double cost = dp[finalMask][i] + distances[i][0];
+            double cost = dp[finalMask * n + i] + distances[i][0];
             if (cost < minCost) {
                 minCost = cost;
                 lastCity = i;
             }
         }
         
+        if (lastCity < 0) {
+            return nearestNeighborFallback(); // every path was pruned by the upper bound
+        }
+
         // Reconstruct path
         int[] tour = reconstructPath(parent, finalMask, lastCity);
         
         return new TSPResult(tour, minCost);
     }
     
+    // Same DP over long costs; unreachable states hold Long.MAX_VALUE
+    private TSPResult solveInteger(CancellationToken token) {
+        int size = tableSize(n);
+        long[] dp = new long[size];
+        int[] parent = new int[size];
+
+        for (int mask = 0; mask < (1 << n); mask++) {
+            if ((mask & 0x3FF) == 0 && token.isCancelled()) {
+                return nearestNeighborFallback();
+            }
+            for (int i = 0; i < n; i++) {
+                dp[mask * n + i] = Long.MAX_VALUE;
+                parent[mask * n + i] = -1;
+            }
+        }
+
+        dp[1 * n + 0] = 0;
+        double[] rest = (upperBound == null) ? null : remainingLowerBounds();
+
+        for (int mask = 1; mask < (1 << n); mask++) {
+            if ((mask & 0x3FF) == 0 && token.isCancelled()) {
+                return nearestNeighborFallback();
+            }
+            double bound = (rest == null) ? Double.POSITIVE_INFINITY : upperBound.getAsDouble() - rest[mask];
+            for (int u = 0; u < n; u++) {
+                if ((mask & (1 << u)) == 0) continue;
+                long current = dp[mask * n + u];
+                if (current == Long.MAX_VALUE || current > bound) continue;
+                int[] row = weights[u];
+
+                for (int v = 0; v < n; v++) {
+                    if ((mask & (1 << v)) != 0) continue;
+
+                    int newMask = mask | (1 << v);
+                    long newCost = current + row[v];
+                    if (newCost < dp[newMask * n + v]) {
+                        dp[newMask * n + v] = newCost;
+                        parent[newMask * n + v] = u;
+                    }
+                }
+            }
+        }
+
+        long minCost = Long.MAX_VALUE;
+        int lastCity = -1;
+        int finalMask = (1 << n) - 1;
+        for (int i = 1; i < n; i++) {
+            if (dp[finalMask * n + i] == Long.MAX_VALUE) continue;
+            long cost = dp[finalMask * n + i] + weights[i][0];
+            if (cost < minCost) {
+                minCost = cost;
+                lastCity = i;
+            }
+        }
+        if (lastCity < 0) {
+            return nearestNeighborFallback();
+        }
+
+        int[] tour = reconstructPath(parent, finalMask, lastCity);
+        return new TSPResult(tour, minCost);
+    }
+
+    // 2^cities * cities table entries, computed in long: from 27 cities on the int product wraps
+    // around, and past what a Java array can hold the instance is rejected up front
+    static int tableSize(int cities) {
+        long size = (cities < 32) ? (1L << cities) * cities : Long.MAX_VALUE;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many cities for Held-Karp: a DP over " + cities
+                    + " cities needs 2^" + cities + " * " + cities + " table entries");
+        }
+        return (int) size;
+    }
+
+    // rest[mask] = cheapest incoming edge of city 0 plus those of every city outside mask
+    private double[] remainingLowerBounds() {
+        double[] cheapestIn = new double[n];
+        for (int v = 0; v < n; v++) {
+            double cheapest = Double.MAX_VALUE;
+            for (int u = 0; u < n; u++) {
+                if (u != v) cheapest = Math.min(cheapest, (weights != null) ? weights[u][v] : distances[u][v]);
+            }
+            cheapestIn[v] = (n > 1) ? cheapest : 0;
+        }
+        int full = (1 << n) - 1;
+        double[] inside = new double[full + 1];
+        for (int mask = 1; mask <= full; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            inside[mask] = inside[mask & (mask - 1)] + cheapestIn[lowest];
+        }
+        double total = inside[full];
+        for (int mask = 0; mask <= full; mask++) {
+            inside[mask] = total - inside[mask] + cheapestIn[0]; // now the outside sum
+        }
+        return inside;
+    }
+
+    // Fixed-endpoint variant: the shortest Hamiltonian path from city 0 to city n - 1 through all
+    // the others. The result's tour is that path (starting at 0, ending at n - 1), its cost the path
+    // length without a closing edge.
+    public TSPResult solvePath() {
+        double[][] d = distances;
+        if (d == null) {
+            // integer mode: the sums stay exact in doubles far beyond any path Held-Karp can handle
+            d = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) d[i][j] = weights[i][j];
+            }
+        }
+        int interior = Math.max(0, n - 2);
+        int size = tableSize(interior);
+        int[] path = new int[n];
+        double cost = shortestPath(d, n, new double[size], new int[size], path);
+        return new TSPResult(path, cost);
+    }
+
+    // Path DP over the n - 2 interior cities only: dp[mask * m + j] = shortest path from city 0
+    // through exactly the interior cities in mask, ending at interior city j (city j + 1). Works on
+    // the top-left n x n corner of d with caller-supplied tables of at least 2^m * m entries, so a
+    // caller solving many small windows can reuse them. Writes the path into order[0..n-1].
+    static double shortestPath(double[][] d, int n, double[] dp, int[] parent, int[] order) {
+        if (n == 1) {
+            order[0] = 0;
+            return 0;
+        }
+        int last = n - 1;
+        int m = n - 2;
+        order[0] = 0;
+        order[last] = last;
+        if (m == 0) {
+            return d[0][last];
+        }
+
+        int full = (1 << m) - 1;
+        java.util.Arrays.fill(dp, 0, (full + 1) * m, Double.MAX_VALUE);
+        for (int j = 0; j < m; j++) {
+            dp[(1 << j) * m + j] = d[0][j + 1];
+            parent[(1 << j) * m + j] = -1;
+        }
+
+        // walk only the set bits of mask for u and the clear ones for v: m^2 2^m / 4 steps, not m^2 2^m
+        for (int mask = 1; mask < full; mask++) {
+            for (int members = mask; members != 0; members &= members - 1) {
+                int u = Integer.numberOfTrailingZeros(members);
+                double current = dp[mask * m + u];
+                if (current == Double.MAX_VALUE) continue;
+                double[] row = d[u + 1];
+
+                for (int free = full & ~mask; free != 0; free &= free - 1) {
+                    int v = Integer.numberOfTrailingZeros(free);
+                    int index = (mask | (1 << v)) * m + v;
+                    double newCost = current + row[v + 1];
+                    if (newCost < dp[index]) {
+                        dp[index] = newCost;
+                        parent[index] = u;
+                    }
+                }
+            }
+        }
+
+        double best = Double.MAX_VALUE;
+        int end = -1;
+        for (int j = 0; j < m; j++) {
+            double cost = dp[full * m + j] + d[j + 1][last];
+            if (cost < best) {
+                best = cost;
+                end = j;
+            }
+        }
+
+        int mask = full;
+        for (int position = last - 1; end >= 0; position--) {
+            order[position] = end + 1;
+            int previous = parent[mask * m + end];
+            mask ^= 1 << end;
+            end = previous;
+        }
+        return best;
+    }
+
+    // Best-so-far answer when the DP is cut short
+    private TSPResult nearestNeighborFallback() {
+        if (weights != null) {
+            int[] tour = integerNearestNeighborTour();
+            return new TSPResult(tour, IntMatrixDistance.tourCost(weights, tour));
+        }
+        int[] tour = SolverContext.nearestNeighborTour(distances, 0);
+        return new TSPResult(tour, MatrixDistance.tourCost(distances, tour));
+    }
+
+    private int[] integerNearestNeighborTour() {
+        int[] tour = new int[n];
+        boolean[] visited = new boolean[n];
+        visited[0] = true;
+        for (int i = 1; i < n; i++) {
+            int[] row = weights[tour[i - 1]];
+            int nearest = -1;
+            for (int j = 0; j < n; j++) {
+                if (!visited[j] && (nearest < 0 || row[j] < row[nearest])) nearest = j;
+            }
+            tour[i] = nearest;
+            visited[nearest] = true;
+        }
+        return tour;
+    }
+
     // Reconstruct the optimal path
-    private int[] reconstructPath(int[][] parent, int mask, int lastCity) {
+    private int[] reconstructPath(int[] parent, int mask, int lastCity) {
         int[] path = new int[n];
         int pathIndex = n - 1;
         int currentCity = lastCity;
@@ -72,7 +330,7 @@ public class HeldKarp {
         
         while (currentCity != -1) {
             path[pathIndex--] = currentCity;
-            int prevCity = parent[currentMask][currentCity];
+            int prevCity = parent[currentMask * n + currentCity];
             currentMask = currentMask ^ (1 << currentCity); // remove current city from mask
             currentCity = prevCity;
         }
@@ -80,16 +338,6 @@ public class HeldKarp {
         return path;
     }
     
-    // Helper class for result
-    public static class TSPResult {
-        public int[] tour;
-        public double cost;
-        
-        public TSPResult(int[] tour, double cost) {
-            this.tour = tour;
-            this.cost = cost;
-        }
-    }
 
 
     public static void main(String[] args) {
@@ -0,0 +1,91 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Distance provider backed by TSPLIB integer weights (EUC_2D: nint of the Euclidean distance).
+// Half the memory of a double matrix when it replaces one (as TSPLIBParser's integer mode does),
+// and tour costs are exact long sums, so equal tours compare equal and an "improvement" is never
+// rounding noise.
+public class IntMatrixDistance implements DistanceProvider {
+    private final int[][] weights;
+
+    public IntMatrixDistance(int[][] weights) {
+        this.weights = weights;
+    }
+
+    public int[][] matrix() {
+        return weights;
+    }
+
+    public int size() {
+        return weights.length;
+    }
+
+    public double distance(int i, int j) {
+        return weights[i][j];
+    }
+
+    public double tourCost(int[] tour) {
+        return tourCost(weights, tour);
+    }
+
+    // Exact closed tour length
+    public static long tourCost(int[][] weights, int[] tour) {
+        int n = tour.length;
+        long cost = 0;
+        for (int i = 0; i < n - 1; i++) {
+            cost += weights[tour[i]][tour[i + 1]];
+        }
+        cost += weights[tour[n - 1]][tour[0]]; // return to start
+        return cost;
+    }
+
+    // TSPLIB nint: round half up
+    public static int nint(double x) {
+        return (int) (x + 0.5);
+    }
+
+    // EUC_2D weights straight from coordinates, without building a double matrix first; rows are
+    // split across the common ForkJoinPool as in MatrixDistance.fromCoordinates
+    public static int[][] fromCoordinates(double[] xs, double[] ys) {
+        int n = xs.length;
+        int[][] weights = new int[n][];
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunks = Math.max(1, Math.min(n, pool.getParallelism() * 4));
+        DistanceKernels.Kernels kernels = DistanceKernels.get();
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) n * c / chunks);
+            int to = (int) ((long) n * (c + 1) / chunks);
+            tasks.add(pool.submit(() -> {
+                double[] row = new double[n];
+                for (int i = from; i < to; i++) {
+                    kernels.distancesFrom(xs[i], ys[i], xs, ys, row, 0, n);
+                    int[] out = new int[n];
+                    for (int j = 0; j < n; j++) {
+                        out[j] = nint(row[j]);
+                    }
+                    weights[i] = out;
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return weights;
+    }
+
+    // Rounded copy of an existing Euclidean matrix
+    public static int[][] round(double[][] distances) {
+        int n = distances.length;
+        int[][] weights = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                weights[i][j] = nint(distances[i][j]);
+            }
+        }
+        return weights;
+    }
+}
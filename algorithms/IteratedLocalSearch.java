@@ -0,0 +1,369 @@
+import java.util.SplittableRandom;
+
+// Iterated local search: 2-opt / Or-opt to a local optimum, then repeatedly kick it with a
+// localized double bridge and repair only around the kick.
+//
+// The kick picks a random city a and swaps the two short segments that follow it (A B C D ->
+// A C B D, each segment at most segmentLength cities), done as three reversals of at most
+// 2 * segmentLength positions. Only the six cities at the changed edges are queued, so the
+// don't-look bits keep the repair local, and the tour cost is tracked from the move gains
+// rather than recomputed. A kick is kept when the repaired tour is better or equal, otherwise
+// undone from the ArrayTour journal in the time the kick took. After restartAfter kicks in a row
+// without an improvement, a double bridge over the whole tour is accepted unconditionally and
+// the search continues from there; the best tour seen is returned.
+public class IteratedLocalSearch implements TSPSolver {
+    private static final double EPS = 1e-7;
+    private static final int NEIGHBORS = 10;
+
+    private final DistanceProvider distances;
+    private final int n;
+    private final int[][] neighbors;
+    private final SolverContext context;          // null when built from coordinates
+    private final CoordinateDistance coordinates; // null when built from a context
+
+    private int segmentLength = 50;
+    private long maxKicks = Long.MAX_VALUE;
+    private long restartAfter; // 0: never restart
+    private long seed = System.nanoTime();
+    private int[] initialTour;
+    private TourListener checkpoint;
+
+    private ArrayTour tour;
+    // don't-look bits kept as a FIFO queue of active cities; empty between kicks
+    private int[] queue;
+    private boolean[] inQueue;
+    private int queueHead;
+    private int queueSize;
+    private double gained; // sum of the applied move gains since it was last reset
+
+    private long kicks;
+    private long improvements;
+    private long restarts;
+
+    public IteratedLocalSearch(SolverContext context) {
+        this(context.getDistanceProvider(), context.getNeighborLists(NEIGHBORS), context, null);
+    }
+
+    public IteratedLocalSearch(CoordinateDistance coordinates) {
+        this(coordinates, coordinates.neighborLists(NEIGHBORS), null, coordinates);
+    }
+
+    private IteratedLocalSearch(DistanceProvider distances, int[][] neighbors, SolverContext context,
+            CoordinateDistance coordinates) {
+        this.distances = distances;
+        this.n = distances.size();
+        this.neighbors = neighbors;
+        this.context = context;
+        this.coordinates = coordinates;
+        this.restartAfter = 100L * n;
+    }
+
+    public String getName() {
+        return "Iterated Local Search";
+    }
+
+    // Longest segment a kick moves; larger kicks escape deeper optima but cost more to repair
+    public IteratedLocalSearch setSegmentLength(int segmentLength) {
+        this.segmentLength = segmentLength;
+        return this;
+    }
+
+    public IteratedLocalSearch setMaxKicks(long maxKicks) {
+        this.maxKicks = maxKicks;
+        return this;
+    }
+
+    // Kicks in a row without an improvement before restarting from a global double bridge (0: never)
+    public IteratedLocalSearch setRestartAfter(long restartAfter) {
+        this.restartAfter = restartAfter;
+        return this;
+    }
+
+    public IteratedLocalSearch setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    // Start from this tour instead of building one
+    public IteratedLocalSearch setInitialTour(int[] initialTour) {
+        this.initialTour = initialTour;
+        return this;
+    }
+
+    public IteratedLocalSearch setCheckpoint(TourListener checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    public long getKicks() {
+        return kicks;
+    }
+
+    public long getImprovements() {
+        return improvements;
+    }
+
+    public long getRestarts() {
+        return restarts;
+    }
+
+    // Kicks until maxKicks or the token fires; starts from the initial tour, else the cheaper of
+    // the MST and nearest neighbor tours (multilevel construction on coordinates)
+    public TSPResult solve(CancellationToken token) {
+        int[] start = initialTour;
+        if (start == null) {
+            start = (context != null) ? SolverPipeline.BEST_CONSTRUCTION.construct(context)
+                    : new MultilevelTSP(coordinates).solve(token).tour;
+        }
+        int[] result = improve(start, token);
+        double cost = distances.tourCost(result);
+        SolverLog.info(getName() + ": " + kicks + " kicks, " + improvements + " improving, " + restarts
+                + " restarts (cost: " + cost + ")");
+        return new TSPResult(result, cost);
+    }
+
+    // Local search, then kicks; returns the best tour seen, never worse than the given one
+    public int[] improve(int[] initial, CancellationToken token) {
+        int[] current = initial.clone();
+        if (n < 8) return current;
+
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase(getName(), "improve", n);
+        SolverEvents.OperatorCounter kickCounter = SolverEvents.counter(getName(), "double-bridge kick");
+        SplittableRandom random = new SplittableRandom(seed);
+        int localLength = Math.max(1, Math.min(segmentLength, n / 4));
+
+        tour = new ArrayTour(current);
+        queue = new int[n];
+        inQueue = new boolean[n];
+        queueHead = 0;
+        queueSize = 0;
+        for (int city = 0; city < n; city++) push(city);
+        gained = 0;
+        localSearch(token);
+        double cost = distances.tourCost(current);
+        kicks = improvements = restarts = 0;
+
+        int[] best = null; // null while the current tour is the best seen
+        double bestCost = cost;
+        long sinceImprovement = 0;
+        while (kicks < maxKicks && !(((kicks & 0xFF) == 0) && token.isCancelled())) {
+            if (restartAfter > 0 && sinceImprovement >= restartAfter) {
+                if (best == null || cost < bestCost) {
+                    best = current.clone();
+                    bestCost = cost;
+                }
+                gained = 0;
+                kick(random, Math.max(1, n / 4));
+                localSearch(token);
+                cost = distances.tourCost(current); // also clears the drift of the tracked cost
+                restarts++;
+                sinceImprovement = 0;
+            }
+
+            kicks++;
+            tour.beginJournal();
+            gained = 0;
+            double change = kick(random, localLength);
+            localSearch(token);
+            change -= gained;
+            if (SolverEvents.COUNTERS_ENABLED) kickCounter.evaluated();
+
+            if (change < EPS) {
+                tour.endJournal();
+                cost += change;
+                if (change < -EPS) {
+                    improvements++;
+                    sinceImprovement = 0;
+                    if (SolverEvents.COUNTERS_ENABLED) kickCounter.applied(-change);
+                    if (checkpoint != null && checkpoint.isDue()) checkpoint.offer(current, cost);
+                } else {
+                    sinceImprovement++;
+                }
+            } else {
+                tour.rollback();
+                sinceImprovement++;
+            }
+        }
+
+        cost = distances.tourCost(current);
+        if (best != null && bestCost < cost) {
+            current = best;
+            cost = bestCost;
+        }
+        if (checkpoint != null) {
+            checkpoint.offer(current, cost);
+            checkpoint.flush();
+        }
+        if (SolverEvents.COUNTERS_ENABLED) kickCounter.report();
+        SolverEvents.endPhase(phase);
+        return current;
+    }
+
+    // Double bridge on the two segments after a random city, each 1..maxLength long: A B C D ->
+    // A C B D by reversing B C and then each part back; returns the change in tour length
+    private double kick(SplittableRandom random, int maxLength) {
+        int l1 = 1 + random.nextInt(maxLength);
+        int l2 = 1 + random.nextInt(maxLength);
+        int a = tour.cityAt(random.nextInt(n));
+        int b1 = tour.next(a);
+        int b2 = tour.walk(a, l1);
+        int c1 = tour.next(b2);
+        int c2 = tour.walk(b2, l2);
+        int d = tour.next(c2);
+
+        double change = distances.distance(a, c1) + distances.distance(c2, b1) + distances.distance(b2, d)
+                - distances.distance(a, b1) - distances.distance(b2, c1) - distances.distance(c2, d);
+        // l1 + l2 <= n / 2, so ArrayTour reverses these paths and not their complements
+        tour.reverse(b1, c2);
+        tour.reverse(c2, c1);
+        tour.reverse(b2, b1);
+        push(a);
+        push(b1);
+        push(b2);
+        push(c1);
+        push(c2);
+        push(d);
+        return change;
+    }
+
+    private void localSearch(CancellationToken token) {
+        int polls = 0;
+        while (queueSize > 0) {
+            if ((++polls & 0xFFF) == 0 && token.isCancelled()) break;
+            int city = pop();
+            while (tryTwoOpt(city) || tryOrOpt(city)) {
+                // keep working on the same city while it yields improvements
+            }
+        }
+        // a cancelled search leaves cities queued; they must not leak into the next kick
+        while (queueSize > 0) pop();
+    }
+
+    // 2-opt: remove (a, succ a) and (c, succ c), or the pred variants, add (a, c)
+    private boolean tryTwoOpt(int a) {
+        for (int dir = 0; dir < 2; dir++) {
+            int b = (dir == 0) ? tour.next(a) : tour.prev(a);
+            double dab = distances.distance(a, b);
+
+            for (int c : neighbors[a]) {
+                double g1 = dab - distances.distance(a, c);
+                if (g1 <= EPS) break;
+
+                int d = (dir == 0) ? tour.next(c) : tour.prev(c);
+                if (c == b || d == a) continue;
+
+                double gain = g1 + distances.distance(c, d) - distances.distance(b, d);
+                if (gain > EPS) {
+                    tour.move2Opt(a, b, c, d);
+                    gained += gain;
+                    push(a);
+                    push(b);
+                    push(c);
+                    push(d);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Or-opt: move a segment of 1-3 cities next to one of its neighbors, possibly reversed
+    private boolean tryOrOpt(int a) {
+        for (int length = 1; length <= 3 && length < n - 3; length++) {
+            for (int side = 0; side < 2; side++) {
+                int s1 = (side == 0) ? a : tour.walk(a, -(length - 1));
+                int s2 = (side == 0) ? tour.walk(a, length - 1) : a;
+                int p = tour.prev(s1);
+                int nx = tour.next(s2);
+
+                double removeGain = distances.distance(p, s1) + distances.distance(s2, nx) - distances.distance(p, nx);
+                if (removeGain <= EPS) continue;
+
+                for (int end = 0; end < 2; end++) {
+                    int s = (end == 0) ? s1 : s2;
+
+                    for (int c : neighbors[s]) {
+                        if (distances.distance(s, c) >= removeGain) break;
+                        if (tour.inSegment(c, s1, length)) continue;
+
+                        for (int cdir = 0; cdir < 2; cdir++) {
+                            int d = (cdir == 0) ? tour.next(c) : tour.prev(c);
+                            if (tour.inSegment(d, s1, length)) continue;
+
+                            // orient the insertion edge so that c2 -> d2 in tour order
+                            int c2 = (cdir == 0) ? c : d;
+                            int d2 = (cdir == 0) ? d : c;
+                            if (c2 == nx || d2 == p) continue;
+
+                            double dcd = distances.distance(c2, d2);
+                            double reversedCost = distances.distance(c2, s2) + distances.distance(s1, d2) - dcd;
+                            double forwardCost = distances.distance(c2, s1) + distances.distance(s2, d2) - dcd;
+                            double insertCost = Math.min(reversedCost, forwardCost);
+
+                            if (removeGain - insertCost > EPS) {
+                                tour.moveSegment(s1, s2, c2, d2, reversedCost <= forwardCost);
+                                gained += removeGain - insertCost;
+                                push(p);
+                                push(nx);
+                                push(s1);
+                                push(s2);
+                                push(c2);
+                                push(d2);
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void push(int city) {
+        if (inQueue[city]) return;
+        inQueue[city] = true;
+        int tail = queueHead + queueSize;
+        if (tail >= n) tail -= n;
+        queue[tail] = city;
+        queueSize++;
+    }
+
+    private int pop() {
+        int city = queue[queueHead];
+        if (++queueHead == n) queueHead = 0;
+        queueSize--;
+        inQueue[city] = false;
+        return city;
+    }
+
+
+    public static void main(String[] args) {
+        double[][] distances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        // four cities are below the kick's minimum size: the tour is returned as built
+        TSPResult result = new IteratedLocalSearch(new SolverContext(distances)).setMaxKicks(1000).solve();
+        System.out.println("4 cities: cost " + result.cost + ", tour " + java.util.Arrays.toString(result.tour));
+
+        // 1000 random points in a 1000 x 1000 square
+        java.util.Random random = new java.util.Random(1);
+        double[] xs = new double[1000];
+        double[] ys = new double[1000];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = 1000 * random.nextDouble();
+            ys[i] = 1000 * random.nextDouble();
+        }
+        SolverContext context = new SolverContext(MatrixDistance.fromCoordinates(xs, ys));
+        int[] start = SolverPipeline.BEST_CONSTRUCTION.construct(context);
+        IteratedLocalSearch ils = new IteratedLocalSearch(context).setSeed(1).setMaxKicks(100_000);
+        long begin = System.currentTimeMillis();
+        int[] tour = ils.improve(start, CancellationToken.none());
+        System.out.println(String.format("1000 random cities: %.0f -> %.0f, %d kicks (%d improving) in %d ms",
+                context.tourCost(start), context.tourCost(tour), ils.getKicks(), ils.getImprovements(),
+                System.currentTimeMillis() - begin));
+    }
+}
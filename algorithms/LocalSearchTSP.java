@@ -1,73 +1,137 @@
 import java.util.Random;
 
-public class LocalSearchTSP {
+public class LocalSearchTSP implements TSPSolver {
+    private SolverContext context;
     private double[][] distances;
     private int n;
     private Random random;
+
+    // operator counters for the current run (null unless -Dtsp.counters=true)
+    private SolverEvents.OperatorCounter twoOptCounter;
+    private SolverEvents.OperatorCounter swapCounter;
+
+    private TourListener checkpoint;
     
     public LocalSearchTSP(double[][] distances) {
-        this.distances = distances;
-        this.n = distances.length;
+        this(new SolverContext(distances));
+    }
+
+    public LocalSearchTSP(SolverContext context) {
+        this.context = context;
+        this.distances = context.getDistances();
+        this.n = context.size();
         this.random = new Random();
     }
+
+    public String getName() {
+        return "Local Search";
+    }
+
+    public LocalSearchTSP setCheckpoint(TourListener checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    // Improve the shared MST tour
+    public TSPResult solve(CancellationToken token) {
+        return solveWithLocalSearch(context.getMSTTour(), token);
+    }
     
     // Main local search algorithm - takes any initial tour and improves it
     public TSPResult solveWithLocalSearch(int[] initialTour) {
+        return solveWithLocalSearch(initialTour, CancellationToken.none());
+    }
+
+    // Anytime variant: stops when the token fires and returns the best tour found so far
+    public TSPResult solveWithLocalSearch(int[] initialTour, CancellationToken token) {
         int[] current = initialTour.clone();
         boolean improved = true;
         int iteration = 0;
         int maxIterations = 100;
         
-        System.out.println("Starting local search from initial cost: " + calculateTourCost(current));
+        if (SolverLog.isInfoEnabled()) {
+            SolverLog.info("Starting local search from initial cost: " + context.tourCost(current));
+        }
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase(getName(), "improve", n);
+        twoOptCounter = SolverEvents.counter(getName(), "2-opt");
+        swapCounter = SolverEvents.counter(getName(), "random swap");
+        if (checkpoint != null) checkpoint.offer(current, context.tourCost(current));
         
-        while (improved && iteration < maxIterations) {
+        while (improved && iteration < maxIterations && !token.isCancelled()) {
             improved = false;
-            double currentCost = calculateTourCost(current);
+            double currentCost = context.tourCost(current);
             
             // Try 2-opt improvements
-            int[] twoOptResult = apply2Opt(current);
-            double twoOptCost = calculateTourCost(twoOptResult);
+            int[] twoOptResult = apply2Opt(current, token);
+            double twoOptCost = context.tourCost(twoOptResult);
             
             if (twoOptCost < currentCost) {
                 current = twoOptResult;
                 improved = true;
-                System.out.println("2-opt improvement: " + currentCost + " -> " + twoOptCost);
+                if (checkpoint != null) checkpoint.offer(current, twoOptCost);
+                if (SolverLog.isDebugEnabled()) {
+                    SolverLog.debug("2-opt improvement: " + currentCost + " -> " + twoOptCost);
+                }
             }
             
             // If 2-opt didn't improve, try random swaps
             if (!improved) {
                 int[] swapResult = applyRandomSwaps(current);
-                double swapCost = calculateTourCost(swapResult);
+                double swapCost = context.tourCost(swapResult);
+                if (SolverEvents.COUNTERS_ENABLED) swapCounter.evaluated();
                 
                 if (swapCost < currentCost) {
                     current = swapResult;
                     improved = true;
-                    System.out.println("Swap improvement: " + currentCost + " -> " + swapCost);
+                    if (checkpoint != null) checkpoint.offer(current, swapCost);
+                    if (SolverEvents.COUNTERS_ENABLED) swapCounter.applied(currentCost - swapCost);
+                    if (SolverLog.isDebugEnabled()) {
+                        SolverLog.debug("Swap improvement: " + currentCost + " -> " + swapCost);
+                    }
                 }
             }
             
             iteration++;
         }
         
-        System.out.println("Local search completed after " + iteration + " iterations");
-        return new TSPResult(current, calculateTourCost(current));
+        if (checkpoint != null) checkpoint.flush();
+        if (token.isCancelled()) {
+            SolverLog.info("Local search stopped early after " + iteration + " iterations");
+        } else {
+            SolverLog.info("Local search completed after " + iteration + " iterations");
+        }
+        if (SolverEvents.COUNTERS_ENABLED) {
+            twoOptCounter.report();
+            swapCounter.report();
+        }
+        SolverEvents.endPhase(phase);
+        return new TSPResult(current, context.tourCost(current));
     }
     
-    private int[] apply2Opt(int[] tour) {
+    // One 2-opt pass over the tour, without the outer improvement loop
+    public int[] improvementPass(int[] tour) {
+        return apply2Opt(tour, CancellationToken.none());
+    }
+
+    private int[] apply2Opt(int[] tour, CancellationToken token) {
         int[] bestTour = tour.clone();
-        double bestCost = calculateTourCost(bestTour);
+        double bestCost = context.tourCost(bestTour);
         
         // LIMIT SEARCH SPACE FOR LARGE INSTANCES
-        int maxI = (n > 5000) ? Math.min(n/20, 250) : n-1;  // Only check subset for large n
-        int maxJ = (n > 5000) ? Math.min(n/10, 500) : n;    // Limit j range
+        boolean fullScan = StrategyPlanner.fullScanAffordable(n);
+        int maxI = fullScan ? n-1 : Math.min(n/20, 250);  // Only check subset for large n
+        int maxJ = fullScan ? n : Math.min(n/10, 500);    // Limit j range
         
         for (int i = 1; i < maxI; i++) {
             int jLimit = Math.min(i + maxJ, n);
+            if (token.isCancelled()) break; // keep the best tour found so far
             for (int j = i + 1; j < jLimit; j++) {
                 int[] newTour = twoOptSwap(bestTour, i, j);  // Use bestTour for incremental improvements
-                double newCost = calculateTourCost(newTour);
+                double newCost = context.tourCost(newTour);
+                if (SolverEvents.COUNTERS_ENABLED && twoOptCounter != null) twoOptCounter.evaluated();
                 
                 if (newCost < bestCost) {
+                    if (SolverEvents.COUNTERS_ENABLED && twoOptCounter != null) twoOptCounter.applied(bestCost - newCost);
                     bestTour = newTour;
                     bestCost = newCost;
                 }
@@ -119,25 +183,4 @@ public class LocalSearchTSP {
         
         return newTour;
     }
-    
-    // Calculate tour cost
-    private double calculateTourCost(int[] tour) {
-        double cost = 0.0;
-        for (int i = 0; i < n - 1; i++) {
-            cost += distances[tour[i]][tour[i + 1]];
-        }
-        cost += distances[tour[n - 1]][tour[0]]; // return to start
-        return cost;
-    }
-    
-    // Result class
-    public static class TSPResult {
-        public int[] tour;
-        public double cost;
-        
-        public TSPResult(int[] tour, double cost) {
-            this.tour = tour;
-            this.cost = cost;
-        }
-    }
 }
@@ -0,0 +1,71 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+// Distance provider backed by a dense n x n matrix
+public class MatrixDistance implements DistanceProvider {
+    private final double[][] distances;
+
+    public MatrixDistance(double[][] distances) {
+        this.distances = distances;
+    }
+
+    public double[][] matrix() {
+        return distances;
+    }
+
+    public int size() {
+        return distances.length;
+    }
+
+    public double distance(int i, int j) {
+        return distances[i][j];
+    }
+
+    public double tourCost(int[] tour) {
+        return tourCost(distances, tour);
+    }
+
+    // Calculate tour cost
+    public static double tourCost(double[][] distances, int[] tour) {
+        int n = tour.length;
+        double cost = 0.0;
+        for (int i = 0; i < n - 1; i++) {
+            cost += distances[tour[i]][tour[i + 1]];
+        }
+        cost += distances[tour[n - 1]][tour[0]]; // return to start
+        return cost;
+    }
+
+    // Euclidean matrix from coordinates, rows filled in parallel by the distance kernel. Each task
+    // allocates its own rows, so zeroing the ~n^2 * 8 bytes (the bulk of the cost) is parallel too.
+    // Both d[i][j] and d[j][i] are computed: the kernel's contiguous sqrt over a row is cheaper than
+    // mirroring a triangle, whose column writes miss the cache (kz9976: 58 ms to compute a
+    // triangle, 160-240 ms to mirror it). Swapped operands square to the same values, so the
+    // matrix is still exactly symmetric.
+    public static double[][] fromCoordinates(double[] xs, double[] ys) {
+        int n = xs.length;
+        double[][] distances = new double[n][];
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunks = Math.max(1, Math.min(n, pool.getParallelism() * 4));
+        DistanceKernels.Kernels kernels = DistanceKernels.get();
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) n * c / chunks);
+            int to = (int) ((long) n * (c + 1) / chunks);
+            tasks.add(pool.submit(() -> {
+                for (int i = from; i < to; i++) {
+                    double[] row = new double[n];
+                    kernels.distancesFrom(xs[i], ys[i], xs, ys, row, 0, n);
+                    distances[i] = row;
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,246 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Multilevel solver (Walshaw): coarsen -> solve the coarsest level -> uncoarsen and refine.
+//
+// Each coarsening step matches every city with its nearest unmatched neighbor, closest pairs first,
+// and replaces the pair by a super-node at their weighted centroid, roughly halving the instance.
+// The few hundred super-nodes left are solved with AdaptiveMultiStrategyTSP; then each level
+// expands its parent's tour (every pair in the orientation that fits its tour neighbors best) and
+// repairs it with coordinate 2-opt / Or-opt. Works on coordinates only: neighbor lists come from
+// a grid, and the only matrix is the one for the coarsest level.
+public class MultilevelTSP implements TSPSolver {
+    private CoordinateDistance coordinates;
+    private int n;
+
+    private int coarsestSize = 300;
+    private int neighborCount = 8;
+
+    public MultilevelTSP(double[] xs, double[] ys) {
+        this(new CoordinateDistance(xs, ys));
+    }
+
+    public MultilevelTSP(CoordinateDistance coordinates) {
+        this.coordinates = coordinates;
+        this.n = coordinates.size();
+    }
+
+    public String getName() {
+        return "Multilevel";
+    }
+
+    public MultilevelTSP setCoarsestSize(int coarsestSize) {
+        this.coarsestSize = Math.max(8, coarsestSize);
+        return this;
+    }
+
+    public MultilevelTSP setNeighborCount(int neighborCount) {
+        this.neighborCount = Math.max(2, neighborCount);
+        return this;
+    }
+
+    // Anytime: once the token fires, the remaining levels are only expanded, not refined
+    public TSPResult solve(CancellationToken token) {
+        if (n <= coarsestSize) {
+            int[] tour = solveCoarsest(coordinates.xs(), coordinates.ys(), token);
+            return new TSPResult(tour, coordinates.tourCost(tour));
+        }
+
+        // 1. coarsen
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase(getName(), "coarsen", n);
+        List<Level> levels = new ArrayList<>();
+        Level level = new Level(coordinates.xs(), coordinates.ys(), null);
+        levels.add(level);
+        while (level.size() > coarsestSize) {
+            Level coarser = coarsen(level);
+            if (coarser.size() > level.size() * 0.95) break; // matching stalled (e.g. many duplicate points)
+            levels.add(coarser);
+            level = coarser;
+        }
+        SolverEvents.endPhase(phase);
+        SolverLog.info("Multilevel: " + levels.size() + " levels, coarsest has " + level.size() + " nodes");
+
+        // 2. solve the coarsest level
+        phase = SolverEvents.beginPhase(getName(), "construct", level.size());
+        int[] tour = solveCoarsest(level.xs, level.ys, token);
+        SolverEvents.endPhase(phase);
+
+        // 3. expand and refine level by level
+        phase = SolverEvents.beginPhase(getName(), "improve", n);
+        for (int l = levels.size() - 2; l >= 0; l--) {
+            Level fine = levels.get(l);
+            tour = expand(levels.get(l + 1), fine, tour);
+            if (!token.isCancelled()) {
+                tour = new CoordinateLocalSearch(fine.xs, fine.ys, fine.neighbors(neighborCount)).improve(tour, token);
+            }
+            if (SolverLog.isDebugEnabled()) {
+                SolverLog.debug("Level " + l + " (" + fine.size() + " nodes): "
+                        + DistanceKernels.get().tourLength(fine.xs, fine.ys, tour));
+            }
+        }
+        SolverEvents.endPhase(phase);
+
+        return new TSPResult(tour, coordinates.tourCost(tour));
+    }
+
+    private int[] solveCoarsest(double[] xs, double[] ys, CancellationToken token) {
+        int size = xs.length;
+        if (size < 4) {
+            int[] tour = new int[size];
+            for (int i = 0; i < size; i++) tour[i] = i;
+            return tour;
+        }
+        double[][] distances = MatrixDistance.fromCoordinates(xs, ys);
+        SolverContext context = new SolverContext(distances);
+        int[] tour = new AdaptiveMultiStrategyTSP(context).solve(token).tour;
+        return new FastLocalSearch(distances, context.getNeighborLists(10)).improve(tour, token);
+    }
+
+    // Match each node with its nearest unmatched neighbor, visiting nodes by increasing nearest-neighbor distance
+    private Level coarsen(Level fine) {
+        int size = fine.size();
+        int[][] neighbors = fine.neighbors(neighborCount);
+
+        long[] order = new long[size];
+        for (int i = 0; i < size; i++) {
+            double d = (neighbors[i].length > 0) ? fine.distance(i, neighbors[i][0]) : 0;
+            // non-negative floats sort like their bit patterns; the low bits carry the node
+            order[i] = ((long) Float.floatToIntBits((float) d) << 32) | i;
+        }
+        java.util.Arrays.sort(order);
+
+        int[] parent = new int[size];
+        java.util.Arrays.fill(parent, -1);
+        int[] first = new int[size];
+        int[] second = new int[size];
+        int coarse = 0;
+        for (long entry : order) {
+            int i = (int) entry;
+            if (parent[i] >= 0) continue;
+            int mate = -1;
+            for (int j : neighbors[i]) {
+                if (parent[j] < 0) {
+                    mate = j;
+                    break;
+                }
+            }
+            parent[i] = coarse;
+            first[coarse] = i;
+            second[coarse] = mate;
+            if (mate >= 0) parent[mate] = coarse;
+            coarse++;
+        }
+
+        double[] xs = new double[coarse];
+        double[] ys = new double[coarse];
+        int[] weight = new int[coarse];
+        for (int c = 0; c < coarse; c++) {
+            int a = first[c];
+            int b = second[c];
+            int wa = fine.weight(a);
+            int wb = (b >= 0) ? fine.weight(b) : 0;
+            weight[c] = wa + wb;
+            xs[c] = (b >= 0) ? (fine.xs[a] * wa + fine.xs[b] * wb) / weight[c] : fine.xs[a];
+            ys[c] = (b >= 0) ? (fine.ys[a] * wa + fine.ys[b] * wb) / weight[c] : fine.ys[a];
+        }
+
+        Level level = new Level(xs, ys, weight);
+        level.first = java.util.Arrays.copyOf(first, coarse);
+        level.second = java.util.Arrays.copyOf(second, coarse);
+        return level;
+    }
+
+    // Replace every super-node by its one or two children, choosing the pair order that joins the
+    // previous city and the next super-node most cheaply
+    private static int[] expand(Level coarse, Level fine, int[] coarseTour) {
+        int m = coarseTour.length;
+        int[] tour = new int[fine.size()];
+        int index = 0;
+        int previous = -1;
+        for (int i = 0; i < m; i++) {
+            int u = coarseTour[i];
+            int a = coarse.first[u];
+            int b = coarse.second[u];
+            if (b < 0) {
+                tour[index++] = a;
+                previous = a;
+                continue;
+            }
+            int next = coarseTour[i + 1 < m ? i + 1 : 0];
+            double nx = coarse.xs[next];
+            double ny = coarse.ys[next];
+            double ab = (previous >= 0 ? fine.distance(previous, a) : 0) + fine.distanceTo(b, nx, ny);
+            double ba = (previous >= 0 ? fine.distance(previous, b) : 0) + fine.distanceTo(a, nx, ny);
+            if (ab <= ba) {
+                tour[index++] = a;
+                tour[index++] = b;
+                previous = b;
+            } else {
+                tour[index++] = b;
+                tour[index++] = a;
+                previous = a;
+            }
+        }
+        return tour;
+    }
+
+
+    // One level of the hierarchy: node coordinates and weights, plus the children of each node
+    private static class Level {
+        final double[] xs;
+        final double[] ys;
+        final int[] weights; // cities represented by each node; null on the original level
+        int[] first;         // children in the finer level (second is -1 for an unmatched node)
+        int[] second;
+        private int[][] neighbors;
+
+        Level(double[] xs, double[] ys, int[] weights) {
+            this.xs = xs;
+            this.ys = ys;
+            this.weights = weights;
+        }
+
+        int size() {
+            return xs.length;
+        }
+
+        int weight(int node) {
+            return (weights == null) ? 1 : weights[node];
+        }
+
+        // computed once, shared by coarsening and refinement
+        int[][] neighbors(int k) {
+            if (neighbors == null) {
+                neighbors = new CoordinateDistance(xs, ys).neighborLists(k);
+            }
+            return neighbors;
+        }
+
+        double distance(int a, int b) {
+            return distanceTo(a, xs[b], ys[b]);
+        }
+
+        double distanceTo(int a, double x, double y) {
+            double dx = xs[a] - x;
+            double dy = ys[a] - y;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    public static void main(String[] args) {
+        // points on a circle, shuffled: the optimal tour visits them in angular order
+        int n = 2000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        java.util.Random random = new java.util.Random(1);
+        for (int i = 0; i < n; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            xs[i] = Math.cos(angle) * 1000;
+            ys[i] = Math.sin(angle) * 1000;
+        }
+
+        TSPResult result = new MultilevelTSP(xs, ys).solve();
+        System.out.println("Multilevel cost on " + n + " points of a circle: " + result.cost);
+        System.out.println("Circumference: " + (2 * Math.PI * 1000));
+    }
+}
@@ -0,0 +1,278 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Races several solver configurations on one instance and keeps the best tour.
+//
+// Every member runs on its own thread with its own CancellationToken. Finished results go into a
+// shared Incumbent (best cost as the bits of a double in an AtomicLong, updated by CAS), which
+// members may also read while running to prune work that cannot beat it. Members that support a
+// TourListener can report every new best through incumbent.listener(label), so the
+// target is noticed while they run rather than when they finish. Once the incumbent
+// reaches the target cost, or the time limit passes, every token is cancelled; the anytime
+// solvers then return their best tour so far, which is still offered before the race ends.
+public class PortfolioSolver implements TSPSolver {
+    // how long cancelled members get to return their best tour before they are interrupted
+    private static final long GRACE_MILLIS = 5_000;
+    // how often a running member's hot loop hands its current tour to the incumbent
+    private static final long REPORT_MILLIS = 100;
+
+    private SolverContext context;
+    private List<String> labels = new ArrayList<>();
+    private List<Member> members = new ArrayList<>();
+    private long timeLimitMillis = 10_000;
+    private double targetCost = Double.NEGATIVE_INFINITY; // by default only the deadline stops the race
+
+    private List<MemberStats> stats = new ArrayList<>();
+    private String winner;
+
+    public PortfolioSolver(SolverContext context) {
+        this.context = context;
+    }
+
+    public String getName() {
+        return "Portfolio";
+    }
+
+    // A member that may read (and offer to) the shared incumbent while it runs
+    public PortfolioSolver add(String label, Member member) {
+        labels.add(label);
+        members.add(member);
+        return this;
+    }
+
+    public PortfolioSolver add(TSPSolver solver) {
+        return add(solver.getName(), (token, incumbent) -> solver.solve(token));
+    }
+
+    public PortfolioSolver setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+        return this;
+    }
+
+    // Stop everyone as soon as some member reaches this cost
+    public PortfolioSolver setTargetCost(double targetCost) {
+        this.targetCost = targetCost;
+        return this;
+    }
+
+    // Stop at a relative gap above a reference (a known optimum or a lower bound): 0.01 = 1%
+    public PortfolioSolver setTargetGap(double referenceCost, double gap) {
+        return setTargetCost(referenceCost * (1 + gap));
+    }
+
+    public List<MemberStats> getStats() {
+        return stats;
+    }
+
+    public String getWinner() {
+        return winner;
+    }
+
+    public TSPResult solve(CancellationToken token) {
+        int count = members.size();
+        if (count == 0) throw new IllegalStateException("Portfolio has no members");
+
+        long timeLimit = Math.min(timeLimitMillis, token.remainingMillis());
+        CancellationToken[] tokens = new CancellationToken[count];
+        for (int m = 0; m < count; m++) {
+            tokens[m] = CancellationToken.withTimeout(timeLimit);
+        }
+        Incumbent incumbent = new Incumbent(tokens);
+
+        stats = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-member");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int m = 0; m < count; m++) {
+                MemberStats memberStats = new MemberStats(labels.get(m));
+                stats.add(memberStats);
+                Member member = members.get(m);
+                CancellationToken memberToken = tokens[m];
+                futures.add(executor.submit(() -> run(member, memberToken, incumbent, memberStats)));
+            }
+
+            // the caller's token cancels the whole race
+            long deadline = System.nanoTime() + timeLimit * 1_000_000L;
+            for (Future<?> future : futures) {
+                while (!future.isDone()) {
+                    if (token.isCancelled()) incumbent.stopAll();
+                    long wait = Math.max(0, deadline - System.nanoTime()) / 1_000_000L + GRACE_MILLIS;
+                    try {
+                        future.get(Math.min(wait, 50), TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        if (System.nanoTime() - deadline > GRACE_MILLIS * 1_000_000L) {
+                            future.cancel(true); // ignored its token: interrupt it
+                            break;
+                        }
+                    } catch (Exception e) {
+                        break; // recorded in the member's stats
+                    }
+                }
+            }
+        } finally {
+            incumbent.stopAll();
+            executor.shutdownNow();
+        }
+
+        TSPResult best = incumbent.getResult();
+        if (best == null) throw new IllegalStateException("No portfolio member produced a tour");
+        winner = incumbent.getOwner();
+        for (MemberStats memberStats : stats) {
+            memberStats.won = memberStats.label.equals(winner);
+        }
+        SolverLog.info("Portfolio: " + winner + " won with cost " + best.cost);
+        return best;
+    }
+
+    private void run(Member member, CancellationToken token, Incumbent incumbent, MemberStats memberStats) {
+        long start = System.nanoTime();
+        try {
+            TSPResult result = member.solve(token, incumbent);
+            memberStats.millis = (System.nanoTime() - start) / 1_000_000L;
+            if (result != null && result.tour != null && result.tour.length == context.size()) {
+                memberStats.cost = context.tourCost(result.tour);
+                incumbent.offer(result.tour, memberStats.cost, memberStats.label);
+            }
+            memberStats.status = token.isCancelled() ? "cancelled" : "finished";
+        } catch (RuntimeException | OutOfMemoryError e) {
+            memberStats.millis = (System.nanoTime() - start) / 1_000_000L;
+            memberStats.status = "failed: " + e;
+        }
+    }
+
+
+    public interface Member {
+        TSPResult solve(CancellationToken token, Incumbent incumbent);
+    }
+
+    // Best tour found so far by any member. getCost() is a single volatile read, cheap enough to
+    // poll from a hot loop; offer() takes a lock only when it actually improves the cost.
+    public class Incumbent {
+        private final AtomicLong costBits = new AtomicLong(Double.doubleToLongBits(Double.POSITIVE_INFINITY));
+        private final CancellationToken[] tokens;
+        private int[] tour; // tour, tourCost and owner change together under the lock
+        private double tourCost;
+        private String owner;
+
+        Incumbent(CancellationToken[] tokens) {
+            this.tokens = tokens;
+        }
+
+        public double getCost() {
+            return Double.longBitsToDouble(costBits.get());
+        }
+
+        // Returns true if the tour became the new incumbent; reaching the target stops the race
+        public boolean offer(int[] candidate, double cost, String label) {
+            long bits = Double.doubleToLongBits(cost);
+            while (true) {
+                long current = costBits.get();
+                if (cost >= Double.longBitsToDouble(current)) return false;
+                if (costBits.compareAndSet(current, bits)) break;
+            }
+            synchronized (this) {
+                // a better offer may have overtaken this one between the CAS and the lock
+                if (Double.longBitsToDouble(costBits.get()) == cost) {
+                    tour = candidate.clone();
+                    tourCost = cost;
+                    owner = label;
+                }
+            }
+            if (cost <= targetCost) {
+                SolverLog.info("Portfolio: " + label + " reached the target (" + cost + "), stopping the others");
+                stopAll();
+            }
+            return true;
+        }
+
+        // A listener that feeds a member's new bests into the incumbent under its label
+        public TourListener listener(String label) {
+            return new Reporter(label);
+        }
+
+        synchronized TSPResult getResult() {
+            return (tour == null) ? null : new TSPResult(tour, tourCost);
+        }
+
+        synchronized String getOwner() {
+            return owner;
+        }
+
+        void stopAll() {
+            for (CancellationToken token : tokens) {
+                token.cancel();
+            }
+        }
+
+        // Hot loops materialize their tour only when isDue(), so a member is heard from at least
+        // every REPORT_MILLIS; offers that cannot beat the incumbent are dropped without a copy
+        private class Reporter implements TourListener {
+            private final String label;
+            private long lastReport = System.nanoTime();
+
+            Reporter(String label) {
+                this.label = label;
+            }
+
+            public boolean isDue() {
+                return System.nanoTime() - lastReport >= REPORT_MILLIS * 1_000_000L;
+            }
+
+            public void offer(int[] candidate, double cost) {
+                lastReport = System.nanoTime();
+                Incumbent.this.offer(candidate, cost, label);
+            }
+
+            public void flush() {
+            }
+        }
+    }
+
+    public static class MemberStats {
+        public final String label;
+        public double cost = Double.NaN; // NaN when the member produced no tour
+        public long millis;
+        public String status = "not started";
+        public boolean won;
+
+        MemberStats(String label) {
+            this.label = label;
+        }
+
+        public String toString() {
+            return String.format("%-32s %-10s cost %12.2f  %6d ms%s", label, status, cost, millis, won ? "  (winner)" : "");
+        }
+    }
+
+    public static void main(String[] args) {
+        double[][] distances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        SolverContext context = new SolverContext(distances);
+        PortfolioSolver portfolio = new PortfolioSolver(context)
+                .add(new AdaptiveMultiStrategyTSP(context))
+                .add(new LocalSearchTSP(context))
+                .add("Held-Karp (pruned by incumbent)",
+                        (token, incumbent) -> new HeldKarp(context).setUpperBound(incumbent::getCost).solve(token))
+                .setTimeLimitMillis(1000);
+        TSPResult result = portfolio.solve();
+        System.out.println("Portfolio cost: " + result.cost + " by " + portfolio.getWinner());
+        for (MemberStats memberStats : portfolio.getStats()) {
+            System.out.println(memberStats);
+        }
+    }
+}
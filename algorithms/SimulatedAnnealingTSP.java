@@ -0,0 +1,349 @@
+public class SimulatedAnnealingTSP implements TSPSolver {
+    // Metropolis acceptance exp(-x) tabulated for x in [0, TABLE_RANGE)
+    private static final int TABLE_RANGE = 16;
+    private static final int TABLE_RESOLUTION = 256;
+    private static final double[] ACCEPT_TABLE = buildAcceptTable();
+
+    private SolverContext context;
+    private double[][] distances;
+    private int n;
+    private int[][] neighbors;
+
+    private CoolingSchedule schedule = GeometricCooling.overBudget(1e-3);
+    private long maxMoves = Long.MAX_VALUE;
+    private long timeLimitMillis = 10_000;
+    private double initialTemperature = -1; // calibrated from the start tour when negative
+    private long seed = System.nanoTime();
+
+    // xorshift state, inlined instead of java.util.Random for the hot loop
+    private long rngState;
+
+    public SimulatedAnnealingTSP(double[][] distances) {
+        this(new SolverContext(distances));
+    }
+
+    public SimulatedAnnealingTSP(SolverContext context) {
+        this.context = context;
+        this.distances = context.getDistances();
+        this.n = context.size();
+        this.neighbors = context.getNeighborLists(8);
+    }
+
+    public String getName() {
+        return "Simulated Annealing";
+    }
+
+    public SimulatedAnnealingTSP setCoolingSchedule(CoolingSchedule schedule) {
+        this.schedule = schedule;
+        return this;
+    }
+
+    public SimulatedAnnealingTSP setMaxMoves(long maxMoves) {
+        this.maxMoves = maxMoves;
+        return this;
+    }
+
+    public SimulatedAnnealingTSP setTimeLimitMillis(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+        return this;
+    }
+
+    public SimulatedAnnealingTSP setInitialTemperature(double initialTemperature) {
+        this.initialTemperature = initialTemperature;
+        return this;
+    }
+
+    public SimulatedAnnealingTSP setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    // Anneal from the nearest neighbor tour
+    public TSPResult solve(CancellationToken token) {
+        return solve(context.getNearestNeighborTour(), token);
+    }
+
+    // Anneal from a given tour; the returned tour is the best one seen, quenched by 2-opt/Or-opt
+    public TSPResult solve(int[] initialTour) {
+        return solve(initialTour, CancellationToken.none());
+    }
+
+    // Anytime variant: the token is polled once per epoch, and the best tour so far is returned
+    public TSPResult solve(int[] initialTour, CancellationToken token) {
+        FastLocalSearch quench = new FastLocalSearch(distances, neighbors);
+        if (n < 5) {
+            int[] tour = initialTour.clone();
+            return new TSPResult(tour, context.tourCost(tour));
+        }
+
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase(getName(), "improve", n);
+        SolverEvents.OperatorCounter twoOptCounter = SolverEvents.counter(getName(), "2-opt");
+        SolverEvents.OperatorCounter orOptCounter = SolverEvents.counter(getName(), "Or-opt");
+
+        rngState = seed ^ 0x9E3779B97F4A7C15L;
+        if (rngState == 0) rngState = 1;
+
+        int[] current = initialTour.clone();
+        ArrayTour tour = new ArrayTour(current);
+        double currentCost = context.tourCost(current);
+        int[] best = current.clone();
+        double bestCost = currentCost;
+        // true while the current tour is a new best not yet copied into best[]; it is copied when an
+        // uphill move is about to leave it, so a run of improving moves costs one copy at most
+        boolean atBest = false;
+
+        double temperature = (initialTemperature > 0) ? initialTemperature : calibrateTemperature(tour);
+        double scale = TABLE_RESOLUTION / temperature;
+        long epochLength = Math.max(1000, 20L * n);
+        schedule.start(temperature);
+
+        long startTime = System.nanoTime();
+        long budgetNanos = timeLimitMillis * 1_000_000L;
+        long moves = 0;
+        long accepted = 0;
+        long epochAccepted = 0;
+        long epochMoves = 0;
+        int k = neighbors[0].length;
+
+        while (moves < maxMoves) {
+            moves++;
+            epochMoves++;
+            int a = nextInt(n);
+            int c = neighbors[a][nextInt(k)];
+            double delta;
+            boolean twoOpt = nextInt(4) != 0;
+
+            if (twoOpt) {
+                // 2-opt: replace (a, succ a), (c, succ c) with (a, c), (succ a, succ c)
+                int b = tour.next(a);
+                int d = tour.next(c);
+                if (c == b || d == a) continue;
+                delta = distances[a][c] + distances[b][d] - distances[a][b] - distances[c][d];
+                if (SolverEvents.COUNTERS_ENABLED) twoOptCounter.evaluated();
+
+                if (delta <= 0 || accept(delta * scale)) {
+                    if (SolverEvents.COUNTERS_ENABLED) twoOptCounter.applied(-delta);
+                    if (atBest && delta > 0) {
+                        System.arraycopy(current, 0, best, 0, n);
+                        atBest = false;
+                    }
+                    tour.move2Opt(a, b, c, d);
+                    currentCost += delta;
+                    accepted++;
+                    epochAccepted++;
+                    if (currentCost < bestCost - 1e-9) {
+                        bestCost = currentCost;
+                        atBest = true;
+                    }
+                }
+            } else {
+                // Or-opt: move the segment starting at c next to a, in the cheaper orientation
+                int length = 1 + nextInt(3);
+                int s1 = c;
+                int s2 = tour.walk(s1, length - 1);
+                if (tour.inSegment(a, s1, length)) continue;
+                int b = tour.next(a);
+                if (tour.inSegment(b, s1, length)) continue;
+                int p = tour.prev(s1);
+                int nx = tour.next(s2);
+                if (a == nx || b == p) continue;
+
+                double removeGain = distances[p][s1] + distances[s2][nx] - distances[p][nx];
+                double dab = distances[a][b];
+                double reversedCost = distances[a][s2] + distances[s1][b] - dab;
+                double forwardCost = distances[a][s1] + distances[s2][b] - dab;
+                boolean reversed = reversedCost <= forwardCost;
+                delta = (reversed ? reversedCost : forwardCost) - removeGain;
+                if (SolverEvents.COUNTERS_ENABLED) orOptCounter.evaluated();
+
+                if (delta <= 0 || accept(delta * scale)) {
+                    if (SolverEvents.COUNTERS_ENABLED) orOptCounter.applied(-delta);
+                    if (atBest && delta > 0) {
+                        System.arraycopy(current, 0, best, 0, n);
+                        atBest = false;
+                    }
+                    tour.moveSegment(s1, s2, a, b, reversed);
+                    currentCost += delta;
+                    accepted++;
+                    epochAccepted++;
+                    if (currentCost < bestCost - 1e-9) {
+                        bestCost = currentCost;
+                        atBest = true;
+                    }
+                }
+            }
+
+            if (epochMoves >= epochLength) {
+                long elapsed = System.nanoTime() - startTime;
+                double progress = Math.max((double) elapsed / budgetNanos, (double) moves / maxMoves);
+                if (progress >= 1.0 || token.isCancelled()) break;
+
+                temperature = schedule.next(temperature, progress, (double) epochAccepted / epochMoves,
+                        currentCost < bestCost + 1e-9);
+                scale = TABLE_RESOLUTION / temperature;
+                epochMoves = 0;
+                epochAccepted = 0;
+            }
+        }
+
+        if (atBest) {
+            best = current.clone();
+        }
+
+        if (SolverEvents.COUNTERS_ENABLED) {
+            twoOptCounter.report();
+            orOptCounter.report();
+        }
+        SolverEvents.endPhase(phase);
+
+        best = quench.improve(best, token);
+        bestCost = context.tourCost(best);
+        if (SolverLog.isInfoEnabled()) {
+            SolverLog.info("Simulated annealing: " + moves + " moves evaluated, " + accepted + " accepted");
+        }
+        return new TSPResult(best, bestCost);
+    }
+
+    // Metropolis test using the precomputed table; x = delta / T scaled by TABLE_RESOLUTION
+    private boolean accept(double x) {
+        if (x >= TABLE_RANGE * TABLE_RESOLUTION) return false;
+        double u = (nextRandom() >>> 11) * 0x1.0p-53;
+        return u < ACCEPT_TABLE[(int) x];
+    }
+
+    // Uniform in [0, bound) from the high 32 bits of a fresh draw (multiply-shift, no division)
+    private int nextInt(int bound) {
+        return (int) (((nextRandom() >>> 32) * bound) >>> 32);
+    }
+
+    private long nextRandom() {
+        long x = rngState;
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        rngState = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    private static double[] buildAcceptTable() {
+        double[] table = new double[TABLE_RANGE * TABLE_RESOLUTION];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = Math.exp(-(i + 0.5) / TABLE_RESOLUTION);
+        }
+        return table;
+    }
+
+    // Pick T so that an average uphill 2-opt move is accepted with probability ~0.3
+    private double calibrateTemperature(ArrayTour tour) {
+        double sum = 0;
+        int samples = 0;
+        for (int i = 0; i < 1000; i++) {
+            int a = nextInt(n);
+            int c = neighbors[a][nextInt(neighbors[a].length)];
+            int b = tour.next(a);
+            int d = tour.next(c);
+            if (c == b || d == a) continue;
+            double delta = distances[a][c] + distances[b][d] - distances[a][b] - distances[c][d];
+            if (delta > 0) {
+                sum += delta;
+                samples++;
+            }
+        }
+        if (samples == 0) return 1.0;
+        return (sum / samples) / -Math.log(0.3);
+    }
+
+
+    // Temperature update applied once per epoch of moves; progress is the used fraction of the budget
+    public interface CoolingSchedule {
+        void start(double initialTemperature);
+
+        double next(double temperature, double progress, double acceptanceRate, boolean atBest);
+    }
+
+    // T <- alpha * T per epoch, or T = T0 * finalRatio^progress when spread over the budget
+    public static class GeometricCooling implements CoolingSchedule {
+        private double alpha;
+        private double finalRatio;
+        private double initialTemperature;
+
+        public GeometricCooling(double alpha) {
+            this.alpha = alpha;
+        }
+
+        public static GeometricCooling overBudget(double finalRatio) {
+            GeometricCooling schedule = new GeometricCooling(0);
+            schedule.finalRatio = finalRatio;
+            return schedule;
+        }
+
+        public void start(double initialTemperature) {
+            this.initialTemperature = initialTemperature;
+        }
+
+        public double next(double temperature, double progress, double acceptanceRate, boolean atBest) {
+            if (alpha > 0) {
+                return temperature * alpha;
+            }
+            return initialTemperature * Math.pow(finalRatio, progress);
+        }
+    }
+
+    // Geometric cooling that reheats when the walk freezes without finding a new best
+    public static class AdaptiveReheatCooling implements CoolingSchedule {
+        private double alpha;
+        private double minAcceptance;
+        private double reheatFraction;
+        private int patience;
+        private double initialTemperature;
+        private int frozenEpochs;
+
+        public AdaptiveReheatCooling(double alpha, double minAcceptance, double reheatFraction, int patience) {
+            this.alpha = alpha;
+            this.minAcceptance = minAcceptance;
+            this.reheatFraction = reheatFraction;
+            this.patience = patience;
+        }
+
+        public void start(double initialTemperature) {
+            this.initialTemperature = initialTemperature;
+            this.frozenEpochs = 0;
+        }
+
+        public double next(double temperature, double progress, double acceptanceRate, boolean atBest) {
+            if (acceptanceRate < minAcceptance && !atBest) {
+                frozenEpochs++;
+            } else {
+                frozenEpochs = 0;
+            }
+
+            if (frozenEpochs >= patience) {
+                frozenEpochs = 0;
+                return initialTemperature * reheatFraction;
+            }
+            return temperature * alpha;
+        }
+    }
+
+
+    // Testing
+    public static void main(String[] args) {
+        double[][] testDistances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        SimulatedAnnealingTSP solver = new SimulatedAnnealingTSP(testDistances).setTimeLimitMillis(100);
+        TSPResult result = solver.solve();
+
+        System.out.println("\nSimulated Annealing Result:");
+        System.out.print("Final tour: ");
+        for (int i = 0; i < result.tour.length; i++) {
+            System.out.print(result.tour[i] + " ");
+        }
+        System.out.println();
+        System.out.println("Final cost: " + result.cost);
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.stream.IntStream;
+
+// Exact polishing of a large tour: every run of k consecutive cities (k <= 12) is replaced by the
+// shortest path between its two end cities through the same interior cities, found with the
+// fixed-endpoint Held-Karp DP. That covers every reordering inside the window at once, including
+// moves 2-opt and Or-opt cannot make, at about m^2 2^m / 4 steps for the m = k - 2 free cities.
+//
+// One phase tiles the tour with windows that share only their end positions; since the ends never
+// move, the windows of a phase are independent and are solved in parallel, each writing its own
+// interior. Successive phases shift the tiling by one position, so over k - 1 phases every window
+// of k consecutive positions is tried once (one pass). Passes repeat until one finds nothing; after
+// the first, only windows with a position rewritten since their last solve are solved again.
+// Distances come from a DistanceProvider, so coordinate instances need no matrix.
+public class SlidingWindowHeldKarp {
+    public static final int MAX_WINDOW = 12;
+    private static final double EPS = 1e-7;
+
+    private DistanceProvider distances;
+    private int n;
+    private int windowSize = MAX_WINDOW;
+    private int maxPasses = Integer.MAX_VALUE;
+
+    // per-thread DP tables and window matrix, reused across windows
+    private final ThreadLocal<Workspace> workspace = ThreadLocal.withInitial(Workspace::new);
+
+    private int improvedWindows;
+    private double totalGain;
+
+    // pass in which each tour position was last rewritten, -1 if never
+    private int[] changedInPass;
+
+    public SlidingWindowHeldKarp(DistanceProvider distances) {
+        this.distances = distances;
+        this.n = distances.size();
+    }
+
+    public SlidingWindowHeldKarp(SolverContext context) {
+        this(context.getDistanceProvider());
+    }
+
+    public SlidingWindowHeldKarp setWindowSize(int windowSize) {
+        this.windowSize = Math.max(4, Math.min(MAX_WINDOW, windowSize));
+        return this;
+    }
+
+    public SlidingWindowHeldKarp setMaxPasses(int maxPasses) {
+        this.maxPasses = maxPasses;
+        return this;
+    }
+
+    // windows rewritten and total length removed by the last improve()
+    public int getImprovedWindows() {
+        return improvedWindows;
+    }
+
+    public double getTotalGain() {
+        return totalGain;
+    }
+
+    public int[] improve(int[] initialTour) {
+        return improve(initialTour, CancellationToken.none());
+    }
+
+    // Anytime: the token is polled between phases and before each window
+    public int[] improve(int[] initialTour, CancellationToken token) {
+        int[] tour = initialTour.clone();
+        improvedWindows = 0;
+        totalGain = 0;
+        int k = Math.min(windowSize, n);
+        if (k < 4) return tour;
+
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase("Sliding-window Held-Karp", "improve", n);
+        SolverEvents.OperatorCounter counter = SolverEvents.counter("Sliding-window Held-Karp", "window");
+
+        changedInPass = new int[n];
+        java.util.Arrays.fill(changedInPass, -1);
+
+        int span = k - 1; // edges per window
+        int windows = (n + span - 1) / span;
+        for (int pass = 0; pass < maxPasses && !token.isCancelled(); pass++) {
+            int currentPass = pass;
+            AtomicInteger improved = new AtomicInteger();
+            DoubleAdder gain = new DoubleAdder();
+
+            for (int offset = 0; offset < span && !token.isCancelled(); offset++) {
+                int start = offset;
+                IntStream.range(0, windows).parallel().forEach(w -> {
+                    if (token.isCancelled()) return;
+                    int first = start + w * span;
+                    int length = Math.min(span, n - w * span); // the last window closes the cycle
+                    if (length < 3) return;
+                    if (currentPass > 0 && !changedSince(first, length, currentPass - 1)) return;
+                    if (SolverEvents.COUNTERS_ENABLED) counter.evaluated();
+                    double windowGain = workspace.get().optimize(tour, first, length, currentPass);
+                    if (windowGain > 0) {
+                        if (SolverEvents.COUNTERS_ENABLED) counter.applied(windowGain);
+                        improved.incrementAndGet();
+                        gain.add(windowGain);
+                    }
+                });
+            }
+
+            improvedWindows += improved.get();
+            totalGain += gain.sum();
+            if (SolverLog.isDebugEnabled()) {
+                SolverLog.debug("Window pass " + pass + ": " + improved.get() + " windows improved, gain " + gain.sum());
+            }
+            if (improved.get() == 0) break;
+        }
+
+        if (SolverEvents.COUNTERS_ENABLED) counter.report();
+        SolverEvents.endPhase(phase);
+        return tour;
+    }
+
+    // A window unchanged since its last solve is still optimal. The positions read here are written
+    // only by this window within a phase (interiors are disjoint, ends are never written).
+    private boolean changedSince(int first, int length, int pass) {
+        for (int i = 0; i <= length; i++) {
+            if (changedInPass[(first + i) % n] >= pass) return true;
+        }
+        return false;
+    }
+
+
+    // One thread's scratch space for windows of up to MAX_WINDOW cities
+    private class Workspace {
+        final double[][] d = new double[MAX_WINDOW][MAX_WINDOW];
+        final double[] dp = new double[(1 << (MAX_WINDOW - 2)) * (MAX_WINDOW - 2)];
+        final int[] parent = new int[dp.length];
+        final int[] cities = new int[MAX_WINDOW];
+        final int[] order = new int[MAX_WINDOW];
+
+        // Re-solve the path over tour positions first .. first + length (mod n) and write it back
+        // when shorter; returns the gain, 0 when the window was already optimal
+        double optimize(int[] tour, int first, int length, int pass) {
+            int size = length + 1;
+            for (int i = 0; i < size; i++) {
+                cities[i] = tour[(first + i) % n];
+            }
+            double current = 0;
+            for (int i = 0; i < size; i++) {
+                d[i][i] = 0;
+                for (int j = i + 1; j < size; j++) {
+                    double distance = distances.distance(cities[i], cities[j]);
+                    d[i][j] = distance;
+                    d[j][i] = distance;
+                }
+                if (i > 0) current += d[i - 1][i];
+            }
+
+            double best = HeldKarp.shortestPath(d, size, dp, parent, order);
+            if (best >= current - EPS) return 0;
+
+            // order is a permutation of window indices with the ends fixed; cities still holds the old order
+            for (int i = 1; i < size - 1; i++) {
+                int position = (first + i) % n;
+                tour[position] = cities[order[i]];
+                changedInPass[position] = pass;
+            }
+            return current - best;
+        }
+    }
+
+    public static void main(String[] args) {
+        double[][] distances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        SolverContext context = new SolverContext(distances);
+        int[] tour = {0, 2, 1, 3};
+        int[] polished = new SlidingWindowHeldKarp(context).improve(tour);
+        System.out.println("Before: " + context.tourCost(tour) + " " + java.util.Arrays.toString(tour));
+        System.out.println("After window polishing: " + context.tourCost(polished) + " "
+                + java.util.Arrays.toString(polished));
+    }
+}
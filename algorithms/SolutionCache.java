@@ -0,0 +1,704 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Best known tour (and lower bound) per instance, found again when the same cities come back
+// relabeled, rotated or shifted, and reused as a warm start when most of them come back.
+//
+// Each city gets a signature: a hash of the distances to its K nearest neighbors, rounded to
+// float precision. Distances do not change under rotation, translation or relabeling, so neither
+// do the signatures, and the instance fingerprint combines them with a commutative sum. An entry
+// stores the signatures of its tour in tour order rather than city ids, with each city's distances
+// to the three before it and to three landmarks: the city with the rarest signature, the city
+// farthest from it and the one spanning the widest triangle with both. A lookup maps the landmarks
+// first (any choice among equal candidates is the image of some rotation or reflection), after
+// which the distances to them pin every other city down even along the straight runs of a grid,
+// where the three previous cities are collinear and a mirrored candidate would fit them too. Each
+// position goes to the query city with its signature whose distances to the mapped cities agree;
+// the cities the entry did not have are then inserted next to their nearest neighbor on the tour.
+//
+// A lookup is an exact hit when the mapped tour is complete and costs what the entry recorded; the
+// lower bound is then valid too. Otherwise the in-memory entry sharing the most signatures (at
+// least minSimilarity of the larger instance) is a close match. Entries are evicted least recently
+// used; with a directory set, every put is also written there and exact lookups fall back to it.
+public class SolutionCache {
+    private static final int K = 6;
+    private static final int MAGIC = 0x43505354; // "TSPC" little-endian, as in BinaryInstance
+    private static final int VERSION = 1;
+    private static final int BACK = 3;            // distances stored to the previous tour positions
+    private static final int LANDMARKS = 3;       // distances stored to fixed positions
+    private static final int AMBIGUOUS_SCAN = 32; // run members tried when the neighborhood search fails
+    private static final int SEARCH_LIMIT = 512;  // cities examined around the previous mapped city
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Entry> entries;
+    private Path directory; // optional disk tier
+    private double minSimilarity = 0.8;
+
+    private long exactHits;
+    private long closeHits;
+    private long misses;
+
+    public SolutionCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > SolutionCache.this.capacity;
+            }
+        };
+    }
+
+    public SolutionCache setDirectory(String directory) throws IOException {
+        this.directory = Paths.get(directory);
+        Files.createDirectories(this.directory);
+        return this;
+    }
+
+    // Share of the larger instance's cities that must match for a warm start
+    public SolutionCache setMinSimilarity(double minSimilarity) {
+        this.minSimilarity = minSimilarity;
+        return this;
+    }
+
+    public Key key(SolverContext context) {
+        return new Key(context.getDistanceProvider(), context.getNeighborLists(K));
+    }
+
+    public Key key(CoordinateDistance coordinates) {
+        return new Key(coordinates, coordinates.neighborLists(K));
+    }
+
+    // Null on a miss
+    public Match lookup(Key key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key.fingerprint);
+        }
+        if (entry == null && directory != null) {
+            entry = readEntry(key.fingerprint);
+            if (entry != null) {
+                synchronized (this) {
+                    entries.put(key.fingerprint, entry);
+                }
+            }
+        }
+        if (entry != null) {
+            Match match = map(key, entry, 1.0);
+            if (match.isExact()) {
+                synchronized (this) {
+                    exactHits++;
+                }
+                return match;
+            }
+        }
+
+        Entry closest = null;
+        double similarity = 0;
+        synchronized (this) {
+            for (Entry candidate : entries.values()) {
+                double s = similarity(key.sortedSignatures, candidate.sortedSignatures);
+                if (s > similarity) {
+                    similarity = s;
+                    closest = candidate;
+                }
+            }
+            if (closest == null || similarity < minSimilarity) {
+                misses++;
+                return null;
+            }
+            closeHits++;
+            entries.get(closest.fingerprint); // touch: warm starts keep an entry alive
+        }
+        return map(key, closest, similarity);
+    }
+
+    // Keeps the cheaper tour and the higher lower bound (NaN when unknown)
+    public void put(Key key, int[] tour, double cost, double lowerBound) {
+        int n = tour.length;
+        long[] tourSignatures = new long[n];
+        float[] backDistances = new float[BACK * n];
+        for (int i = 0; i < n; i++) {
+            tourSignatures[i] = key.signatures[tour[i]];
+            for (int j = 0; j < BACK; j++) {
+                backDistances[BACK * i + j] = (float) key.distances.distance(tour[Math.floorMod(i - j - 1, n)], tour[i]);
+            }
+        }
+        int[] landmarks = landmarks(key, tour);
+        float[] landmarkDistances = new float[landmarks.length * n];
+        for (int i = 0; i < n; i++) {
+            for (int l = 0; l < landmarks.length; l++) {
+                landmarkDistances[landmarks.length * i + l] = (float) key.distances.distance(tour[landmarks[l]], tour[i]);
+            }
+        }
+        Entry entry = new Entry(key.fingerprint, tourSignatures, backDistances, landmarks, landmarkDistances,
+                key.sortedSignatures, cost, lowerBound);
+
+        // the disk read stays outside the lock; the compare and the put happen in one section so a
+        // concurrent put of a cheaper tour cannot be overwritten by this one
+        Entry stored = null;
+        if (directory != null) {
+            boolean inMemory;
+            synchronized (this) {
+                inMemory = entries.containsKey(key.fingerprint);
+            }
+            if (!inMemory) stored = readEntry(key.fingerprint);
+        }
+        synchronized (this) {
+            Entry existing = entries.get(key.fingerprint);
+            if (existing == null) existing = stored;
+            if (existing != null && existing.n == entry.n) {
+                double bound = Double.isNaN(existing.lowerBound) ? lowerBound
+                        : Double.isNaN(lowerBound) ? existing.lowerBound : Math.max(lowerBound, existing.lowerBound);
+                if (existing.cost <= cost) {
+                    if (Double.compare(bound, existing.lowerBound) == 0) {
+                        entries.put(key.fingerprint, existing); // nothing new: only mark it recently used
+                        return;
+                    }
+                    entry = new Entry(key.fingerprint, existing.tourSignatures, existing.backDistances, existing.landmarks,
+                            existing.landmarkDistances, existing.sortedSignatures, existing.cost, bound);
+                } else {
+                    entry = new Entry(key.fingerprint, tourSignatures, backDistances, landmarks, landmarkDistances,
+                            key.sortedSignatures, cost, bound);
+                }
+            }
+            entries.put(key.fingerprint, entry);
+            // written under the lock too, so the file never ends up older than the memory entry
+            if (directory != null) writeEntry(entry);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getExactHits() {
+        return exactHits;
+    }
+
+    public synchronized long getCloseHits() {
+        return closeHits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void clearMemory() {
+        entries.clear();
+    }
+
+
+    // Signatures of one instance; compute once per instance and reuse for lookup and put
+    public static class Key {
+        public final long fingerprint;
+        final long[] signatures;
+        final long[] sortedSignatures;
+        final DistanceProvider distances;
+        final int[][] neighbors;
+
+        Key(DistanceProvider distances, int[][] neighbors) {
+            int n = distances.size();
+            this.distances = distances;
+            this.neighbors = neighbors;
+            this.signatures = new long[n];
+            double[] nearest = new double[K];
+            long sum = 0, mixed = 0;
+            for (int i = 0; i < n; i++) {
+                int count = neighbors[i].length;
+                for (int j = 0; j < count; j++) {
+                    nearest[j] = distances.distance(i, neighbors[i][j]);
+                }
+                Arrays.sort(nearest, 0, count);
+                long h = count;
+                for (int j = 0; j < count; j++) {
+                    h = mix(h * 31 + Float.floatToIntBits((float) nearest[j]));
+                }
+                signatures[i] = h;
+                sum += mix(h);
+                mixed += mix(h ^ 0x9E3779B97F4A7C15L) * (h | 1);
+            }
+            this.fingerprint = mix(sum ^ Long.rotateLeft(mixed, 32) ^ n);
+            this.sortedSignatures = signatures.clone();
+            Arrays.sort(sortedSignatures);
+        }
+
+        public int size() {
+            return signatures.length;
+        }
+    }
+
+    public static class Match {
+        public final boolean exact;
+        public final int[] tour;         // a complete tour of the query instance
+        public final double cost;        // its cost on the query instance
+        public final double lowerBound;  // NaN unless exact
+        public final double similarity;  // share of signatures in common
+
+        Match(boolean exact, int[] tour, double cost, double lowerBound, double similarity) {
+            this.exact = exact;
+            this.tour = tour;
+            this.cost = cost;
+            this.lowerBound = lowerBound;
+            this.similarity = similarity;
+        }
+
+        public boolean isExact() {
+            return exact;
+        }
+    }
+
+    private static class Entry {
+        final long fingerprint;
+        final int n;
+        final long[] tourSignatures;
+        final float[] backDistances;     // [BACK * i + j]: tour position i to position i - j - 1
+        final int[] landmarks;           // tour positions
+        final float[] landmarkDistances; // [landmarks.length * i + l]: tour position i to landmark l
+        final long[] sortedSignatures;
+        final double cost;
+        final double lowerBound;
+
+        Entry(long fingerprint, long[] tourSignatures, float[] backDistances, int[] landmarks,
+                float[] landmarkDistances, long[] sortedSignatures, double cost, double lowerBound) {
+            this.fingerprint = fingerprint;
+            this.n = tourSignatures.length;
+            this.tourSignatures = tourSignatures;
+            this.backDistances = backDistances;
+            this.landmarks = landmarks;
+            this.landmarkDistances = landmarkDistances;
+            this.sortedSignatures = sortedSignatures;
+            this.cost = cost;
+            this.lowerBound = lowerBound;
+        }
+    }
+
+
+    // Cached tour order -> query city ids, then the query's leftover cities inserted
+    private static Match map(Key key, Entry entry, double similarity) {
+        int n = key.size();
+        long[] signatures = key.signatures;
+        long[] keys = key.sortedSignatures;
+        // byId[s] = a city whose signature is keys[s]; slot[c] = where city c sits in byId
+        // keys is already sorted: each city takes the next free place in its signature's run, in
+        // id order, so no index sort (and no boxing) is needed
+        int[] runOf = new int[n];
+        for (int i = 1; i < n; i++) runOf[i] = keys[i] == keys[i - 1] ? runOf[i - 1] : i;
+        int[] filled = new int[n];
+        int[] byId = new int[n];
+        int[] slot = new int[n];
+        for (int c = 0; c < n; c++) {
+            int run = runOf[Arrays.binarySearch(keys, signatures[c])];
+            int s = run + filled[run]++;
+            byId[s] = c;
+            slot[c] = s;
+        }
+
+        // live[start of a run of equal signatures] = how many of its cities are still unused;
+        // a taken city is swapped behind the live ones
+        int[] live = new int[n];
+        for (int i = 0; i < n; ) {
+            int end = i;
+            while (end < n && keys[end] == keys[i]) end++;
+            live[i] = end - i;
+            i = end;
+        }
+
+        // start at the first landmark, or when the query lacks its signature at the signature the
+        // fewest query cities share (ideally one, else e.g. the corners of a symmetric grid, where any
+        // choice is the image of some reflection or rotation)
+        int m = entry.n;
+        int first = 0;
+        if (entry.landmarks.length > 0 && runStart(keys, entry.tourSignatures[entry.landmarks[0]]) >= 0) {
+            first = entry.landmarks[0];
+        } else {
+            int fewest = Integer.MAX_VALUE;
+            for (int p = 0; p < m && fewest > 1; p++) {
+                int run = runStart(keys, entry.tourSignatures[p]);
+                if (run >= 0 && live[run] < fewest) {
+                    fewest = live[run];
+                    first = p;
+                }
+            }
+        }
+
+        int[] mappedAt = new int[m];
+        Arrays.fill(mappedAt, -1);
+        boolean[] used = new boolean[n];
+        int[] visited = new int[n];
+        int[] queue = new int[SEARCH_LIMIT + K + 1];
+        int[] tour = new int[n];
+        int length = 0;
+        for (int step = 0; step < m; step++) {
+            int p = (first + step) % m;
+            if (mappedAt[p] >= 0) { // a landmark mapped ahead of the walk
+                tour[length++] = mappedAt[p];
+                continue;
+            }
+            long signature = entry.tourSignatures[p];
+            int run = runStart(keys, signature);
+            int city;
+            if (run >= 0 && live[run] == 1) {
+                city = byId[run];
+            } else if (run >= 0 && live[run] > 0) {
+                city = locate(key, entry, p, mappedAt, step, signature, used, byId, run, live[run], visited, queue);
+            } else {
+                // the city's neighborhood changed (a neighbor moved or left): follow the distances alone
+                city = locate(key, entry, p, mappedAt, step, null, used, byId, run, 0, visited, queue);
+            }
+            if (city < 0) continue;
+            take(city, signatures, keys, byId, slot, live);
+            used[city] = true;
+            mappedAt[p] = city;
+            tour[length++] = city;
+
+            if (step == 0) {
+                // the other landmarks next: a member of their run at the stored distances from the
+                // landmarks mapped so far (every member fits equally when none is)
+                for (int q : entry.landmarks) {
+                    int landmarkRun = runStart(keys, entry.tourSignatures[q]);
+                    if (mappedAt[q] >= 0 || landmarkRun < 0) continue;
+                    for (int s = landmarkRun; s < landmarkRun + live[landmarkRun]; s++) {
+                        if (landmarkError(key, entry, q, mappedAt, byId[s]) == 0) {
+                            int landmark = byId[s];
+                            take(landmark, signatures, keys, byId, slot, live);
+                            used[landmark] = true;
+                            mappedAt[q] = landmark;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean complete = length == n;
+        if (!complete) tour = insertMissing(key, tour, length);
+        double cost = key.distances.tourCost(tour);
+        boolean exact = complete && m == n && Math.abs(cost - entry.cost) <= 1e-9 * Math.max(1, entry.cost);
+        return new Match(exact, tour, cost, exact ? entry.lowerBound : Double.NaN, similarity);
+    }
+
+    // The query city for tour position p: an unused city (with this signature unless signature is
+    // null) at exactly the stored distances from the cities mapped at the previous positions. It is
+    // searched breadth-first through the neighbor lists from the latest mapped city, since tour
+    // edges are short. Without any mapped predecessor the first unused city of the run is taken;
+    // with one but no exact fit, -1 leaves the position to the insertion pass rather than guess.
+    private static int locate(Key key, Entry entry, int p, int[] mappedAt, int step, Long signature, boolean[] used,
+            int[] byId, int run, int available, int[] visited, int[] queue) {
+        int m = entry.n;
+        int origin = -1;
+        for (int j = 0; j < BACK && j < step && origin < 0; j++) {
+            origin = mappedAt[Math.floorMod(p - j - 1, m)];
+        }
+        if (origin < 0) {
+            return (signature != null) ? byId[run] : -1;
+        }
+
+        int stamp = step + 1; // one search per position, so the step number marks this search's visits
+        int head = 0, tail = 0;
+        queue[tail++] = origin;
+        visited[origin] = stamp;
+        while (head < tail && head < SEARCH_LIMIT) {
+            int city = queue[head++];
+            if (!used[city] && (signature == null || key.signatures[city] == signature)
+                    && backError(key, entry, p, mappedAt, step, city) == 0) {
+                return city;
+            }
+            for (int next : key.neighbors[city]) {
+                if (visited[next] != stamp && tail < queue.length) {
+                    visited[next] = stamp;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        if (signature != null) {
+            for (int s = run; s < run + Math.min(available, AMBIGUOUS_SCAN); s++) {
+                if (backError(key, entry, p, mappedAt, step, byId[s]) == 0) return byId[s];
+            }
+        }
+        return -1;
+    }
+
+    // Mismatch between the stored distances from position p (back to the previous positions and to
+    // the landmarks) and the candidate's, counting only agreement up to float precision as zero
+    private static double backError(Key key, Entry entry, int p, int[] mappedAt, int step, int candidate) {
+        double error = landmarkError(key, entry, p, mappedAt, candidate);
+        for (int j = 0; j < BACK && j < step; j++) {
+            int earlier = mappedAt[Math.floorMod(p - j - 1, entry.n)];
+            if (earlier >= 0) error += mismatch(key.distances.distance(earlier, candidate), entry.backDistances[BACK * p + j]);
+        }
+        return error;
+    }
+
+    private static double landmarkError(Key key, Entry entry, int p, int[] mappedAt, int candidate) {
+        double error = 0;
+        int count = entry.landmarks.length;
+        for (int l = 0; l < count; l++) {
+            int landmark = mappedAt[entry.landmarks[l]];
+            if (landmark >= 0 && entry.landmarks[l] != p) {
+                error += mismatch(key.distances.distance(landmark, candidate), entry.landmarkDistances[count * p + l]);
+            }
+        }
+        return error;
+    }
+
+    private static double mismatch(double distance, double stored) {
+        double difference = Math.abs(distance - stored);
+        return (difference > 1e-6 * Math.max(1, stored)) ? difference : 0;
+    }
+
+    // Removes a mapped city from the live part of its signature run
+    private static void take(int city, long[] signatures, long[] keys, int[] byId, int[] slot, int[] live) {
+        int run = runStart(keys, signatures[city]);
+        int last = run + live[run] - 1;
+        int other = byId[last];
+        byId[slot[city]] = other;
+        slot[other] = slot[city];
+        byId[last] = city;
+        slot[city] = last;
+        live[run]--;
+    }
+
+    // Tour positions of the city with the rarest signature, the city farthest from it and the city
+    // spanning the largest triangle with those two (Heron's formula, so no coordinates are needed)
+    private static int[] landmarks(Key key, int[] tour) {
+        int n = tour.length;
+        if (n < LANDMARKS) return new int[0];
+        int a = 0;
+        int fewest = Integer.MAX_VALUE;
+        for (int i = 0; i < n && fewest > 1; i++) {
+            long signature = key.signatures[tour[i]];
+            int run = runStart(key.sortedSignatures, signature);
+            int count = 0;
+            while (run + count < n && key.sortedSignatures[run + count] == signature) count++;
+            if (count < fewest) {
+                fewest = count;
+                a = i;
+            }
+        }
+        int b = a;
+        for (int i = 0; i < n; i++) {
+            if (key.distances.distance(tour[a], tour[i]) > key.distances.distance(tour[a], tour[b])) b = i;
+        }
+        double ab = key.distances.distance(tour[a], tour[b]);
+        int c = -1;
+        double widest = -1;
+        for (int i = 0; i < n; i++) {
+            if (i == a || i == b) continue;
+            double ac = key.distances.distance(tour[a], tour[i]);
+            double bc = key.distances.distance(tour[b], tour[i]);
+            double area = (ab + ac + bc) * (-ab + ac + bc) * (ab - ac + bc) * (ab + ac - bc);
+            if (area > widest) {
+                widest = area;
+                c = i;
+            }
+        }
+        return (b == a) ? new int[]{a} : new int[]{a, b, c};
+    }
+
+    private static int runStart(long[] keys, long signature) {
+        int index = Arrays.binarySearch(keys, signature);
+        if (index < 0) return -1;
+        while (index > 0 && keys[index - 1] == signature) index--;
+        return index;
+    }
+
+    // Insert each city not on the partial tour beside the neighbor (before or after it) where it
+    // adds the least; cities whose neighbors are all missing wait for a later round
+    private static int[] insertMissing(Key key, int[] partial, int length) {
+        int n = key.size();
+        int[] next = new int[n];
+        int[] prev = new int[n];
+        boolean[] onTour = new boolean[n];
+        Arrays.fill(next, -1);
+        for (int i = 0; i < length; i++) {
+            int city = partial[i];
+            int following = partial[(i + 1) % length];
+            next[city] = following;
+            prev[following] = city;
+            onTour[city] = true;
+        }
+
+        int remaining = n - length;
+        int anchor = (length > 0) ? partial[0] : -1;
+        while (remaining > 0) {
+            int inserted = 0;
+            for (int c = 0; c < n; c++) {
+                if (onTour[c]) continue;
+                if (anchor < 0) { // nothing matched at all: start a tour from this city
+                    next[c] = prev[c] = c;
+                    onTour[c] = true;
+                    anchor = c;
+                    inserted++;
+                    continue;
+                }
+                int bestAfter = -1;
+                double bestDelta = Double.POSITIVE_INFINITY;
+                for (int u : key.neighbors[c]) {
+                    if (!onTour[u]) continue;
+                    for (int a : new int[]{prev[u], u}) { // between a and next[a]
+                        int b = next[a];
+                        double delta = key.distances.distance(a, c) + key.distances.distance(c, b) - key.distances.distance(a, b);
+                        if (delta < bestDelta) {
+                            bestDelta = delta;
+                            bestAfter = a;
+                        }
+                    }
+                }
+                if (bestAfter < 0) continue;
+                int b = next[bestAfter];
+                next[bestAfter] = c;
+                prev[c] = bestAfter;
+                next[c] = b;
+                prev[b] = c;
+                onTour[c] = true;
+                inserted++;
+            }
+            remaining -= inserted;
+            if (inserted == 0) { // isolated from the tour through its neighbor lists: append
+                for (int c = 0; c < n; c++) {
+                    if (onTour[c]) continue;
+                    int b = next[anchor];
+                    next[anchor] = c;
+                    prev[c] = anchor;
+                    next[c] = b;
+                    prev[b] = c;
+                    onTour[c] = true;
+                    anchor = c;
+                    remaining--;
+                }
+            }
+        }
+
+        int[] tour = new int[n];
+        int city = anchor;
+        for (int i = 0; i < n; i++) {
+            tour[i] = city;
+            city = next[city];
+        }
+        return tour;
+    }
+
+    // |common signatures| / max(n, m) over two sorted arrays
+    private static double similarity(long[] a, long[] b) {
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) common / Math.max(a.length, b.length);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+
+    // Disk tier: <fingerprint>.tspc, little-endian header (magic, version, n, landmark count, cost,
+    // lower bound) followed by the landmark positions, tour signatures, back distances and landmark
+    // distances; written to a temp file and moved into place
+    private Path pathFor(long fingerprint) {
+        return directory.resolve(String.format("%016x.tspc", fingerprint));
+    }
+
+    private void writeEntry(Entry entry) {
+        Path target = pathFor(entry.fingerprint);
+        int count = entry.landmarks.length;
+        java.nio.ByteBuffer buffer = java.nio.ByteBuffer.allocate(32 + 4 * count + (8 + 4 * (BACK + count)) * entry.n)
+                .order(java.nio.ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(entry.n).putInt(count)
+                .putDouble(entry.cost).putDouble(entry.lowerBound);
+        for (int landmark : entry.landmarks) buffer.putInt(landmark);
+        for (long signature : entry.tourSignatures) buffer.putLong(signature);
+        for (float distance : entry.backDistances) buffer.putFloat(distance);
+        for (float distance : entry.landmarkDistances) buffer.putFloat(distance);
+        try {
+            Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+            try {
+                Files.write(temp, buffer.array());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // the memory tier still has it; a failed write must not fail the solve
+            SolverLog.info("Solution cache write to " + target + " failed: " + e.getMessage());
+        }
+    }
+
+    private Entry readEntry(long fingerprint) {
+        Path path = pathFor(fingerprint);
+        if (!Files.exists(path)) return null;
+        try {
+            java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(Files.readAllBytes(path)).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < 32 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("not a version " + VERSION + " solution file");
+            }
+            int n = buffer.getInt();
+            int count = buffer.getInt();
+            double cost = buffer.getDouble();
+            double lowerBound = buffer.getDouble();
+            if (n < 0 || count < 0 || count > LANDMARKS || buffer.remaining() != 4L * count + (8L + 4 * (BACK + count)) * n) {
+                throw new IOException("truncated");
+            }
+            int[] landmarks = new int[count];
+            for (int l = 0; l < count; l++) {
+                landmarks[l] = buffer.getInt();
+                if (landmarks[l] < 0 || landmarks[l] >= n) throw new IOException("landmark out of range");
+            }
+            long[] tourSignatures = new long[n];
+            for (int i = 0; i < n; i++) tourSignatures[i] = buffer.getLong();
+            float[] backDistances = new float[BACK * n];
+            for (int i = 0; i < BACK * n; i++) backDistances[i] = buffer.getFloat();
+            float[] landmarkDistances = new float[count * n];
+            for (int i = 0; i < count * n; i++) landmarkDistances[i] = buffer.getFloat();
+            long[] sorted = tourSignatures.clone();
+            Arrays.sort(sorted);
+            return new Entry(fingerprint, tourSignatures, backDistances, landmarks, landmarkDistances, sorted, cost, lowerBound);
+        } catch (IOException e) {
+            SolverLog.info("Ignoring solution cache file " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void main(String[] args) {
+        double[][] distances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        SolutionCache cache = new SolutionCache(16);
+        SolverContext context = new SolverContext(distances);
+        Key key = cache.key(context);
+        System.out.println("First lookup: " + (cache.lookup(key) == null ? "miss" : "hit"));
+        TSPResult result = new HeldKarp(context).solve();
+        cache.put(key, result.tour, result.cost, result.cost);
+
+        // the same instance with its cities listed in reverse order
+        int[] order = {3, 2, 1, 0};
+        double[][] relabeled = new double[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) relabeled[i][j] = distances[order[i]][order[j]];
+        }
+        Match match = cache.lookup(cache.key(new SolverContext(relabeled)));
+        System.out.println("Relabeled lookup: exact " + match.isExact() + ", cost " + match.cost
+                + ", tour " + Arrays.toString(match.tour));
+    }
+}
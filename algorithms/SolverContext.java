@@ -0,0 +1,133 @@
+import java.util.HashMap;
+import java.util.Map;
+
+// Per-instance artifacts shared by all solvers and pipeline stages, computed at most once
+public class SolverContext {
+    private final double[][] distances;
+    private final DistanceProvider distanceProvider;
+    private final int n;
+
+    private int[] mstParent;
+    private int[] mstTour;
+    private int[] nearestNeighborTour;
+    private int[][] integerWeights;
+    private Map<Integer, int[][]> neighborLists = new HashMap<>();
+
+    public SolverContext(double[][] distances) {
+        this.distances = distances;
+        this.distanceProvider = new MatrixDistance(distances);
+        this.n = distances.length;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public double[][] getDistances() {
+        return distances;
+    }
+
+    public DistanceProvider getDistanceProvider() {
+        return distanceProvider;
+    }
+
+    public double tourCost(int[] tour) {
+        return MatrixDistance.tourCost(distances, tour);
+    }
+
+    // TSPLIB nint-rounded copy of the distances, for the integer solvers. The context keeps its
+    // double matrix, so this adds 4 bytes per pair to the 8 already held (12 n^2 in total); only
+    // an instance parsed straight into IntMatrixDistance weights saves memory over doubles
+    public synchronized int[][] getIntegerWeights() {
+        if (integerWeights == null) {
+            integerWeights = IntMatrixDistance.round(distances);
+        }
+        return integerWeights;
+    }
+
+    // Prim's MST parent array
+    public synchronized int[] getMSTParent() {
+        if (mstParent == null) {
+            mstParent = new TSP_MST(distances).buildMST();
+        }
+        return mstParent;
+    }
+
+    // Total MST weight: a lower bound on every tour
+    public double getMSTWeight() {
+        int[] parent = getMSTParent();
+        double weight = 0;
+        for (int i = 0; i < n; i++) {
+            if (parent[i] >= 0) weight += distances[i][parent[i]];
+        }
+        return weight;
+    }
+
+    // MST + greedy matching tour; callers get their own copy
+    public synchronized int[] getMSTTour() {
+        if (mstTour == null) {
+            SolverEvents.PhaseEvent phase = SolverEvents.beginPhase("MST approximation", "construct", n);
+            TSP_MST mstSolver = new TSP_MST(distances);
+            int[] parent = getMSTParent();
+            int[] oddVertices = mstSolver.findOddDegreeVertices(parent);
+            int[][] matching = mstSolver.findMinimumMatching(oddVertices);
+            mstTour = mstSolver.createTSPTour(parent, matching);
+            SolverEvents.endPhase(phase);
+        }
+        return mstTour.clone();
+    }
+
+    // Nearest neighbor tour from city 0; callers get their own copy
+    public synchronized int[] getNearestNeighborTour() {
+        if (nearestNeighborTour == null) {
+            SolverEvents.PhaseEvent phase = SolverEvents.beginPhase("Nearest neighbor", "construct", n);
+            nearestNeighborTour = nearestNeighborTour(distances, 0);
+            SolverEvents.endPhase(phase);
+        }
+        return nearestNeighborTour.clone();
+    }
+
+    // k nearest neighbors per city; a list built for a larger k is reused by truncation
+    public synchronized int[][] getNeighborLists(int k) {
+        k = Math.min(k, n - 1);
+        int[][] lists = neighborLists.get(k);
+        if (lists != null) return lists;
+
+        for (Map.Entry<Integer, int[][]> entry : neighborLists.entrySet()) {
+            if (entry.getKey() > k) {
+                lists = new int[n][];
+                for (int i = 0; i < n; i++) {
+                    lists[i] = java.util.Arrays.copyOf(entry.getValue()[i], k);
+                }
+                break;
+            }
+        }
+        if (lists == null) {
+            lists = FastLocalSearch.buildNeighborLists(distances, k);
+        }
+
+        neighborLists.put(k, lists);
+        return lists;
+    }
+
+    // Nearest Neighbor greedy heuristic from a given start city
+    public static int[] nearestNeighborTour(double[][] distances, int start) {
+        int n = distances.length;
+        DistanceKernels.Kernels kernels = DistanceKernels.get();
+        int[] tour = new int[n];
+        // 0 for unvisited cities, +infinity once visited
+        double[] visited = new double[n];
+        tour[0] = start;
+        visited[start] = Double.POSITIVE_INFINITY;
+
+        for (int i = 1; i < n; i++) {
+            // Find nearest unvisited city
+            int nearestCity = kernels.argMinSum(distances[tour[i - 1]], visited, n);
+
+            tour[i] = nearestCity;
+            visited[nearestCity] = Double.POSITIVE_INFINITY;
+        }
+
+        return tour;
+    }
+}
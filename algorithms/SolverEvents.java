@@ -0,0 +1,146 @@
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR instrumentation for the solvers.
+//
+// Phase events (construct, MST, matching, Euler, improve) are recorded only while a JFR recording
+// has them enabled, e.g. java -XX:StartFlightRecording:filename=tsp.jfr ..., and can be switched
+// off entirely with -Dtsp.events=false. Operator counters (moves evaluated/applied, gain) cost an
+// increment per move and are off unless -Dtsp.counters=true; the flag is a static final so the JIT
+// drops the guarded code when it is off.
+public class SolverEvents {
+    public static final boolean EVENTS_ENABLED = !"false".equals(System.getProperty("tsp.events"));
+    public static final boolean COUNTERS_ENABLED = Boolean.getBoolean("tsp.counters");
+
+    // Start a phase event; returns null when nothing would be recorded
+    public static PhaseEvent beginPhase(String solver, String phase, int cities) {
+        if (!EVENTS_ENABLED) return null;
+        PhaseEvent event = new PhaseEvent();
+        if (!event.isEnabled()) return null;
+        event.solver = solver;
+        event.phase = phase;
+        event.cities = cities;
+        event.begin();
+        return event;
+    }
+
+    public static void endPhase(PhaseEvent event) {
+        if (event != null) event.commit();
+    }
+
+    // Counter for one operator of one solver run, or null when counters are disabled
+    public static OperatorCounter counter(String solver, String operator) {
+        return COUNTERS_ENABLED ? new OperatorCounter(solver, operator) : null;
+    }
+
+
+    @Name("tsp.Phase")
+    @Label("Solver Phase")
+    @Category("TSP")
+    @Description("One phase of a solver run: construct, MST, matching, Euler or improve")
+    public static class PhaseEvent extends Event {
+        @Label("Solver")
+        String solver;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Cities")
+        int cities;
+    }
+
+    @Name("tsp.OperatorStats")
+    @Label("Operator Statistics")
+    @Category("TSP")
+    @Description("Moves evaluated and applied by one neighborhood operator during a solver run")
+    public static class OperatorStatsEvent extends Event {
+        @Label("Solver")
+        String solver;
+
+        @Label("Operator")
+        String operator;
+
+        @Label("Moves Evaluated")
+        long movesEvaluated;
+
+        @Label("Moves Applied")
+        long movesApplied;
+
+        @Label("Total Gain")
+        double gain;
+
+        @Label("Gain per Second")
+        double gainPerSecond;
+    }
+
+    // Totals for one operator; adders so that the worker threads of one run can share a counter.
+    // report() publishes the totals once at the end of the run
+    public static class OperatorCounter {
+        private final String solver;
+        private final String operator;
+        private final long startNanos = System.nanoTime();
+        private final LongAdder evaluated = new LongAdder();
+        private final LongAdder applied = new LongAdder();
+        private final DoubleAdder gain = new DoubleAdder();
+
+        private OperatorCounter(String solver, String operator) {
+            this.solver = solver;
+            this.operator = operator;
+        }
+
+        public void evaluated() {
+            evaluated.increment();
+        }
+
+        public void evaluated(long count) {
+            evaluated.add(count);
+        }
+
+        // gain is the cost reduction of the move (negative for accepted uphill moves)
+        public void applied(double moveGain) {
+            applied.increment();
+            gain.add(moveGain);
+        }
+
+        public long getEvaluated() {
+            return evaluated.sum();
+        }
+
+        public long getApplied() {
+            return applied.sum();
+        }
+
+        public double getGain() {
+            return gain.sum();
+        }
+
+        public void report() {
+            double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+            long evaluated = getEvaluated();
+            long applied = getApplied();
+            double gain = getGain();
+
+            OperatorStatsEvent event = new OperatorStatsEvent();
+            if (event.isEnabled()) {
+                event.solver = solver;
+                event.operator = operator;
+                event.movesEvaluated = evaluated;
+                event.movesApplied = applied;
+                event.gain = gain;
+                event.gainPerSecond = gain / seconds;
+                event.commit();
+            }
+
+            if (SolverLog.isInfoEnabled()) {
+                SolverLog.info(String.format(java.util.Locale.ROOT,
+                        "%s %s: %d evaluated (%.0f/s), %d applied, gain %.2f (%.2f/s)",
+                        solver, operator, evaluated, evaluated / seconds, applied, gain, gain / seconds));
+            }
+        }
+    }
+}
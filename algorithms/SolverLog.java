@@ -0,0 +1,42 @@
+// Level-gated console logger for solver progress.
+// The level comes from -Dtsp.log=off|info|debug (default info); callers on hot paths should
+// check isDebugEnabled() before building the message so that quiet runs pay nothing for it.
+public class SolverLog {
+    public enum Level { OFF, INFO, DEBUG }
+
+    private static volatile Level level = parseLevel(System.getProperty("tsp.log", "info"));
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static boolean isInfoEnabled() {
+        return level.compareTo(Level.INFO) >= 0;
+    }
+
+    public static boolean isDebugEnabled() {
+        return level == Level.DEBUG;
+    }
+
+    // Summary lines: selected start tour, final cost, iteration counts
+    public static void info(String message) {
+        if (isInfoEnabled()) System.out.println(message);
+    }
+
+    // Per-improvement traces
+    public static void debug(String message) {
+        if (isDebugEnabled()) System.out.println(message);
+    }
+
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+
+// Staged solver: construct -> improve -> (perturb -> improve)*, all stages reading one SolverContext
+public class SolverPipeline implements TSPSolver {
+    private SolverContext context;
+    private String name = "Pipeline";
+    private Construction construction = MST_CONSTRUCTION;
+    private Improvement improvement = FAST_LOCAL_SEARCH;
+    private Perturbation perturbation; // optional
+    private int perturbationRounds = 0;
+    private long seed = System.nanoTime();
+    private TourListener checkpoint; // optional
+
+    public SolverPipeline(SolverContext context) {
+        this.context = context;
+    }
+
+    public SolverPipeline setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public SolverPipeline setConstruction(Construction construction) {
+        this.construction = construction;
+        return this;
+    }
+
+    public SolverPipeline setImprovement(Improvement improvement) {
+        this.improvement = improvement;
+        return this;
+    }
+
+    public SolverPipeline setPerturbation(Perturbation perturbation, int rounds) {
+        this.perturbation = perturbation;
+        this.perturbationRounds = rounds;
+        return this;
+    }
+
+    public SolverPipeline setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    // Report every new incumbent; with a TourFile.Checkpoint, pair with resumeFrom() to continue later
+    public SolverPipeline setCheckpoint(TourListener checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TSPResult solve(CancellationToken token) {
+        int[] best = construction.construct(context);
+        if (improvement != null && !token.isCancelled()) {
+            best = improvement.improve(context, best, token);
+        }
+        double bestCost = context.tourCost(best);
+        if (checkpoint != null) checkpoint.offer(best, bestCost);
+
+        // perturb the incumbent and keep the result if it is no worse
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int round = 0; perturbation != null && round < perturbationRounds; round++) {
+            if (token.isCancelled()) break;
+
+            int[] candidate = perturbation.perturb(context, best.clone(), random);
+            if (improvement != null) {
+                candidate = improvement.improve(context, candidate, token);
+            }
+            double candidateCost = context.tourCost(candidate);
+            if (candidateCost <= bestCost) {
+                best = candidate;
+                bestCost = candidateCost;
+                if (checkpoint != null) checkpoint.offer(best, bestCost);
+            }
+        }
+        if (checkpoint != null) checkpoint.flush();
+
+        return new TSPResult(best, bestCost);
+    }
+
+
+    // Stage interfaces
+    public interface Construction {
+        int[] construct(SolverContext context);
+    }
+
+    public interface Improvement {
+        int[] improve(SolverContext context, int[] tour, CancellationToken token);
+    }
+
+    public interface Perturbation {
+        int[] perturb(SolverContext context, int[] tour, SplittableRandom random);
+    }
+
+
+    // Stock stages built on the cached artifacts
+    public static final Construction MST_CONSTRUCTION = SolverContext::getMSTTour;
+
+    public static final Construction NEAREST_NEIGHBOR_CONSTRUCTION = SolverContext::getNearestNeighborTour;
+
+    // cheaper of the MST and nearest neighbor tours
+    public static final Construction BEST_CONSTRUCTION = context -> {
+        int[] mstTour = context.getMSTTour();
+        int[] greedyTour = context.getNearestNeighborTour();
+        return context.tourCost(mstTour) <= context.tourCost(greedyTour) ? mstTour : greedyTour;
+    };
+
+    // Warm start from a checkpoint or .tour file when it exists, otherwise build a fresh tour
+    public static Construction resumeFrom(TourFile.Checkpoint checkpoint, Construction fallback) {
+        return context -> {
+            int[] saved;
+            try {
+                saved = checkpoint.load();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot resume from " + checkpoint.getPath(), e);
+            }
+            if (saved == null) return fallback.construct(context);
+            if (saved.length != context.size()) {
+                throw new IllegalArgumentException("Checkpoint " + checkpoint.getPath() + " has " + saved.length
+                        + " cities, instance has " + context.size());
+            }
+            if (SolverLog.isInfoEnabled()) {
+                SolverLog.info("Resuming from " + checkpoint.getPath() + " (cost: " + context.tourCost(saved) + ")");
+            }
+            return saved;
+        };
+    }
+
+    // Warm start from a given tour, e.g. a SolutionCache match; each solve gets its own copy
+    public static Construction fromTour(int[] tour) {
+        return context -> {
+            if (tour.length != context.size()) {
+                throw new IllegalArgumentException("Tour has " + tour.length + " cities, instance has " + context.size());
+            }
+            return tour.clone();
+        };
+    }
+
+    public static final Improvement FAST_LOCAL_SEARCH = (context, tour, token) ->
+            new FastLocalSearch(context.getDistances(), context.getNeighborLists(10)).improve(tour, token);
+
+    // 2-opt/Or-opt, then localized double-bridge kicks until the token fires (anytime on its own)
+    public static final Improvement ITERATED_LOCAL_SEARCH = (context, tour, token) ->
+            new IteratedLocalSearch(context).improve(tour, token);
+
+    // 2-opt/Or-opt on the rounded TSPLIB weights: exact integer gains, at the price of the
+    // context's integer copy of its matrix (see SolverContext.getIntegerWeights)
+    public static final Improvement INTEGER_LOCAL_SEARCH = (context, tour, token) ->
+            new IntFastLocalSearch(context.getIntegerWeights(), context.getNeighborLists(10)).improve(tour, token);
+
+    // escapes 2-opt/Or-opt local optima through edge penalties; runs until the token fires (at most 10 s)
+    public static final Improvement GUIDED_LOCAL_SEARCH = (context, tour, token) ->
+            new GuidedLocalSearchTSP(context).solve(tour, token).tour;
+
+    // exact re-optimization of every 12-city window; meant to follow one of the local searches
+    public static final Improvement HELD_KARP_WINDOWS = (context, tour, token) ->
+            new SlidingWindowHeldKarp(context).improve(tour, token);
+
+    public static final Improvement LOCAL_SEARCH = (context, tour, token) ->
+            new LocalSearchTSP(context).solveWithLocalSearch(tour, token).tour;
+
+    // Double-bridge kick: A B C D -> A C B D
+    public static final Perturbation DOUBLE_BRIDGE = (context, tour, random) -> {
+        int n = tour.length;
+        if (n < 8) return tour;
+
+        int p1 = 1 + random.nextInt(n / 4);
+        int p2 = p1 + 1 + random.nextInt(n / 4);
+        int p3 = p2 + 1 + random.nextInt(n / 4);
+
+        int[] copy = java.util.Arrays.copyOfRange(tour, p1, p3);
+        int index = p1;
+        for (int i = p2; i < p3; i++) tour[index++] = copy[i - p1];
+        for (int i = p1; i < p2; i++) tour[index++] = copy[i - p1];
+        return tour;
+    };
+}
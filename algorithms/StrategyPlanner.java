@@ -0,0 +1,285 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Picks the solving strategy for an instance from cost estimates instead of size thresholds.
+//
+// Every candidate (exact DP, constructions, improvements, the coordinate-only multilevel solver)
+// gets a time and memory estimate from n, the metric, the free heap and the core count. The plan
+// takes Held-Karp when it fits both budgets, otherwise a construct -> improve -> double-bridge
+// pipeline on the distance matrix, otherwise the multilevel solver, and never anything whose
+// memory estimate exceeds the budget. Plan.toString() lists every estimate and verdict.
+public class StrategyPlanner {
+    // Cost model, measured with a warm JIT on JDK 17 (single core); deliberately rounded up
+    private static final double HELD_KARP_NANOS = 2.5;      // per n^2 2^n step
+    private static final double MST_NANOS = 8.0;            // per n^2 (Prim on the matrix)
+    private static final double NEAREST_NEIGHBOR_NANOS = 1.5; // per n^2
+    private static final double NEIGHBOR_LIST_NANOS = 3.0;  // per n^2 (10 nearest from the matrix)
+    private static final double MATRIX_NANOS = 10.0;        // per n^2 entry incl. allocation, divided over the cores
+    private static final double FAST_LOCAL_SEARCH_NANOS = 5_000; // per city, from a constructed tour
+    private static final double MULTILEVEL_NANOS = 20_000;  // per city, coordinates only
+    private static final double TWO_OPT_PASS_NANOS = 1.8;   // per n^3: LocalSearchTSP full pass
+
+    // Above this a full LocalSearchTSP / adaptive 2-opt pass takes minutes, so they scan a window
+    private static final double FULL_SCAN_BUDGET_MILLIS = 240_000;
+
+    // Share of the free heap a plan may use: the rest is headroom for garbage and other requests
+    private static final double HEAP_FRACTION = 0.5;
+
+    public enum Metric {
+        DOUBLE_MATRIX, // the double matrix is already built
+        INTEGER_MATRIX, // TSPLIB rounded weights: the int copy is built on top of the double matrix
+        COORDINATES // only coordinates in memory; a matrix strategy has to build the matrix first
+    }
+
+    public enum Strategy {
+        HELD_KARP, PIPELINE, MULTILEVEL
+    }
+
+    public enum Role {
+        SETUP, EXACT, CONSTRUCTION, IMPROVEMENT, PERTURBATION, COMPLETE
+    }
+
+    private Metric metric = Metric.DOUBLE_MATRIX;
+    private long timeBudgetMillis = 10_000;
+    private long heapBytes = -1; // -1: measure the free heap when planning
+    private int cores = Runtime.getRuntime().availableProcessors();
+
+    public StrategyPlanner setMetric(Metric metric) {
+        this.metric = metric;
+        return this;
+    }
+
+    public StrategyPlanner setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        return this;
+    }
+
+    // Heap available to the solve; by default max heap minus what is in use when plan() runs
+    public StrategyPlanner setHeapBytes(long heapBytes) {
+        this.heapBytes = heapBytes;
+        return this;
+    }
+
+    public StrategyPlanner setCores(int cores) {
+        this.cores = Math.max(1, cores);
+        return this;
+    }
+
+    public static long freeHeapBytes() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+    }
+
+    // Whether LocalSearchTSP and the adaptive solver can afford to scan all O(n^2) 2-opt moves
+    // (each re-costing the tour) in one pass
+    public static boolean fullScanAffordable(int n) {
+        return TWO_OPT_PASS_NANOS * n * n * (double) n / 1e6 <= FULL_SCAN_BUDGET_MILLIS;
+    }
+
+    public Plan plan(int n) {
+        long memoryBudget = (long) (HEAP_FRACTION * ((heapBytes >= 0) ? heapBytes : freeHeapBytes()));
+        Plan plan = new Plan(n, metric, timeBudgetMillis, memoryBudget);
+        double square = (double) n * n;
+
+        // the matrix every strategy except multilevel reads
+        long matrixBytes = 0;
+        double matrixMillis = 0;
+        if (metric == Metric.COORDINATES) {
+            matrixBytes = 8L * n * n + 16L * n;
+            matrixMillis = MATRIX_NANOS * square / cores / 1e6;
+            plan.add("Distance matrix", Role.SETUP, matrixMillis, matrixBytes);
+        } else if (metric == Metric.INTEGER_MATRIX) {
+            matrixBytes = 4L * n * n + 16L * n;
+            matrixMillis = square / 1e6;
+            plan.add("Integer weights", Role.SETUP, matrixMillis, matrixBytes);
+        }
+        boolean matrixFits = matrixBytes <= memoryBudget;
+
+        // Held-Karp: dp and parent tables (12 bytes per state) plus the pruning bound table
+        Estimate exact = (n <= 30)
+                ? plan.add("Held-Karp", Role.EXACT, matrixMillis + HELD_KARP_NANOS * square * Math.pow(2, n) / 1e6,
+                        matrixBytes + ((12L * n + 8) << n))
+                : plan.add("Held-Karp", Role.EXACT, Double.POSITIVE_INFINITY, Long.MAX_VALUE);
+
+        Estimate mstAndGreedy = plan.add("MST + nearest neighbor", Role.CONSTRUCTION,
+                (MST_NANOS + NEAREST_NEIGHBOR_NANOS) * square / 1e6, 40L * n);
+        Estimate greedy = plan.add("Nearest neighbor", Role.CONSTRUCTION, NEAREST_NEIGHBOR_NANOS * square / 1e6, 8L * n);
+        Estimate localSearch = plan.add((metric == Metric.INTEGER_MATRIX) ? "Integer 2-opt/Or-opt" : "2-opt/Or-opt",
+                Role.IMPROVEMENT, (NEIGHBOR_LIST_NANOS * square + FAST_LOCAL_SEARCH_NANOS * n) / 1e6, 96L * n);
+        Estimate doubleBridge = plan.add("Double-bridge rounds", Role.PERTURBATION,
+                FAST_LOCAL_SEARCH_NANOS * n / 1e6, 8L * n);
+        Estimate multilevel = plan.add("Multilevel", Role.COMPLETE, MULTILEVEL_NANOS * n / 1e6, 400L * n);
+
+        if (exact.fitsMemory && exact.fitsTime) {
+            plan.choose(Strategy.HELD_KARP, exact);
+            return plan;
+        }
+
+        if (matrixFits) {
+            // the matrix strategy must at least construct and improve once within the budget
+            Estimate construction = (matrixMillis + mstAndGreedy.millis + localSearch.millis <= timeBudgetMillis)
+                    ? mstAndGreedy : greedy;
+            double used = matrixMillis + construction.millis + localSearch.millis;
+            if (used <= timeBudgetMillis || !multilevel.fitsMemory) {
+                plan.choose(Strategy.PIPELINE, construction, localSearch);
+                if (used + 2 * doubleBridge.millis <= timeBudgetMillis) {
+                    plan.choose(Strategy.PIPELINE, doubleBridge);
+                }
+                return plan;
+            }
+        }
+
+        if (metric == Metric.COORDINATES && multilevel.fitsMemory) {
+            plan.choose(Strategy.MULTILEVEL, multilevel);
+            return plan;
+        }
+        if (matrixFits) {
+            // no coordinates to fall back to: the cheapest matrix strategy, over time if need be
+            plan.choose(Strategy.PIPELINE, greedy, localSearch);
+            return plan;
+        }
+        throw new IllegalStateException("No strategy fits in " + (memoryBudget >> 20) + " MB for " + n + " cities:\n" + plan);
+    }
+
+
+    public static class Estimate {
+        public final String algorithm;
+        public final Role role;
+        public final double millis;
+        public final long bytes;
+        public final boolean fitsTime;
+        public final boolean fitsMemory;
+        public boolean chosen;
+
+        Estimate(String algorithm, Role role, double millis, long bytes, long timeBudgetMillis, long memoryBudget) {
+            this.algorithm = algorithm;
+            this.role = role;
+            this.millis = millis;
+            this.bytes = bytes;
+            this.fitsTime = millis <= timeBudgetMillis;
+            this.fitsMemory = bytes >= 0 && bytes <= memoryBudget;
+        }
+
+        public String toString() {
+            String verdict = chosen ? "chosen" : !fitsMemory ? "over memory budget" : !fitsTime ? "over time budget" : "fits";
+            String time = Double.isInfinite(millis) ? "-" : String.format("%.0f ms", millis);
+            String memory = (bytes == Long.MAX_VALUE) ? "-" : String.format("%.1f MB", bytes / 1048576.0);
+            return String.format("%-13s %-24s %12s %12s  %s", role, algorithm, time, memory, verdict);
+        }
+    }
+
+    public static class Plan {
+        public final int n;
+        public final Metric metric;
+        public final long timeBudgetMillis;
+        public final long memoryBudget;
+        private final List<Estimate> estimates = new ArrayList<>();
+        private Strategy strategy;
+
+        Plan(int n, Metric metric, long timeBudgetMillis, long memoryBudget) {
+            this.n = n;
+            this.metric = metric;
+            this.timeBudgetMillis = timeBudgetMillis;
+            this.memoryBudget = memoryBudget;
+        }
+
+        Estimate add(String algorithm, Role role, double millis, long bytes) {
+            Estimate estimate = new Estimate(algorithm, role, millis, bytes, timeBudgetMillis, memoryBudget);
+            estimates.add(estimate);
+            return estimate;
+        }
+
+        void choose(Strategy strategy, Estimate... chosen) {
+            this.strategy = strategy;
+            for (Estimate estimate : chosen) estimate.chosen = true;
+        }
+
+        public Strategy getStrategy() {
+            return strategy;
+        }
+
+        public List<Estimate> getEstimates() {
+            return estimates;
+        }
+
+        public boolean isExact() {
+            return strategy == Strategy.HELD_KARP;
+        }
+
+        public Estimate getEstimate(String algorithm) {
+            for (Estimate estimate : estimates) {
+                if (estimate.algorithm.equals(algorithm)) return estimate;
+            }
+            return null;
+        }
+
+        // Whether Held-Karp fits the budgets, even if it is not the plan (e.g. for a portfolio member)
+        public boolean isExactFeasible() {
+            Estimate exact = getEstimate("Held-Karp");
+            return exact.fitsTime && exact.fitsMemory;
+        }
+
+        private boolean isChosen(Role role, String prefix) {
+            for (Estimate estimate : estimates) {
+                if (estimate.chosen && estimate.role == role && estimate.algorithm.startsWith(prefix)) return true;
+            }
+            return false;
+        }
+
+        // Solver for a matrix strategy; run it with a token for timeBudgetMillis
+        public TSPSolver createSolver(SolverContext context) {
+            if (strategy == Strategy.HELD_KARP) {
+                return (metric == Metric.INTEGER_MATRIX) ? new HeldKarp(context.getIntegerWeights()) : new HeldKarp(context);
+            }
+            if (strategy == Strategy.MULTILEVEL) {
+                throw new IllegalStateException("The multilevel plan needs coordinates: use createSolver(CoordinateDistance)");
+            }
+            SolverPipeline pipeline = new SolverPipeline(context)
+                    .setName("Planned pipeline")
+                    .setConstruction(isChosen(Role.CONSTRUCTION, "MST")
+                            ? SolverPipeline.BEST_CONSTRUCTION : SolverPipeline.NEAREST_NEIGHBOR_CONSTRUCTION)
+                    .setImprovement((metric == Metric.INTEGER_MATRIX)
+                            ? SolverPipeline.INTEGER_LOCAL_SEARCH : SolverPipeline.FAST_LOCAL_SEARCH);
+            if (isChosen(Role.PERTURBATION, "Double-bridge")) {
+                pipeline.setPerturbation(SolverPipeline.DOUBLE_BRIDGE, Integer.MAX_VALUE);
+            }
+            return pipeline;
+        }
+
+        // Any strategy from coordinates; builds the matrix only when the plan reads it
+        public TSPSolver createSolver(CoordinateDistance coordinates) {
+            if (strategy == Strategy.MULTILEVEL) {
+                return new MultilevelTSP(coordinates);
+            }
+            return createSolver(new SolverContext(MatrixDistance.fromCoordinates(coordinates.xs(), coordinates.ys())));
+        }
+
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("Plan for %d cities (%s, %d ms, %.0f MB): %s%n", n, metric, timeBudgetMillis,
+                    memoryBudget / 1048576.0, strategy));
+            for (Estimate estimate : estimates) {
+                text.append("  ").append(estimate).append(System.lineSeparator());
+            }
+            return text.toString();
+        }
+    }
+
+    public static void main(String[] args) {
+        double[][] distances = {
+            {0, 2, 9, 10},
+            {2, 0, 6, 4},
+            {9, 6, 0, 5},
+            {10, 4, 5, 0}
+        };
+
+        Plan plan = new StrategyPlanner().plan(distances.length);
+        System.out.print(plan);
+        TSPResult result = plan.createSolver(new SolverContext(distances)).solve();
+        System.out.println("Cost: " + result.cost);
+
+        for (int n : new int[]{20, 25, 1000, 10_000, 100_000}) {
+            System.out.print(new StrategyPlanner().setMetric(Metric.COORDINATES).plan(n));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+// Result of any solver: a tour (permutation of city indices) and its cost
+public class TSPResult {
+    public int[] tour;
+    public double cost;
+
+    public TSPResult(int[] tour, double cost) {
+        this.tour = tour;
+        this.cost = cost;
+    }
+}
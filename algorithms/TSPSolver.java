@@ -0,0 +1,10 @@
+// Common entry point for every solver; the instance is supplied at construction
+public interface TSPSolver {
+    String getName();
+
+    TSPResult solve(CancellationToken token);
+
+    default TSPResult solve() {
+        return solve(CancellationToken.none());
+    }
+}
@@ -9,15 +9,15 @@ public class TSP_MST {
 
     // Prim's algorithm
     public int[] buildMST() {
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase("MST approximation", "MST", n);
+        DistanceKernels.Kernels kernels = DistanceKernels.get();
         int[] parent = new int[n];
         double[] key = new double[n];
-        boolean[] mstSet = new boolean[n];
+        // 0 for vertices outside the MST, +infinity once added, so both scans run branch-free
+        double[] inTree = new double[n];
 
         // initialize all keys as infinite
-        for (int i = 0; i < n; i++) {
-            key[i] = Double.MAX_VALUE;
-            mstSet[i] = false;
-        }
+        java.util.Arrays.fill(key, Double.MAX_VALUE);
 
         // start from vertex 0
         key[0] = 0.0;
@@ -25,28 +25,15 @@ public class TSP_MST {
 
         for (int count = 0; count < n - 1; count++) {
             // find minimum key vertex not yet in MST
-            int u = -1;
-            double minKey = Double.MAX_VALUE;
-            for (int v = 0; v < n; v++) {
-                if (!mstSet[v] && key[v] < minKey) {
-                    minKey = key[v];
-                    u = v;
-                }
-            }
+            int u = kernels.argMinSum(key, inTree, n);
 
-            mstSet[u] = true;
+            inTree[u] = Double.POSITIVE_INFINITY;
 
             // update key values of adjacent vertices
-            for(int v = 0; v < n; v++) {
-                if (distances[u][v] != 0 &&
-                    !mstSet[v] &&
-                    distances[u][v] < key[v]) {
-                        parent[v] = u;
-                        key[v] = distances[u][v];
-                }
-            }
+            kernels.relax(distances[u], key, inTree, parent, u, n);
         }
 
+        SolverEvents.endPhase(phase);
         return parent;
     }
 
@@ -84,6 +71,7 @@ public class TSP_MST {
 
     // simple minimum matching for odd vertices (greedy approach)
     public int[][] findMinimumMatching(int[] oddVertices) {
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase("MST approximation", "matching", n);
         int numOdd = oddVertices.length;
         int numPairs = numOdd / 2;
         int[][] matching = new int[numPairs][2];
@@ -120,11 +108,13 @@ public class TSP_MST {
             }
         }
 
+        SolverEvents.endPhase(phase);
         return matching;
     }
 
     // create TSP tour from MST + matching
     public int[] createTSPTour(int[] parent, int[][] matching) {
+        SolverEvents.PhaseEvent phase = SolverEvents.beginPhase("MST approximation", "Euler", n);
         // build adjacency list from MST edges
         boolean[][] adjMatrix = new boolean[n][n];
 
@@ -152,6 +142,7 @@ public class TSP_MST {
 
         tourIndex = dfsTraversal(0, adjMatrix, visited, tour, tourIndex);
 
+        SolverEvents.endPhase(phase);
         return tour;
     }
 
@@ -172,16 +163,7 @@ public class TSP_MST {
 
     // calculate total tour cost
     public double calculateTourCost(int[] tour) {
-        double totalCost = 0.0;
-
-        for (int i = 0; i < tour.length - 1; i++) {
-            totalCost += distances[tour[i]][tour[i + 1]];
-        }
-
-        // add cost to return to starting vertex
-        totalCost += distances[tour[tour.length - 1]][tour[0]];
-
-        return totalCost;
+        return MatrixDistance.tourCost(distances, tour);
     }
 
 // testing
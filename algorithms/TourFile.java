@@ -0,0 +1,186 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// TSPLIB .tour files (TYPE : TOUR, 1-based city ids in TOUR_SECTION, terminated by -1) and
+// checkpoints of the best tour, written atomically so a crash never leaves a half-written file.
+public class TourFile {
+
+    public static int[] read(String path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    // Returns 0-based cities; rejects anything that is not a permutation of 0..n-1
+    public static int[] read(Reader source) throws IOException {
+        BufferedReader reader = new BufferedReader(source);
+        int dimension = -1;
+        List<Integer> cities = new ArrayList<>();
+        boolean inSection = false;
+
+        String line;
+        outer:
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            if (!inSection) {
+                if (line.equals("EOF")) break;
+                if (line.startsWith("TOUR_SECTION")) {
+                    inSection = true;
+                } else if (line.startsWith("DIMENSION")) {
+                    String value = line.substring(line.indexOf(':') + 1).trim();
+                    try {
+                        dimension = Integer.parseInt(value);
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Bad DIMENSION: " + value);
+                    }
+                } else if (line.startsWith("TYPE") && !line.contains("TOUR")) {
+                    throw new IOException("Not a tour file: " + line);
+                }
+                continue;
+            }
+
+            // ids may be one per line or several per line
+            for (String token : line.split("\\s+")) {
+                if (token.equals("EOF")) break outer;
+                int id;
+                try {
+                    id = Integer.parseInt(token);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Bad city id in TOUR_SECTION: " + token);
+                }
+                if (id == -1) break outer;
+                cities.add(id - 1);
+            }
+        }
+
+        if (!inSection) {
+            throw new IOException("Missing TOUR_SECTION");
+        }
+        if (dimension >= 0 && dimension != cities.size()) {
+            throw new IOException("DIMENSION is " + dimension + " but TOUR_SECTION has " + cities.size() + " cities");
+        }
+
+        int n = cities.size();
+        int[] tour = new int[n];
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int city = cities.get(i);
+            if (city < 0 || city >= n || seen[city]) {
+                throw new IOException("TOUR_SECTION is not a permutation of 1.." + n + " (at " + (city + 1) + ")");
+            }
+            seen[city] = true;
+            tour[i] = city;
+        }
+        return tour;
+    }
+
+    public static void write(Writer target, String name, int[] tour, String comment) throws IOException {
+        PrintWriter out = new PrintWriter(target);
+        out.println("NAME : " + name);
+        if (comment != null) out.println("COMMENT : " + comment);
+        out.println("TYPE : TOUR");
+        out.println("DIMENSION : " + tour.length);
+        out.println("TOUR_SECTION");
+        for (int city : tour) {
+            out.println(city + 1);
+        }
+        out.println("-1");
+        out.println("EOF");
+        out.flush();
+        if (out.checkError()) throw new IOException("Write failed");
+    }
+
+    // Write to a temp file in the same directory, force it to disk, then rename over the target
+    public static void write(String path, String name, int[] tour, String comment) throws IOException {
+        Path target = Paths.get(path).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+                 Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+                write(writer, name, tour, comment);
+                writer.flush();
+                stream.getFD().sync();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+
+    // Periodic checkpoint of the best tour seen during an improvement run. Improvers offer every
+    // new best; the file is rewritten at most once per interval, and flush() writes the last one.
+    public static class Checkpoint implements TourListener {
+        private final String path;
+        private final String name;
+        private final long intervalNanos;
+
+        private int[] best;
+        private double bestCost = Double.POSITIVE_INFINITY;
+        private boolean dirty;
+        private long lastWrite;
+        private int writes;
+
+        public Checkpoint(String path, String name, long intervalMillis) {
+            this.path = path;
+            this.name = name;
+            this.intervalNanos = intervalMillis * 1_000_000L;
+            this.lastWrite = System.nanoTime();
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        // The saved tour, or null when there is no checkpoint yet (fresh start)
+        public int[] load() throws IOException {
+            if (!Files.exists(Paths.get(path))) return null;
+            return read(path);
+        }
+
+        public boolean isDue() {
+            return System.nanoTime() - lastWrite >= intervalNanos;
+        }
+
+        public synchronized void offer(int[] tour, double cost) {
+            if (cost >= bestCost) return;
+            best = tour.clone();
+            bestCost = cost;
+            dirty = true;
+            if (isDue()) save();
+        }
+
+        public synchronized void flush() {
+            if (dirty) save();
+        }
+
+        public synchronized double getBestCost() {
+            return bestCost;
+        }
+
+        public synchronized int getWrites() {
+            return writes;
+        }
+
+        // A failed write keeps the previous checkpoint and must not stop the solver
+        private void save() {
+            try {
+                write(path, name, best, "Length " + String.format("%.2f", bestCost));
+                dirty = false;
+                writes++;
+            } catch (IOException e) {
+                SolverLog.info("Checkpoint to " + path + " failed: " + e.getMessage());
+            }
+            lastWrite = System.nanoTime();
+        }
+    }
+}
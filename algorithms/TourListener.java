@@ -0,0 +1,12 @@
+// Receives each new best tour of an improvement run: a TourFile.Checkpoint saves it to disk, a
+// PortfolioSolver incumbent shares it with the other members of the race
+public interface TourListener {
+    // Cheap test for hot loops that have to materialize the tour before offering it
+    boolean isDue();
+
+    // The tour may be the solver's working array; listeners copy what they keep
+    void offer(int[] tour, double cost);
+
+    // Called once when the run ends, after the final offer
+    void flush();
+}
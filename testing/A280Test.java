@@ -12,7 +12,11 @@ public class A280Test {
             System.out.println("Successfully loaded a280: " + instance.dimension + " cities");
             
             // Test algorithms
-            testOnA280(instance.distances);
+            SolverContext context = new SolverContext(instance.distances);
+            testOnA280(context);
+            testIntegerModeOnA280(context);
+            testGuidedLocalSearchOnA280(context);
+            testAntColonyOnA280(context);
             
         } catch (IOException e) {
             System.out.println("Error reading a280.tsp: " + e.getMessage());
@@ -20,20 +24,14 @@ public class A280Test {
         }
     }
 
-    private static void testLocalSearchOnA280(double[][] distances, double mstCost) {
+    private static void testLocalSearchOnA280(SolverContext context, double mstCost) {
         System.out.println("\n4. Local Search (from MST initialization):");
         
-        // Get MST tour as starting point
-        TSP_MST mst = new TSP_MST(distances);
-        int[] parent = mst.buildMST();
-        int[] oddVertices = mst.findOddDegreeVertices(parent);
-        int[][] matching = mst.findMinimumMatching(oddVertices);
-        int[] mstTour = mst.createTSPTour(parent, matching);
-        
         long startTime = System.currentTimeMillis();
         
-        LocalSearchTSP localSearch = new LocalSearchTSP(distances);
-        LocalSearchTSP.TSPResult localResult = localSearch.solveWithLocalSearch(mstTour);
+        // starts from the MST tour already cached in the context
+        LocalSearchTSP localSearch = new LocalSearchTSP(context);
+        TSPResult localResult = localSearch.solve();
         
         long localTime = System.currentTimeMillis() - startTime;
         System.out.println("Local Search Cost: " + localResult.cost);
@@ -50,19 +48,15 @@ public class A280Test {
     }
 
     
-    private static void testOnA280(double[][] distances) {
+    private static void testOnA280(SolverContext context) {
         System.out.println("\n--- Testing Algorithms on A280 ---");
         
         // MST 2-Approximation
         System.out.println("\n1. MST 2-Approximation:");
         long startTime = System.currentTimeMillis();
         
-        TSP_MST mst = new TSP_MST(distances);
-        int[] parent = mst.buildMST();
-        int[] oddVertices = mst.findOddDegreeVertices(parent);
-        int[][] matching = mst.findMinimumMatching(oddVertices);
-        int[] mstTour = mst.createTSPTour(parent, matching);
-        double mstCost = mst.calculateTourCost(mstTour);
+        int[] mstTour = context.getMSTTour();
+        double mstCost = context.tourCost(mstTour);
         
         long mstTime = System.currentTimeMillis() - startTime;
         System.out.println("MST Cost: " + mstCost);
@@ -74,14 +68,14 @@ public class A280Test {
         System.out.println("Estimated memory needed: ~2^280 * 280^2 (impossible)");
         
 
-        testLocalSearchOnA280(distances, mstCost);
+        testLocalSearchOnA280(context, mstCost);
         
         // Adaptive Multi-Strategy
         System.out.println("\n3. Adaptive Multi-Strategy:");
         startTime = System.currentTimeMillis();
         
-        AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(distances);
-        AdaptiveMultiStrategyTSP.TSPResult adaptiveResult = adaptive.solve();
+        AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(context);
+        TSPResult adaptiveResult = adaptive.solve();
         
         long adaptiveTime = System.currentTimeMillis() - startTime;
         System.out.println("Adaptive Cost: " + adaptiveResult.cost);
@@ -102,4 +96,43 @@ public class A280Test {
         System.out.println("MST gap from optimal: " + String.format("%.1f%%", mstGap));
         System.out.println("Adaptive gap from optimal: " + String.format("%.1f%%", adaptiveGap));
     }
+
+    // Penalty-guided escapes from the 2-opt/Or-opt local optimum, under a fixed time budget
+    private static void testGuidedLocalSearchOnA280(SolverContext context) {
+        System.out.println("\n--- Guided Local Search (2 s budget) ---");
+        int[] mstTour = context.getMSTTour();
+        int[] localOptimum = new FastLocalSearch(context.getDistances(), context.getNeighborLists(10)).improve(mstTour);
+        System.out.println("2-opt/Or-opt local optimum: " + context.tourCost(localOptimum));
+
+        long startTime = System.currentTimeMillis();
+        TSPResult result = new GuidedLocalSearchTSP(context).setTimeLimitMillis(2000).solve(mstTour);
+        long time = System.currentTimeMillis() - startTime;
+        System.out.println("Guided Local Search Cost: " + result.cost + " (" + time + " ms)");
+        System.out.println("Gap from optimal: " + String.format("%.1f%%", (result.cost - 2579.0) / 2579.0 * 100));
+    }
+
+    private static void testAntColonyOnA280(SolverContext context) {
+        System.out.println("\n--- MAX-MIN Ant System (2 s budget) ---");
+        long startTime = System.currentTimeMillis();
+        TSPResult result = new AntColonyTSP(context).setTimeLimitMillis(2000).solve();
+        long time = System.currentTimeMillis() - startTime;
+        System.out.println("Ant Colony Cost: " + result.cost + " (" + time + " ms)");
+        System.out.println("Gap from optimal: " + String.format("%.1f%%", (result.cost - 2579.0) / 2579.0 * 100));
+    }
+
+    // TSPLIB defines a280's optimum (2579) on rounded weights, so integer mode gives an exact gap
+    private static void testIntegerModeOnA280(SolverContext context) {
+        System.out.println("\n--- Integer (TSPLIB nint) Mode ---");
+        int[][] weights = context.getIntegerWeights();
+        int[] mstTour = context.getMSTTour();
+        System.out.println("MST Cost (integer): " + IntMatrixDistance.tourCost(weights, mstTour));
+
+        long startTime = System.currentTimeMillis();
+        int[] tour = new IntFastLocalSearch(weights, context.getNeighborLists(10)).improve(mstTour);
+        long time = System.currentTimeMillis() - startTime;
+
+        long cost = IntMatrixDistance.tourCost(weights, tour);
+        System.out.println("Integer 2-opt/Or-opt Cost: " + cost + " (" + time + " ms)");
+        System.out.println("Gap from optimal: " + (cost - 2579) + " (" + String.format("%.1f%%", (cost - 2579) * 100.0 / 2579) + ")");
+    }
 }
@@ -0,0 +1,369 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+// Binary instance file (.tspb): coordinates as raw little-endian arrays plus optional candidate
+// lists and spanning tree, so a large instance loads with one mmap and a few bulk copies instead
+// of re-parsing TSPLIB text and rebuilding the spatial structures.
+//
+// Layout, version 1 (all little-endian, sections 8-byte aligned):
+//   int magic "TSPB", int version, int flags (1 = neighbors, 2 = tree), int n, int k, int nameBytes
+//   byte[nameBytes] UTF-8 name, zero-padded to a multiple of 8
+//   double[n] x, double[n] y
+//   int[n * k] neighbors, row i sorted by distance       (flag 1)
+//   int[n] tree parent, -1 for a root                    (flag 2)
+// Readers reject a newer version; new sections go behind a new flag bit.
+//
+// Usage: java BinaryInstance convert <in.tsp> <out.tspb> [--neighbors k] [--tree]
+//        java BinaryInstance info <file.tspb>
+public class BinaryInstance {
+    public static final int MAGIC = 0x42505354; // "TSPB" in file byte order
+    public static final int VERSION = 1;
+    public static final int FLAG_NEIGHBORS = 1;
+    public static final int FLAG_TREE = 2;
+
+    private static final int HEADER_BYTES = 24;
+
+    public String name;
+    public CoordinateDistance coordinates;
+    public int neighborCount;   // k, 0 when the file has no neighbor lists
+    public int[] neighborData;  // row-major n x k, null when the file has none
+    public int[] treeParent;    // null when the file has none
+    private int[][] neighborLists;
+
+    public BinaryInstance(String name, CoordinateDistance coordinates, int neighborCount, int[] neighborData,
+                          int[] treeParent) {
+        this.name = name;
+        this.coordinates = coordinates;
+        this.neighborCount = neighborCount;
+        this.neighborData = neighborData;
+        this.treeParent = treeParent;
+    }
+
+    public int size() {
+        return coordinates.size();
+    }
+
+    // Row arrays for the solvers, built on first use. Loading keeps the lists flat because n small
+    // arrays cost more than the rest of the load together (1M cities: ~35 ms to load, 50-150 ms
+    // more for the rows, most of it young-generation copying).
+    public synchronized int[][] getNeighborLists() {
+        if (neighborLists == null && neighborData != null) {
+            int n = size();
+            int k = neighborCount;
+            neighborLists = new int[n][];
+            for (int i = 0; i < n; i++) {
+                neighborLists[i] = java.util.Arrays.copyOfRange(neighborData, i * k, i * k + k);
+            }
+        }
+        return neighborLists;
+    }
+
+    // Maps the whole file read-only and copies each section out in bulk; neighbor and parent
+    // indices are range-checked, since solvers index arrays with them unchecked
+    public static BinaryInstance load(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException(path + " is larger than a single mapping (2 GB)");
+            }
+            if (length < HEADER_BYTES) {
+                throw new IOException(path + " is too short for a binary instance header");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            if (buffer.getInt() != MAGIC) throw new IOException(path + " is not a binary instance (bad magic)");
+            int version = buffer.getInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException(path + " has format version " + version + ", this reader supports up to " + VERSION);
+            }
+            int flags = buffer.getInt();
+            int n = buffer.getInt();
+            int k = buffer.getInt();
+            int nameBytes = buffer.getInt();
+            if (n < 0 || k < 0 || nameBytes < 0 || (k > 0 && (flags & FLAG_NEIGHBORS) == 0)) {
+                throw new IOException(path + " has a corrupt header");
+            }
+            long expected = layoutSize(n, k, nameBytes, flags);
+            if (expected != length) {
+                throw new IOException(path + " should be " + expected + " bytes for its header, found " + length);
+            }
+
+            byte[] nameData = new byte[nameBytes];
+            buffer.get(nameData);
+            buffer.position(HEADER_BYTES + align(nameBytes));
+
+            double[] xs = new double[n];
+            double[] ys = new double[n];
+            buffer.asDoubleBuffer().get(xs);
+            buffer.position(buffer.position() + 8 * n);
+            buffer.asDoubleBuffer().get(ys);
+            buffer.position(buffer.position() + 8 * n);
+
+            int[] neighborData = null;
+            if ((flags & FLAG_NEIGHBORS) != 0) {
+                neighborData = new int[n * k];
+                buffer.asIntBuffer().get(neighborData);
+                buffer.position(buffer.position() + 4 * n * k);
+                for (int i = 0, index = 0; i < n; i++) {
+                    for (int end = index + k; index < end; index++) {
+                        int neighbor = neighborData[index];
+                        if (neighbor < 0 || neighbor >= n || neighbor == i) {
+                            throw new IOException(path + " has a corrupt neighbor list: city " + i + " lists " + neighbor);
+                        }
+                    }
+                }
+            }
+
+            int[] treeParent = null;
+            if ((flags & FLAG_TREE) != 0) {
+                treeParent = new int[n];
+                buffer.asIntBuffer().get(treeParent);
+                checkTree(path, treeParent);
+            }
+
+            return new BinaryInstance(new String(nameData, StandardCharsets.UTF_8), new CoordinateDistance(xs, ys),
+                    k, neighborData, treeParent);
+        }
+    }
+
+    // Every parent is -1 or another city. Longer cycles are left to treeTour(), the one reader that
+    // follows parents: detecting them here would take a random-access walk over every city
+    private static void checkTree(String path, int[] parent) throws IOException {
+        int n = parent.length;
+        for (int city = 0; city < n; city++) {
+            if (parent[city] < -1 || parent[city] >= n || parent[city] == city) {
+                throw new IOException(path + " has a corrupt tree: city " + city + " has parent " + parent[city]);
+            }
+        }
+    }
+
+    // Written to a temporary file and moved into place, like TourFile checkpoints
+    public static void write(String path, String name, CoordinateDistance coordinates, int[][] neighbors,
+                             int[] treeParent) throws IOException {
+        int n = coordinates.size();
+        int k = (neighbors != null && n > 0) ? neighbors[0].length : 0;
+        int flags = (neighbors != null ? FLAG_NEIGHBORS : 0) | (treeParent != null ? FLAG_TREE : 0);
+        byte[] nameData = name.getBytes(StandardCharsets.UTF_8);
+        if (layoutSize(n, k, nameData.length, flags) > Integer.MAX_VALUE) {
+            throw new IOException("Instance too large for the binary format: " + n + " cities with k = " + k);
+        }
+
+        Path target = Paths.get(path).toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(flags).putInt(n).putInt(k).putInt(nameData.length);
+                buffer.put(nameData);
+                for (int pad = align(nameData.length) - nameData.length; pad > 0; pad--) buffer.put((byte) 0);
+
+                for (double x : coordinates.xs()) buffer = putDouble(channel, buffer, x);
+                for (double y : coordinates.ys()) buffer = putDouble(channel, buffer, y);
+                if (neighbors != null) {
+                    for (int[] row : neighbors) {
+                        if (row.length != k) throw new IllegalArgumentException("Neighbor lists must all have length " + k);
+                        for (int city : row) buffer = putInt(channel, buffer, city);
+                    }
+                }
+                if (treeParent != null) {
+                    for (int parent : treeParent) buffer = putInt(channel, buffer, parent);
+                }
+                drain(channel, buffer);
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static long layoutSize(int n, int k, int nameBytes, int flags) {
+        long size = HEADER_BYTES + align(nameBytes) + 16L * n;
+        if ((flags & FLAG_NEIGHBORS) != 0) size += 4L * n * k;
+        if ((flags & FLAG_TREE) != 0) size += 4L * n;
+        return size;
+    }
+
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+
+    private static ByteBuffer putDouble(FileChannel channel, ByteBuffer buffer, double value) throws IOException {
+        if (buffer.remaining() < 8) drain(channel, buffer);
+        return buffer.putDouble(value);
+    }
+
+    private static ByteBuffer putInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < 4) drain(channel, buffer);
+        return buffer.putInt(value);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    // Minimum spanning forest of the candidate graph (Kruskal over every i -> neighbors[i] edge),
+    // as a parent array rooted at the lowest city of each component. It is the Euclidean MST
+    // whenever the candidate graph contains it, which k >= 8 gives on all but unusual inputs;
+    // clusters the candidates never connect stay separate trees.
+    public static int[] spanningTree(CoordinateDistance coordinates, int[][] neighbors) {
+        int n = coordinates.size();
+        int k = (n > 0) ? neighbors[0].length : 0;
+
+        // closest edges first; the low bits carry the edge index i * k + t
+        long[] order = new long[n * k];
+        for (int i = 0; i < n; i++) {
+            for (int t = 0; t < k; t++) {
+                double d = coordinates.distance(i, neighbors[i][t]);
+                order[i * k + t] = ((long) Float.floatToIntBits((float) d) << 32) | (i * k + t);
+            }
+        }
+        java.util.Arrays.sort(order);
+
+        int[] set = new int[n];
+        for (int i = 0; i < n; i++) set[i] = i;
+        int[] degree = new int[n];
+        int[] edgeA = new int[Math.max(0, n - 1)];
+        int[] edgeB = new int[Math.max(0, n - 1)];
+        int edges = 0;
+        for (long entry : order) {
+            if (edges == n - 1) break;
+            int index = (int) entry;
+            int a = index / k;
+            int b = neighbors[a][index % k];
+            int ra = find(set, a);
+            int rb = find(set, b);
+            if (ra == rb) continue;
+            set[ra] = rb;
+            edgeA[edges] = a;
+            edgeB[edges] = b;
+            degree[a]++;
+            degree[b]++;
+            edges++;
+        }
+
+        // orient the forest: adjacency in CSR form, then an iterative DFS from each unvisited city
+        int[] start = new int[n + 1];
+        for (int i = 0; i < n; i++) start[i + 1] = start[i] + degree[i];
+        int[] fill = java.util.Arrays.copyOf(start, n);
+        int[] adjacent = new int[2 * edges];
+        for (int e = 0; e < edges; e++) {
+            adjacent[fill[edgeA[e]]++] = edgeB[e];
+            adjacent[fill[edgeB[e]]++] = edgeA[e];
+        }
+
+        int[] parent = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] stack = new int[n];
+        for (int root = 0; root < n; root++) {
+            if (visited[root]) continue;
+            visited[root] = true;
+            parent[root] = -1;
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0) {
+                int u = stack[--top];
+                for (int a = start[u]; a < start[u + 1]; a++) {
+                    int v = adjacent[a];
+                    if (visited[v]) continue;
+                    visited[v] = true;
+                    parent[v] = u;
+                    stack[top++] = v;
+                }
+            }
+        }
+        return parent;
+    }
+
+    private static int find(int[] set, int x) {
+        while (set[x] != x) {
+            set[x] = set[set[x]]; // path halving
+            x = set[x];
+        }
+        return x;
+    }
+
+    // Preorder walk of the stored tree (roots in index order): a tree-doubling tour, at most twice
+    // the MST when the tree is the Euclidean MST
+    public int[] treeTour() {
+        if (treeParent == null) throw new IllegalStateException("Instance " + name + " has no stored tree");
+        int n = size();
+        int[] start = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (treeParent[v] >= 0) start[treeParent[v] + 1]++;
+        }
+        for (int i = 0; i < n; i++) start[i + 1] += start[i];
+        int[] fill = java.util.Arrays.copyOf(start, n);
+        int[] children = new int[n];
+        for (int v = 0; v < n; v++) {
+            if (treeParent[v] >= 0) children[fill[treeParent[v]]++] = v;
+        }
+
+        int[] tour = new int[n];
+        int index = 0;
+        int[] stack = new int[n];
+        for (int root = 0; root < n; root++) {
+            if (treeParent[root] >= 0) continue;
+            int top = 0;
+            stack[top++] = root;
+            while (top > 0) {
+                int u = stack[--top];
+                tour[index++] = u;
+                for (int c = start[u + 1] - 1; c >= start[u]; c--) stack[top++] = children[c];
+            }
+        }
+        if (index < n) {
+            // the cities no root reaches sit on a parent cycle
+            throw new IllegalStateException("Stored tree of " + name + " has a cycle: its roots reach only "
+                    + index + " of " + n + " cities");
+        }
+        return tour;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("convert")) {
+            int k = 0;
+            boolean tree = false;
+            for (int i = 3; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--neighbors": k = Integer.parseInt(args[++i]); break;
+                    case "--tree": tree = true; break;
+                    default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (tree && k == 0) k = 10; // the tree is built from the candidate lists
+
+            long start = System.currentTimeMillis();
+            CoordinateDistance coordinates = TSPLIBParser.parseCoordinates(args[1]);
+            int[][] neighbors = (k > 0) ? coordinates.neighborLists(k) : null;
+            int[] parent = tree ? spanningTree(coordinates, neighbors) : null;
+            String name = Paths.get(args[1]).getFileName().toString().replaceFirst("\\.tsp$", "");
+            write(args[2], name, coordinates, neighbors, parent);
+            System.out.println("Converted " + args[1] + " (" + coordinates.size() + " cities) to " + args[2]
+                    + " in " + (System.currentTimeMillis() - start) + " ms");
+        } else if (args.length >= 2 && args[0].equals("info")) {
+            long start = System.nanoTime();
+            BinaryInstance instance = load(args[1]);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(instance.name + ": " + instance.size() + " cities, "
+                    + (instance.neighborData != null ? instance.neighborCount + " neighbors per city" : "no neighbor lists")
+                    + ", " + (instance.treeParent != null ? "spanning tree" : "no tree")
+                    + ", loaded in " + millis + " ms");
+        } else {
+            System.out.println("Usage: java BinaryInstance convert <in.tsp> <out.tspb> [--neighbors k] [--tree]");
+            System.out.println("       java BinaryInstance info <file.tspb>");
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Binary instance round trips (kz9976 and a generated 1M-city instance), load time against text
+// parsing plus neighbor search, the stored spanning tree against an exact Prim MST, and rejection
+// of truncated, foreign and newer-version files.
+// Usage: java -Xmx4g BinaryInstanceTest
+public class BinaryInstanceTest {
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== Binary Instance Test ===");
+        Path directory = Files.createTempDirectory("tspb");
+        try {
+            testKazakhstan(directory);
+            testMillion(directory);
+            testCorruptFiles(directory);
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static void testKazakhstan(Path directory) throws IOException {
+        System.out.println("\n--- kz9976 round trip ---");
+        if (!new File("kz9976.tsp").exists()) {
+            System.out.println("kz9976.tsp not found, skipping");
+            return;
+        }
+        String path = directory.resolve("kz9976.tspb").toString();
+        BinaryInstance.main(new String[]{"convert", "kz9976.tsp", path, "--neighbors", "10", "--tree"});
+
+        CoordinateDistance text = TSPLIBParser.parseCoordinates("kz9976.tsp");
+        BinaryInstance binary = BinaryInstance.load(path);
+        System.out.println("Coordinates identical: " + (Arrays.equals(text.xs(), binary.coordinates.xs())
+                && Arrays.equals(text.ys(), binary.coordinates.ys())));
+        System.out.println("Neighbor lists identical: " + Arrays.deepEquals(text.neighborLists(10), binary.getNeighborLists()));
+
+        double treeWeight = treeWeight(binary.coordinates, binary.treeParent);
+        double mstWeight = primWeight(binary.coordinates);
+        int roots = 0;
+        for (int parent : binary.treeParent) if (parent < 0) roots++;
+        System.out.println("Stored tree: " + roots + " root(s), weight " + String.format("%.1f", treeWeight)
+                + ", exact MST " + String.format("%.1f", mstWeight));
+
+        int[] tour = binary.treeTour();
+        double cost = binary.coordinates.tourCost(tour);
+        System.out.println("Tree tour: valid " + isPermutation(tour, binary.size()) + ", cost " + String.format("%.0f", cost)
+                + " (" + String.format("%.2f", cost / mstWeight) + " x MST)");
+    }
+
+    private static void testMillion(Path directory) throws IOException {
+        System.out.println("\n--- 1M uniform cities: text vs binary startup ---");
+        InstanceGenerator generator = new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, 1_000_000, 3);
+        String textPath = directory.resolve("uniform1M.tsp").toString();
+        String binaryPath = directory.resolve("uniform1M.tspb").toString();
+        generator.writeTSPLIB(textPath);
+
+        long start = System.currentTimeMillis();
+        CoordinateDistance text = TSPLIBParser.parseCoordinates(textPath);
+        int[][] neighbors = text.neighborLists(10);
+        long textMillis = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        int[] parent = BinaryInstance.spanningTree(text, neighbors);
+        long treeMillis = System.currentTimeMillis() - start;
+        BinaryInstance.write(binaryPath, generator.getName(), text, neighbors, parent);
+        System.out.println("Text parse + 10-NN: " + textMillis + " ms; spanning tree " + treeMillis + " ms; file "
+                + Files.size(Paths.get(binaryPath)) / (1 << 20) + " MB");
+
+        for (int run = 0; run < 3; run++) {
+            start = System.nanoTime();
+            BinaryInstance binary = BinaryInstance.load(binaryPath);
+            long loadMillis = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            int[][] rows = binary.getNeighborLists();
+            long rowMillis = (System.nanoTime() - start) / 1_000_000;
+            boolean same = Arrays.equals(text.xs(), binary.coordinates.xs()) && Arrays.deepEquals(neighbors, rows)
+                    && Arrays.equals(parent, binary.treeParent);
+            System.out.println("Binary load " + (run + 1) + ": " + loadMillis + " ms, neighbor rows " + rowMillis
+                    + " ms, identical " + same);
+        }
+    }
+
+    private static void testCorruptFiles(Path directory) throws IOException {
+        System.out.println("\n--- Corrupt files ---");
+        double[] xs = {0, 3, 3, 0, 1};
+        double[] ys = {0, 0, 4, 4, 2};
+        CoordinateDistance coordinates = new CoordinateDistance(xs, ys);
+        Path path = directory.resolve("small.tspb");
+        int[][] neighbors = coordinates.neighborLists(3);
+        BinaryInstance.write(path.toString(), "small", coordinates, neighbors,
+                BinaryInstance.spanningTree(coordinates, neighbors));
+        byte[] good = Files.readAllBytes(path);
+
+        expectRejected(directory, "truncated", Arrays.copyOf(good, good.length - 4));
+        byte[] foreign = good.clone();
+        foreign[0] = 'X';
+        expectRejected(directory, "bad magic", foreign);
+        byte[] newer = good.clone();
+        newer[4] = 2; // version, little-endian
+        expectRejected(directory, "newer version", newer);
+
+        // the neighbor lists (5 x 3 ints) and the tree (5 ints) end the file, little-endian
+        int treeStart = good.length - 4 * xs.length;
+        int neighborStart = treeStart - 4 * 3 * xs.length;
+        byte[] badNeighbor = good.clone();
+        badNeighbor[neighborStart] = 5;
+        expectRejected(directory, "neighbor out of range", badNeighbor);
+        byte[] badParent = good.clone();
+        badParent[treeStart + 4] = 9;
+        expectRejected(directory, "parent out of range", badParent);
+        byte[] ownParent = good.clone();
+        Arrays.fill(ownParent, treeStart + 8, treeStart + 12, (byte) 0);
+        ownParent[treeStart + 8] = 2;
+        expectRejected(directory, "own parent", ownParent);
+
+        // a longer cycle passes the load-time checks, but treeTour() refuses it
+        BinaryInstance.write(path.toString(), "cycle", coordinates, neighbors, new int[]{1, 0, -1, 2, 2});
+        try {
+            int[] tour = BinaryInstance.load(path.toString()).treeTour();
+            System.out.println("parent cycle: tree tour " + Arrays.toString(tour) + " (unexpected)");
+        } catch (IllegalStateException e) {
+            System.out.println("parent cycle: tree tour refused (" + e.getMessage() + ")");
+        }
+    }
+
+    private static void expectRejected(Path directory, String label, byte[] data) throws IOException {
+        Path path = directory.resolve("corrupt.tspb");
+        Files.write(path, data);
+        try {
+            BinaryInstance.load(path.toString());
+            System.out.println(label + ": ACCEPTED (unexpected)");
+        } catch (IOException e) {
+            System.out.println(label + ": rejected (" + e.getMessage().replace(path.toString(), "file") + ")");
+        }
+    }
+
+    private static double treeWeight(CoordinateDistance coordinates, int[] parent) {
+        double weight = 0;
+        for (int v = 0; v < parent.length; v++) {
+            if (parent[v] >= 0) weight += coordinates.distance(v, parent[v]);
+        }
+        return weight;
+    }
+
+    // O(n^2) Prim with distances computed on demand
+    private static double primWeight(CoordinateDistance coordinates) {
+        int n = coordinates.size();
+        double[] key = new double[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(key, Double.POSITIVE_INFINITY);
+        key[0] = 0;
+        double weight = 0;
+        for (int step = 0; step < n; step++) {
+            int u = -1;
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v] && (u < 0 || key[v] < key[u])) u = v;
+            }
+            inTree[u] = true;
+            weight += key[u];
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v]) key[v] = Math.min(key[v], coordinates.distance(u, v));
+            }
+        }
+        return weight;
+    }
+
+    private static boolean isPermutation(int[] tour, int n) {
+        if (tour.length != n) return false;
+        boolean[] seen = new boolean[n];
+        for (int city : tour) {
+            if (city < 0 || city >= n || seen[city]) return false;
+            seen[city] = true;
+        }
+        return true;
+    }
+}
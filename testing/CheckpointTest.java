@@ -0,0 +1,119 @@
+import java.io.*;
+import java.nio.file.*;
+
+// .tour import / export, periodic checkpoints and warm-start resume.
+// Usage: java CheckpointTest [instance.tsp] [checkpoint.tour] [budget ms]
+// Each run resumes from the checkpoint left by the previous one, so a long optimization can be
+// spread over several short runs.
+public class CheckpointTest {
+
+    public static void main(String[] args) {
+        System.out.println("=== Checkpoint / Resume Test ===");
+        String file = args.length > 0 ? args[0] : "a280.tsp";
+        String checkpointPath = args.length > 1 ? args[1] : null;
+        long budget = args.length > 2 ? Long.parseLong(args[2]) : 500;
+
+        try {
+            TSPLIBParser.TSPInstance instance = TSPLIBParser.parseFile(file);
+            SolverContext context = new SolverContext(instance.distances);
+            String name = Paths.get(file).getFileName().toString().replace(".tsp", "");
+            System.out.println("Loaded " + name + ": " + instance.dimension + " cities");
+
+            if (checkpointPath != null) {
+                resumeRun(context, name, checkpointPath, budget);
+                return;
+            }
+
+            Path directory = Files.createTempDirectory("tsp-checkpoint");
+            testRoundTrip(context, directory);
+            testAdaptiveResume(context, name, directory, budget);
+            testPipelineResume(context, name, directory);
+            testMalformed();
+
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    // One maintenance-window run: continue the adaptive search from the checkpoint if there is one
+    private static void resumeRun(SolverContext context, String name, String path, long budget) throws IOException {
+        TourFile.Checkpoint checkpoint = new TourFile.Checkpoint(path, name, 10_000);
+        int[] saved = checkpoint.load();
+        AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(context).setCheckpoint(checkpoint);
+        if (saved != null) {
+            System.out.println("Resuming from " + path + ", cost " + context.tourCost(saved));
+            adaptive.setInitialTour(saved);
+        }
+        TSPResult result = adaptive.solve(CancellationToken.withTimeout(budget));
+        System.out.println("Cost after " + budget + " ms: " + result.cost + " (saved to " + path + ")");
+    }
+
+    private static void testRoundTrip(SolverContext context, Path directory) throws IOException {
+        System.out.println("\n1. Write and read back the MST tour:");
+        int[] mstTour = context.getMSTTour();
+        String path = directory.resolve("mst.tour").toString();
+        TourFile.write(path, "mst", mstTour, "Length " + context.tourCost(mstTour));
+
+        int[] read = TourFile.read(path);
+        System.out.println("Identical after round trip: " + java.util.Arrays.equals(mstTour, read));
+    }
+
+    private static void testAdaptiveResume(SolverContext context, String name, Path directory, long budget)
+            throws IOException {
+        System.out.println("\n2. Adaptive Multi-Strategy, checkpointed, stopped after " + budget + " ms:");
+        String path = directory.resolve(name + ".tour").toString();
+        TourFile.Checkpoint checkpoint = new TourFile.Checkpoint(path, name, 100);
+
+        TSPResult first = new AdaptiveMultiStrategyTSP(context).setCheckpoint(checkpoint)
+                .solve(CancellationToken.withTimeout(budget));
+        int[] saved = checkpoint.load();
+        System.out.println("Cost: " + first.cost + ", checkpoint writes: " + checkpoint.getWrites());
+        System.out.println("Checkpoint cost: " + context.tourCost(saved));
+
+        System.out.println("Resuming for another " + budget + " ms:");
+        TSPResult second = new AdaptiveMultiStrategyTSP(context).setInitialTour(saved).setCheckpoint(checkpoint)
+                .solve(CancellationToken.withTimeout(budget));
+        System.out.println("Cost: " + second.cost + " (no worse than checkpoint: "
+                + (second.cost <= context.tourCost(saved)) + ")");
+
+        System.out.println("Local Search warm-started from the checkpoint:");
+        TSPResult local = new LocalSearchTSP(context).solveWithLocalSearch(checkpoint.load(),
+                CancellationToken.withTimeout(budget));
+        System.out.println("Cost: " + local.cost);
+    }
+
+    private static void testPipelineResume(SolverContext context, String name, Path directory) {
+        System.out.println("\n3. Pipeline with resumeFrom (fresh start, then resume):");
+        String path = directory.resolve(name + "-pipeline.tour").toString();
+        TourFile.Checkpoint checkpoint = new TourFile.Checkpoint(path, name, 0);
+
+        for (int run = 1; run <= 2; run++) {
+            SolverPipeline pipeline = new SolverPipeline(context)
+                    .setConstruction(SolverPipeline.resumeFrom(checkpoint, SolverPipeline.MST_CONSTRUCTION))
+                    .setPerturbation(SolverPipeline.DOUBLE_BRIDGE, 50)
+                    .setCheckpoint(checkpoint)
+                    .setSeed(run);
+            TSPResult result = pipeline.solve();
+            System.out.println("Run " + run + " cost: " + result.cost);
+        }
+    }
+
+    private static void testMalformed() {
+        System.out.println("\n4. Malformed tour files are rejected:");
+        String[] bad = {
+                "TYPE : TOUR\nDIMENSION : 3\nTOUR_SECTION\n1\n2\n2\n-1\n",
+                "TYPE : TOUR\nDIMENSION : 4\nTOUR_SECTION\n1\n2\n3\n-1\n",
+                "TYPE : TSP\nTOUR_SECTION\n1\n-1\n",
+                "NAME : x\nDIMENSION : 2\n",
+                "TYPE : TOUR\nDIMENSION : three\nTOUR_SECTION\n1\n2\n3\n-1\n",
+        };
+        for (String text : bad) {
+            try {
+                TourFile.read(new StringReader(text));
+                System.out.println("Accepted (unexpected)");
+            } catch (IOException e) {
+                System.out.println("Rejected: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,599 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Coordinator and worker processes that solve one instance together over TCP.
+//
+// Workers are plain JVMs that accept binary solve requests; the coordinator holds a host list and
+// runs one of two modes:
+//   portfolio  - every worker solves the whole instance with its own seed; the best tour wins
+//   partition  - the coordinator builds a tour (MultilevelTSP), cuts it into disjoint segments with
+//                fixed endpoints and has the workers re-optimize them; improved segments are spliced
+//                back in place, and the cut points shift every round
+//
+// Usage (from the testing directory):
+//   java DistributedSolver worker [--port 0] [--bind 127.0.0.1]
+//   java DistributedSolver coordinator <file.tsp> (--workers host:port,... | --spawn N)
+//        [--mode portfolio|partition] [--budget ms] [--segment cities] [--out file.tour]
+//
+// There is no authentication: bind workers to loopback, or to a trusted network only.
+//
+// Wire format (big-endian, java.io.Data streams):
+//   request : int MAGIC, byte VERSION, byte type, long seed, long budget millis, int n,
+//             n doubles x, n doubles y
+//             SEGMENT requests list the cities in path order; the first and last ones stay fixed
+//   response: byte OK, double cost, byte index width (2 or 4), int n, n indices   |   byte ERROR, UTF message
+//             n must equal the request's n; the coordinator rejects any other length
+public class DistributedSolver {
+    static final int MAGIC = 0x54535057; // "TSPW"
+    static final byte VERSION = 1;
+    static final byte SOLVE = 1;
+    static final byte SEGMENT = 2;
+    static final byte OK = 0;
+    static final byte ERROR = 1;
+
+    // largest instance a worker solves with a distance matrix; larger ones use MultilevelTSP
+    static final int MATRIX_LIMIT = 12_000;
+    static final int MAX_CITIES = 10_000_000;
+
+
+    // ---- messages ----
+
+    static void writeRequest(DataOutputStream out, byte type, long seed, long budget, double[] xs, double[] ys)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(type);
+        out.writeLong(seed);
+        out.writeLong(budget);
+        out.writeInt(xs.length);
+        for (double x : xs) out.writeDouble(x);
+        for (double y : ys) out.writeDouble(y);
+        out.flush();
+    }
+
+    // Tours as indices of 2 bytes when they fit, which halves segment replies
+    static void writeTour(DataOutputStream out, int[] tour, double cost) throws IOException {
+        out.writeByte(OK);
+        out.writeDouble(cost);
+        boolean narrow = tour.length <= 0xFFFF;
+        out.writeByte(narrow ? 2 : 4);
+        out.writeInt(tour.length);
+        for (int city : tour) {
+            if (narrow) out.writeShort(city);
+            else out.writeInt(city);
+        }
+        out.flush();
+    }
+
+    // expected is the request's city count: a reply of any other length is refused before allocating
+    static TSPResult readTour(DataInputStream in, int expected) throws IOException {
+        byte status = in.readByte();
+        if (status == ERROR) throw new IOException("Worker error: " + in.readUTF());
+        if (status != OK) throw new IOException("Bad response status " + status);
+        double cost = in.readDouble();
+        int width = in.readByte();
+        if (width != 2 && width != 4) throw new IOException("Bad index width " + width);
+        int n = in.readInt();
+        if (n != expected) throw new IOException("Worker returned " + n + " cities for a request of " + expected);
+        int[] tour = new int[n];
+        for (int i = 0; i < n; i++) {
+            tour[i] = (width == 2) ? in.readUnsignedShort() : in.readInt();
+        }
+        return new TSPResult(tour, cost);
+    }
+
+
+    // ---- worker ----
+
+    public static class Worker {
+        private final ServerSocket server;
+        private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "tsp-worker-connection");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        public Worker(InetAddress bind, int port) throws IOException {
+            this.server = new ServerSocket(port, 50, bind);
+        }
+
+        public int getPort() {
+            return server.getLocalPort();
+        }
+
+        public void serve() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    connections.execute(() -> handle(socket));
+                } catch (IOException e) {
+                    if (!server.isClosed()) SolverLog.info("Worker accept failed: " + e.getMessage());
+                }
+            }
+        }
+
+        public void stop() throws IOException {
+            server.close();
+            connections.shutdownNow();
+        }
+
+        // One connection carries any number of requests, answered in order
+        private void handle(Socket socket) {
+            try (Socket s = socket;
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()))) {
+                while (true) {
+                    int magic;
+                    try {
+                        magic = in.readInt();
+                    } catch (EOFException e) {
+                        return; // coordinator closed the connection
+                    }
+                    try {
+                        if (magic != MAGIC) throw new IOException("Bad magic " + Integer.toHexString(magic));
+                        byte version = in.readByte();
+                        if (version != VERSION) throw new IOException("Unsupported version " + version);
+                        byte type = in.readByte();
+                        long seed = in.readLong();
+                        long budget = in.readLong();
+                        int n = in.readInt();
+                        if (n < 1 || n > MAX_CITIES) throw new IOException("Bad city count " + n);
+                        double[] xs = new double[n];
+                        double[] ys = new double[n];
+                        for (int i = 0; i < n; i++) xs[i] = in.readDouble();
+                        for (int i = 0; i < n; i++) ys[i] = in.readDouble();
+
+                        TSPResult result;
+                        if (type == SOLVE) {
+                            result = solve(xs, ys, seed, budget);
+                        } else if (type == SEGMENT) {
+                            result = solveSegment(xs, ys, seed, budget);
+                        } else {
+                            throw new IOException("Unknown request type " + type);
+                        }
+                        writeTour(out, result.tour, result.cost);
+                    } catch (IOException | RuntimeException e) {
+                        // the stream position is unknown after a bad request, so answer and hang up
+                        out.writeByte(ERROR);
+                        out.writeUTF(String.valueOf(e.getMessage()));
+                        out.flush();
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                SolverLog.info("Worker connection failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // Whole instance: kicked local search on a matrix when it fits, multilevel otherwise
+    static TSPResult solve(double[] xs, double[] ys, long seed, long budget) {
+        CancellationToken token = CancellationToken.withTimeout(budget);
+        int n = xs.length;
+        if (n > MATRIX_LIMIT) {
+            return new MultilevelTSP(xs, ys).solve(token);
+        }
+        SolverContext context = new SolverContext(matrix(xs, ys));
+        return new SolverPipeline(context)
+                .setConstruction(SolverPipeline.BEST_CONSTRUCTION)
+                .setPerturbation(SolverPipeline.DOUBLE_BRIDGE, Integer.MAX_VALUE)
+                .setSeed(seed)
+                .solve(token);
+    }
+
+    // Path from city 0 to city n-1 through all others: solved as a tour in which the edge
+    // (n-1, 0) is so cheap that no improving move ever removes it, then cut open at that edge
+    static TSPResult solveSegment(double[] xs, double[] ys, long seed, long budget) {
+        int n = xs.length;
+        int[] path = new int[n];
+        for (int i = 0; i < n; i++) path[i] = i;
+        if (n < 5) return new TSPResult(path, pathCost(xs, ys, path));
+
+        double[][] distances = matrix(xs, ys);
+        double fixed = -1e9;
+        distances[0][n - 1] = fixed;
+        distances[n - 1][0] = fixed;
+
+        SolverContext context = new SolverContext(distances);
+        int[] tour = new SolverPipeline(context)
+                .setConstruction(c -> path.clone())
+                .setPerturbation(SolverPipeline.DOUBLE_BRIDGE, Integer.MAX_VALUE)
+                .setSeed(seed)
+                .solve(CancellationToken.withTimeout(budget)).tour;
+
+        // rotate so the path runs 0 ... n-1
+        int at = 0;
+        while (tour[at] != 0) at++;
+        boolean forward = tour[(at + n - 1) % n] == n - 1;
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = forward ? tour[(at + i) % n] : tour[(at - i + n) % n];
+        }
+        if (result[n - 1] != n - 1) {
+            return new TSPResult(path, pathCost(xs, ys, path)); // fixed edge lost: keep the input order
+        }
+        return new TSPResult(result, pathCost(xs, ys, result));
+    }
+
+    static double[][] matrix(double[] xs, double[] ys) {
+        int n = xs.length;
+        double[][] distances = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            DistanceKernels.get().distancesFrom(xs[i], ys[i], xs, ys, distances[i], 0, n);
+        }
+        return distances;
+    }
+
+    static double pathCost(double[] xs, double[] ys, int[] path) {
+        double cost = 0;
+        for (int i = 0; i + 1 < path.length; i++) {
+            double dx = xs[path[i]] - xs[path[i + 1]];
+            double dy = ys[path[i]] - ys[path[i + 1]];
+            cost += Math.sqrt(dx * dx + dy * dy);
+        }
+        return cost;
+    }
+
+
+    // ---- coordinator ----
+
+    public static class Coordinator implements Closeable {
+        private final List<Connection> workers = new ArrayList<>();
+        private final ExecutorService executor;
+
+        // Unreachable workers are skipped; only when none answers is there nothing to run on
+        public Coordinator(List<InetSocketAddress> addresses) throws IOException {
+            for (InetSocketAddress address : addresses) {
+                try {
+                    workers.add(new Connection(address));
+                } catch (IOException e) {
+                    SolverLog.info("Skipping worker " + address.getHostString() + ":" + address.getPort() + ": "
+                            + e.getMessage());
+                }
+            }
+            if (workers.isEmpty()) throw new IOException("No reachable worker among " + addresses);
+            this.executor = Executors.newFixedThreadPool(Math.max(1, workers.size()));
+        }
+
+        public int size() {
+            return workers.size();
+        }
+
+        // Every worker solves the full instance with its own seed; the cheapest valid tour wins
+        public TSPResult solvePortfolio(CoordinateDistance instance, long budget, long seed) {
+            List<Future<TSPResult>> results = new ArrayList<>();
+            for (int w = 0; w < workers.size(); w++) {
+                Connection worker = workers.get(w);
+                long workerSeed = seed + w;
+                if (worker.dead) {
+                    results.add(CompletableFuture.failedFuture(new IOException("worker is down")));
+                    continue;
+                }
+                results.add(executor.submit(() -> worker.call(SOLVE, workerSeed, budget, instance.xs(), instance.ys())));
+            }
+
+            TSPResult best = null;
+            for (int w = 0; w < results.size(); w++) {
+                TSPResult result = collect(results.get(w), workers.get(w));
+                if (result == null || !isPermutation(result.tour, instance.size())) continue;
+                double cost = instance.tourCost(result.tour); // trust the tour, not the reported cost
+                SolverLog.info("Worker " + workers.get(w) + ": " + cost);
+                if (best == null || cost < best.cost) best = new TSPResult(result.tour, cost);
+            }
+            if (best == null) throw new IllegalStateException("No worker returned a tour");
+            return best;
+        }
+
+        // Rounds of segment re-optimization on the given tour until the budget is spent
+        public TSPResult solvePartitioned(CoordinateDistance instance, int[] initialTour, long budget,
+                                          int segmentLength, long seed) {
+            long deadline = System.currentTimeMillis() + budget;
+            int n = initialTour.length;
+            int[] tour = initialTour.clone();
+            segmentLength = Math.max(8, Math.min(segmentLength, n));
+            int segments = n / segmentLength;
+            if (segments == 0) {
+                // fewer than 8 cities: nothing worth cutting, the initial tour stands
+                return new TSPResult(tour, instance.tourCost(tour));
+            }
+            long roundBudget = Math.max(500, budget / 4);
+
+            int round = 0;
+            while (System.currentTimeMillis() < deadline) {
+                List<Connection> alive = new ArrayList<>();
+                for (Connection worker : workers) {
+                    if (!worker.dead) alive.add(worker);
+                }
+                if (alive.isEmpty()) {
+                    SolverLog.info("No live worker left; stopping after round " + round);
+                    break;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                long thisRound = Math.min(roundBudget, remaining);
+                // each worker gets its share of the segments one after another
+                int perWorker = (segments + alive.size() - 1) / alive.size();
+                long segmentBudget = Math.max(50, thisRound / perWorker);
+                int offset = (int) ((long) round * segmentLength / 2 % n);
+
+                BlockingQueue<Connection> idle = new LinkedBlockingQueue<>(alive);
+                AtomicInteger live = new AtomicInteger(alive.size());
+                List<Future<TSPResult>> results = new ArrayList<>();
+                List<int[]> inputs = new ArrayList<>();
+                for (int s = 0; s < segments; s++) {
+                    int[] cities = new int[segmentLength];
+                    for (int i = 0; i < segmentLength; i++) {
+                        cities[i] = tour[(offset + s * segmentLength + i) % n];
+                    }
+                    inputs.add(cities);
+                    double[] xs = new double[segmentLength];
+                    double[] ys = new double[segmentLength];
+                    for (int i = 0; i < segmentLength; i++) {
+                        xs[i] = instance.xs()[cities[i]];
+                        ys[i] = instance.ys()[cities[i]];
+                    }
+                    long segmentSeed = seed + (long) round * segments + s;
+                    // a worker that fails is dropped and the segment goes to the next idle one
+                    results.add(executor.submit(() -> {
+                        while (true) {
+                            Connection worker = nextIdle(idle, live);
+                            try {
+                                TSPResult result = worker.call(SEGMENT, segmentSeed, segmentBudget, xs, ys);
+                                idle.put(worker);
+                                return result;
+                            } catch (IOException e) {
+                                worker.dead = true;
+                                live.decrementAndGet();
+                                SolverLog.info("Worker " + worker + " failed, reassigning its segment: " + e);
+                            }
+                        }
+                    }));
+                }
+
+                // segments are disjoint, so every improved one can be spliced in independently
+                int improved = 0;
+                for (int s = 0; s < segments; s++) {
+                    TSPResult result = collect(results.get(s), null);
+                    int[] cities = inputs.get(s);
+                    if (result == null || !isFixedEndpointPath(result.tour, segmentLength)) continue;
+                    double before = path(instance, cities, null);
+                    double after = path(instance, cities, result.tour);
+                    if (after >= before - 1e-9) continue;
+                    for (int i = 0; i < segmentLength; i++) {
+                        tour[(offset + s * segmentLength + i) % n] = cities[result.tour[i]];
+                    }
+                    improved++;
+                }
+                if (SolverLog.isInfoEnabled()) {
+                    SolverLog.info("Round " + round + ": " + improved + "/" + segments + " segments improved, cost "
+                            + instance.tourCost(tour));
+                }
+                round++;
+            }
+            return new TSPResult(tour, instance.tourCost(tour));
+        }
+
+        // Waits for an idle worker; fails once every worker of the round is down
+        private static Connection nextIdle(BlockingQueue<Connection> idle, AtomicInteger live)
+                throws IOException, InterruptedException {
+            while (true) {
+                Connection worker = idle.poll(100, TimeUnit.MILLISECONDS);
+                if (worker != null) return worker;
+                if (live.get() <= 0) throw new IOException("no live worker left");
+            }
+        }
+
+        private static double path(CoordinateDistance instance, int[] cities, int[] order) {
+            double cost = 0;
+            for (int i = 0; i + 1 < cities.length; i++) {
+                int a = cities[order == null ? i : order[i]];
+                int b = cities[order == null ? i + 1 : order[i + 1]];
+                cost += instance.distance(a, b);
+            }
+            return cost;
+        }
+
+        // A failed worker only loses its share of the work
+        private TSPResult collect(Future<TSPResult> future, Connection worker) {
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                if (worker != null) worker.dead = true;
+                SolverLog.info("Worker " + (worker != null ? worker : "") + " failed: " + e.getCause().getMessage());
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        public void close() {
+            executor.shutdownNow();
+            for (Connection worker : workers) {
+                worker.close();
+            }
+        }
+    }
+
+    // One persistent connection to a worker; reconnects once if it was dropped
+    static class Connection {
+        private final InetSocketAddress address;
+        volatile boolean dead; // failed during a solve; the coordinator stops sending it work
+        private Socket socket;
+        private DataInputStream in;
+        private DataOutputStream out;
+
+        Connection(InetSocketAddress address) throws IOException {
+            this.address = address;
+            connect();
+        }
+
+        private void connect() throws IOException {
+            close();
+            socket = new Socket();
+            socket.connect(address, 5000);
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        synchronized TSPResult call(byte type, long seed, long budget, double[] xs, double[] ys) throws IOException {
+            if (socket == null || socket.isClosed()) connect();
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, budget + 60_000));
+            try {
+                writeRequest(out, type, seed, budget, xs, ys);
+                return readTour(in, xs.length);
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        synchronized void close() {
+            if (socket == null) return;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already gone
+            }
+            socket = null;
+        }
+
+        public String toString() {
+            return address.getHostString() + ":" + address.getPort();
+        }
+    }
+
+    static boolean isPermutation(int[] tour, int n) {
+        if (tour.length != n) return false;
+        boolean[] seen = new boolean[n];
+        for (int city : tour) {
+            if (city < 0 || city >= n || seen[city]) return false;
+            seen[city] = true;
+        }
+        return true;
+    }
+
+    static boolean isFixedEndpointPath(int[] path, int n) {
+        return isPermutation(path, n) && path[0] == 0 && path[n - 1] == n - 1;
+    }
+
+
+    // ---- local worker processes ----
+
+    // Start worker JVMs on this host with the same java and class path; returns them once listening
+    public static List<Process> spawnLocalWorkers(int count, List<InetSocketAddress> addresses) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        String classPath = System.getProperty("java.class.path");
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Process process = new ProcessBuilder(java, "-cp", classPath, "-Dtsp.log=off",
+                    "DistributedSolver", "worker", "--port", "0")
+                    .redirectErrorStream(true)
+                    .start();
+            processes.add(process);
+
+            // the worker announces its port on the first line of output
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            String line = reader.readLine();
+            if (line == null || !line.startsWith("Worker listening on ")) {
+                for (Process p : processes) p.destroy();
+                throw new IOException("Worker did not start: " + line);
+            }
+            String[] hostPort = line.substring("Worker listening on ".length()).trim().split(":");
+            addresses.add(new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1])));
+
+            // keep draining its output so a chatty worker never blocks on a full pipe
+            Thread drain = new Thread(() -> {
+                try {
+                    while (reader.readLine() != null) {
+                        // discard
+                    }
+                } catch (IOException e) {
+                    // worker exited
+                }
+            }, "tsp-worker-output");
+            drain.setDaemon(true);
+            drain.start();
+        }
+        return processes;
+    }
+
+    static List<InetSocketAddress> parseHosts(String list) {
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        for (String entry : list.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            addresses.add(new InetSocketAddress(entry.substring(0, colon), Integer.parseInt(entry.substring(colon + 1))));
+        }
+        return addresses;
+    }
+
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage: DistributedSolver worker [...] | coordinator <file.tsp> [...]");
+            return;
+        }
+
+        if (args[0].equals("worker")) {
+            int port = 0;
+            InetAddress bind = InetAddress.getLoopbackAddress();
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port": port = Integer.parseInt(args[++i]); break;
+                    case "--bind": bind = InetAddress.getByName(args[++i]); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            Worker worker = new Worker(bind, port);
+            System.out.println("Worker listening on " + bind.getHostAddress() + ":" + worker.getPort());
+            System.out.flush();
+            worker.serve();
+            return;
+        }
+
+        String file = args[1];
+        String mode = "partition";
+        long budget = 10_000;
+        int segment = 1000;
+        int spawn = 0;
+        String hosts = null;
+        String output = null;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--workers": hosts = args[++i]; break;
+                case "--spawn": spawn = Integer.parseInt(args[++i]); break;
+                case "--mode": mode = args[++i]; break;
+                case "--budget": budget = Long.parseLong(args[++i]); break;
+                case "--segment": segment = Integer.parseInt(args[++i]); break;
+                case "--out": output = args[++i]; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        List<InetSocketAddress> addresses = (hosts != null) ? parseHosts(hosts) : new ArrayList<>();
+        List<Process> processes = spawnLocalWorkers(spawn, addresses);
+        CoordinateDistance instance = TSPLIBParser.parseCoordinates(file);
+
+        try (Coordinator coordinator = new Coordinator(addresses)) {
+            long start = System.currentTimeMillis();
+            TSPResult result;
+            if (mode.equals("portfolio")) {
+                result = coordinator.solvePortfolio(instance, budget, 1);
+            } else {
+                TSPResult initial = new MultilevelTSP(instance).solve();
+                System.out.println("Multilevel start: " + initial.cost);
+                result = coordinator.solvePartitioned(instance, initial.tour, budget, segment, 1);
+            }
+            System.out.println(mode + " on " + coordinator.size() + " workers: cost " + result.cost
+                    + " in " + (System.currentTimeMillis() - start) + " ms");
+            if (output != null) {
+                TourFile.write(output, new File(file).getName().replace(".tsp", ""), result.tour, "Length " + result.cost);
+            }
+        } finally {
+            for (Process process : processes) process.destroy();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+// Runs DistributedSolver with three worker JVMs on this host: portfolio on a280, partition on
+// kz9976 and on 5 cities, a malformed request and reply, a dead worker in the address list and a
+// worker killed mid-run
+public class DistributedSolverTest {
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== Distributed Solver Test (3 local worker JVMs) ===");
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        List<Process> workers = DistributedSolver.spawnLocalWorkers(3, addresses);
+        System.out.println("Workers: " + addresses);
+
+        try {
+            CoordinateDistance a280 = TSPLIBParser.parseCoordinates("a280.tsp");
+            CoordinateDistance kz9976 = TSPLIBParser.parseCoordinates("kz9976.tsp");
+
+            try (DistributedSolver.Coordinator coordinator = new DistributedSolver.Coordinator(addresses)) {
+                System.out.println("\n1. Portfolio on a280 (2 s per worker):");
+                long start = System.currentTimeMillis();
+                TSPResult portfolio = coordinator.solvePortfolio(a280, 2000, 1);
+                System.out.println("Best cost: " + portfolio.cost + " (" + (System.currentTimeMillis() - start) + " ms)");
+
+                System.out.println("\n2. Partition on kz9976 (segments of 1000, 10 s):");
+                TSPResult initial = new MultilevelTSP(kz9976).solve();
+                System.out.println("Multilevel start: " + String.format("%.0f", initial.cost));
+                start = System.currentTimeMillis();
+                TSPResult partitioned = coordinator.solvePartitioned(kz9976, initial.tour, 10_000, 1000, 1);
+                System.out.println("After partitioned refinement: " + String.format("%.0f", partitioned.cost)
+                        + " (" + (System.currentTimeMillis() - start) + " ms), valid "
+                        + DistributedSolver.isPermutation(partitioned.tour, kz9976.size()));
+                System.out.println("Gap from optimal (1061881): "
+                        + String.format("%.1f%%", (partitioned.cost - 1061881.0) / 1061881.0 * 100));
+
+                CoordinateDistance five = new CoordinateDistance(new double[]{0, 3, 3, 0, 1}, new double[]{0, 0, 4, 4, 2});
+                TSPResult small = coordinator.solvePartitioned(five, new int[]{0, 1, 2, 3, 4}, 1000, 1000, 1);
+                System.out.println("Partition on 5 cities (too few to cut): " + Arrays.toString(small.tour));
+            }
+
+            System.out.println("\n3. Malformed request:");
+            try (Socket socket = new Socket(addresses.get(0).getAddress(), addresses.get(0).getPort())) {
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                out.writeInt(0x12345678);
+                out.flush();
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                try {
+                    DistributedSolver.readTour(in, 1);
+                    System.out.println("Accepted (unexpected)");
+                } catch (IOException e) {
+                    System.out.println("Rejected: " + e.getMessage());
+                }
+            }
+            // a reply claiming far more cities than were sent is refused before any allocation
+            ByteArrayOutputStream reply = new ByteArrayOutputStream();
+            DataOutputStream replyOut = new DataOutputStream(reply);
+            replyOut.writeByte(DistributedSolver.OK);
+            replyOut.writeDouble(1.0);
+            replyOut.writeByte(4);
+            replyOut.writeInt(2_000_000_000);
+            try {
+                DistributedSolver.readTour(new DataInputStream(new ByteArrayInputStream(reply.toByteArray())), 280);
+                System.out.println("Oversized reply accepted (unexpected)");
+            } catch (IOException e) {
+                System.out.println("Oversized reply rejected: " + e.getMessage());
+            }
+
+            System.out.println("\n4. One worker dead before the run, another killed during it:");
+            workers.get(0).destroyForcibly().waitFor();
+            try (DistributedSolver.Coordinator coordinator = new DistributedSolver.Coordinator(addresses)) {
+                System.out.println("Workers reached from the full list of 3: " + coordinator.size());
+                System.out.println("Portfolio on a280 from the survivors: " + coordinator.solvePortfolio(a280, 1000, 2).cost);
+
+                Thread killer = new Thread(() -> {
+                    try {
+                        Thread.sleep(1500);
+                        workers.get(1).destroyForcibly().waitFor();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                killer.start();
+                TSPResult initial = new MultilevelTSP(kz9976).solve();
+                TSPResult partitioned = coordinator.solvePartitioned(kz9976, initial.tour, 4000, 1000, 3);
+                killer.join();
+                System.out.println(String.format("Partition on kz9976 with a worker killed after 1.5 s: %.0f -> %.0f, valid %b",
+                        initial.cost, partitioned.cost, DistributedSolver.isPermutation(partitioned.tour, kz9976.size())));
+            }
+        } finally {
+            for (Process worker : workers) worker.destroy();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+import java.io.*;
+import java.util.*;
+
+// Dynamic edits on kz9976: build the tour by incremental insertion, then apply random
+// add / remove / move edits and report the per-edit latency and the tour cost
+public class DynamicTourTest {
+    public static void main(String[] args) {
+        System.out.println("=== Dynamic Tour Test (kz9976) ===");
+
+        try {
+            CoordinateDistance points = TSPLIBParser.parseCoordinates("kz9976.tsp");
+            int n = points.size();
+            List<double[]> coordinates = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                coordinates.add(new double[]{points.xs()[i], points.ys()[i]});
+            }
+            System.out.println("Loaded " + n + " cities (coordinates only, no distance matrix)");
+
+            // 1. build by inserting the cities in random order
+            List<double[]> shuffled = new ArrayList<>(coordinates);
+            Collections.shuffle(shuffled, new Random(1));
+            DynamicTour dynamic = new DynamicTour();
+            long start = System.nanoTime();
+            for (double[] point : shuffled) {
+                dynamic.addCity(point[0], point[1]);
+            }
+            long buildMillis = (System.nanoTime() - start) / 1_000_000L;
+            System.out.println("\n1. Incremental construction: " + buildMillis + " ms, cost " + String.format("%.0f", dynamic.cost()));
+            System.out.println("Gap from optimal (1061881): " + String.format("%.1f%%", gap(dynamic.cost())));
+
+            // 2. random edits
+            Random random = new Random(2);
+            List<Integer> ids = new ArrayList<>();
+            for (int id : dynamic.tour()) ids.add(id);
+            double[] bounds = bounds(coordinates);
+
+            int edits = 3000;
+            long[] nanos = new long[edits];
+            for (int e = 0; e < edits; e++) {
+                int kind = e % 3;
+                long t = System.nanoTime();
+                if (kind == 0) {
+                    double x = bounds[0] + random.nextDouble() * (bounds[2] - bounds[0]);
+                    double y = bounds[1] + random.nextDouble() * (bounds[3] - bounds[1]);
+                    ids.add(dynamic.addCity(x, y));
+                } else if (kind == 1) {
+                    int id = ids.remove(random.nextInt(ids.size()));
+                    dynamic.removeCity(id);
+                } else {
+                    int id = ids.get(random.nextInt(ids.size()));
+                    // a nearby move, as when a stop's address is corrected
+                    double x = dynamic.x(id) + (random.nextDouble() - 0.5) * 20000;
+                    double y = dynamic.y(id) + (random.nextDouble() - 0.5) * 20000;
+                    dynamic.moveCity(id, x, y);
+                }
+                nanos[e] = System.nanoTime() - t;
+            }
+
+            Arrays.sort(nanos);
+            long total = 0;
+            for (long t : nanos) total += t;
+            System.out.println("\n2. " + edits + " random edits (add / remove / move):");
+            System.out.println(String.format("Mean %.3f ms, median %.3f ms, p99 %.3f ms, max %.3f ms",
+                    total / 1e6 / edits, nanos[edits / 2] / 1e6, nanos[edits * 99 / 100] / 1e6, nanos[edits - 1] / 1e6));
+            System.out.println("Cities: " + dynamic.size() + ", cost " + String.format("%.0f", dynamic.cost()));
+            System.out.println("Valid permutation: " + isPermutation(dynamic.tour(), ids));
+
+        } catch (IOException e) {
+            System.out.println("Error reading kz9976.tsp: " + e.getMessage());
+        }
+    }
+
+    private static double gap(double cost) {
+        return (cost - 1061881.0) / 1061881.0 * 100;
+    }
+
+    private static double[] bounds(List<double[]> coordinates) {
+        double[] b = {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (double[] p : coordinates) {
+            b[0] = Math.min(b[0], p[0]);
+            b[1] = Math.min(b[1], p[1]);
+            b[2] = Math.max(b[2], p[0]);
+            b[3] = Math.max(b[3], p[1]);
+        }
+        return b;
+    }
+
+    private static boolean isPermutation(int[] tour, List<Integer> ids) {
+        if (tour.length != ids.size()) return false;
+        Set<Integer> seen = new HashSet<>();
+        for (int id : tour) seen.add(id);
+        return seen.equals(new HashSet<>(ids));
+    }
+}
@@ -0,0 +1,182 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+// Seeded Euclidean instances for scalability runs, without any n x n matrix:
+//   UNIFORM   - points uniform in a square
+//   CLUSTERED - normal clouds around uniformly placed centers (DIMACS-style)
+//   GRID      - a square lattice with each point jittered inside its cell
+//
+// Points are generated one at a time, so writeTSPLIB streams any size (10M points is about 300 MB of
+// text) in constant memory; toCoordinates() fills two double arrays instead. Coordinates are rounded
+// to 0.01, so a written file parses back to exactly the in-memory instance.
+//
+// Usage: java InstanceGenerator <uniform|clustered|grid> <n> <seed> <out.tsp>
+public class InstanceGenerator {
+    public enum Distribution { UNIFORM, CLUSTERED, GRID }
+
+    private final Distribution distribution;
+    private final int n;
+    private final long seed;
+    private double side = 1_000_000;
+    private int clusters = -1;  // default: one per 1000 points
+    private double jitter = 0.2; // GRID: fraction of a cell
+
+    public InstanceGenerator(Distribution distribution, int n, long seed) {
+        this.distribution = distribution;
+        this.n = n;
+        this.seed = seed;
+    }
+
+    public InstanceGenerator setSide(double side) {
+        this.side = side;
+        return this;
+    }
+
+    public InstanceGenerator setClusters(int clusters) {
+        this.clusters = clusters;
+        return this;
+    }
+
+    public InstanceGenerator setJitter(double jitter) {
+        this.jitter = jitter;
+        return this;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public String getName() {
+        return distribution.name().toLowerCase() + n + "-s" + seed;
+    }
+
+    public interface PointConsumer {
+        void accept(int index, double x, double y) throws IOException;
+    }
+
+    // Generate the points in order; the same seed always gives the same points
+    public void forEach(PointConsumer consumer) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        switch (distribution) {
+            case UNIFORM:
+                for (int i = 0; i < n; i++) {
+                    consumer.accept(i, round(random.nextDouble() * side), round(random.nextDouble() * side));
+                }
+                break;
+
+            case CLUSTERED: {
+                int count = (clusters > 0) ? clusters : Math.max(1, n / 1000);
+                double[] cx = new double[count];
+                double[] cy = new double[count];
+                for (int c = 0; c < count; c++) {
+                    cx[c] = random.nextDouble() * side;
+                    cy[c] = random.nextDouble() * side;
+                }
+                double sigma = side / (4 * Math.sqrt(count));
+                for (int i = 0; i < n; i++) {
+                    int c = random.nextInt(count);
+                    consumer.accept(i, round(cx[c] + sigma * gaussian(random)), round(cy[c] + sigma * gaussian(random)));
+                }
+                break;
+            }
+
+            case GRID: {
+                int columns = (int) Math.ceil(Math.sqrt(n));
+                double cell = side / columns;
+                for (int i = 0; i < n; i++) {
+                    double x = (i % columns + 0.5 + jitter * (random.nextDouble() - 0.5)) * cell;
+                    double y = (i / columns + 0.5 + jitter * (random.nextDouble() - 0.5)) * cell;
+                    consumer.accept(i, round(x), round(y));
+                }
+                break;
+            }
+        }
+    }
+
+    // In-memory instance for the coordinate solvers
+    public CoordinateDistance toCoordinates() {
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        try {
+            forEach((i, x, y) -> {
+                xs[i] = x;
+                ys[i] = y;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // the consumer above never throws
+        }
+        return new CoordinateDistance(xs, ys);
+    }
+
+    // Full Euclidean matrix for the matrix-based solvers; only sensible for a few thousand cities
+    public double[][] toMatrix() {
+        CoordinateDistance coordinates = toCoordinates();
+        return MatrixDistance.fromCoordinates(coordinates.xs(), coordinates.ys());
+    }
+
+    public void writeTSPLIB(String path) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.US_ASCII),
+                1 << 16)) {
+            writeTSPLIB(writer);
+        }
+    }
+
+    public void writeTSPLIB(Writer writer) throws IOException {
+        writer.write("NAME : " + getName() + "\n");
+        writer.write("COMMENT : " + distribution.name().toLowerCase() + ", seed " + seed + ", side " + side + "\n");
+        writer.write("TYPE : TSP\n");
+        writer.write("DIMENSION : " + n + "\n");
+        writer.write("EDGE_WEIGHT_TYPE : EUC_2D\n");
+        writer.write("NODE_COORD_SECTION\n");
+        StringBuilder line = new StringBuilder(64);
+        forEach((i, x, y) -> {
+            line.setLength(0);
+            line.append(i + 1).append(' ');
+            appendHundredths(line, x);
+            line.append(' ');
+            appendHundredths(line, y);
+            line.append('\n');
+            writer.append(line);
+        });
+        writer.write("EOF\n");
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    // Fixed two decimals without String.format, which dominates the run time at 10M points
+    private static void appendHundredths(StringBuilder out, double value) {
+        long hundredths = Math.round(value * 100);
+        if (hundredths < 0) {
+            out.append('-');
+            hundredths = -hundredths;
+        }
+        out.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) out.append('0');
+        out.append(fraction);
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; SplittableRandom has no nextGaussian
+        double u = 1.0 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("Usage: java InstanceGenerator <uniform|clustered|grid> <n> <seed> <out.tsp>");
+            return;
+        }
+        Distribution distribution = Distribution.valueOf(args[0].toUpperCase());
+        InstanceGenerator generator = new InstanceGenerator(distribution, Integer.parseInt(args[1]), Long.parseLong(args[2]));
+
+        long start = System.currentTimeMillis();
+        generator.writeTSPLIB(args[3]);
+        System.out.println("Wrote " + generator.getName() + " to " + args[3] + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+}
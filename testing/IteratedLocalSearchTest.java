@@ -0,0 +1,99 @@
+import java.io.*;
+import java.util.*;
+
+// Iterated local search: journal rollback restoring a tour exactly, a280 against the double-bridge
+// pipeline (which copies and re-searches the whole tour per kick) for the same time, and kz9976
+// from coordinates, where the kick rate shows the per-kick cost does not grow with n.
+// Usage: java IteratedLocalSearchTest
+public class IteratedLocalSearchTest {
+    private static final double A280_OPTIMUM = 2579;
+    private static final double KZ9976_OPTIMUM = 1061881;
+
+    public static void main(String[] args) {
+        System.out.println("=== Iterated Local Search Test ===");
+        SolverLog.setLevel(SolverLog.Level.OFF);
+        testRollback();
+
+        try {
+            testA280(new SolverContext(TSPLIBParser.parseFile("a280.tsp").distances));
+        } catch (IOException e) {
+            System.out.println("a280.tsp not found, skipping");
+        }
+        try {
+            testKazakhstan(TSPLIBParser.parseCoordinates("kz9976.tsp"));
+        } catch (IOException e) {
+            System.out.println("kz9976.tsp not found, skipping");
+        }
+    }
+
+    // Random reversals under the journal, then rollback: the tour and positions must be restored
+    private static void testRollback() {
+        System.out.println("\n--- ArrayTour journal rollback ---");
+        Random random = new Random(5);
+        int failures = 0;
+        for (int trial = 0; trial < 100; trial++) {
+            int n = 8 + random.nextInt(200);
+            int[] cities = new int[n];
+            for (int i = 0; i < n; i++) cities[i] = i;
+            ArrayTour tour = new ArrayTour(cities);
+            int[] before = cities.clone();
+            tour.beginJournal();
+            for (int move = 0; move < 20; move++) {
+                tour.reverse(random.nextInt(n), random.nextInt(n));
+            }
+            tour.rollback();
+            boolean restored = Arrays.equals(before, cities);
+            for (int i = 0; i < n && restored; i++) restored = tour.position(cities[i]) == i;
+            if (!restored) failures++;
+        }
+        System.out.println("Tours not restored: " + failures + " of 100");
+    }
+
+    private static void testA280(SolverContext context) {
+        System.out.println("\n--- a280: 3 s each ---");
+        long start = System.currentTimeMillis();
+        TSPResult pipeline = new SolverPipeline(context)
+                .setConstruction(SolverPipeline.BEST_CONSTRUCTION)
+                .setImprovement(SolverPipeline.FAST_LOCAL_SEARCH)
+                .setPerturbation(SolverPipeline.DOUBLE_BRIDGE, Integer.MAX_VALUE)
+                .setSeed(1)
+                .solve(CancellationToken.withTimeout(3000));
+        System.out.println(String.format("Pipeline (double bridge): %.2f (gap %.2f%%), %d ms", pipeline.cost,
+                100 * (pipeline.cost / A280_OPTIMUM - 1), System.currentTimeMillis() - start));
+
+        start = System.currentTimeMillis();
+        IteratedLocalSearch ils = new IteratedLocalSearch(context).setSeed(1);
+        TSPResult result = ils.solve(CancellationToken.withTimeout(3000));
+        System.out.println(String.format("Iterated local search: %.2f (gap %.2f%%), %d kicks, %d improving, %d restarts,"
+                + " valid %b, %d ms", result.cost, 100 * (result.cost / A280_OPTIMUM - 1), ils.getKicks(),
+                ils.getImprovements(), ils.getRestarts(), isPermutation(result.tour, context.size()),
+                System.currentTimeMillis() - start));
+    }
+
+    private static void testKazakhstan(CoordinateDistance kz) {
+        System.out.println("\n--- kz9976: multilevel + local search, then 10 s of kicks ---");
+        long start = System.currentTimeMillis();
+        int[] tour = new CoordinateLocalSearch(kz, 10).improve(new MultilevelTSP(kz).solve().tour);
+        System.out.println(String.format("Start: %.0f (gap %.2f%%), %d ms", kz.tourCost(tour),
+                100 * (kz.tourCost(tour) / KZ9976_OPTIMUM - 1), System.currentTimeMillis() - start));
+
+        start = System.currentTimeMillis();
+        IteratedLocalSearch ils = new IteratedLocalSearch(kz).setSeed(1);
+        int[] improved = ils.improve(tour, CancellationToken.withTimeout(10_000));
+        long millis = System.currentTimeMillis() - start;
+        double cost = kz.tourCost(improved);
+        System.out.println(String.format("Iterated local search: %.0f (gap %.2f%%), %d kicks (%.0f per second), %d improving,"
+                + " valid %b", cost, 100 * (cost / KZ9976_OPTIMUM - 1), ils.getKicks(), 1000.0 * ils.getKicks() / millis,
+                ils.getImprovements(), isPermutation(improved, kz.size())));
+    }
+
+    private static boolean isPermutation(int[] tour, int n) {
+        if (tour.length != n) return false;
+        boolean[] seen = new boolean[n];
+        for (int city : tour) {
+            if (city < 0 || city >= n || seen[city]) return false;
+            seen[city] = true;
+        }
+        return true;
+    }
+}
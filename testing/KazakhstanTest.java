@@ -10,11 +10,14 @@ public class KazakhstanTest {
             TSPLIBParser.TSPInstance instance = TSPLIBParser.parseFile("kz9976.tsp");
             System.out.println("Successfully loaded Kazakhstan: " + instance.dimension + " cities");
             
-            // For large datasets, test with timeout
-            if (instance.dimension > 1000) {
-                testLargeKazakhstan(instance.distances, instance.dimension);
+            StrategyPlanner.Plan plan = new StrategyPlanner().plan(instance.dimension);
+            System.out.print(plan);
+
+            // Large datasets: the O(n^3) local search passes only scan a window of the tour
+            if (!StrategyPlanner.fullScanAffordable(instance.dimension)) {
+                testLargeKazakhstan(new SolverContext(instance.distances), instance.dimension);
             } else {
-                testMediumKazakhstan(instance.distances);
+                testMediumKazakhstan(new SolverContext(instance.distances));
             }
             
         } catch (IOException e) {
@@ -26,24 +29,20 @@ public class KazakhstanTest {
     private static void testSyntheticLarge() {
         System.out.println("Testing with 1000-city synthetic dataset:");
         
-        double[][] distances = generateLargeRandomMatrix(1000);
+        SolverContext context = new SolverContext(new InstanceGenerator(InstanceGenerator.Distribution.CLUSTERED, 1000, 1).toMatrix());
         
         // Only test scalable algorithms
-        testMSTOnly(distances);
-        testAdaptiveOnly(distances);
+        testMSTOnly(context);
+        testAdaptiveOnly(context);
     }
     
-    private static void testMSTOnly(double[][] distances) {
+    private static void testMSTOnly(SolverContext context) {
         System.out.println("\n1. MST 2-Approximation (1000 cities):");
         long startTime = System.currentTimeMillis();
         
         try {
-            TSP_MST mst = new TSP_MST(distances);
-            int[] parent = mst.buildMST();
-            int[] oddVertices = mst.findOddDegreeVertices(parent);
-            int[][] matching = mst.findMinimumMatching(oddVertices);
-            int[] mstTour = mst.createTSPTour(parent, matching);
-            double mstCost = mst.calculateTourCost(mstTour);
+            int[] mstTour = context.getMSTTour();
+            double mstCost = context.tourCost(mstTour);
             
             long mstTime = System.currentTimeMillis() - startTime;
             System.out.println("MST Cost: " + mstCost);
@@ -54,13 +53,13 @@ public class KazakhstanTest {
         }
     }
     
-    private static void testAdaptiveOnly(double[][] distances) {
+    private static void testAdaptiveOnly(SolverContext context) {
         System.out.println("\n2. Adaptive Multi-Strategy (1000 cities):");
         long startTime = System.currentTimeMillis();
         
         try {
-            AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(distances);
-            AdaptiveMultiStrategyTSP.TSPResult result = adaptive.solve();
+            AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(context);
+            TSPResult result = adaptive.solve();
             
             long adaptiveTime = System.currentTimeMillis() - startTime;
             System.out.println("Adaptive Cost: " + result.cost);
@@ -70,36 +69,14 @@ public class KazakhstanTest {
             System.out.println("Adaptive failed: " + e.getMessage());
         }
     }
-    
-    private static double[][] generateLargeRandomMatrix(int n) {
-        double[][] distances = new double[n][n];
-        
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                if (i == j) {
-                    distances[i][j] = 0;
-                } else if (i < j) {
-                    distances[i][j] = 1 + Math.random() * 999; // Random 1-1000
-                    distances[j][i] = distances[i][j];
-                }
-            }
-        }
-        
-        return distances;
-    }
-
 
-    private static void testLargeKazakhstan(double[][] distances, int dimension) {
+    private static void testLargeKazakhstan(SolverContext context, int dimension) {
         System.out.println("\n1. MST 2-Approximation (" + dimension + " cities):");
         long startTime = System.currentTimeMillis();
         
         try {
-            TSP_MST mst = new TSP_MST(distances);
-            int[] parent = mst.buildMST();
-            int[] oddVertices = mst.findOddDegreeVertices(parent);
-            int[][] matching = mst.findMinimumMatching(oddVertices);
-            int[] mstTour = mst.createTSPTour(parent, matching);
-            double mstCost = mst.calculateTourCost(mstTour);
+            int[] mstTour = context.getMSTTour();
+            double mstCost = context.tourCost(mstTour);
             
             long mstTime = System.currentTimeMillis() - startTime;
             System.out.println("MST Cost: " + mstCost);
@@ -108,8 +85,8 @@ public class KazakhstanTest {
             // Local Search (from MST initialization)
             System.out.println("\n2. Local Search (from MST initialization):");
             startTime = System.currentTimeMillis();
-            LocalSearchTSP localSearch = new LocalSearchTSP(distances);
-            LocalSearchTSP.TSPResult localResult = localSearch.solveWithLocalSearch(mstTour);
+            LocalSearchTSP localSearch = new LocalSearchTSP(context);
+            TSPResult localResult = localSearch.solveWithLocalSearch(mstTour);
             long localTime = System.currentTimeMillis() - startTime;
             System.out.println("Local Search Cost: " + localResult.cost);
             System.out.println("Local Search Runtime: " + localTime + " ms");
@@ -121,8 +98,8 @@ public class KazakhstanTest {
             // Adaptive Multi-Strategy
             System.out.println("\n3. Adaptive Multi-Strategy (" + dimension + " cities):");
             startTime = System.currentTimeMillis();
-            AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(distances);
-            AdaptiveMultiStrategyTSP.TSPResult result = adaptive.solve();
+            AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(context);
+            TSPResult result = adaptive.solve();
             long adaptiveTime = System.currentTimeMillis() - startTime;
             System.out.println("Adaptive Cost: " + result.cost);
             System.out.println("Adaptive Runtime: " + adaptiveTime + " ms");
@@ -147,17 +124,13 @@ public class KazakhstanTest {
     }
 
 
-    private static void testMediumKazakhstan(double[][] distances) {
+    private static void testMediumKazakhstan(SolverContext context) {
         System.out.println("\n1. MST 2-Approximation:");
         long startTime = System.currentTimeMillis();
         
         try {
-            TSP_MST mst = new TSP_MST(distances);
-            int[] parent = mst.buildMST();
-            int[] oddVertices = mst.findOddDegreeVertices(parent);
-            int[][] matching = mst.findMinimumMatching(oddVertices);
-            int[] mstTour = mst.createTSPTour(parent, matching);
-            double mstCost = mst.calculateTourCost(mstTour);
+            int[] mstTour = context.getMSTTour();
+            double mstCost = context.tourCost(mstTour);
             
             long mstTime = System.currentTimeMillis() - startTime;
             System.out.println("MST Cost: " + mstCost);
@@ -166,8 +139,8 @@ public class KazakhstanTest {
             // Local Search
             System.out.println("\n2. Local Search (from MST initialization):");
             startTime = System.currentTimeMillis();
-            LocalSearchTSP localSearch = new LocalSearchTSP(distances);
-            LocalSearchTSP.TSPResult localResult = localSearch.solveWithLocalSearch(mstTour);
+            LocalSearchTSP localSearch = new LocalSearchTSP(context);
+            TSPResult localResult = localSearch.solveWithLocalSearch(mstTour);
             long localTime = System.currentTimeMillis() - startTime;
             System.out.println("Local Search Cost: " + localResult.cost);
             System.out.println("Local Search Runtime: " + localTime + " ms");
@@ -175,8 +148,8 @@ public class KazakhstanTest {
             // Adaptive Multi-Strategy
             System.out.println("\n3. Adaptive Multi-Strategy:");
             startTime = System.currentTimeMillis();
-            AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(distances);
-            AdaptiveMultiStrategyTSP.TSPResult adaptiveResult = adaptive.solve();
+            AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(context);
+            TSPResult adaptiveResult = adaptive.solve();
             long adaptiveTime = System.currentTimeMillis() - startTime;
             System.out.println("Adaptive Cost: " + adaptiveResult.cost);
             System.out.println("Adaptive Runtime: " + adaptiveTime + " ms");
@@ -0,0 +1,81 @@
+import java.io.*;
+import java.util.*;
+
+// Multilevel vs flat local search on coordinates: kz9976, then uniform random instances of
+// 100k and 1M cities and clustered / grid instances of 100k. Usage: java -Xmx4g MultilevelTest [max cities]
+public class MultilevelTest {
+    public static void main(String[] args) {
+        System.out.println("=== Multilevel Solver Test ===");
+        int maxCities = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        try {
+            CoordinateDistance kz = TSPLIBParser.parseCoordinates("kz9976.tsp");
+            TSPResult result = compare("kz9976", kz, true);
+            System.out.println("Multilevel gap from optimal (1061881): "
+                    + String.format("%.1f%%", (result.cost - 1061881.0) / 1061881.0 * 100));
+        } catch (IOException e) {
+            System.out.println("kz9976.tsp not found, skipping");
+        }
+
+        for (int n = 100_000; n <= maxCities; n *= 10) {
+            // flat local search from a random tour is only run where it finishes in minutes
+            compare("uniform " + n, new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, n, 42).toCoordinates(),
+                    n <= 100_000);
+        }
+
+        // structured instances, where coarsening by nearest neighbors behaves differently
+        compare("clustered 100000", new InstanceGenerator(InstanceGenerator.Distribution.CLUSTERED, 100_000, 42).toCoordinates(), false);
+        compare("grid 100000", new InstanceGenerator(InstanceGenerator.Distribution.GRID, 100_000, 42).toCoordinates(), false);
+    }
+
+    private static TSPResult compare(String name, CoordinateDistance coordinates, boolean runFlat) {
+        int n = coordinates.size();
+        System.out.println("\n--- " + name + " (" + n + " cities) ---");
+
+        long start = System.currentTimeMillis();
+        TSPResult multilevel = new MultilevelTSP(coordinates).solve();
+        long multilevelTime = System.currentTimeMillis() - start;
+        System.out.println("Multilevel: cost " + String.format("%.0f", multilevel.cost) + ", " + multilevelTime + " ms"
+                + ", valid " + isPermutation(multilevel.tour, n));
+
+        if (runFlat) {
+            start = System.currentTimeMillis();
+            int[] randomTour = shuffled(n, 7);
+            int[] flat = new CoordinateLocalSearch(coordinates, 8).improve(randomTour);
+            long flatTime = System.currentTimeMillis() - start;
+            System.out.println("Flat 2-opt/Or-opt from a random tour: cost "
+                    + String.format("%.0f", coordinates.tourCost(flat)) + ", " + flatTime + " ms");
+        }
+
+        // Beardwood-Halton-Hammersley: an optimal tour of n uniform points in a unit square is about 0.7124 sqrt(n)
+        if (name.startsWith("uniform")) {
+            double estimate = 0.7124 * Math.sqrt((double) n * 1_000_000.0 * 1_000_000.0);
+            System.out.println("Above the BHH estimate of the optimum: "
+                    + String.format("%.1f%%", (multilevel.cost - estimate) / estimate * 100));
+        }
+        return multilevel;
+    }
+
+    private static int[] shuffled(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] tour = new int[n];
+        for (int i = 0; i < n; i++) tour[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = tour[i];
+            tour[i] = tour[j];
+            tour[j] = t;
+        }
+        return tour;
+    }
+
+    private static boolean isPermutation(int[] tour, int n) {
+        if (tour.length != n) return false;
+        boolean[] seen = new boolean[n];
+        for (int city : tour) {
+            if (seen[city]) return false;
+            seen[city] = true;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,110 @@
+import java.io.*;
+import java.util.*;
+
+// Portfolio races on a280: stopping at a target gap (the losers must return within a few hundred
+// ms of the winner), running to the deadline without a target, and Held-Karp pruned by a shared
+// incumbent on small random instances (same optimum, less work).
+// Usage: java PortfolioTest
+public class PortfolioTest {
+    private static final double A280_OPTIMUM = 2579;
+
+    public static void main(String[] args) {
+        System.out.println("=== Portfolio Test ===");
+        testPrunedHeldKarp();
+
+        try {
+            TSPLIBParser.TSPInstance instance = TSPLIBParser.parseFile("a280.tsp");
+            SolverContext context = new SolverContext(instance.distances);
+            testTargetGap(context);
+            testDeadline(context);
+        } catch (IOException e) {
+            System.out.println("a280.tsp not found, skipping");
+        }
+    }
+
+    private static PortfolioSolver a280Portfolio(SolverContext context, long timeLimit) {
+        // the pipeline reports each new best through the incumbent; the others only when they stop
+        return new PortfolioSolver(context)
+                .add("Pipeline (double bridge)", (token, incumbent) -> new SolverPipeline(context)
+                        .setConstruction(SolverPipeline.BEST_CONSTRUCTION)
+                        .setImprovement(SolverPipeline.FAST_LOCAL_SEARCH)
+                        .setPerturbation(SolverPipeline.DOUBLE_BRIDGE, Integer.MAX_VALUE)
+                        .setCheckpoint(incumbent.listener("Pipeline (double bridge)"))
+                        .solve(token))
+                .add(new SimulatedAnnealingTSP(context).setTimeLimitMillis(timeLimit))
+                .add(new GuidedLocalSearchTSP(context).setTimeLimitMillis(timeLimit))
+                .add(new AdaptiveMultiStrategyTSP(context))
+                .setTimeLimitMillis(timeLimit);
+    }
+
+    private static void testTargetGap(SolverContext context) {
+        System.out.println("\n--- a280: stop at 3% above the optimum (20 s limit) ---");
+        PortfolioSolver portfolio = a280Portfolio(context, 20_000).setTargetGap(A280_OPTIMUM, 0.03);
+        long start = System.currentTimeMillis();
+        TSPResult result = portfolio.solve();
+        long millis = System.currentTimeMillis() - start;
+        report(context, portfolio, result, millis);
+        System.out.println("Target reached: " + (result.cost <= A280_OPTIMUM * 1.03) + ", stopped early: " + (millis < 20_000));
+    }
+
+    private static void testDeadline(SolverContext context) {
+        System.out.println("\n--- a280: no target, 5 s deadline ---");
+        PortfolioSolver portfolio = a280Portfolio(context, 5_000);
+        long start = System.currentTimeMillis();
+        TSPResult result = portfolio.solve();
+        long millis = System.currentTimeMillis() - start;
+        report(context, portfolio, result, millis);
+        System.out.println("Returned within deadline + 1 s: " + (millis < 6_000));
+    }
+
+    private static void report(SolverContext context, PortfolioSolver portfolio, TSPResult result, long millis) {
+        for (PortfolioSolver.MemberStats stats : portfolio.getStats()) {
+            System.out.println("  " + stats);
+        }
+        System.out.println(String.format("Best %.2f by %s (gap %.2f%%), valid %b, wall %d ms", result.cost,
+                portfolio.getWinner(), 100 * (result.cost / A280_OPTIMUM - 1),
+                isPermutation(result.tour, context.size()), millis));
+    }
+
+    // Held-Karp with and without an upper bound from a local search tour: the costs must agree
+    private static void testPrunedHeldKarp() {
+        System.out.println("\n--- Held-Karp pruned by an incumbent (n = 18) ---");
+        double[][] warmup = new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, 18, 0).setSide(100).toMatrix();
+        new HeldKarp(warmup).solveTSP();
+        new HeldKarp(warmup).setUpperBound(() -> 1e9).solveTSP();
+
+        int mismatches = 0;
+        long plainMillis = 0, prunedMillis = 0;
+        for (int seed = 1; seed <= 5; seed++) {
+            double[][] d = new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, 18, seed).setSide(100).toMatrix();
+            SolverContext context = new SolverContext(d);
+            double bound = new LocalSearchTSP(context).solve().cost;
+
+            long start = System.nanoTime();
+            TSPResult plain = new HeldKarp(d).solveTSP();
+            plainMillis += (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            TSPResult pruned = new HeldKarp(d).setUpperBound(() -> bound).solveTSP();
+            prunedMillis += (System.nanoTime() - start) / 1_000_000;
+
+            // a bound equal to the optimum prunes every optimal path; the fallback tour is then returned
+            boolean agrees = Math.abs(plain.cost - pruned.cost) < 1e-9
+                    || (Math.abs(plain.cost - bound) < 1e-9 && pruned.cost >= bound);
+            if (!agrees) {
+                mismatches++;
+                System.out.println("Mismatch for seed " + seed + ": " + plain.cost + " vs " + pruned.cost);
+            }
+        }
+        System.out.println("Mismatches: " + mismatches + "; plain " + plainMillis + " ms, pruned " + prunedMillis + " ms");
+    }
+
+    private static boolean isPermutation(int[] tour, int n) {
+        if (tour.length != n) return false;
+        boolean[] seen = new boolean[n];
+        for (int city : tour) {
+            if (city < 0 || city >= n || seen[city]) return false;
+            seen[city] = true;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,391 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.*;
+
+// Quality / performance regression suite: a fixed list of solver x instance x seed cases, each
+// run once in its own JVM, recording tour cost, gap to the known optimum (or the BHH estimate for
+// uniform instances), wall time, allocated bytes and peak heap. Results go to a tab-separated file
+// and are compared with a stored baseline; any metric outside its tolerance fails the run with a
+// per-metric diff and exit code 1.
+//
+// Every case is bounded by iterations or moves rather than time, so its cost is reproducible and a
+// cost change means the search itself changed. Wall time and memory depend on the machine: record
+// the baseline on the machine that checks it.
+//
+// Usage (from the testing directory, with instances alongside):
+//   java -Xmx4g RegressionHarness [--filter text] [--baseline regression-baseline.tsv]
+//                                 [--out regression-results.tsv] [--update-baseline] [--no-fork]
+//                                 [--cost-tolerance 0.001] [--time-tolerance 0.5] [--memory-tolerance 0.25]
+public class RegressionHarness {
+    private static final String RESULT_MARKER = "REGRESSION_RESULT ";
+    private static final String HEADER = "case\tcost\tgap\twallMs\tallocatedBytes\tpeakHeapBytes";
+
+    // absolute slack under the relative tolerances, so tiny cases don't fail on timer or GC noise
+    private static final long TIME_SLACK_MILLIS = 200;
+    private static final long MEMORY_SLACK_BYTES = 16L << 20;
+
+    private static double costTolerance = 0.001;
+    private static double timeTolerance = 0.5;
+    private static double memoryTolerance = 0.25;
+
+    public static void main(String[] args) throws Exception {
+        String filter = "";
+        String single = null;
+        String baselinePath = "regression-baseline.tsv";
+        String output = "regression-results.tsv";
+        boolean updateBaseline = false;
+        boolean fork = true;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter": filter = args[++i]; break;
+                case "--baseline": baselinePath = args[++i]; break;
+                case "--out": output = args[++i]; break;
+                case "--update-baseline": updateBaseline = true; break;
+                case "--no-fork": fork = false; break;
+                case "--cost-tolerance": costTolerance = Double.parseDouble(args[++i]); break;
+                case "--time-tolerance": timeTolerance = Double.parseDouble(args[++i]); break;
+                case "--memory-tolerance": memoryTolerance = Double.parseDouble(args[++i]); break;
+                case "--single": single = args[++i]; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        List<Case> cases = createCases();
+
+        // child JVM: run exactly one case and report it on stdout
+        if (single != null) {
+            for (Case c : cases) {
+                if (c.id().equals(single)) {
+                    System.out.println(RESULT_MARKER + measure(c).toLine());
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("Unknown case: " + single);
+        }
+
+        List<Result> results = new ArrayList<>();
+        List<String> failedCases = new ArrayList<>();
+        for (Case c : cases) {
+            if (!c.id().contains(filter)) continue;
+
+            System.out.println("# Case: " + c.id());
+            Result result = fork ? runForked(c) : measure(c);
+            if (result == null) {
+                failedCases.add(c.id());
+                continue;
+            }
+            results.add(result);
+            System.out.println(result.toLine());
+        }
+
+        write(output, results);
+        System.out.println("Results written to " + output);
+
+        if (updateBaseline) {
+            write(baselinePath, results);
+            System.out.println("Baseline written to " + baselinePath);
+            System.exit(failedCases.isEmpty() ? 0 : 1);
+        }
+
+        Map<String, Result> baseline = read(baselinePath);
+        List<String> regressions = compare(baseline, results);
+        for (String id : failedCases) {
+            regressions.add(String.format(Locale.ROOT, "%-34s %-15s did not complete", id, "-"));
+        }
+
+        if (regressions.isEmpty()) {
+            System.out.println("\nNo regressions against " + baselinePath);
+            return;
+        }
+        System.out.println("\n" + regressions.size() + " regression(s) against " + baselinePath + ":");
+        System.out.println(String.format(Locale.ROOT, "%-34s %-15s %16s %16s %9s %9s",
+                "case", "metric", "baseline", "current", "change", "allowed"));
+        for (String line : regressions) {
+            System.out.println(line);
+        }
+        System.exit(1);
+    }
+
+    private static List<Case> createCases() {
+        List<Case> list = new ArrayList<>();
+
+        for (String file : new String[]{"a280.tsp", "xql662.tsp"}) {
+            list.add(new Case("adaptive", file, 0, () -> {
+                SolverContext context = new SolverContext(TSPLIBParser.parseFile(file).distances);
+                return () -> cost(context, new AdaptiveMultiStrategyTSP(context).solve());
+            }));
+
+            list.add(new Case("pipeline-db200", file, 1, () -> {
+                SolverContext context = new SolverContext(TSPLIBParser.parseFile(file).distances);
+                SolverPipeline pipeline = new SolverPipeline(context)
+                        .setConstruction(SolverPipeline.BEST_CONSTRUCTION)
+                        .setImprovement(SolverPipeline.FAST_LOCAL_SEARCH)
+                        .setPerturbation(SolverPipeline.DOUBLE_BRIDGE, 200)
+                        .setSeed(1);
+                return () -> cost(context, pipeline.solve());
+            }));
+
+            list.add(new Case("annealing-2M", file, 1, () -> {
+                SolverContext context = new SolverContext(TSPLIBParser.parseFile(file).distances);
+                SimulatedAnnealingTSP annealing = new SimulatedAnnealingTSP(context)
+                        .setMaxMoves(2_000_000).setTimeLimitMillis(Long.MAX_VALUE / 1_000_000L).setSeed(1);
+                return () -> cost(context, annealing.solve());
+            }));
+        }
+
+        list.add(new Case("ants-30", "a280.tsp", 1, () -> {
+            SolverContext context = new SolverContext(TSPLIBParser.parseFile("a280.tsp").distances);
+            AntColonyTSP colony = new AntColonyTSP(context)
+                    .setMaxIterations(30).setTimeLimitMillis(Long.MAX_VALUE / 2).setThreads(1).setSeed(1);
+            return () -> cost(context, colony.solve());
+        }));
+
+        list.add(new Case("multilevel", "kz9976.tsp", 0, () -> {
+            CoordinateDistance coordinates = TSPLIBParser.parseCoordinates("kz9976.tsp");
+            return () -> cost(coordinates, new MultilevelTSP(coordinates).solve());
+        }));
+
+        list.add(new Case("multilevel+windows12", "kz9976.tsp", 0, () -> {
+            CoordinateDistance coordinates = TSPLIBParser.parseCoordinates("kz9976.tsp");
+            return () -> {
+                int[] tour = new MultilevelTSP(coordinates).solve().tour;
+                tour = new SlidingWindowHeldKarp(coordinates).improve(tour);
+                return cost(coordinates, new TSPResult(tour, coordinates.tourCost(tour)));
+            };
+        }));
+
+        for (InstanceGenerator.Distribution distribution : InstanceGenerator.Distribution.values()) {
+            InstanceGenerator generator = new InstanceGenerator(distribution, 100_000, 42);
+            list.add(new Case("multilevel", generator.getName(), 42, () -> {
+                CoordinateDistance coordinates = generator.toCoordinates();
+                return () -> cost(coordinates, new MultilevelTSP(coordinates).solve());
+            }));
+        }
+
+        return list;
+    }
+
+    // Reference cost for the gap column: known optima for the TSPLIB instances, the
+    // Beardwood-Halton-Hammersley estimate 0.7124 sqrt(n A) for uniform ones; NaN otherwise
+    private static double reference(String instance) {
+        switch (instance) {
+            case "a280.tsp": return 2579;
+            case "xql662.tsp": return 2513;
+            case "kz9976.tsp": return 1061881;
+        }
+        if (instance.startsWith("uniform")) {
+            int n = Integer.parseInt(instance.substring("uniform".length(), instance.indexOf('-')));
+            return 0.7124 * Math.sqrt((double) n * 1_000_000.0 * 1_000_000.0);
+        }
+        return Double.NaN;
+    }
+
+    private static double cost(SolverContext context, TSPResult result) {
+        checkPermutation(result.tour, context.size());
+        return context.tourCost(result.tour);
+    }
+
+    private static double cost(CoordinateDistance coordinates, TSPResult result) {
+        checkPermutation(result.tour, coordinates.size());
+        return coordinates.tourCost(result.tour);
+    }
+
+    private static void checkPermutation(int[] tour, int n) {
+        boolean[] seen = new boolean[n];
+        for (int city : tour) {
+            if (city < 0 || city >= n || seen[city]) {
+                throw new IllegalStateException("Solver returned an invalid tour");
+            }
+            seen[city] = true;
+        }
+        if (tour.length != n) throw new IllegalStateException("Solver returned an incomplete tour");
+    }
+
+    // Re-launch this class for a single case so heap peaks and JIT state are the case's own
+    private static Result runForked(Case c) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(RegressionHarness.class.getName());
+        command.add("--single");
+        command.add(c.id());
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String line = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String l;
+            while ((l = reader.readLine()) != null) {
+                if (l.startsWith(RESULT_MARKER)) {
+                    line = l.substring(RESULT_MARKER.length());
+                }
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || line == null) {
+            System.out.println("Case " + c.id() + " failed (exit code " + exitCode + ")");
+            return null;
+        }
+        return Result.parse(line);
+    }
+
+    private static Result measure(Case c) throws Exception {
+        // solver progress output would otherwise be part of the measurement
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Run run = c.setup.call();
+
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    pool.resetPeakUsage();
+                    heapPools.add(pool);
+                }
+            }
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+
+            double cost = run.call();
+
+            long wallMillis = (System.nanoTime() - start) / 1_000_000;
+            long allocated = allocatedBytes() - allocatedBefore;
+            long peakHeap = 0;
+            for (MemoryPoolMXBean pool : heapPools) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+
+            double reference = reference(c.instance);
+            double gap = (cost - reference) / reference;
+            return new Result(c.id(), cost, gap, wallMillis, allocated, peakHeap);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    // Summed over live threads, so worker pools are counted; threads that exit mid-run are not
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    // One diff line per metric outside its tolerance; cases missing from the baseline are only reported
+    private static List<String> compare(Map<String, Result> baseline, List<Result> results) {
+        List<String> regressions = new ArrayList<>();
+        for (Result current : results) {
+            Result base = baseline.get(current.id);
+            if (base == null) {
+                System.out.println("No baseline for " + current.id + ", not compared");
+                continue;
+            }
+            check(regressions, current.id, "cost", base.cost, current.cost, costTolerance, 1e-6);
+            check(regressions, current.id, "wallMs", base.wallMillis, current.wallMillis, timeTolerance, TIME_SLACK_MILLIS);
+            check(regressions, current.id, "allocatedBytes", base.allocatedBytes, current.allocatedBytes,
+                    memoryTolerance, MEMORY_SLACK_BYTES);
+            check(regressions, current.id, "peakHeapBytes", base.peakHeapBytes, current.peakHeapBytes,
+                    memoryTolerance, MEMORY_SLACK_BYTES);
+        }
+        return regressions;
+    }
+
+    private static void check(List<String> regressions, String id, String metric, double base, double current,
+                              double tolerance, double slack) {
+        if (current <= base * (1 + tolerance) + slack) return;
+        double change = (base != 0) ? (current - base) / base : Double.POSITIVE_INFINITY;
+        regressions.add(String.format(Locale.ROOT, "%-34s %-15s %16.2f %16.2f %+8.1f%% %+8.1f%%",
+                id, metric, base, current, change * 100, tolerance * 100));
+    }
+
+    private static void write(String path, List<Result> results) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
+            writer.println(HEADER);
+            for (Result result : results) {
+                writer.println(result.toLine());
+            }
+        }
+    }
+
+    private static Map<String, Result> read(String path) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#") || line.startsWith("case\t")) continue;
+                Result result = Result.parse(line);
+                results.put(result.id, result);
+            }
+        } catch (FileNotFoundException e) {
+            throw new FileNotFoundException("No baseline at " + path + "; record one with --update-baseline");
+        }
+        return results;
+    }
+
+
+    interface Run {
+        double call() throws Exception;
+    }
+
+    interface Setup {
+        Run call() throws Exception;
+    }
+
+    static class Case {
+        String solver;
+        String instance;
+        long seed;
+        Setup setup;
+
+        Case(String solver, String instance, long seed, Setup setup) {
+            this.solver = solver;
+            this.instance = instance;
+            this.seed = seed;
+            this.setup = setup;
+        }
+
+        String id() {
+            return solver + "@" + instance + "#" + seed;
+        }
+    }
+
+    static class Result {
+        String id;
+        double cost;
+        double gap; // NaN without a reference cost
+        long wallMillis;
+        long allocatedBytes;
+        long peakHeapBytes;
+
+        Result(String id, double cost, double gap, long wallMillis, long allocatedBytes, long peakHeapBytes) {
+            this.id = id;
+            this.cost = cost;
+            this.gap = gap;
+            this.wallMillis = wallMillis;
+            this.allocatedBytes = allocatedBytes;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        String toLine() {
+            return String.format(Locale.ROOT, "%s\t%.4f\t%s\t%d\t%d\t%d", id, cost,
+                    Double.isNaN(gap) ? "-" : String.format(Locale.ROOT, "%.6f", gap),
+                    wallMillis, allocatedBytes, peakHeapBytes);
+        }
+
+        static Result parse(String line) {
+            String[] fields = line.split("\t");
+            if (fields.length != 6) throw new IllegalArgumentException("Malformed result line: " + line);
+            return new Result(fields[0], Double.parseDouble(fields[1]),
+                    fields[2].equals("-") ? Double.NaN : Double.parseDouble(fields[2]),
+                    Long.parseLong(fields[3]), Long.parseLong(fields[4]), Long.parseLong(fields[5]));
+        }
+    }
+}
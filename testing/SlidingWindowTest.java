@@ -0,0 +1,114 @@
+import java.io.*;
+import java.util.*;
+
+// Fixed-endpoint Held-Karp against brute force on small random instances, then sliding-window
+// polishing of kz9976 tours that are already 2-opt/Or-opt optimal, for window sizes 8, 10 and 12.
+// Usage: java -Xmx2g SlidingWindowTest
+public class SlidingWindowTest {
+    public static void main(String[] args) {
+        System.out.println("=== Sliding-window Held-Karp Test ===");
+        testPathAgainstBruteForce();
+
+        try {
+            CoordinateDistance kz = TSPLIBParser.parseCoordinates("kz9976.tsp");
+            testPolish(kz);
+        } catch (IOException e) {
+            System.out.println("kz9976.tsp not found, skipping");
+        }
+    }
+
+    private static void testPathAgainstBruteForce() {
+        System.out.println("\n--- Fixed-endpoint path vs brute force ---");
+        Random random = new Random(5);
+        int mismatches = 0;
+        for (int trial = 0; trial < 200; trial++) {
+            int n = 2 + random.nextInt(8);
+            double[][] d = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    d[i][j] = d[j][i] = 1 + random.nextInt(100);
+                }
+            }
+            TSPResult path = new HeldKarp(d).solvePath();
+            double expected = bruteForce(d);
+            boolean valid = path.tour[0] == 0 && path.tour[n - 1] == n - 1 && isPermutation(path.tour, n)
+                    && Math.abs(pathLength(d, path.tour) - path.cost) < 1e-9;
+            if (!valid || Math.abs(path.cost - expected) > 1e-9) {
+                mismatches++;
+                System.out.println("Mismatch for n=" + n + ": " + path.cost + " vs " + expected);
+            }
+        }
+        System.out.println("200 instances of 2-9 cities, mismatches: " + mismatches);
+    }
+
+    private static void testPolish(CoordinateDistance coordinates) {
+        System.out.println("\n--- kz9976: multilevel + 2-opt/Or-opt, then window polishing ---");
+        int[] start = new MultilevelTSP(coordinates).solve().tour;
+        start = new CoordinateLocalSearch(coordinates, 10).improve(start);
+        double startCost = coordinates.tourCost(start);
+        System.out.println("Local optimum: " + String.format("%.0f", startCost) + " ("
+                + String.format("%.2f%%", (startCost - 1061881.0) / 1061881.0 * 100) + " above optimal)");
+
+        for (int k : new int[]{8, 10, 12}) {
+            SlidingWindowHeldKarp windows = new SlidingWindowHeldKarp(coordinates).setWindowSize(k);
+            long begin = System.currentTimeMillis();
+            int[] polished = windows.improve(start);
+            long time = System.currentTimeMillis() - begin;
+            double cost = coordinates.tourCost(polished);
+
+            // the window moves change the tour's neighborhoods, so local search may find more
+            int[] requenched = new CoordinateLocalSearch(coordinates, 10).improve(polished);
+            System.out.println("k=" + k + ": " + String.format("%.0f", cost) + " (" + windows.getImprovedWindows()
+                    + " windows, gain " + String.format("%.0f", windows.getTotalGain()) + ", " + time + " ms)"
+                    + ", then local search " + String.format("%.0f", coordinates.tourCost(requenched))
+                    + ", valid " + isPermutation(polished, coordinates.size())
+                    + ", gain consistent " + (Math.abs(startCost - cost - windows.getTotalGain()) < 1e-3));
+        }
+    }
+
+    private static double bruteForce(double[][] d) {
+        int n = d.length;
+        if (n == 2) return d[0][1];
+        int[] interior = new int[n - 2];
+        for (int i = 0; i < n - 2; i++) interior[i] = i + 1;
+        return permute(d, interior, 0);
+    }
+
+    private static double permute(double[][] d, int[] interior, int index) {
+        if (index == interior.length) {
+            int[] path = new int[interior.length + 2];
+            System.arraycopy(interior, 0, path, 1, interior.length);
+            path[path.length - 1] = d.length - 1;
+            return pathLength(d, path);
+        }
+        double best = Double.MAX_VALUE;
+        for (int i = index; i < interior.length; i++) {
+            swap(interior, index, i);
+            best = Math.min(best, permute(d, interior, index + 1));
+            swap(interior, index, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    private static double pathLength(double[][] d, int[] path) {
+        double length = 0;
+        for (int i = 0; i + 1 < path.length; i++) length += d[path[i]][path[i + 1]];
+        return length;
+    }
+
+    private static boolean isPermutation(int[] tour, int n) {
+        if (tour.length != n) return false;
+        boolean[] seen = new boolean[n];
+        for (int city : tour) {
+            if (city < 0 || city >= n || seen[city]) return false;
+            seen[city] = true;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,173 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+// Solution cache lookups: a280 and xql662 relabeled, rotated and shifted (exact hits at the cached
+// cost), kz9976 with cities removed and moved (close match used as a warm start, against a cold
+// multilevel solve), a symmetric grid, and LRU eviction with the disk tier behind it.
+// Usage: java -Xmx2g SolutionCacheTest
+public class SolutionCacheTest {
+    public static void main(String[] args) throws IOException {
+        System.out.println("=== Solution Cache Test ===");
+        SolutionCache cache = new SolutionCache(8);
+        for (String file : new String[]{"a280.tsp", "xql662.tsp"}) {
+            try {
+                testTransformed(cache, TSPLIBParser.parseCoordinates(file), file);
+            } catch (IOException e) {
+                System.out.println(file + " not found, skipping");
+            }
+        }
+        testTransformed(cache, new InstanceGenerator(InstanceGenerator.Distribution.GRID, 2500, 1).setJitter(0).toCoordinates(),
+                "grid2500");
+        try {
+            testNearIdentical(TSPLIBParser.parseCoordinates("kz9976.tsp"));
+        } catch (IOException e) {
+            System.out.println("kz9976.tsp not found, skipping");
+        }
+        testEvictionAndDisk();
+    }
+
+    // Exact hit after relabeling, a rotation by 37 degrees and a shift
+    private static void testTransformed(SolutionCache cache, CoordinateDistance coordinates, String name) {
+        System.out.println("\n--- " + name + ": relabeled, rotated and shifted ---");
+        int n = coordinates.size();
+        SolutionCache.Key key = cache.key(coordinates);
+        int[] tour = new CoordinateLocalSearch(coordinates, 10).improve(new MultilevelTSP(coordinates).solve().tour);
+        double cost = coordinates.tourCost(tour);
+        cache.put(key, tour, cost, Double.NaN);
+
+        int[] order = shuffled(n, 7);
+        double angle = Math.toRadians(37);
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        for (int i = 0; i < n; i++) {
+            double x = coordinates.xs()[order[i]];
+            double y = coordinates.ys()[order[i]];
+            xs[i] = x * Math.cos(angle) - y * Math.sin(angle) + 1000;
+            ys[i] = x * Math.sin(angle) + y * Math.cos(angle) - 500;
+        }
+        CoordinateDistance transformed = new CoordinateDistance(xs, ys);
+
+        long start = System.nanoTime();
+        SolutionCache.Key transformedKey = cache.key(transformed);
+        SolutionCache.Match match = cache.lookup(transformedKey);
+        long micros = (System.nanoTime() - start) / 1000;
+        System.out.println("Fingerprints equal: " + (key.fingerprint == transformedKey.fingerprint));
+        if (match == null) {
+            System.out.println("MISS (unexpected)");
+            return;
+        }
+        System.out.println(String.format("%s match, cached %.2f, mapped %.2f, valid %b, lookup %d us",
+                match.isExact() ? "Exact" : "Close", cost, match.cost, isPermutation(match.tour, n), micros));
+    }
+
+    // 2% of kz9976 removed and 1% moved: warm start from the cached tour against a cold solve
+    private static void testNearIdentical(CoordinateDistance kz) {
+        System.out.println("\n--- kz9976: 2% removed, 1% moved ---");
+        SolutionCache cache = new SolutionCache(8);
+        long start = System.currentTimeMillis();
+        int[] tour = new CoordinateLocalSearch(kz, 10).improve(new MultilevelTSP(kz).solve().tour);
+        cache.put(cache.key(kz), tour, kz.tourCost(tour), Double.NaN);
+        System.out.println(String.format("Cached tour %.0f (%d ms)", kz.tourCost(tour), System.currentTimeMillis() - start));
+
+        Random random = new Random(11);
+        List<Integer> kept = new ArrayList<>();
+        for (int i = 0; i < kz.size(); i++) {
+            if (random.nextDouble() >= 0.02) kept.add(i);
+        }
+        double[] xs = new double[kept.size()];
+        double[] ys = new double[kept.size()];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = kz.xs()[kept.get(i)];
+            ys[i] = kz.ys()[kept.get(i)];
+            if (random.nextDouble() < 0.01) {
+                xs[i] += random.nextGaussian() * 2000;
+                ys[i] += random.nextGaussian() * 2000;
+            }
+        }
+        CoordinateDistance variant = new CoordinateDistance(xs, ys);
+
+        start = System.currentTimeMillis();
+        SolutionCache.Match match = cache.lookup(cache.key(variant));
+        if (match == null) {
+            System.out.println("MISS (unexpected)");
+            return;
+        }
+        long lookupMillis = System.currentTimeMillis() - start;
+        int[] warm = new CoordinateLocalSearch(variant, 10).improve(match.tour);
+        long warmMillis = System.currentTimeMillis() - start;
+        System.out.println(String.format("Warm: %s match, similarity %.3f, mapped %.0f -> %.0f, valid %b (%d ms, lookup %d ms)",
+                match.isExact() ? "exact" : "close", match.similarity, match.cost, variant.tourCost(warm),
+                isPermutation(warm, variant.size()), warmMillis, lookupMillis));
+
+        start = System.currentTimeMillis();
+        int[] cold = new CoordinateLocalSearch(variant, 10).improve(new MultilevelTSP(variant).solve().tour);
+        System.out.println(String.format("Cold: multilevel + local search %.0f (%d ms)", variant.tourCost(cold),
+                System.currentTimeMillis() - start));
+    }
+
+    private static void testEvictionAndDisk() throws IOException {
+        System.out.println("\n--- LRU eviction and disk tier ---");
+        Path directory = Files.createTempDirectory("tspc");
+        try {
+            SolutionCache cache = new SolutionCache(2).setDirectory(directory.toString());
+            SolutionCache.Key[] keys = new SolutionCache.Key[3];
+            for (int i = 0; i < 3; i++) {
+                CoordinateDistance coordinates = new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, 200, i).toCoordinates();
+                keys[i] = cache.key(coordinates);
+                int[] tour = new CoordinateLocalSearch(coordinates, 10).improve(shuffled(200, i));
+                cache.put(keys[i], tour, coordinates.tourCost(tour), 0.9 * coordinates.tourCost(tour));
+            }
+            System.out.println("Entries in memory: " + cache.size() + " (capacity 2)");
+
+            SolutionCache memoryOnly = new SolutionCache(2);
+            for (int i = 0; i < 3; i++) {
+                CoordinateDistance coordinates = new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, 200, i).toCoordinates();
+                memoryOnly.put(memoryOnly.key(coordinates), shuffled(200, i), coordinates.tourCost(shuffled(200, i)), Double.NaN);
+            }
+            System.out.println("Oldest entry evicted without disk: " + (memoryOnly.lookup(keys[0]) == null));
+
+            cache.clearMemory();
+            SolutionCache.Match fromDisk = cache.lookup(keys[0]);
+            System.out.println("Oldest entry after clearing memory: " + (fromDisk == null ? "MISS"
+                    : (fromDisk.isExact() ? "exact" : "close") + " hit from disk, lower bound "
+                    + String.format("%.1f", fromDisk.lowerBound)));
+
+            SolutionCache reopened = new SolutionCache(2).setDirectory(directory.toString());
+            int hits = 0;
+            for (SolutionCache.Key key : keys) {
+                SolutionCache.Match match = reopened.lookup(key);
+                if (match != null && match.isExact()) hits++;
+            }
+            System.out.println("Exact hits in a new cache on the same directory: " + hits + " of 3");
+        } finally {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) Files.delete(file);
+            }
+            Files.delete(directory);
+        }
+    }
+
+    private static int[] shuffled(int n, long seed) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = order[i];
+            order[i] = order[j];
+            order[j] = t;
+        }
+        return order;
+    }
+
+    private static boolean isPermutation(int[] tour, int n) {
+        if (tour.length != n) return false;
+        boolean[] seen = new boolean[n];
+        for (int city : tour) {
+            if (city < 0 || city >= n || seen[city]) return false;
+            seen[city] = true;
+        }
+        return true;
+    }
+}
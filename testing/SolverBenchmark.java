@@ -0,0 +1,402 @@
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+// Microbenchmark suite for the parser, MST phases, Held-Karp (single and batched) and one pass of each local search.
+// Each benchmark runs in its own forked JVM with warm-up iterations before measurement; results
+// (time per operation, allocated bytes per operation, GC count/time) are written as JSON in the
+// same layout as JMH's -rf json output.
+//
+// Usage (from the testing directory, with instances alongside):
+//   java -Xmx4g SolverBenchmark [--filter text] [--warmup 3] [--iterations 5] [--time 1000]
+//                               [--no-fork] [--out benchmark-results.json]
+// The kz9976* kernel benchmarks include the SIMD variants only when run with
+//   --add-modules jdk.incubator.vector (and compiled with vector/*.java, see README.md)
+public class SolverBenchmark {
+    private static final String[] INSTANCES = {"a280.tsp", "xql662.tsp", "kz9976.tsp"};
+    private static final int[] HELD_KARP_SIZES = {10, 12, 14, 16, 18, 20, 22};
+    private static final int[] BATCH_HELD_KARP_SIZES = {8, 12, 16};
+    private static final String RESULT_MARKER = "BENCHMARK_RESULT ";
+
+    private static int warmupIterations = 3;
+    private static int measurementIterations = 5;
+    private static long iterationMillis = 1000;
+
+    // results are folded into this field so the JIT cannot drop the measured work
+    private static volatile int sink;
+
+    private static Map<String, TSPLIBParser.TSPInstance> instances = new HashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        String filter = "";
+        String single = null;
+        String output = "benchmark-results.json";
+        boolean fork = true;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter": filter = args[++i]; break;
+                case "--warmup": warmupIterations = Integer.parseInt(args[++i]); break;
+                case "--iterations": measurementIterations = Integer.parseInt(args[++i]); break;
+                case "--time": iterationMillis = Long.parseLong(args[++i]); break;
+                case "--no-fork": fork = false; break;
+                case "--out": output = args[++i]; break;
+                case "--single": single = args[++i]; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        List<Benchmark> benchmarks = createBenchmarks();
+
+        // child JVM: run exactly one benchmark and report it on stdout
+        if (single != null) {
+            for (Benchmark benchmark : benchmarks) {
+                if (benchmark.id().equals(single)) {
+                    System.out.println(RESULT_MARKER + measure(benchmark));
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("Unknown benchmark: " + single);
+        }
+
+        List<String> results = new ArrayList<>();
+        for (Benchmark benchmark : benchmarks) {
+            if (!benchmark.id().contains(filter)) continue;
+
+            System.out.println("# Benchmark: " + benchmark.id());
+            String json = fork ? runForked(benchmark) : measure(benchmark);
+            if (json != null) {
+                results.add(json);
+                System.out.println(json);
+            }
+        }
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(output))) {
+            writer.println("[");
+            for (int i = 0; i < results.size(); i++) {
+                writer.println("    " + results.get(i) + (i < results.size() - 1 ? "," : ""));
+            }
+            writer.println("]");
+        }
+        System.out.println("Results written to " + output);
+    }
+
+    private static List<Benchmark> createBenchmarks() {
+        List<Benchmark> list = new ArrayList<>();
+
+        for (String file : INSTANCES) {
+            list.add(new Benchmark("parseFile", "instance", file, () -> () -> TSPLIBParser.parseFile(file)));
+
+            list.add(new Benchmark("buildMST", "instance", file, () -> {
+                TSP_MST mst = new TSP_MST(load(file).distances);
+                return mst::buildMST;
+            }));
+
+            list.add(new Benchmark("findMinimumMatching", "instance", file, () -> {
+                TSP_MST mst = new TSP_MST(load(file).distances);
+                int[] oddVertices = mst.findOddDegreeVertices(mst.buildMST());
+                return () -> mst.findMinimumMatching(oddVertices);
+            }));
+
+            list.add(new Benchmark("createTSPTour", "instance", file, () -> {
+                TSP_MST mst = new TSP_MST(load(file).distances);
+                int[] parent = mst.buildMST();
+                int[][] matching = mst.findMinimumMatching(mst.findOddDegreeVertices(parent));
+                return () -> mst.createTSPTour(parent, matching);
+            }));
+
+            // one improvement pass of each local search, always from the same MST tour
+            list.add(new Benchmark("localSearchPass", "instance", file, () -> {
+                SolverContext context = new SolverContext(load(file).distances);
+                int[] start = context.getMSTTour();
+                LocalSearchTSP localSearch = new LocalSearchTSP(context);
+                return () -> localSearch.improvementPass(start);
+            }));
+
+            list.add(new Benchmark("adaptivePass", "instance", file, () -> {
+                SolverContext context = new SolverContext(load(file).distances);
+                int[] start = context.getMSTTour();
+                AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(context);
+                return () -> adaptive.improvementPass(start);
+            }));
+
+            list.add(new Benchmark("fastLocalSearchPass", "instance", file, () -> {
+                SolverContext context = new SolverContext(load(file).distances);
+                int[] start = context.getMSTTour();
+                FastLocalSearch fast = new FastLocalSearch(context.getDistances(), context.getNeighborLists(10));
+                return () -> fast.improve(start);
+            }));
+
+            list.add(new Benchmark("annealingMillionMoves", "instance", file, () -> {
+                SolverContext context = new SolverContext(load(file).distances);
+                int[] start = context.getMSTTour();
+                SimulatedAnnealingTSP annealing = new SimulatedAnnealingTSP(context)
+                        .setMaxMoves(1_000_000).setTimeLimitMillis(Long.MAX_VALUE / 1_000_000L).setSeed(42);
+                return () -> annealing.solve(start);
+            }));
+        }
+
+        for (int n : HELD_KARP_SIZES) {
+            list.add(new Benchmark("heldKarp", "n", String.valueOf(n), () -> {
+                double[][] full = load("a280.tsp").distances;
+                double[][] distances = new double[n][n];
+                for (int i = 0; i < n; i++) {
+                    distances[i] = Arrays.copyOf(full[i], n);
+                }
+                HeldKarp hk = new HeldKarp(distances);
+                return hk::solveTSP;
+            }));
+        }
+
+        // 1000 random a280 sub-instances per operation, solved by the lane-batched exact solver
+        for (int n : BATCH_HELD_KARP_SIZES) {
+            list.add(new Benchmark("batchHeldKarp1000", "n", String.valueOf(n), () -> {
+                double[][] full = load("a280.tsp").distances;
+                Random random = new Random(42);
+                double[][][] batch = new double[1000][n][n];
+                for (double[][] distances : batch) {
+                    int[] cities = random.ints(0, full.length).distinct().limit(n).toArray();
+                    for (int i = 0; i < n; i++) {
+                        for (int j = 0; j < n; j++) {
+                            distances[i][j] = full[cities[i]][cities[j]];
+                        }
+                    }
+                }
+                return () -> BatchHeldKarp.solveAll(batch);
+            }));
+        }
+
+        // distance kernels on kz9976, scalar against jdk.incubator.vector when it is available
+        List<DistanceKernels.Kernels> kernels = new ArrayList<>();
+        kernels.add(DistanceKernels.scalar());
+        if (DistanceKernels.vector() != null) kernels.add(DistanceKernels.vector());
+
+        for (DistanceKernels.Kernels k : kernels) {
+            list.add(new Benchmark("kz9976DistanceRows", "kernels", k.getName(), () -> {
+                CoordinateDistance coordinates = new CoordinateDistance(load("kz9976.tsp").coordinates);
+                double[] xs = coordinates.xs();
+                double[] ys = coordinates.ys();
+                double[] row = new double[xs.length];
+                // every row of the matrix, written into one reused buffer
+                return () -> {
+                    for (int i = 0; i < xs.length; i++) {
+                        k.distancesFrom(xs[i], ys[i], xs, ys, row, 0, xs.length);
+                    }
+                    return row;
+                };
+            }));
+
+            list.add(new Benchmark("kz9976Prim", "kernels", k.getName(), () -> {
+                double[][] distances = load("kz9976.tsp").distances;
+                int n = distances.length;
+                return () -> {
+                    int[] parent = new int[n];
+                    double[] key = new double[n];
+                    double[] inTree = new double[n];
+                    Arrays.fill(key, Double.MAX_VALUE);
+                    key[0] = 0.0;
+                    parent[0] = -1;
+                    for (int count = 0; count < n - 1; count++) {
+                        int u = k.argMinSum(key, inTree, n);
+                        inTree[u] = Double.POSITIVE_INFINITY;
+                        k.relax(distances[u], key, inTree, parent, u, n);
+                    }
+                    return parent;
+                };
+            }));
+
+            list.add(new Benchmark("kz9976NearestNeighbor", "kernels", k.getName(), () -> {
+                double[][] distances = load("kz9976.tsp").distances;
+                int n = distances.length;
+                return () -> {
+                    int[] tour = new int[n];
+                    double[] visited = new double[n];
+                    visited[0] = Double.POSITIVE_INFINITY;
+                    for (int i = 1; i < n; i++) {
+                        tour[i] = k.argMinSum(distances[tour[i - 1]], visited, n);
+                        visited[tour[i]] = Double.POSITIVE_INFINITY;
+                    }
+                    return tour;
+                };
+            }));
+
+            list.add(new Benchmark("kz9976TourLength", "kernels", k.getName(), () -> {
+                TSPLIBParser.TSPInstance instance = load("kz9976.tsp");
+                CoordinateDistance coordinates = new CoordinateDistance(instance.coordinates);
+                int[] tour = SolverContext.nearestNeighborTour(instance.distances, 0);
+                return () -> k.tourLength(coordinates.xs(), coordinates.ys(), tour);
+            }));
+        }
+
+        return list;
+    }
+
+    private static TSPLIBParser.TSPInstance load(String file) throws IOException {
+        TSPLIBParser.TSPInstance instance = instances.get(file);
+        if (instance == null) {
+            instance = TSPLIBParser.parseFile(file);
+            instances.put(file, instance);
+        }
+        return instance;
+    }
+
+    // Re-launch this class for a single benchmark so JIT profiles and heap state don't leak between runs
+    private static String runForked(Benchmark benchmark) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(SolverBenchmark.class.getName());
+        command.add("--single");
+        command.add(benchmark.id());
+        command.add("--warmup");
+        command.add(String.valueOf(warmupIterations));
+        command.add("--iterations");
+        command.add(String.valueOf(measurementIterations));
+        command.add("--time");
+        command.add(String.valueOf(iterationMillis));
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String result = null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_MARKER)) {
+                    result = line.substring(RESULT_MARKER.length());
+                }
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (exitCode != 0 || result == null) {
+            System.out.println("Benchmark " + benchmark.id() + " failed (exit code " + exitCode + ")");
+            return null;
+        }
+        return result;
+    }
+
+    private static String measure(Benchmark benchmark) throws Exception {
+        Operation operation = benchmark.setup.call();
+
+        // solver progress output would otherwise be part of the measurement
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                runIteration(operation);
+            }
+
+            System.gc();
+            long gcCountBefore = gcCount();
+            long gcTimeBefore = gcTime();
+            long allocatedBefore = allocatedBytes();
+            long totalOps = 0;
+
+            double[] scores = new double[measurementIterations];
+            for (int i = 0; i < measurementIterations; i++) {
+                long[] iteration = runIteration(operation);
+                scores[i] = iteration[0] / 1e6 / iteration[1]; // ms/op
+                totalOps += iteration[1];
+            }
+
+            double allocatedPerOp = (double) (allocatedBytes() - allocatedBefore) / totalOps;
+            long gcCount = gcCount() - gcCountBefore;
+            long gcTime = gcTime() - gcTimeBefore;
+
+            return toJson(benchmark, scores, allocatedPerOp, gcCount, gcTime);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    // runs the operation until the iteration time is used up; returns {elapsed nanos, operations}
+    private static long[] runIteration(Operation operation) throws Exception {
+        long start = System.nanoTime();
+        long end = start + iterationMillis * 1_000_000L;
+        long ops = 0;
+        long now;
+        do {
+            sink ^= System.identityHashCode(operation.run());
+            ops++;
+            now = System.nanoTime();
+        } while (now < end);
+        return new long[]{now - start, ops};
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static String toJson(Benchmark benchmark, double[] scores, double allocatedPerOp, long gcCount, long gcTime) {
+        double mean = 0;
+        for (double score : scores) mean += score;
+        mean /= scores.length;
+
+        double variance = 0;
+        for (double score : scores) variance += (score - mean) * (score - mean);
+        double stdDev = scores.length > 1 ? Math.sqrt(variance / (scores.length - 1)) : 0;
+        double error = 3.291 * stdDev / Math.sqrt(scores.length); // 99.9% normal interval
+
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < scores.length; i++) {
+            if (i > 0) raw.append(", ");
+            raw.append(String.format(Locale.ROOT, "%.6f", scores[i]));
+        }
+
+        return String.format(Locale.ROOT,
+                "{\"benchmark\": \"%s\", \"mode\": \"avgt\", \"params\": {\"%s\": \"%s\"}, "
+                + "\"warmupIterations\": %d, \"measurementIterations\": %d, \"measurementTime\": \"%d ms\", "
+                + "\"primaryMetric\": {\"score\": %.6f, \"scoreError\": %.6f, \"scoreUnit\": \"ms/op\", \"rawData\": [[%s]]}, "
+                + "\"secondaryMetrics\": {\"gc.alloc.rate.norm\": {\"score\": %.1f, \"scoreUnit\": \"B/op\"}, "
+                + "\"gc.count\": {\"score\": %d, \"scoreUnit\": \"counts\"}, "
+                + "\"gc.time\": {\"score\": %d, \"scoreUnit\": \"ms\"}}}",
+                benchmark.name, benchmark.paramName, benchmark.param, warmupIterations, measurementIterations, iterationMillis,
+                mean, error, raw, allocatedPerOp, gcCount, gcTime);
+    }
+
+
+    interface Operation {
+        Object run() throws Exception;
+    }
+
+    interface Setup {
+        Operation call() throws Exception;
+    }
+
+    static class Benchmark {
+        String name;
+        String paramName;
+        String param;
+        Setup setup;
+
+        Benchmark(String name, String paramName, String param, Setup setup) {
+            this.name = name;
+            this.paramName = paramName;
+            this.param = param;
+            this.setup = setup;
+        }
+
+        String id() {
+            return name + ":" + paramName + "=" + param;
+        }
+    }
+}
@@ -0,0 +1,490 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+// Long-running solver service on localhost: keeps one warm JVM, parses each distinct instance once
+// and reuses its SolverContext (MST tour, neighbor lists) across requests. Best tours are kept in a
+// SolutionCache, so the same cities sent again (relabeled, rotated or shifted) or mostly again warm
+// start every anytime solver from the cached tour instead of a fresh construction (Held-Karp and the
+// auto plan start from scratch and report warmStart "none"). On an exact hit the cached tour is
+// returned whenever the solver does not beat it.
+//
+// Usage (from the testing directory):
+//   java -Xmx4g SolverService [--port 8331] [--threads N] [--queue 64] [--cache 16] [--cache-mb M]
+//                             [--max-cities 20000] [--solutions 64] [--solution-dir DIR]
+// --cache-mb bounds the parsed instances by their estimated matrix size (default: half the heap)
+//
+// Endpoints:
+//   POST /solve?budget=<ms>&solver=<pipeline|ils|annealing|genetic|ants|gls|adaptive|heldkarp|portfolio|auto>
+//        body: TSPLIB text, or a JSON array of [x, y] pairs
+//        -> {"instance": ..., "n": ..., "cached": ..., "warmStart": "exact|close|none", "solver": ...,
+//            "cost": ..., "millis": ..., "tour": [...]}
+//   GET  /stats  -> cache, solution cache and executor counters
+public class SolverService {
+    private static final long DEFAULT_BUDGET_MILLIS = 2000;
+    private static final long MAX_BUDGET_MILLIS = 10 * 60_000;
+    private static final int MAX_BODY_BYTES = 64 * 1024 * 1024;
+    // solvers that createSolver starts from a cached tour
+    private static final Set<String> WARM_STARTED = Set.of("pipeline", "ils", "annealing", "genetic", "ants", "gls",
+            "adaptive", "portfolio");
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor solvers;
+    private final ExecutorService httpThreads;
+    private final InstanceCache cache;
+    private final SolutionCache solutions;
+    private final int maxCities;
+
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public SolverService(int port, int threads, int queueCapacity, int cacheEntries, int maxCities) throws IOException {
+        this(port, threads, queueCapacity, cacheEntries, maxCities, new SolutionCache(4 * cacheEntries));
+    }
+
+    public SolverService(int port, int threads, int queueCapacity, int cacheEntries, int maxCities,
+            SolutionCache solutions) throws IOException {
+        this.cache = new InstanceCache(cacheEntries, Runtime.getRuntime().maxMemory() / 2);
+        this.solutions = solutions;
+        this.maxCities = maxCities;
+
+        // bounded: at most `threads` solves run at once and `queueCapacity` wait; the rest get 503
+        this.solvers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+
+        // request threads only parse and wait on the solve, so they can outnumber the solver threads
+        this.httpThreads = Executors.newFixedThreadPool(threads + queueCapacity);
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.setExecutor(httpThreads);
+        this.server.createContext("/solve", this::handleSolve);
+        this.server.createContext("/stats", this::handleStats);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        solvers.shutdownNow();
+        httpThreads.shutdownNow();
+    }
+
+    // Bound on the estimated bytes of the cached instances; the most recent one is always kept
+    public SolverService setCacheBytes(long maxBytes) {
+        cache.setMaxBytes(maxBytes);
+        return this;
+    }
+
+    // Actual bound port (useful when started with port 0)
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, error("use POST"));
+                return;
+            }
+
+            Map<String, String> query = parseQuery(exchange.getRequestURI());
+            long budget;
+            try {
+                budget = Long.parseLong(query.getOrDefault("budget", String.valueOf(DEFAULT_BUDGET_MILLIS)));
+            } catch (NumberFormatException e) {
+                send(exchange, 400, error("budget must be a number of milliseconds"));
+                return;
+            }
+            budget = Math.max(1, Math.min(budget, MAX_BUDGET_MILLIS));
+            String solverName = query.getOrDefault("solver", "pipeline");
+
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                send(exchange, 413, error("request body larger than " + MAX_BODY_BYTES + " bytes"));
+                return;
+            }
+
+            String key = fingerprint(body);
+            boolean cached = true;
+            SolverContext context = cache.get(key);
+            if (context == null) {
+                cached = false;
+                TSPLIBParser.TSPInstance instance;
+                try {
+                    instance = parseInstance(body);
+                } catch (InstanceTooLargeException e) {
+                    send(exchange, 413, error(e.getMessage()));
+                    return;
+                } catch (IOException | RuntimeException e) {
+                    send(exchange, 400, error("cannot parse instance: " + e.getMessage()));
+                    return;
+                }
+                context = new SolverContext(instance.distances);
+                context = cache.putIfAbsent(key, context);
+            }
+
+            SolutionCache.Key solutionKey = solutions.key(context);
+            SolutionCache.Match match = solutions.lookup(solutionKey);
+            String warmStart = (match == null || !WARM_STARTED.contains(solverName)) ? "none"
+                    : match.isExact() ? "exact" : "close";
+
+            TSPSolver solver = createSolver(solverName, context, budget, (match == null) ? null : match.tour);
+            if (solver == null) {
+                send(exchange, 400, error("unknown solver for this instance: " + solverName));
+                return;
+            }
+
+            CancellationToken token = CancellationToken.withTimeout(budget);
+            Future<TSPResult> future;
+            try {
+                future = solvers.submit(() -> solver.solve(token));
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                send(exchange, 503, error("solver queue is full"));
+                return;
+            }
+
+            long start = System.nanoTime();
+            TSPResult result;
+            try {
+                // queued time counts against the budget too; the slack covers the final local search
+                result = future.get(budget + 5000, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                send(exchange, 504, error("solver did not stop within its budget"));
+                return;
+            } catch (ExecutionException e) {
+                send(exchange, 500, error("solver failed: " + e.getCause()));
+                return;
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000L;
+            solved.incrementAndGet();
+            if (match != null && match.isExact() && match.cost < result.cost) {
+                // the solver could not match the cached tour (or never saw it): answer with the cache
+                result = new TSPResult(match.tour, match.cost);
+            }
+            solutions.put(solutionKey, result.tour, result.cost, context.getMSTWeight());
+
+            StringBuilder json = new StringBuilder();
+            json.append("{\"instance\": \"").append(key, 0, 16).append("\"")
+                .append(", \"n\": ").append(context.size())
+                .append(", \"cached\": ").append(cached)
+                .append(", \"warmStart\": \"").append(warmStart).append("\"")
+                .append(", \"solver\": \"").append(solver.getName()).append("\"")
+                .append(", \"cost\": ").append(result.cost)
+                .append(", \"millis\": ").append(millis)
+                .append(", \"tour\": [");
+            for (int i = 0; i < result.tour.length; i++) {
+                if (i > 0) json.append(", ");
+                json.append(result.tour[i]);
+            }
+            json.append("]}");
+            send(exchange, 200, json.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, error("service is shutting down"));
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        String json = "{\"solved\": " + solved.get()
+                + ", \"rejected\": " + rejected.get()
+                + ", \"active\": " + solvers.getActiveCount()
+                + ", \"queued\": " + solvers.getQueue().size()
+                + ", \"cacheEntries\": " + cache.size()
+                + ", \"cacheBytes\": " + cache.bytes()
+                + ", \"cacheHits\": " + cache.hits.get()
+                + ", \"cacheMisses\": " + cache.misses.get()
+                + ", \"solutionEntries\": " + solutions.size()
+                + ", \"solutionExactHits\": " + solutions.getExactHits()
+                + ", \"solutionCloseHits\": " + solutions.getCloseHits()
+                + ", \"solutionMisses\": " + solutions.getMisses() + "}";
+        send(exchange, 200, json);
+    }
+
+    // The city count is checked before any matrix is built, so an oversized body gets a 413 rather
+    // than an OutOfMemoryError
+    private TSPLIBParser.TSPInstance parseInstance(byte[] body) throws IOException {
+        String text = new String(body, StandardCharsets.UTF_8).trim();
+        List<double[]> pairs = text.startsWith("[") ? parseCoordinateArray(text) : null;
+        int cities = (pairs != null) ? pairs.size() : declaredDimension(text);
+
+        if (cities < 3) {
+            throw new IOException("need at least 3 cities");
+        }
+        if (cities > maxCities) {
+            throw new InstanceTooLargeException(cities + " cities exceeds the limit of " + maxCities);
+        }
+        return (pairs != null) ? TSPLIBParser.fromCoordinates(pairs) : TSPLIBParser.parse(new StringReader(text));
+    }
+
+    // DIMENSION from the TSPLIB header, read before the parser allocates anything for it
+    static int declaredDimension(String text) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new StringReader(text))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.startsWith("DIMENSION")) {
+                    int colon = line.indexOf(':');
+                    try {
+                        return Integer.parseInt(line.substring(colon + 1).trim());
+                    } catch (NumberFormatException e) {
+                        throw new IOException("DIMENSION is not a number: " + line);
+                    }
+                }
+                if (line.equals("NODE_COORD_SECTION")) break;
+            }
+        }
+        throw new IOException("missing DIMENSION");
+    }
+
+    // [[x, y], [x, y], ...] -> list of pairs; only numbers, brackets and commas are expected
+    static List<double[]> parseCoordinateArray(String text) throws IOException {
+        String[] tokens = text.replace('[', ' ').replace(']', ' ').trim().split("\\s*,\\s*|\\s+");
+        if (tokens.length % 2 != 0) {
+            throw new IOException("coordinate array must contain [x, y] pairs");
+        }
+        List<double[]> coordinates = new ArrayList<>(tokens.length / 2);
+        for (int i = 0; i < tokens.length; i += 2) {
+            coordinates.add(new double[]{Double.parseDouble(tokens[i]), Double.parseDouble(tokens[i + 1])});
+        }
+        return coordinates;
+    }
+
+    // initialTour (a cached tour of this instance, or null) warm starts the solvers that take one
+    private static TSPSolver createSolver(String name, SolverContext context, long budget, int[] initialTour) {
+        switch (name) {
+            case "pipeline":
+                // anytime: keep kicking and re-optimizing until the token fires
+                return new SolverPipeline(context)
+                        .setName("Fast local search with double-bridge restarts")
+                        .setConstruction((initialTour != null) ? SolverPipeline.fromTour(initialTour)
+                                : SolverPipeline.BEST_CONSTRUCTION)
+                        .setImprovement(SolverPipeline.FAST_LOCAL_SEARCH)
+                        .setPerturbation(SolverPipeline.DOUBLE_BRIDGE, Integer.MAX_VALUE);
+            case "ils":
+                // localized double-bridge kicks until the token fires
+                IteratedLocalSearch ils = new IteratedLocalSearch(context);
+                return (initialTour != null) ? ils.setInitialTour(initialTour) : ils;
+            case "annealing":
+                SimulatedAnnealingTSP annealing = new SimulatedAnnealingTSP(context).setTimeLimitMillis(budget);
+                return (initialTour != null) ? startingFrom(initialTour, annealing, annealing::solve) : annealing;
+            case "genetic":
+                // one thread per request; concurrency comes from the service executor
+                GeneticTSP genetic = new GeneticTSP(context).setTimeLimitMillis(budget).setThreads(1);
+                return (initialTour != null) ? genetic.setInitialTour(initialTour) : genetic;
+            case "ants":
+                AntColonyTSP ants = new AntColonyTSP(context).setTimeLimitMillis(budget).setThreads(1);
+                return (initialTour != null) ? ants.setInitialTour(initialTour) : ants;
+            case "gls":
+                GuidedLocalSearchTSP gls = new GuidedLocalSearchTSP(context).setTimeLimitMillis(budget);
+                return (initialTour != null) ? startingFrom(initialTour, gls, gls::solve) : gls;
+            case "adaptive":
+                AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(context);
+                return (initialTour != null) ? adaptive.setInitialTour(initialTour) : adaptive;
+            case "heldkarp":
+                // exact DP is only offered where its tables fit the heap and it finishes within the budget
+                return new StrategyPlanner().setTimeBudgetMillis(budget).plan(context.size()).isExactFeasible()
+                        ? new HeldKarp(context) : null;
+            case "auto":
+                return new StrategyPlanner().setTimeBudgetMillis(budget).plan(context.size()).createSolver(context);
+            case "portfolio":
+                // races the anytime solvers for the whole budget; note it uses one thread per member
+                PortfolioSolver portfolio = new PortfolioSolver(context)
+                        .add(createSolver("pipeline", context, budget, initialTour))
+                        .add(createSolver("annealing", context, budget, initialTour))
+                        .add(createSolver("gls", context, budget, initialTour))
+                        .setTimeLimitMillis(budget);
+                if (new StrategyPlanner().setTimeBudgetMillis(budget).plan(context.size()).isExactFeasible()) {
+                    portfolio.add("Held-Karp", (token, incumbent) ->
+                            new HeldKarp(context).setUpperBound(incumbent::getCost).solve(token));
+                }
+                return portfolio;
+            default:
+                return null;
+        }
+    }
+
+    // A solver that takes its start tour only as a solve() argument, run from initialTour
+    private static TSPSolver startingFrom(int[] initialTour, TSPSolver solver,
+                                          BiFunction<int[], CancellationToken, TSPResult> solve) {
+        return new TSPSolver() {
+            public String getName() {
+                return solver.getName();
+            }
+
+            public TSPResult solve(CancellationToken token) {
+                return solve.apply(initialTour, token);
+            }
+        };
+    }
+
+    private static byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            if (out.size() > MAX_BODY_BYTES) return null;
+        }
+        return out.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> query = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) return query;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) query.put(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+        return query;
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) hex.append(String.format("%02x", b));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\": \"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+
+    // Least-recently-used map from body fingerprint to the instance's SolverContext, bounded both by
+    // entry count and by estimated bytes: one entry holds an n x n double matrix, so a few large
+    // instances can fill the heap long before the count limit
+    static class InstanceCache {
+        private final int capacity;
+        private long maxBytes;
+        private long bytes;
+        private final LinkedHashMap<String, SolverContext> entries = new LinkedHashMap<>(16, 0.75f, true);
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+
+        InstanceCache(int capacity, long maxBytes) {
+            this.capacity = capacity;
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized void setMaxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            evict();
+        }
+
+        synchronized SolverContext get(String key) {
+            SolverContext context = entries.get(key);
+            if (context != null) {
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+            }
+            return context;
+        }
+
+        // Two requests may parse the same instance concurrently; the first one stored wins
+        synchronized SolverContext putIfAbsent(String key, SolverContext context) {
+            SolverContext existing = entries.get(key);
+            if (existing != null) return existing;
+            entries.put(key, context);
+            bytes += estimatedBytes(context);
+            evict();
+            return context;
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long bytes() {
+            return bytes;
+        }
+
+        // Least recently used first, keeping at least the newest entry
+        private void evict() {
+            Iterator<SolverContext> eldest = entries.values().iterator();
+            while (entries.size() > 1 && (entries.size() > capacity || bytes > maxBytes)) {
+                bytes -= estimatedBytes(eldest.next());
+                eldest.remove();
+            }
+        }
+
+        // The distance matrix with its row headers; the other artifacts are O(n) or O(kn)
+        static long estimatedBytes(SolverContext context) {
+            long n = context.size();
+            return 8 * n * n + 16 * n;
+        }
+    }
+
+    static class InstanceTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        InstanceTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+
+    public static void main(String[] args) throws IOException {
+        int port = 8331;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queue = 64;
+        int cacheEntries = 16;
+        long cacheMegabytes = Runtime.getRuntime().maxMemory() / 2 >> 20;
+        int maxCities = 20000;
+        int solutionEntries = 64;
+        String solutionDirectory = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--queue": queue = Integer.parseInt(args[++i]); break;
+                case "--cache": cacheEntries = Integer.parseInt(args[++i]); break;
+                case "--cache-mb": cacheMegabytes = Long.parseLong(args[++i]); break;
+                case "--max-cities": maxCities = Integer.parseInt(args[++i]); break;
+                case "--solutions": solutionEntries = Integer.parseInt(args[++i]); break;
+                case "--solution-dir": solutionDirectory = args[++i]; break;
+                default: throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        SolutionCache solutions = new SolutionCache(solutionEntries);
+        if (solutionDirectory != null) solutions.setDirectory(solutionDirectory);
+        SolverService service = new SolverService(port, threads, queue, cacheEntries, maxCities, solutions)
+                .setCacheBytes(cacheMegabytes << 20);
+        Runtime.getRuntime().addShutdownHook(new Thread(service::stop));
+        service.start();
+        System.out.println("Solver service listening on http://localhost:" + service.getPort()
+                + " (" + threads + " solver threads, queue " + queue + ", cache " + cacheEntries + " / "
+                + cacheMegabytes + " MB)");
+    }
+}
@@ -0,0 +1,92 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Localhost smoke test for SolverService: starts it on a free port, sends TSPLIB and coordinate
+// requests (repeated to hit the instance and solution caches, and concurrently to exercise the
+// executor)
+public class SolverServiceTest {
+    public static void main(String[] args) throws Exception {
+        SolverLog.setLevel(SolverLog.Level.OFF);
+        System.out.println("=== instance cache bounded by bytes ===");
+        testCacheBytes();
+
+        SolverService service = new SolverService(0, 2, 4, 4, 20000);
+        service.start();
+        String base = "http://localhost:" + service.getPort();
+        HttpClient client = HttpClient.newHttpClient();
+
+        try {
+            String a280 = new String(Files.readAllBytes(Paths.get("a280.tsp")));
+
+            System.out.println("=== a280, first request (parsed) ===");
+            System.out.println(summary(post(client, base + "/solve?budget=1000", a280)));
+
+            System.out.println("=== a280, second request (cached) ===");
+            System.out.println(summary(post(client, base + "/solve?budget=1000&solver=annealing", a280)));
+
+            System.out.println("=== a280 warm-started by the other solvers (never worse than the cache) ===");
+            for (String solver : new String[]{"gls", "genetic", "ants", "auto"}) {
+                System.out.println(summary(post(client, base + "/solve?budget=500&solver=" + solver, a280)));
+            }
+
+            System.out.println("=== 4-city coordinate array, Held-Karp ===");
+            System.out.println(post(client, base + "/solve?solver=heldkarp", "[[0, 0], [0, 3], [4, 3], [4, 0]]"));
+
+            System.out.println("=== the same 4 cities shifted and listed in another order (solution cache) ===");
+            System.out.println(post(client, base + "/solve?budget=200", "[[14, 13], [10, 10], [14, 10], [10, 13]]"));
+
+            System.out.println("=== 6 concurrent requests on 2 solver threads ===");
+            List<CompletableFuture<HttpResponse<String>>> pending = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/solve?budget=500"))
+                        .POST(HttpRequest.BodyPublishers.ofString(a280)).build();
+                pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+            }
+            for (CompletableFuture<HttpResponse<String>> response : pending) {
+                HttpResponse<String> r = response.get();
+                System.out.println(r.statusCode() + " " + summary(r.body()));
+            }
+
+            System.out.println("=== malformed request ===");
+            System.out.println(post(client, base + "/solve", "[[1, 2], [3]]"));
+
+            System.out.println("=== DIMENSION over the limit (rejected before any matrix is built) ===");
+            System.out.println(post(client, base + "/solve", "NAME: huge\nDIMENSION: 100000000\nNODE_COORD_SECTION\n1 0 0\n"));
+
+            System.out.println("=== stats ===");
+            HttpRequest stats = HttpRequest.newBuilder(URI.create(base + "/stats")).GET().build();
+            System.out.println(client.send(stats, HttpResponse.BodyHandlers.ofString()).body());
+        } finally {
+            service.stop();
+        }
+    }
+
+    // Three 1000-city instances (8 MB of matrix each) in a 20 MB cache with room for 16 entries
+    private static void testCacheBytes() {
+        SolverService.InstanceCache cache = new SolverService.InstanceCache(16, 20L << 20);
+        for (int seed = 0; seed < 3; seed++) {
+            double[][] d = new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, 1000, seed).toMatrix();
+            cache.putIfAbsent("instance " + seed, new SolverContext(d));
+        }
+        System.out.println("Entries kept: " + cache.size() + ", estimated " + (cache.bytes() >> 20) + " MB");
+    }
+
+    private static String post(HttpClient client, String url, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+    }
+
+    // response without the tour array
+    private static String summary(String json) {
+        int tour = json.indexOf(", \"tour\"");
+        return tour < 0 ? json : json.substring(0, tour) + "}";
+    }
+}
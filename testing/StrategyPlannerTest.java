@@ -0,0 +1,88 @@
+import java.io.*;
+
+// Planner estimates against measured times (Held-Karp for n = 14..20, matrix construction and
+// local search for n = 2000 and 4000), then the planned strategy on the TSPLIB instances with
+// coordinates only. Run with a small heap: kz9976's 760 MB matrix must not be attempted.
+// Usage: java -Xmx512m StrategyPlannerTest
+public class StrategyPlannerTest {
+    private static final String[] INSTANCES = {"a280.tsp", "xql662.tsp", "kz9976.tsp"};
+    private static final double[] OPTIMA = {2579, 2513, 1061881};
+
+    public static void main(String[] args) {
+        System.out.println("=== Strategy Planner Test ===");
+        System.out.println("Free heap: " + (StrategyPlanner.freeHeapBytes() >> 20) + " MB");
+        testHeldKarpEstimates();
+        testPipelineEstimates();
+        testPlannedSolves();
+    }
+
+    private static void testHeldKarpEstimates() {
+        System.out.println("\n--- Held-Karp: estimated vs measured ---");
+        new HeldKarp(new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, 14, 0).toMatrix()).solveTSP(); // warm up
+        for (int n = 14; n <= 20; n += 2) {
+            double[][] d = new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, n, n).toMatrix();
+            StrategyPlanner.Plan plan = new StrategyPlanner().setTimeBudgetMillis(60_000).plan(n);
+            StrategyPlanner.Estimate estimate = plan.getEstimate("Held-Karp");
+            if (!estimate.fitsMemory) {
+                System.out.println("n=" + n + ": " + estimate);
+                continue;
+            }
+            long start = System.nanoTime();
+            new HeldKarp(d).solveTSP();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println(String.format("n=%d: estimated %.0f ms, measured %d ms, plan %s", n, estimate.millis, millis,
+                    plan.getStrategy()));
+        }
+    }
+
+    private static void testPipelineEstimates() {
+        System.out.println("\n--- Matrix strategy stages: estimated vs measured ---");
+        for (int n : new int[]{2000, 4000}) {
+            InstanceGenerator generator = new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, n, 1);
+            StrategyPlanner.Plan plan = new StrategyPlanner().setMetric(StrategyPlanner.Metric.COORDINATES).plan(n);
+            CoordinateDistance coordinates = generator.toCoordinates();
+
+            long start = System.nanoTime();
+            SolverContext context = new SolverContext(MatrixDistance.fromCoordinates(coordinates.xs(), coordinates.ys()));
+            long matrixMillis = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            int[] tour = SolverPipeline.BEST_CONSTRUCTION.construct(context);
+            long constructionMillis = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            SolverPipeline.FAST_LOCAL_SEARCH.improve(context, tour, CancellationToken.none());
+            long improvementMillis = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.println(String.format("n=%d: matrix %.0f/%d ms, MST + nearest neighbor %.0f/%d ms, 2-opt/Or-opt %.0f/%d ms"
+                    + " (estimated/measured)", n,
+                    plan.getEstimate("Distance matrix").millis, matrixMillis,
+                    plan.getEstimate("MST + nearest neighbor").millis, constructionMillis,
+                    plan.getEstimate("2-opt/Or-opt").millis, improvementMillis));
+        }
+    }
+
+    private static void testPlannedSolves() {
+        for (int i = 0; i < INSTANCES.length; i++) {
+            System.out.println("\n--- Planned solve: " + INSTANCES[i] + " ---");
+            CoordinateDistance coordinates;
+            try {
+                coordinates = TSPLIBParser.parseCoordinates(INSTANCES[i]);
+            } catch (IOException e) {
+                System.out.println(INSTANCES[i] + " not found, skipping");
+                continue;
+            }
+            StrategyPlanner.Plan plan = new StrategyPlanner()
+                    .setMetric(StrategyPlanner.Metric.COORDINATES)
+                    .setTimeBudgetMillis(5_000)
+                    .plan(coordinates.size());
+            System.out.print(plan);
+
+            long start = System.currentTimeMillis();
+            TSPSolver solver = plan.createSolver(coordinates);
+            TSPResult result = solver.solve(CancellationToken.withTimeout(plan.timeBudgetMillis));
+            long millis = System.currentTimeMillis() - start;
+            double cost = coordinates.tourCost(result.tour);
+            System.out.println(String.format("%s: cost %.0f (gap %.2f%%), %d ms", solver.getName(), cost,
+                    100 * (cost / OPTIMA[i] - 1), millis));
+        }
+    }
+}
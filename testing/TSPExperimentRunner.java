@@ -16,13 +16,13 @@ public class TSPExperimentRunner {
         
         for (int n : cityCounts) {
             System.out.println("\n=== Testing " + n + " cities ===");
-            double[][] distances = generateRandomDistanceMatrix(n);
+            SolverContext context = new SolverContext(new InstanceGenerator(InstanceGenerator.Distribution.UNIFORM, n, n).setSide(20).toMatrix());
             
-            // Test all 4 algorithms
-            testMSTApproximation(distances);
-            testHeldKarp(distances);
-            testLocalSearch(distances);
-            testAdaptiveMultiStrategy(distances);
+            // Test all 4 algorithms (they share the context's cached MST tour)
+            testMSTApproximation(context);
+            testHeldKarp(context);
+            testLocalSearch(context);
+            testAdaptiveMultiStrategy(context);
             
             System.out.println("--- " + n + " cities complete ---");
         }
@@ -30,35 +30,12 @@ public class TSPExperimentRunner {
         System.out.println("\n=== All Small-Scale Experiments Complete ===");
     }
 
-    
-    private static double[][] generateRandomDistanceMatrix(int n) {
-        double[][] distances = new double[n][n];
-        
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                if (i == j) {
-                    distances[i][j] = 0;
-                } else if (i < j) {
-                    // Generate random distance between 1 and 20
-                    distances[i][j] = 1 + Math.random() * 19;
-                    distances[j][i] = distances[i][j]; // Symmetric
-                }
-            }
-        }
-        
-        return distances;
-    }
-    
-    private static void testMSTApproximation(double[][] distances) {
+    private static void testMSTApproximation(SolverContext context) {
         System.out.println("\n--- MST 2-Approximation ---");
         long startTime = System.currentTimeMillis();
         
-        TSP_MST mst = new TSP_MST(distances);
-        int[] parent = mst.buildMST();
-        int[] oddVertices = mst.findOddDegreeVertices(parent);
-        int[][] matching = mst.findMinimumMatching(oddVertices);
-        int[] tour = mst.createTSPTour(parent, matching);
-        double cost = mst.calculateTourCost(tour);
+        int[] tour = context.getMSTTour();
+        double cost = context.tourCost(tour);
         
         long endTime = System.currentTimeMillis();
         
@@ -66,35 +43,32 @@ public class TSPExperimentRunner {
         System.out.println("Runtime: " + (endTime - startTime) + " ms");
     }
     
-    private static void testHeldKarp(double[][] distances) {
+    private static void testHeldKarp(SolverContext context) {
         System.out.println("\n--- Held-Karp Dynamic Programming ---");
         
-        if (distances.length > 22) {
-            System.out.println("Skipped: Problem size too large for available memory");
-            System.out.println("Held-Karp requires O(n*2^n) space - not feasible for n > 22");
+        // the planner checks the O(n 2^n) tables against the free heap before anything is allocated
+        StrategyPlanner.Plan plan = new StrategyPlanner().setTimeBudgetMillis(60_000).plan(context.size());
+        if (!plan.isExactFeasible()) {
+            System.out.println("Skipped: " + plan.getEstimate("Held-Karp"));
             return;
         }
-        
-        try {
-            long startTime = System.currentTimeMillis();
-            HeldKarp hk = new HeldKarp(distances);
-            HeldKarp.TSPResult result = hk.solveTSP();
-            long endTime = System.currentTimeMillis();
-            
-            System.out.println("Optimal cost: " + result.cost);
-            System.out.println("Runtime: " + (endTime - startTime) + " ms");
-        } catch (OutOfMemoryError e) {
-            System.out.println("Skipped: Out of memory (problem size too large)");
-        }
+
+        long startTime = System.currentTimeMillis();
+        HeldKarp hk = new HeldKarp(context);
+        TSPResult result = hk.solveTSP();
+        long endTime = System.currentTimeMillis();
+
+        System.out.println("Optimal cost: " + result.cost);
+        System.out.println("Runtime: " + (endTime - startTime) + " ms");
     }
 
     
-    private static void testAdaptiveMultiStrategy(double[][] distances) {
+    private static void testAdaptiveMultiStrategy(SolverContext context) {
         System.out.println("\n--- Adaptive Multi-Strategy ---");
         long startTime = System.currentTimeMillis();
         
-        AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(distances);
-        AdaptiveMultiStrategyTSP.TSPResult result = adaptive.solve();
+        AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(context);
+        TSPResult result = adaptive.solve();
         
         long endTime = System.currentTimeMillis();
         
@@ -102,20 +76,14 @@ public class TSPExperimentRunner {
         System.out.println("Runtime: " + (endTime - startTime) + " ms");
     }
 
-    private static void testLocalSearch(double[][] distances) {
+    private static void testLocalSearch(SolverContext context) {
         System.out.println("\n--- Local Search (from MST initialization) ---");
         
-        // Get MST tour as starting point
-        TSP_MST mst = new TSP_MST(distances);
-        int[] parent = mst.buildMST();
-        int[] oddVertices = mst.findOddDegreeVertices(parent);
-        int[][] matching = mst.findMinimumMatching(oddVertices);
-        int[] mstTour = mst.createTSPTour(parent, matching);
-        
         long startTime = System.currentTimeMillis();
         
-        LocalSearchTSP localSearch = new LocalSearchTSP(distances);
-        LocalSearchTSP.TSPResult result = localSearch.solveWithLocalSearch(mstTour);
+        // starts from the MST tour already cached in the context
+        LocalSearchTSP localSearch = new LocalSearchTSP(context);
+        TSPResult result = localSearch.solve();
         
         long endTime = System.currentTimeMillis();
         
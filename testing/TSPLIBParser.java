@@ -4,12 +4,52 @@ import java.util.*;
 public class TSPLIBParser {
     
     public static TSPInstance parseFile(String filename) throws IOException {
-        BufferedReader reader = new BufferedReader(new FileReader(filename));
+        return parseFile(filename, false);
+    }
+
+    // integerWeights: build TSPLIB nint weights instead of the double matrix (distances stays null)
+    public static TSPInstance parseFile(String filename, boolean integerWeights) throws IOException {
+        try (Reader reader = new FileReader(filename)) {
+            return parse(reader, integerWeights);
+        }
+    }
+
+    // Coordinates only, no matrix of any kind: for instances solved with CoordinateDistance
+    public static CoordinateDistance parseCoordinates(String filename) throws IOException {
+        try (Reader reader = new FileReader(filename)) {
+            return readCoordinates(new BufferedReader(reader));
+        }
+    }
+
+    // Parse TSPLIB text from any source (file, HTTP request body, string); the caller closes the reader
+    public static TSPInstance parse(Reader source) throws IOException {
+        return parse(source, false);
+    }
+
+    public static TSPInstance parse(Reader source, boolean integerWeights) throws IOException {
+        CoordinateDistance coords = readCoordinates(new BufferedReader(source));
+        int dimension = coords.size();
+        List<double[]> coordinates = new ArrayList<>(dimension);
+        for (int i = 0; i < dimension; i++) {
+            coordinates.add(new double[]{coords.xs()[i], coords.ys()[i]});
+        }
+        
+        if (integerWeights) {
+            TSPInstance instance = new TSPInstance(dimension, null, coordinates);
+            instance.weights = IntMatrixDistance.fromCoordinates(coords.xs(), coords.ys());
+            return instance;
+        }
+        
+        // Every weight type is treated as Euclidean (EUC_2D)
+        double[][] distances = MatrixDistance.fromCoordinates(coords.xs(), coords.ys());
+        
+        return new TSPInstance(dimension, distances, coordinates);
+    }
+
+    private static CoordinateDistance readCoordinates(BufferedReader reader) throws IOException {
         String line;
         
         int dimension = 0;
-        String edgeWeightType = "";
-        List<double[]> coordinates = new ArrayList<>();
         
         // Parse header
         while ((line = reader.readLine()) != null) {
@@ -17,63 +57,38 @@ public class TSPLIBParser {
             
             if (line.startsWith("DIMENSION")) {
                 dimension = Integer.parseInt(line.split(":")[1].trim());
-            } else if (line.startsWith("EDGE_WEIGHT_TYPE")) {
-                edgeWeightType = line.split(":")[1].trim();
             } else if (line.equals("NODE_COORD_SECTION")) {
                 break;
             }
         }
         
-        // Parse coordinates
+        // Parse coordinates straight into primitive arrays
+        double[] xs = new double[dimension];
+        double[] ys = new double[dimension];
         for (int i = 0; i < dimension; i++) {
-            line = reader.readLine().trim();
-            String[] parts = line.split("\\s+");
-            double x = Double.parseDouble(parts[1]);
-            double y = Double.parseDouble(parts[2]);
-            coordinates.add(new double[]{x, y});
-        }
-        
-        reader.close();
-        
-        // Calculate distance matrix
-        double[][] distances = calculateDistanceMatrix(coordinates, edgeWeightType);
-        
-        return new TSPInstance(dimension, distances, coordinates);
-    }
-    
-    private static double[][] calculateDistanceMatrix(List<double[]> coords, String weightType) {
-        int n = coords.size();
-        double[][] distances = new double[n][n];
-        
-        for (int i = 0; i < n; i++) {
-            for (int j = 0; j < n; j++) {
-                if (i == j) {
-                    distances[i][j] = 0;
-                } else {
-                    distances[i][j] = calculateDistance(coords.get(i), coords.get(j), weightType);
-                }
+            line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Expected " + dimension + " coordinates, found " + i);
             }
+            String[] parts = line.trim().split("\\s+");
+            xs[i] = Double.parseDouble(parts[1]);
+            ys[i] = Double.parseDouble(parts[2]);
         }
-        
-        return distances;
+        return new CoordinateDistance(xs, ys);
     }
-    
-    private static double calculateDistance(double[] coord1, double[] coord2, String weightType) {
-        double dx = coord1[0] - coord2[0];
-        double dy = coord1[1] - coord2[1];
-        
-        if (weightType.equals("EUC_2D")) {
-            return Math.sqrt(dx * dx + dy * dy);
-        } else {
-            // Default Euclidean distance
-            return Math.sqrt(dx * dx + dy * dy);
-        }
+
+    // Instance from plain (x, y) pairs with Euclidean distances
+    public static TSPInstance fromCoordinates(List<double[]> coordinates) {
+        CoordinateDistance coords = new CoordinateDistance(coordinates);
+        double[][] distances = MatrixDistance.fromCoordinates(coords.xs(), coords.ys());
+        return new TSPInstance(coordinates.size(), distances, coordinates);
     }
     
     public static class TSPInstance {
         public int dimension;
         public double[][] distances;
         public List<double[]> coordinates;
+        public int[][] weights; // TSPLIB integer weights, only when requested
         
         public TSPInstance(int dimension, double[][] distances, List<double[]> coordinates) {
             this.dimension = dimension;
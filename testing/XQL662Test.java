@@ -12,7 +12,7 @@ public class XQL662Test {
             System.out.println("Successfully loaded XQL662: " + instance.dimension + " cities");
             
             // Test algorithms with timeout protection
-            testOnXQL662(instance.distances);
+            testOnXQL662(new SolverContext(instance.distances));
             
         } catch (IOException e) {
             System.out.println("Error reading xql662.tsp: " + e.getMessage());
@@ -20,7 +20,7 @@ public class XQL662Test {
         }
     }
     
-    private static void testOnXQL662(double[][] distances) {
+    private static void testOnXQL662(SolverContext context) {
         System.out.println("\n--- Testing Algorithms on XQL662 (662 cities) ---");
         
         // MST 2-Approximation
@@ -28,22 +28,20 @@ public class XQL662Test {
         long startTime = System.currentTimeMillis();
         
         try {
-            TSP_MST mst = new TSP_MST(distances);
-            int[] parent = mst.buildMST();
-            int[] oddVertices = mst.findOddDegreeVertices(parent);
-            int[][] matching = mst.findMinimumMatching(oddVertices);
-            int[] mstTour = mst.createTSPTour(parent, matching);
-            double mstCost = mst.calculateTourCost(mstTour);
+            int[] mstTour = context.getMSTTour();
+            double mstCost = context.tourCost(mstTour);
             
             long mstTime = System.currentTimeMillis() - startTime;
             System.out.println("MST Cost: " + mstCost);
             System.out.println("MST Runtime: " + mstTime + " ms");
             
             // Test Local Search (with timeout)
-            testLocalSearchXQL662(distances, mstTour, mstCost);
+            testLocalSearchXQL662(context, mstTour, mstCost);
             
             // Test Adaptive (with timeout)
-            testAdaptiveXQL662(distances, mstCost);
+            testAdaptiveXQL662(context, mstCost);
+            
+            testIntegerModeXQL662(context, mstTour);
             
         } catch (Exception e) {
             System.out.println("Error during MST computation: " + e.getMessage());
@@ -55,14 +53,14 @@ public class XQL662Test {
         System.out.println("Estimated memory needed: ~2^662 * 662^2 (astronomically impossible)");
     }
     
-    private static void testLocalSearchXQL662(double[][] distances, int[] mstTour, double mstCost) {
+    private static void testLocalSearchXQL662(SolverContext context, int[] mstTour, double mstCost) {
         System.out.println("\n3. Local Search (from MST initialization):");
         
         try {
             long startTime = System.currentTimeMillis();
             
-            LocalSearchTSP localSearch = new LocalSearchTSP(distances);
-            LocalSearchTSP.TSPResult localResult = localSearch.solveWithLocalSearch(mstTour);
+            LocalSearchTSP localSearch = new LocalSearchTSP(context);
+            TSPResult localResult = localSearch.solveWithLocalSearch(mstTour);
             
             long localTime = System.currentTimeMillis() - startTime;
             System.out.println("Local Search Cost: " + localResult.cost);
@@ -81,14 +79,14 @@ public class XQL662Test {
         }
     }
     
-    private static void testAdaptiveXQL662(double[][] distances, double mstCost) {
+    private static void testAdaptiveXQL662(SolverContext context, double mstCost) {
         System.out.println("\n4. Adaptive Multi-Strategy:");
         
         try {
             long startTime = System.currentTimeMillis();
             
-            AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(distances);
-            AdaptiveMultiStrategyTSP.TSPResult adaptiveResult = adaptive.solve();
+            AdaptiveMultiStrategyTSP adaptive = new AdaptiveMultiStrategyTSP(context);
+            TSPResult adaptiveResult = adaptive.solve();
             
             long adaptiveTime = System.currentTimeMillis() - startTime;
             System.out.println("Adaptive Cost: " + adaptiveResult.cost);
@@ -106,4 +104,19 @@ public class XQL662Test {
             System.out.println("Adaptive algorithm failed: " + e.getMessage());
         }
     }
+    
+    // The known optimum (2513) is defined on rounded TSPLIB weights, so integer mode gives an exact gap
+    private static void testIntegerModeXQL662(SolverContext context, int[] mstTour) {
+        System.out.println("\n5. Integer (TSPLIB nint) 2-opt/Or-opt:");
+        
+        int[][] weights = context.getIntegerWeights();
+        long startTime = System.currentTimeMillis();
+        int[] tour = new IntFastLocalSearch(weights, context.getNeighborLists(10)).improve(mstTour);
+        long time = System.currentTimeMillis() - startTime;
+        
+        long cost = IntMatrixDistance.tourCost(weights, tour);
+        System.out.println("Integer Cost: " + cost + " (MST: " + IntMatrixDistance.tourCost(weights, mstTour) + ")");
+        System.out.println("Integer Runtime: " + time + " ms");
+        System.out.println("Gap from optimal: " + (cost - 2513) + " (" + String.format("%.1f%%", (cost - 2513) * 100.0 / 2513) + ")");
+    }
 }
@@ -0,0 +1,122 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD versions of the DistanceKernels loops. Kept out of algorithms/ because it needs
+// --add-modules jdk.incubator.vector to compile and run (see README.md); DistanceKernels loads it
+// reflectively and falls back to scalar code when it is not on the class path.
+public class VectorKernels implements DistanceKernels.Kernels {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final int BLOCK = 1024; // tour edges staged per block in tourLength
+
+    // lane offsets 0, 1, 2, ... for index tracking in argMinSum
+    private static final DoubleVector IOTA = DoubleVector.broadcast(SPECIES, 0).addIndex(1);
+
+    public String getName() {
+        return "vector" + SPECIES.vectorBitSize();
+    }
+
+    public void distancesFrom(double px, double py, double[] xs, double[] ys, double[] out, int from, int to) {
+        DoubleVector x0 = DoubleVector.broadcast(SPECIES, px);
+        DoubleVector y0 = DoubleVector.broadcast(SPECIES, py);
+        int j = from;
+        for (int bound = from + SPECIES.loopBound(to - from); j < bound; j += LANES) {
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, xs, j).sub(x0);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, ys, j).sub(y0);
+            dx.mul(dx).add(dy.mul(dy)).lanewise(VectorOperators.SQRT).intoArray(out, j);
+        }
+        for (; j < to; j++) {
+            double dx = xs[j] - px;
+            double dy = ys[j] - py;
+            out[j] = Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    // Per-lane running minimum and its index, then a reduction across lanes that prefers the lowest index
+    public int argMinSum(double[] a, double[] b, int n) {
+        DoubleVector min = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        DoubleVector index = DoubleVector.broadcast(SPECIES, -1);
+        int j = 0;
+        for (int bound = SPECIES.loopBound(n); j < bound; j += LANES) {
+            DoubleVector v = DoubleVector.fromArray(SPECIES, a, j).add(DoubleVector.fromArray(SPECIES, b, j));
+            VectorMask<Double> smaller = v.compare(VectorOperators.LT, min);
+            min = min.blend(v, smaller);
+            index = index.blend(IOTA.add(j), smaller);
+        }
+
+        double[] mins = min.toArray();
+        double[] indices = index.toArray();
+        double bestValue = Double.POSITIVE_INFINITY;
+        int best = -1;
+        for (int lane = 0; lane < LANES; lane++) {
+            if (mins[lane] < bestValue || (mins[lane] == bestValue && indices[lane] >= 0 && indices[lane] < best)) {
+                bestValue = mins[lane];
+                best = (int) indices[lane];
+            }
+        }
+        for (; j < n; j++) {
+            double v = a[j] + b[j];
+            if (v < bestValue) {
+                bestValue = v;
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    public void relax(double[] row, double[] key, double[] excluded, int[] parent, int u, int n) {
+        int v = 0;
+        for (int bound = SPECIES.loopBound(n); v < bound; v += LANES) {
+            DoubleVector d = DoubleVector.fromArray(SPECIES, row, v);
+            DoubleVector k = DoubleVector.fromArray(SPECIES, key, v);
+            VectorMask<Double> closer = d.compare(VectorOperators.LT, k)
+                    .and(DoubleVector.fromArray(SPECIES, excluded, v).compare(VectorOperators.EQ, 0));
+            if (closer.anyTrue()) {
+                k.blend(d, closer).intoArray(key, v);
+                // parents are ints, so they are written per lane; updates get rare as the tree grows
+                for (int lane = 0; lane < LANES; lane++) {
+                    if (closer.laneIsSet(lane)) parent[v + lane] = u;
+                }
+            }
+        }
+        for (; v < n; v++) {
+            if (row[v] < key[v] && excluded[v] == 0) {
+                key[v] = row[v];
+                parent[v] = u;
+            }
+        }
+    }
+
+    // Copies the coordinates of BLOCK consecutive tour cities into contiguous arrays with plain
+    // scalar loads, then sums the edges with unit-stride vector loads. The indexed gather
+    // (fromArray with an index map) crashes the JDK 17 JIT on AVX-512 hardware, so it is not used.
+    public double tourLength(double[] xs, double[] ys, int[] tour) {
+        int n = tour.length;
+        double[] bx = new double[Math.min(n, BLOCK) + 1];
+        double[] by = new double[bx.length];
+        DoubleVector sum = DoubleVector.zero(SPECIES);
+        double length = 0;
+        for (int start = 0; start < n; start += BLOCK) {
+            int edges = Math.min(BLOCK, n - start);
+            for (int k = 0; k <= edges; k++) {
+                int city = tour[start + k < n ? start + k : 0];
+                bx[k] = xs[city];
+                by[k] = ys[city];
+            }
+            int k = 0;
+            for (int bound = SPECIES.loopBound(edges); k < bound; k += LANES) {
+                DoubleVector dx = DoubleVector.fromArray(SPECIES, bx, k).sub(DoubleVector.fromArray(SPECIES, bx, k + 1));
+                DoubleVector dy = DoubleVector.fromArray(SPECIES, by, k).sub(DoubleVector.fromArray(SPECIES, by, k + 1));
+                sum = sum.add(dx.mul(dx).add(dy.mul(dy)).lanewise(VectorOperators.SQRT));
+            }
+            for (; k < edges; k++) {
+                double dx = bx[k] - bx[k + 1];
+                double dy = by[k] - by[k + 1];
+                length += Math.sqrt(dx * dx + dy * dy);
+            }
+        }
+        return length + sum.reduceLanes(VectorOperators.ADD);
+    }
+}